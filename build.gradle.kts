@@ -4,6 +4,9 @@ object Constants {
     const val FABRIC_LOADER_VERSION: String = "0.15.11"
     const val FABRIC_API_VERSION: String = "0.98.0+1.20.6"
 
+    // https://junit.org/junit5/
+    const val JUNIT_VERSION: String = "5.10.2"
+
     // https://semver.org/
     const val MOD_VERSION: String = "0.6.0"
 }
@@ -59,13 +62,19 @@ sourceSets {
             runtimeClasspath += api.output
         }
     }
+
+    getByName("test").apply {
+        java {
+            compileClasspath += api.output
+            runtimeClasspath += api.output
+        }
+    }
 }
 
 dependencies {
     minecraft(group = "com.mojang", name = "minecraft", version = Constants.MINECRAFT_VERSION)
     mappings(loom.officialMojangMappings())
     modImplementation(group = "net.fabricmc", name = "fabric-loader", version = Constants.FABRIC_LOADER_VERSION)
-    include(implementation(group = "com.lodborg", name = "interval-tree", version = "1.0.0"))
 
     fun addEmbeddedFabricModule(name: String) {
         val module = fabricApi.module(name, Constants.FABRIC_API_VERSION)
@@ -80,6 +89,11 @@ dependencies {
     addEmbeddedFabricModule("fabric-rendering-data-attachment-v1")
     addEmbeddedFabricModule("fabric-rendering-fluids-v1")
     addEmbeddedFabricModule("fabric-resource-loader-v0")
+
+    // Unit tests, which run without a window by using the headless render device in place of OpenGL
+    testImplementation(platform("org.junit:junit-bom:${Constants.JUNIT_VERSION}"))
+    testImplementation(group = "org.junit.jupiter", name = "junit-jupiter")
+    testRuntimeOnly(group = "org.junit.platform", name = "junit-platform-launcher")
 }
 
 tasks {
@@ -102,6 +116,29 @@ tasks {
         manifest.attributes["Main-Class"] = "net.caffeinemc.mods.sodium.desktop.LaunchWarn"
     }
 
+    test {
+        useJUnitPlatform {
+            excludeTags("benchmark")
+        }
+    }
+
+    // Benchmarks are only run on request, since their results depend on the machine running them
+    register<Test>("benchmark") {
+        description = "Runs the headless benchmarks, and writes their results to build/reports/benchmarks."
+        group = "verification"
+
+        val test = sourceSets.getByName("test")
+        testClassesDirs = test.output.classesDirs
+        classpath = test.runtimeClasspath
+
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
+
+        systemProperty("sodium.benchmark.output", layout.buildDirectory.dir("reports/benchmarks").get().asFile.absolutePath)
+        outputs.upToDateWhen { false }
+    }
+
     processResources {
         inputs.property("version", project.version)
 
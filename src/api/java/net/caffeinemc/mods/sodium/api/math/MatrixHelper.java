@@ -114,7 +114,8 @@ public class MatrixHelper {
     /**
      * Rotates the position and normal matrix in ZYX order. The rotation angles are specified in radians. This is
      * functionally identical to rotating the matrix stack by a quaternion representing an ZYX rotation, but is
-     * significantly faster.
+     * significantly faster. Rotations around a single axis, which are the most common in entity models, only
+     * compute the sine and cosine of that angle.
      *
      * @param matrices The matrix stack to rotate
      * @param angleZ The angle to rotate by on the Z-axis
@@ -122,11 +123,22 @@ public class MatrixHelper {
      * @param angleX The angle to rotate by on the X-axis
      */
     public static void rotateZYX(PoseStack.Pose matrices, float angleZ, float angleY, float angleX) {
-        matrices.pose()
-                .rotateZYX(angleZ, angleY, angleX);
+        if (angleZ == 0.0f && angleY == 0.0f) {
+            matrices.pose().rotateX(angleX);
+            matrices.normal().rotateX(angleX);
+        } else if (angleZ == 0.0f && angleX == 0.0f) {
+            matrices.pose().rotateY(angleY);
+            matrices.normal().rotateY(angleY);
+        } else if (angleY == 0.0f && angleX == 0.0f) {
+            matrices.pose().rotateZ(angleZ);
+            matrices.normal().rotateZ(angleZ);
+        } else {
+            matrices.pose()
+                    .rotateZYX(angleZ, angleY, angleX);
 
-        matrices.normal()
-                .rotateZYX(angleZ, angleY, angleX);
+            matrices.normal()
+                    .rotateZYX(angleZ, angleY, angleX);
+        }
     }
 
     /**
@@ -2,9 +2,13 @@ package net.caffeinemc.mods.sodium.client;
 
 import net.caffeinemc.mods.sodium.client.data.fingerprint.FingerprintMeasure;
 import net.caffeinemc.mods.sodium.client.data.fingerprint.HashedFingerprint;
+import net.caffeinemc.mods.sodium.client.gl.shader.GlProgram;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.FileProgramBinaryCache;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.ProgramBinaryCache;
 import net.caffeinemc.mods.sodium.client.gui.SodiumGameOptions;
 import net.caffeinemc.mods.sodium.client.gui.console.Console;
 import net.caffeinemc.mods.sodium.client.gui.console.message.MessageLevel;
+import net.caffeinemc.mods.sodium.client.metrics.benchmark.TerrainBenchmark;
 import net.caffeinemc.mods.sodium.client.render.frapi.SpriteFinderCache;
 import net.caffeinemc.mods.sodium.client.util.FlawlessFrames;
 import net.fabricmc.api.ClientModInitializer;
@@ -13,6 +17,7 @@ import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.ModContainer;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.packs.PackType;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +43,20 @@ public class SodiumClientMod implements ClientModInitializer {
         CONFIG = loadConfig();
 
         FlawlessFrames.onClientInitialization();
+        TerrainBenchmark.onClientInitialization();
+
+        if (CONFIG.performance.useProgramBinaryCache) {
+            var binaryCache = new FileProgramBinaryCache(FabricLoader.getInstance()
+                    .getGameDir()
+                    .resolve("cache")
+                    .resolve("sodium")
+                    .resolve("program_binaries"));
+            binaryCache.prune();
+
+            GlProgram.setBinaryCache(binaryCache);
+        } else {
+            GlProgram.setBinaryCache(ProgramBinaryCache.NONE);
+        }
 
         ResourceManagerHelper.get(PackType.CLIENT_RESOURCES).registerReloadListener(SpriteFinderCache.ReloadListener.INSTANCE);
 
@@ -56,6 +75,13 @@ public class SodiumClientMod implements ClientModInitializer {
         return CONFIG;
     }
 
+    /**
+     * @return The options, or null if they have not been loaded yet (such as when running outside of the game)
+     */
+    public static @Nullable SodiumGameOptions optionsIfLoaded() {
+        return CONFIG;
+    }
+
     public static Logger logger() {
         if (LOGGER == null) {
             throw new IllegalStateException("Logger not yet available");
@@ -70,6 +70,8 @@ public class MixinConfig {
         this.addMixinRule("features.render.particle", true);
 
         this.addMixinRule("features.render.world", true);
+        // the camera is only hooked into while a camera path is recorded or replayed
+        this.addMixinRule("features.render.world.camera", isTerrainBenchmarkRequested());
         this.addMixinRule("features.render.world.clouds", true);
         this.addMixinRule("features.render.world.sky", true);
 
@@ -88,6 +90,22 @@ public class MixinConfig {
         this.addMixinRule("workarounds.event_loop", true);
     }
 
+    /**
+     * Checks the system properties which start recording or replaying a camera path. The terrain benchmark classes
+     * are not used here, since the config is loaded before the game.
+     */
+    private static boolean isTerrainBenchmarkRequested() {
+        for (String name : new String[] { "sodium.benchmark.record", "sodium.benchmark.replay" }) {
+            String value = System.getProperty(name);
+
+            if (value != null && !value.isBlank()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Defines a Mixin rule which can be configured by users and other mods.
      * @throws IllegalStateException If a rule with that name already exists
@@ -5,6 +5,8 @@ import net.caffeinemc.mods.sodium.client.gl.buffer.GlBuffer;
 import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferUsage;
 import net.caffeinemc.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineCounter;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -51,6 +53,8 @@ public class GlBufferArena {
             throw new UnsupportedOperationException("New capacity must be larger than used size");
         }
 
+        PipelineMetrics.increment(PipelineCounter.ARENA_RESIZES, 1);
+
         this.checkAssertions();
 
         int tail = newCapacity - this.used;
@@ -305,6 +309,8 @@ public class GlBufferArena {
             return false;
         }
 
+        PipelineMetrics.increment(PipelineCounter.ARENA_UPLOAD_BYTES, data.remaining());
+
         // Copy the data into our staging buffer, then copy it into the arena's buffer
         this.stagingBuffer.enqueueCopy(commandList, data, this.arenaBuffer, dst.getOffset() * this.stride);
 
@@ -313,6 +319,29 @@ public class GlBufferArena {
         return true;
     }
 
+    /**
+     * Overwrites part of an existing allocation with the given data. The copies are only submitted once
+     * {@link #flushUploads(CommandList)} is called, which allows the staging buffer to merge adjacent copies.
+     *
+     * @param elementOffset The offset (in elements) of the write relative to the start of the segment
+     */
+    public void uploadRange(CommandList commandList, GlBufferSegment segment, int elementOffset, ByteBuffer data) {
+        int elementCount = data.remaining() / this.stride;
+
+        if (elementOffset < 0 || elementOffset + elementCount > segment.getLength()) {
+            throw new IllegalArgumentException("Range upload does not fit into the segment");
+        }
+
+        PipelineMetrics.increment(PipelineCounter.ARENA_UPLOAD_BYTES, data.remaining());
+
+        this.stagingBuffer.enqueueCopy(commandList, data, this.arenaBuffer,
+                (long) (segment.getOffset() + elementOffset) * this.stride);
+    }
+
+    public void flushUploads(CommandList commandList) {
+        this.stagingBuffer.flush(commandList);
+    }
+
     public void ensureCapacity(CommandList commandList, int elementCount) {
         // Re-sizing the arena results in a compaction, so any free space in the arena will be
         // made into one contiguous segment, joined with the new segment of free space we're asking for
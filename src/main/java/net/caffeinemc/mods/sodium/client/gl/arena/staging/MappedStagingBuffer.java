@@ -9,6 +9,8 @@ import net.caffeinemc.mods.sodium.client.gl.sync.GlFence;
 import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
 import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import net.caffeinemc.mods.sodium.client.gl.buffer.*;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineCounter;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -56,6 +58,9 @@ public class MappedStagingBuffer implements StagingBuffer {
         int length = data.remaining();
 
         if (length > this.remaining) {
+            PipelineMetrics.increment(PipelineCounter.STAGING_FALLBACKS, 1);
+            PipelineMetrics.increment(PipelineCounter.STAGING_FALLBACK_BYTES, length);
+
             this.fallbackStagingBuffer.enqueueCopy(commandList, data, dst, writeOffset);
 
             return;
@@ -156,6 +161,13 @@ public class MappedStagingBuffer implements StagingBuffer {
         }
     }
 
+    /**
+     * @return The number of bytes which can be staged before copies fall back to uploading through a temporary buffer
+     */
+    public int getRemainingCapacity() {
+        return this.remaining;
+    }
+
     private static final class CopyCommand {
         private final GlBuffer buffer;
         private final long readOffset;
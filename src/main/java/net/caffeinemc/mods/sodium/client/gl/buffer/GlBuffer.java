@@ -7,7 +7,15 @@ public abstract class GlBuffer extends GlObject {
     private GlBufferMapping activeMapping;
 
     protected GlBuffer() {
-        this.setHandle(GL20C.glGenBuffers());
+        this(GL20C.glGenBuffers());
+    }
+
+    /**
+     * Creates a buffer with a handle which was allocated by the render device, for devices which are not backed by
+     * OpenGL.
+     */
+    protected GlBuffer(int handle) {
+        this.setHandle(handle);
     }
 
     public GlBufferMapping getActiveMapping() {
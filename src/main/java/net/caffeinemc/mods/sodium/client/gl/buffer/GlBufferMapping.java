@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.gl.buffer;
 
+import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -15,6 +16,37 @@ public class GlBufferMapping {
         this.map = map;
     }
 
+    /**
+     * Checks that the buffer can be mapped with the given flags, and throws an exception if the buffer is already
+     * mapped or its storage doesn't support the flags.
+     */
+    public static void checkCanMap(GlBuffer buffer, EnumBitField<GlBufferMapFlags> flags) {
+        if (buffer.getActiveMapping() != null) {
+            throw new IllegalStateException("Buffer is already mapped");
+        }
+
+        if (flags.contains(GlBufferMapFlags.PERSISTENT) && !(buffer instanceof GlImmutableBuffer)) {
+            throw new IllegalStateException("Tried to map mutable buffer as persistent");
+        }
+
+        // TODO: speed this up?
+        if (buffer instanceof GlImmutableBuffer) {
+            EnumBitField<GlBufferStorageFlags> bufferFlags = ((GlImmutableBuffer) buffer).getFlags();
+
+            if (flags.contains(GlBufferMapFlags.PERSISTENT) && !bufferFlags.contains(GlBufferStorageFlags.PERSISTENT)) {
+                throw new IllegalArgumentException("Tried to map non-persistent buffer as persistent");
+            }
+
+            if (flags.contains(GlBufferMapFlags.WRITE) && !bufferFlags.contains(GlBufferStorageFlags.MAP_WRITE)) {
+                throw new IllegalStateException("Tried to map non-writable buffer as writable");
+            }
+
+            if (flags.contains(GlBufferMapFlags.READ) && !bufferFlags.contains(GlBufferStorageFlags.MAP_READ)) {
+                throw new IllegalStateException("Tried to map non-readable buffer as readable");
+            }
+        }
+    }
+
     public void write(ByteBuffer data, int writeOffset) {
         MemoryUtil.memCopy(MemoryUtil.memAddress(data), MemoryUtil.memAddress(this.map, writeOffset), data.remaining());
     }
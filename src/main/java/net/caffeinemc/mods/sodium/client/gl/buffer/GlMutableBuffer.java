@@ -11,6 +11,10 @@ public class GlMutableBuffer extends GlBuffer {
         super();
     }
 
+    public GlMutableBuffer(int handle) {
+        super(handle);
+    }
+
     public void setSize(long size) {
         this.size = size;
     }
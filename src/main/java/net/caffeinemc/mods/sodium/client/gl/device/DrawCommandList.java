@@ -3,7 +3,16 @@ package net.caffeinemc.mods.sodium.client.gl.device;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 
 public interface DrawCommandList extends AutoCloseable {
-    void multiDrawElementsBaseVertex(MultiDrawBatch batch, GlIndexType indexType);
+    default void multiDrawElementsBaseVertex(MultiDrawBatch batch, GlIndexType indexType) {
+        this.multiDrawElementsBaseVertex(batch, 0, batch.size(), indexType);
+    }
+
+    /**
+     * Submits the commands {@code [first, first + count)} of the batch as a single draw call.
+     */
+    void multiDrawElementsBaseVertex(MultiDrawBatch batch, int first, int count, GlIndexType indexType);
+
+    void drawArraysInstanced(int first, int count, int instanceCount);
 
     void endTessellating();
 
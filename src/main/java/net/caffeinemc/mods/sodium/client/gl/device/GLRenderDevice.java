@@ -5,9 +5,11 @@ import net.caffeinemc.mods.sodium.client.gl.buffer.*;
 import net.caffeinemc.mods.sodium.client.gl.functions.DeviceFunctions;
 import net.caffeinemc.mods.sodium.client.gl.state.GlStateTracker;
 import net.caffeinemc.mods.sodium.client.gl.sync.GlFence;
+import net.caffeinemc.mods.sodium.client.gl.sync.GlSyncFence;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.*;
 import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
 import org.lwjgl.opengl.*;
+import org.lwjgl.system.Pointer;
 import com.mojang.blaze3d.vertex.BufferUploader;
 import java.nio.ByteBuffer;
 
@@ -162,30 +164,7 @@ public class GLRenderDevice implements RenderDevice {
 
         @Override
         public GlBufferMapping mapBuffer(GlBuffer buffer, long offset, long length, EnumBitField<GlBufferMapFlags> flags) {
-            if (buffer.getActiveMapping() != null) {
-                throw new IllegalStateException("Buffer is already mapped");
-            }
-
-            if (flags.contains(GlBufferMapFlags.PERSISTENT) && !(buffer instanceof GlImmutableBuffer)) {
-                throw new IllegalStateException("Tried to map mutable buffer as persistent");
-            }
-
-            // TODO: speed this up?
-            if (buffer instanceof GlImmutableBuffer) {
-                EnumBitField<GlBufferStorageFlags> bufferFlags = ((GlImmutableBuffer) buffer).getFlags();
-
-                if (flags.contains(GlBufferMapFlags.PERSISTENT) && !bufferFlags.contains(GlBufferStorageFlags.PERSISTENT)) {
-                    throw new IllegalArgumentException("Tried to map non-persistent buffer as persistent");
-                }
-
-                if (flags.contains(GlBufferMapFlags.WRITE) && !bufferFlags.contains(GlBufferStorageFlags.MAP_WRITE)) {
-                    throw new IllegalStateException("Tried to map non-writable buffer as writable");
-                }
-
-                if (flags.contains(GlBufferMapFlags.READ) && !bufferFlags.contains(GlBufferStorageFlags.MAP_READ)) {
-                    throw new IllegalStateException("Tried to map non-readable buffer as readable");
-                }
-            }
+            GlBufferMapping.checkCanMap(buffer, flags);
 
             this.bindBuffer(GlBufferTarget.ARRAY_BUFFER, buffer);
 
@@ -227,7 +206,7 @@ public class GLRenderDevice implements RenderDevice {
 
         @Override
         public GlFence createFence() {
-            return new GlFence(GL32C.glFenceSync(GL32C.GL_SYNC_GPU_COMMANDS_COMPLETE, 0));
+            return new GlSyncFence(GL32C.glFenceSync(GL32C.GL_SYNC_GPU_COMMANDS_COMPLETE, 0));
         }
 
         private void checkMapDisposed(GlBufferMapping map) {
@@ -267,15 +246,22 @@ public class GLRenderDevice implements RenderDevice {
         }
 
         @Override
-        public void multiDrawElementsBaseVertex(MultiDrawBatch batch, GlIndexType indexType) {
+        public void multiDrawElementsBaseVertex(MultiDrawBatch batch, int first, int count, GlIndexType indexType) {
             GlPrimitiveType primitiveType = GLRenderDevice.this.activeTessellation.getPrimitiveType();
 
             GL32C.nglMultiDrawElementsBaseVertex(primitiveType.getId(),
-                    batch.pElementCount,
+                    batch.pElementCount + ((long) first * Integer.BYTES),
                     indexType.getFormatId(),
-                    batch.pElementPointer,
-                    batch.size(),
-                    batch.pBaseVertex);
+                    batch.pElementPointer + ((long) first * Pointer.POINTER_SIZE),
+                    count,
+                    batch.pBaseVertex + ((long) first * Integer.BYTES));
+        }
+
+        @Override
+        public void drawArraysInstanced(int first, int count, int instanceCount) {
+            GlPrimitiveType primitiveType = GLRenderDevice.this.activeTessellation.getPrimitiveType();
+
+            GL31C.glDrawArraysInstanced(primitiveType.getId(), first, count, instanceCount);
         }
 
         @Override
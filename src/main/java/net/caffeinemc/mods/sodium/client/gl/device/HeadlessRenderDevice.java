@@ -0,0 +1,475 @@
+package net.caffeinemc.mods.sodium.client.gl.device;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import net.caffeinemc.mods.sodium.client.gl.array.GlVertexArray;
+import net.caffeinemc.mods.sodium.client.gl.buffer.*;
+import net.caffeinemc.mods.sodium.client.gl.functions.BufferStorageFunctions;
+import net.caffeinemc.mods.sodium.client.gl.functions.DeviceFunctions;
+import net.caffeinemc.mods.sodium.client.gl.sync.GlFence;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlPrimitiveType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.TessellationBinding;
+import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.Pointer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A render device which simulates buffers, mappings, copies and fences in memory, and records draw calls instead of
+ * submitting them. This allows the code which manages buffer memory and generates draw commands (such as buffer
+ * arenas, staging buffers and the chunk renderer's command lists) to run without an OpenGL context, by passing this
+ * device (or its command list) to them instead of {@link RenderDevice#INSTANCE}.
+ *
+ * Shader programs, textures and vertex attribute state are not simulated, and vertex arrays can not be created.
+ * Fences are only signalled when {@link #signalFences()} is called or when they are waited on, so that the handling of
+ * memory which is still in use by the device can be exercised deterministically.
+ */
+public class HeadlessRenderDevice implements RenderDevice {
+    private final CommandList commandList = new HeadlessCommandList();
+    private final DrawCommandList drawCommandList = new HeadlessDrawCommandList();
+
+    private final DeviceFunctions functions;
+
+    private final Reference2ReferenceOpenHashMap<GlBuffer, ByteBuffer> buffers = new Reference2ReferenceOpenHashMap<>();
+    private final List<HeadlessFence> pendingFences = new ArrayList<>();
+    private final List<DrawCall> drawCalls = new ArrayList<>();
+
+    private int nextHandle = 1;
+
+    private boolean isActive;
+    private GlTessellation activeTessellation;
+
+    /**
+     * Creates a device which supports immutable buffer storage.
+     */
+    public HeadlessRenderDevice() {
+        this(true);
+    }
+
+    /**
+     * @param supportsBufferStorage True if the device should report support for immutable buffer storage (which is
+     *                              required by persistently mapped staging buffers), otherwise false
+     */
+    public HeadlessRenderDevice(boolean supportsBufferStorage) {
+        // Buffer storage is simulated by the command list itself, so these functions are never called
+        this.functions = new DeviceFunctions(supportsBufferStorage ? BufferStorageFunctions.CORE : BufferStorageFunctions.NONE);
+    }
+
+    @Override
+    public CommandList createCommandList() {
+        if (!this.isActive) {
+            throw new IllegalStateException("Tried to access device from unmanaged context");
+        }
+
+        return this.commandList;
+    }
+
+    @Override
+    public void makeActive() {
+        this.isActive = true;
+    }
+
+    @Override
+    public void makeInactive() {
+        this.isActive = false;
+    }
+
+    @Override
+    public @Nullable GLCapabilities getCapabilities() {
+        // there is no OpenGL context, the supported functionality is described by the device functions instead
+        return null;
+    }
+
+    @Override
+    public DeviceFunctions getDeviceFunctions() {
+        return this.functions;
+    }
+
+    /**
+     * Returns a read-only view of the current contents of a buffer. The view reflects later changes to the buffer
+     * until its storage is re-allocated.
+     */
+    public ByteBuffer getContents(GlBuffer buffer) {
+        return this.getStorage(buffer)
+                .asReadOnlyBuffer();
+    }
+
+    /**
+     * @return The number of buffers which have been created and not yet deleted
+     */
+    public int getBufferCount() {
+        return this.buffers.size();
+    }
+
+    /**
+     * @return The draw calls which have been recorded since the device was created or last cleared, in the order they
+     * were submitted
+     */
+    public List<DrawCall> getDrawCalls() {
+        return Collections.unmodifiableList(this.drawCalls);
+    }
+
+    public void clearDrawCalls() {
+        this.drawCalls.clear();
+    }
+
+    /**
+     * Signals all fences which have been created so far, as if the device had completed all submitted commands.
+     */
+    public void signalFences() {
+        for (HeadlessFence fence : this.pendingFences) {
+            fence.signalled = true;
+        }
+
+        this.pendingFences.clear();
+    }
+
+    /**
+     * @return The number of fences which have not been signalled yet
+     */
+    public int getPendingFenceCount() {
+        return this.pendingFences.size();
+    }
+
+    private ByteBuffer getStorage(GlBuffer buffer) {
+        ByteBuffer storage = this.buffers.get(buffer);
+
+        if (storage == null) {
+            throw new IllegalStateException("Buffer does not belong to this device or has been deleted");
+        }
+
+        return storage;
+    }
+
+    private static ByteBuffer createStorage(long size) {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Buffer size out of range: " + size);
+        }
+
+        return ByteBuffer.allocateDirect((int) size);
+    }
+
+    private static void checkRange(ByteBuffer storage, long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > storage.capacity()) {
+            throw new IndexOutOfBoundsException("Range [%s, %s) is outside of buffer with size %s"
+                    .formatted(offset, offset + length, storage.capacity()));
+        }
+    }
+
+    private class HeadlessCommandList implements CommandList {
+        @Override
+        public GlMutableBuffer createMutableBuffer() {
+            GlMutableBuffer buffer = new GlMutableBuffer(HeadlessRenderDevice.this.nextHandle++);
+            HeadlessRenderDevice.this.buffers.put(buffer, createStorage(0L));
+
+            return buffer;
+        }
+
+        @Override
+        public GlImmutableBuffer createImmutableBuffer(long bufferSize, EnumBitField<GlBufferStorageFlags> flags) {
+            GlImmutableBuffer buffer = new GlImmutableBuffer(HeadlessRenderDevice.this.nextHandle++, flags);
+            HeadlessRenderDevice.this.buffers.put(buffer, createStorage(bufferSize));
+
+            return buffer;
+        }
+
+        @Override
+        public GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+            return new HeadlessTessellation(primitiveType, bindings);
+        }
+
+        @Override
+        public void bindVertexArray(GlVertexArray array) {
+            // vertex arrays are not simulated
+        }
+
+        @Override
+        public void uploadData(GlMutableBuffer glBuffer, ByteBuffer byteBuffer, GlBufferUsage usage) {
+            HeadlessRenderDevice.this.getStorage(glBuffer);
+
+            ByteBuffer storage = createStorage(byteBuffer.remaining());
+            MemoryUtil.memCopy(MemoryUtil.memAddress(byteBuffer), MemoryUtil.memAddress(storage), byteBuffer.remaining());
+
+            HeadlessRenderDevice.this.buffers.put(glBuffer, storage);
+            glBuffer.setSize(byteBuffer.remaining());
+        }
+
+        @Override
+        public void copyBufferSubData(GlBuffer src, GlBuffer dst, long readOffset, long writeOffset, long bytes) {
+            ByteBuffer srcStorage = HeadlessRenderDevice.this.getStorage(src);
+            ByteBuffer dstStorage = HeadlessRenderDevice.this.getStorage(dst);
+
+            checkRange(srcStorage, readOffset, bytes);
+            checkRange(dstStorage, writeOffset, bytes);
+
+            if (src == dst && readOffset < writeOffset + bytes && writeOffset < readOffset + bytes) {
+                throw new IllegalArgumentException("Source and destination ranges of copy overlap");
+            }
+
+            MemoryUtil.memCopy(MemoryUtil.memAddress(srcStorage) + readOffset,
+                    MemoryUtil.memAddress(dstStorage) + writeOffset, bytes);
+        }
+
+        @Override
+        public void bindBuffer(GlBufferTarget target, GlBuffer buffer) {
+            HeadlessRenderDevice.this.getStorage(buffer);
+        }
+
+        @Override
+        public void unbindVertexArray() {
+            // vertex arrays are not simulated
+        }
+
+        @Override
+        public void allocateStorage(GlMutableBuffer buffer, long bufferSize, GlBufferUsage usage) {
+            HeadlessRenderDevice.this.getStorage(buffer);
+            HeadlessRenderDevice.this.buffers.put(buffer, createStorage(bufferSize));
+
+            buffer.setSize(bufferSize);
+        }
+
+        @Override
+        public void deleteBuffer(GlBuffer buffer) {
+            if (buffer.getActiveMapping() != null) {
+                this.unmap(buffer.getActiveMapping());
+            }
+
+            HeadlessRenderDevice.this.getStorage(buffer);
+            HeadlessRenderDevice.this.buffers.remove(buffer);
+
+            buffer.invalidateHandle();
+        }
+
+        @Override
+        public void deleteVertexArray(GlVertexArray vertexArray) {
+            vertexArray.invalidateHandle();
+        }
+
+        @Override
+        public void flush() {
+            // NO-OP
+        }
+
+        @Override
+        public DrawCommandList beginTessellating(GlTessellation tessellation) {
+            HeadlessRenderDevice.this.activeTessellation = tessellation;
+            HeadlessRenderDevice.this.activeTessellation.bind(this);
+
+            return HeadlessRenderDevice.this.drawCommandList;
+        }
+
+        @Override
+        public void deleteTessellation(GlTessellation tessellation) {
+            tessellation.delete(this);
+        }
+
+        @Override
+        public GlBufferMapping mapBuffer(GlBuffer buffer, long offset, long length, EnumBitField<GlBufferMapFlags> flags) {
+            GlBufferMapping.checkCanMap(buffer, flags);
+
+            ByteBuffer storage = HeadlessRenderDevice.this.getStorage(buffer);
+            checkRange(storage, offset, length);
+
+            // the mapping refers to the storage directly, which behaves like a coherent mapping
+            GlBufferMapping mapping = new GlBufferMapping(buffer, storage.slice((int) offset, (int) length));
+            buffer.setActiveMapping(mapping);
+
+            return mapping;
+        }
+
+        @Override
+        public void unmap(GlBufferMapping map) {
+            checkMapDisposed(map);
+
+            map.getBufferObject()
+                    .setActiveMapping(null);
+            map.dispose();
+        }
+
+        @Override
+        public void flushMappedRange(GlBufferMapping map, int offset, int length) {
+            checkMapDisposed(map);
+            checkRange(map.getMemoryBuffer(), offset, length);
+        }
+
+        @Override
+        public GlFence createFence() {
+            HeadlessFence fence = new HeadlessFence();
+            HeadlessRenderDevice.this.pendingFences.add(fence);
+
+            return fence;
+        }
+
+        private static void checkMapDisposed(GlBufferMapping map) {
+            if (map.isDisposed()) {
+                throw new IllegalStateException("Buffer mapping is already disposed");
+            }
+        }
+    }
+
+    private class HeadlessDrawCommandList implements DrawCommandList {
+        @Override
+        public void multiDrawElementsBaseVertex(MultiDrawBatch batch, int first, int count, GlIndexType indexType) {
+            if (first < 0 || count < 0 || first + count > batch.size()) {
+                throw new IndexOutOfBoundsException("Range [%s, %s) is outside of batch with size %s"
+                        .formatted(first, first + count, batch.size()));
+            }
+
+            int[] elementCounts = new int[count];
+            long[] elementPointers = new long[count];
+            int[] baseVertices = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                long index = first + i;
+
+                elementCounts[i] = MemoryUtil.memGetInt(batch.pElementCount + (index * Integer.BYTES));
+                elementPointers[i] = MemoryUtil.memGetAddress(batch.pElementPointer + (index * Pointer.POINTER_SIZE));
+                baseVertices[i] = MemoryUtil.memGetInt(batch.pBaseVertex + (index * Integer.BYTES));
+            }
+
+            GlTessellation tessellation = this.getActiveTessellation();
+
+            HeadlessRenderDevice.this.drawCalls.add(new MultiDrawElementsBaseVertex(tessellation,
+                    tessellation.getPrimitiveType(), indexType, elementCounts, elementPointers, baseVertices));
+        }
+
+        @Override
+        public void drawArraysInstanced(int first, int count, int instanceCount) {
+            GlTessellation tessellation = this.getActiveTessellation();
+
+            HeadlessRenderDevice.this.drawCalls.add(new DrawArraysInstanced(tessellation,
+                    tessellation.getPrimitiveType(), first, count, instanceCount));
+        }
+
+        @Override
+        public void endTessellating() {
+            HeadlessRenderDevice.this.activeTessellation.unbind(HeadlessRenderDevice.this.commandList);
+            HeadlessRenderDevice.this.activeTessellation = null;
+        }
+
+        @Override
+        public void flush() {
+            if (HeadlessRenderDevice.this.activeTessellation != null) {
+                this.endTessellating();
+            }
+        }
+
+        private GlTessellation getActiveTessellation() {
+            if (HeadlessRenderDevice.this.activeTessellation == null) {
+                throw new IllegalStateException("No tessellation is active");
+            }
+
+            return HeadlessRenderDevice.this.activeTessellation;
+        }
+    }
+
+    /**
+     * A tessellation which only keeps track of its buffer bindings.
+     */
+    public static class HeadlessTessellation implements GlTessellation {
+        private final GlPrimitiveType primitiveType;
+        private final TessellationBinding[] bindings;
+
+        private HeadlessTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+            this.primitiveType = primitiveType;
+            this.bindings = bindings;
+        }
+
+        @Override
+        public void delete(CommandList commandList) {
+
+        }
+
+        @Override
+        public void bind(CommandList commandList) {
+            // check that all the buffers used by the tessellation are still alive
+            for (TessellationBinding binding : this.bindings) {
+                commandList.bindBuffer(binding.target(), binding.buffer());
+            }
+        }
+
+        @Override
+        public void unbind(CommandList commandList) {
+
+        }
+
+        @Override
+        public GlPrimitiveType getPrimitiveType() {
+            return this.primitiveType;
+        }
+
+        public TessellationBinding[] getBindings() {
+            return this.bindings;
+        }
+    }
+
+    private static class HeadlessFence implements GlFence {
+        private boolean signalled;
+        private boolean disposed;
+
+        @Override
+        public boolean isCompleted() {
+            this.checkDisposed();
+
+            return this.signalled;
+        }
+
+        @Override
+        public void sync() {
+            this.sync(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void sync(long timeout) {
+            this.checkDisposed();
+
+            // nothing is executed asynchronously, so waiting on a fence always completes it
+            this.signalled = true;
+        }
+
+        @Override
+        public void delete() {
+            this.disposed = true;
+        }
+
+        private void checkDisposed() {
+            if (this.disposed) {
+                throw new IllegalStateException("Fence object has been disposed");
+            }
+        }
+    }
+
+    /**
+     * A draw call which was submitted to the device.
+     */
+    public sealed interface DrawCall permits MultiDrawElementsBaseVertex, DrawArraysInstanced {
+        GlTessellation tessellation();
+
+        GlPrimitiveType primitiveType();
+    }
+
+    /**
+     * A call to {@link DrawCommandList#multiDrawElementsBaseVertex(MultiDrawBatch, int, int, GlIndexType)}, with the
+     * submitted commands of the batch copied at the time of submission.
+     */
+    public record MultiDrawElementsBaseVertex(GlTessellation tessellation, GlPrimitiveType primitiveType,
+                                              GlIndexType indexType, int[] elementCounts, long[] elementPointers,
+                                              int[] baseVertices) implements DrawCall {
+
+    }
+
+    /**
+     * A call to {@link DrawCommandList#drawArraysInstanced(int, int, int)}.
+     */
+    public record DrawArraysInstanced(GlTessellation tessellation, GlPrimitiveType primitiveType,
+                                      int first, int count, int instanceCount) implements DrawCall {
+
+    }
+}
@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.gl.device;
 
 import net.caffeinemc.mods.sodium.client.gl.functions.DeviceFunctions;
+import org.jetbrains.annotations.Nullable;
 import org.lwjgl.opengl.GLCapabilities;
 
 public interface RenderDevice {
@@ -19,7 +20,10 @@ public interface RenderDevice {
     void makeActive();
     void makeInactive();
 
-    GLCapabilities getCapabilities();
+    /**
+     * @return The capabilities of the OpenGL context, or null if the device is not backed by an OpenGL context
+     */
+    @Nullable GLCapabilities getCapabilities();
 
     DeviceFunctions getDeviceFunctions();
 }
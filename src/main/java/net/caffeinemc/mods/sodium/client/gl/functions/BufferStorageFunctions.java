@@ -31,7 +31,9 @@ public enum BufferStorageFunctions {
     public static BufferStorageFunctions pickBest(RenderDevice device) {
         GLCapabilities capabilities = device.getCapabilities();
 
-        if (capabilities.OpenGL44) {
+        if (capabilities == null) {
+            return NONE;
+        } else if (capabilities.OpenGL44) {
             return CORE;
         } else if (capabilities.GL_ARB_buffer_storage) {
             return ARB;
@@ -2,6 +2,10 @@ package net.caffeinemc.mods.sodium.client.gl.shader;
 
 import com.mojang.blaze3d.platform.GlStateManager;
 import net.caffeinemc.mods.sodium.client.gl.GlObject;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.GlProgramBinaries;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.ProgramBinary;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.ProgramBinaryCache;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.ProgramBinaryKey;
 import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniform;
 import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformBlock;
 import net.caffeinemc.mods.sodium.client.render.chunk.shader.ShaderBindingContext;
@@ -12,6 +16,8 @@ import org.lwjgl.opengl.GL20C;
 import org.lwjgl.opengl.GL30C;
 import org.lwjgl.opengl.GL32C;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 
@@ -21,6 +27,8 @@ import java.util.function.IntFunction;
 public class GlProgram<T> extends GlObject implements ShaderBindingContext {
     private static final Logger LOGGER = LogManager.getLogger(GlProgram.class);
 
+    private static ProgramBinaryCache binaryCache = ProgramBinaryCache.NONE;
+
     private final T shaderInterface;
 
     protected GlProgram(int program, Function<ShaderBindingContext, T> interfaceFactory) {
@@ -32,6 +40,13 @@ public class GlProgram<T> extends GlObject implements ShaderBindingContext {
         return this.shaderInterface;
     }
 
+    /**
+     * Sets the cache used to store the binaries of programs which are linked from shader sources.
+     */
+    public static void setBinaryCache(ProgramBinaryCache cache) {
+        binaryCache = cache;
+    }
+
     public static Builder builder(ResourceLocation name) {
         return new Builder(name);
     }
@@ -76,7 +91,13 @@ public class GlProgram<T> extends GlObject implements ShaderBindingContext {
 
     public static class Builder {
         private final ResourceLocation name;
-        private final int program;
+        private int program;
+
+        private final List<ShaderSource> sources = new ArrayList<>();
+        private final List<Binding> bindings = new ArrayList<>();
+
+        // Program binaries can only be cached when the sources of all attached shaders are known
+        private boolean hasCompiledShaders;
 
         public Builder(ResourceLocation name) {
             this.name = name;
@@ -85,6 +106,17 @@ public class GlProgram<T> extends GlObject implements ShaderBindingContext {
 
         public Builder attachShader(GlShader shader) {
             GL20C.glAttachShader(this.program, shader.handle());
+            this.hasCompiledShaders = true;
+
+            return this;
+        }
+
+        /**
+         * Attaches a shader which is loaded with {@link ShaderLoader}. The shader is only compiled when the program is
+         * linked, and only if the program could not be loaded from the program binary cache.
+         */
+        public Builder attachShader(ShaderType type, ResourceLocation name, ShaderConstants constants) {
+            this.sources.add(new ShaderSource(type, name, ShaderLoader.getProcessedSource(name, constants)));
 
             return this;
         }
@@ -99,7 +131,51 @@ public class GlProgram<T> extends GlObject implements ShaderBindingContext {
          * @return An instantiated shader container as provided by the factory
          */
         public <U> GlProgram<U> link(Function<ShaderBindingContext, U> factory) {
-            GL20C.glLinkProgram(this.program);
+            String binaryKey = null;
+
+            if (!this.hasCompiledShaders && binaryCache != ProgramBinaryCache.NONE && GlProgramBinaries.isSupported()) {
+                binaryKey = this.createBinaryKey();
+
+                if (this.tryLoadBinary(binaryKey)) {
+                    return new GlProgram<>(this.program, factory);
+                }
+
+                GlProgramBinaries.setRetrievable(this.program);
+            }
+
+            this.compileAndLink();
+
+            if (binaryKey != null) {
+                ProgramBinary binary = GlProgramBinaries.download(this.program);
+
+                if (binary != null) {
+                    binaryCache.store(binaryKey, binary);
+                }
+            }
+
+            return new GlProgram<>(this.program, factory);
+        }
+
+        private void compileAndLink() {
+            for (Binding binding : this.bindings) {
+                binding.apply(this.program);
+            }
+
+            List<GlShader> shaders = new ArrayList<>(this.sources.size());
+
+            try {
+                for (ShaderSource source : this.sources) {
+                    GlShader shader = new GlShader(source.type(), source.name(), source.source());
+                    shaders.add(shader);
+
+                    GL20C.glAttachShader(this.program, shader.handle());
+                }
+
+                GL20C.glLinkProgram(this.program);
+            } finally {
+                // deleting the attached shaders only flags them, so they are released along with the program
+                shaders.forEach(GlShader::delete);
+            }
 
             String log = GL20C.glGetProgramInfoLog(this.program);
 
@@ -112,20 +188,72 @@ public class GlProgram<T> extends GlObject implements ShaderBindingContext {
             if (result != GL20C.GL_TRUE) {
                 throw new RuntimeException("Shader program linking failed, see log for details");
             }
+        }
 
-            return new GlProgram<>(this.program, factory);
+        private String createBinaryKey() {
+            var key = new ProgramBinaryKey(GlProgramBinaries.getDriverString());
+
+            for (ShaderSource source : this.sources) {
+                key.addShader(source.type(), source.source());
+            }
+
+            for (Binding binding : this.bindings) {
+                key.addBinding(binding.kind().name(), binding.name(), binding.index());
+            }
+
+            return key.build();
+        }
+
+        private boolean tryLoadBinary(String key) {
+            ProgramBinary binary = binaryCache.load(key);
+
+            if (binary == null) {
+                return false;
+            }
+
+            if (GlProgramBinaries.upload(this.program, binary)) {
+                return true;
+            }
+
+            // binaries are rejected when the driver has been updated in a way which isn't reflected by its version
+            // string, in which case the program is created again from its sources
+            LOGGER.info("Program binary for " + this.name + " was rejected by the driver, compiling it from source");
+            binaryCache.invalidate(key);
+
+            GL20C.glDeleteProgram(this.program);
+            this.program = GL20C.glCreateProgram();
+
+            return false;
         }
 
         public Builder bindAttribute(String name, int index) {
-            GL20C.glBindAttribLocation(this.program, index, name);
+            this.bindings.add(new Binding(BindingKind.ATTRIBUTE, name, index));
 
             return this;
         }
 
         public Builder bindFragmentData(String name, int index) {
-            GL30C.glBindFragDataLocation(this.program, index, name);
+            this.bindings.add(new Binding(BindingKind.FRAGMENT_DATA, name, index));
 
             return this;
         }
+
+        private record ShaderSource(ShaderType type, ResourceLocation name, String source) {
+
+        }
+
+        private enum BindingKind {
+            ATTRIBUTE,
+            FRAGMENT_DATA
+        }
+
+        private record Binding(BindingKind kind, String name, int index) {
+            void apply(int program) {
+                switch (this.kind) {
+                    case ATTRIBUTE -> GL20C.glBindAttribLocation(program, this.index, this.name);
+                    case FRAGMENT_DATA -> GL30C.glBindFragDataLocation(program, this.index, this.name);
+                }
+            }
+        }
     }
 }
@@ -5,9 +5,14 @@ import org.apache.commons.io.IOUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import net.minecraft.resources.ResourceLocation;
 
 public class ShaderLoader {
+    // Shader sources are loaded from the classpath, which can't change at runtime
+    private static final Map<ResourceLocation, String> SOURCES = new HashMap<>();
+
     /**
      * Creates an OpenGL shader from GLSL sources. The GLSL source file should be made available on the classpath at the
      * path of `/assets/{namespace}/shaders/{path}`. User defines can be used to declare variables in the shader source
@@ -19,10 +24,28 @@ public class ShaderLoader {
      * @return An OpenGL shader object compiled with the given user defines
      */
     public static GlShader loadShader(ShaderType type, ResourceLocation name, ShaderConstants constants) {
-        return new GlShader(type, name, ShaderParser.parseShader(getShaderSource(name), constants));
+        return new GlShader(type, name, getProcessedSource(name, constants));
+    }
+
+    /**
+     * Returns the source of a shader as it would be compiled by {@link #loadShader(ShaderType, ResourceLocation, ShaderConstants)},
+     * with all imports resolved and the user defines inserted after the version header.
+     */
+    public static String getProcessedSource(ResourceLocation name, ShaderConstants constants) {
+        return ShaderParser.parseShader(getShaderSource(name), constants);
+    }
+
+    public static synchronized String getShaderSource(ResourceLocation name) {
+        String source = SOURCES.get(name);
+
+        if (source == null) {
+            SOURCES.put(name, source = readShaderSource(name));
+        }
+
+        return source;
     }
 
-    public static String getShaderSource(ResourceLocation name) {
+    private static String readShaderSource(ResourceLocation name) {
         String path = String.format("/assets/%s/shaders/%s", name.getNamespace(), name.getPath());
 
         try (InputStream in = ShaderLoader.class.getResourceAsStream(path)) {
@@ -3,22 +3,46 @@ package net.caffeinemc.mods.sodium.client.gl.shader;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.minecraft.resources.ResourceLocation;
 
 public class ShaderParser {
+    /**
+     * The lines of every shader source which has been parsed, with all imports resolved, keyed by the contents of the
+     * source. Shader sources are loaded from the classpath and can't change at runtime, so the same source (and any
+     * source importing it) is only ever parsed once, no matter how many shader permutations are created from it.
+     */
+    private static final Map<String, List<String>> PARSED_SOURCES = new HashMap<>();
+
     public static String parseShader(String src, ShaderConstants constants) {
-        List<String> lines = parseShader(src);
+        List<String> lines = new ArrayList<>(parseShader(src));
         lines.addAll(1, constants.getDefineStrings());
 
         return String.join("\n", lines);
     }
 
-    public static List<String> parseShader(String src) {
-        List<String> builder = new LinkedList<>();
+    /**
+     * @return The lines of the shader source with all imports resolved, as an unmodifiable list
+     */
+    public static synchronized List<String> parseShader(String src) {
+        List<String> lines = PARSED_SOURCES.get(src);
+
+        if (lines == null) {
+            // the map isn't updated with computeIfAbsent, since parsing recursively parses the imported sources
+            PARSED_SOURCES.put(src, lines = Collections.unmodifiableList(parseLines(src)));
+        }
+
+        return lines;
+    }
+
+    private static List<String> parseLines(String src) {
+        List<String> builder = new ArrayList<>();
         String line;
 
         try (BufferedReader reader = new BufferedReader(new StringReader(src))) {
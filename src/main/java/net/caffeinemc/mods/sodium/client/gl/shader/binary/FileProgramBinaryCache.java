@@ -0,0 +1,192 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores program binaries as files in a directory, with one file for each key. The modification time of a file is
+ * updated whenever it is loaded, so that {@link #prune()} can remove the binaries which are no longer used, such as
+ * those of an old driver or an old version of a shader.
+ */
+public class FileProgramBinaryCache implements ProgramBinaryCache {
+    private static final Logger LOGGER = LogManager.getLogger(FileProgramBinaryCache.class);
+
+    // Identifies the layout of the files, and must be changed whenever the layout is changed
+    private static final int FILE_MAGIC = 0x53505242; // "SPRB"
+    private static final int FILE_VERSION = 1;
+
+    private static final int DEFAULT_MAX_FILES = 256;
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+
+    private final Path directory;
+
+    private final int maxFiles;
+    private final Duration maxAge;
+
+    public FileProgramBinaryCache(Path directory) {
+        this(directory, DEFAULT_MAX_FILES, DEFAULT_MAX_AGE);
+    }
+
+    FileProgramBinaryCache(Path directory, int maxFiles, Duration maxAge) {
+        this.directory = directory;
+        this.maxFiles = maxFiles;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public @Nullable ProgramBinary load(String key) {
+        Path path = this.getFilePath(key);
+
+        try (var in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                return null;
+            }
+
+            int format = in.readInt();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+
+            touch(path);
+
+            return new ProgramBinary(format, data);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read program binary from {}", path, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void store(String key, ProgramBinary binary) {
+        Path path = this.getFilePath(key);
+
+        try {
+            Files.createDirectories(this.directory);
+
+            var bytes = new ByteArrayOutputStream(16 + binary.data().length);
+
+            try (var out = new DataOutputStream(bytes)) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(binary.format());
+                out.writeInt(binary.data().length);
+                out.write(binary.data());
+            }
+
+            // write to a temporary file first, so that an interrupted write never leaves a truncated binary behind
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(tempPath, bytes.toByteArray());
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write program binary to {}", path, e);
+        }
+    }
+
+    @Override
+    public void invalidate(String key) {
+        Path path = this.getFilePath(key);
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete program binary {}", path, e);
+        }
+    }
+
+    /**
+     * Deletes the binaries which haven't been used within the maximum age, and the least recently used binaries
+     * beyond the maximum number of files. Temporary files which were left behind by an interrupted write are always
+     * deleted.
+     */
+    public void prune() {
+        if (!Files.isDirectory(this.directory)) {
+            return;
+        }
+
+        List<Path> paths;
+
+        try (Stream<Path> stream = Files.list(this.directory)) {
+            paths = stream.toList();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to list program binaries in {}", this.directory, e);
+            return;
+        }
+
+        Object2LongOpenHashMap<Path> lastUsed = new Object2LongOpenHashMap<>();
+        List<Path> expired = new ObjectArrayList<>();
+
+        long oldestAllowed = System.currentTimeMillis() - this.maxAge.toMillis();
+
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+
+            if (name.endsWith(".tmp")) {
+                expired.add(path);
+            } else if (name.endsWith(".bin")) {
+                long time;
+
+                try {
+                    time = Files.getLastModifiedTime(path).toMillis();
+                } catch (IOException e) {
+                    continue;
+                }
+
+                if (time < oldestAllowed) {
+                    expired.add(path);
+                } else {
+                    lastUsed.put(path, time);
+                }
+            }
+        }
+
+        if (lastUsed.size() > this.maxFiles) {
+            List<Path> recent = new ObjectArrayList<>(lastUsed.keySet());
+            recent.sort(Comparator.comparingLong(lastUsed::getLong).reversed());
+
+            expired.addAll(recent.subList(this.maxFiles, recent.size()));
+        }
+
+        for (Path path : expired) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete program binary {}", path, e);
+            }
+        }
+
+        if (!expired.isEmpty()) {
+            LOGGER.info("Deleted {} unused program binaries", expired.size());
+        }
+    }
+
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // the binary is still usable, it may only be pruned earlier than it should be
+            LOGGER.debug("Failed to update the modification time of program binary {}", path, e);
+        }
+    }
+
+    private Path getFilePath(String key) {
+        return this.directory.resolve(key + ".bin");
+    }
+}
@@ -0,0 +1,108 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.ARBGetProgramBinary;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL20C;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Helpers for retrieving and loading the binaries of shader programs through ARB_get_program_binary.
+ */
+public class GlProgramBinaries {
+    private static Boolean supported;
+    private static int[] formats;
+
+    /**
+     * @return True if the driver can retrieve and load program binaries, otherwise false
+     */
+    public static boolean isSupported() {
+        if (supported == null) {
+            // some drivers expose the extension without supporting any binary formats
+            supported = GL.getCapabilities().GL_ARB_get_program_binary &&
+                    GL11C.glGetInteger(ARBGetProgramBinary.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+
+            if (supported) {
+                formats = new int[GL11C.glGetInteger(ARBGetProgramBinary.GL_NUM_PROGRAM_BINARY_FORMATS)];
+                GL11C.glGetIntegerv(ARBGetProgramBinary.GL_PROGRAM_BINARY_FORMATS, formats);
+            }
+        }
+
+        return supported;
+    }
+
+    /**
+     * @return A string identifying the driver, since program binaries can only be loaded by the driver which created
+     * them
+     */
+    public static String getDriverString() {
+        return GL11C.glGetString(GL11C.GL_VENDOR) + "\n" +
+                GL11C.glGetString(GL11C.GL_RENDERER) + "\n" +
+                GL11C.glGetString(GL11C.GL_VERSION);
+    }
+
+    /**
+     * Marks the program's binary as retrievable, which must be done before the program is linked.
+     */
+    public static void setRetrievable(int program) {
+        ARBGetProgramBinary.glProgramParameteri(program, ARBGetProgramBinary.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11C.GL_TRUE);
+    }
+
+    /**
+     * @return The binary of the linked program, or null if the driver did not provide one
+     */
+    public static @Nullable ProgramBinary download(int program) {
+        int length = GL20C.glGetProgrami(program, ARBGetProgramBinary.GL_PROGRAM_BINARY_LENGTH);
+
+        if (length <= 0) {
+            return null;
+        }
+
+        ByteBuffer data = MemoryUtil.memAlloc(length);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer written = stack.mallocInt(1);
+            IntBuffer format = stack.mallocInt(1);
+
+            ARBGetProgramBinary.glGetProgramBinary(program, written, format, data);
+
+            byte[] bytes = new byte[written.get(0)];
+            data.get(0, bytes);
+
+            return new ProgramBinary(format.get(0), bytes);
+        } finally {
+            MemoryUtil.memFree(data);
+        }
+    }
+
+    /**
+     * Loads the binary into the program, which links the program if the binary is accepted by the driver. A binary which
+     * the driver rejects only fails to link the program, which is also the case in a context without error checking.
+     * Binaries in a format which the driver doesn't support are never loaded, since that would raise an error instead.
+     *
+     * @return True if the program was linked successfully, otherwise false
+     */
+    public static boolean upload(int program, ProgramBinary binary) {
+        if (!ArrayUtils.contains(formats, binary.format())) {
+            return false;
+        }
+
+        ByteBuffer data = MemoryUtil.memAlloc(binary.data().length);
+
+        try {
+            data.put(0, binary.data());
+
+            ARBGetProgramBinary.glProgramBinary(program, binary.format(), data);
+        } finally {
+            MemoryUtil.memFree(data);
+        }
+
+        return GL20C.glGetProgrami(program, GL20C.GL_LINK_STATUS) == GL11C.GL_TRUE;
+    }
+}
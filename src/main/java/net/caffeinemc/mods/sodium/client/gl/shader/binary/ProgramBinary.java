@@ -0,0 +1,11 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+/**
+ * The binary representation of a linked shader program, as returned by the driver.
+ *
+ * @param format The driver-specific format of the binary
+ * @param data The contents of the binary
+ */
+public record ProgramBinary(int format, byte[] data) {
+
+}
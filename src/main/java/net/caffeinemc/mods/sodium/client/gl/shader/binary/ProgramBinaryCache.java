@@ -0,0 +1,42 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores the binaries of linked shader programs, so that they can be loaded again later without compiling and linking
+ * their shaders. Binaries are identified by a key created with {@link ProgramBinaryKey}, which changes whenever the
+ * driver or the sources of the program change.
+ */
+public interface ProgramBinaryCache {
+    /**
+     * A cache which never stores any binaries.
+     */
+    ProgramBinaryCache NONE = new ProgramBinaryCache() {
+        @Override
+        public @Nullable ProgramBinary load(String key) {
+            return null;
+        }
+
+        @Override
+        public void store(String key, ProgramBinary binary) {
+
+        }
+
+        @Override
+        public void invalidate(String key) {
+
+        }
+    };
+
+    /**
+     * @return The binary stored for the key, or null if there is none
+     */
+    @Nullable ProgramBinary load(String key);
+
+    void store(String key, ProgramBinary binary);
+
+    /**
+     * Removes the binary stored for the key, which is called when the driver rejects the binary.
+     */
+    void invalidate(String key);
+}
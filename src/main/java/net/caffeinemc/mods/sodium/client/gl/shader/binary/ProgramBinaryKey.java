@@ -0,0 +1,58 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+import net.caffeinemc.mods.sodium.client.gl.shader.ShaderType;
+import org.apache.commons.codec.binary.Hex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Creates the keys which identify the binary of a shader program. The key is a hash of everything which affects the
+ * binary produced by the driver: the driver itself, the processed source of every shader (which includes the user
+ * defines), and the locations bound to the program's inputs and outputs before linking.
+ */
+public class ProgramBinaryKey {
+    private final MessageDigest digest;
+
+    public ProgramBinaryKey(String driver) {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not supported", e);
+        }
+
+        this.update("driver", driver);
+    }
+
+    public ProgramBinaryKey addShader(ShaderType type, String source) {
+        this.update("shader", type.name());
+        this.update("source", source);
+
+        return this;
+    }
+
+    public ProgramBinaryKey addBinding(String kind, String name, int index) {
+        this.update(kind, name + "=" + index);
+
+        return this;
+    }
+
+    /**
+     * @return The key as a hexadecimal string, which is safe to use as a file name
+     */
+    public String build() {
+        return Hex.encodeHexString(this.digest.digest());
+    }
+
+    private void update(String field, String value) {
+        // length-prefix each value so that the boundaries between values are unambiguous
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        this.digest.update(field.getBytes(StandardCharsets.UTF_8));
+        this.digest.update((byte) ':');
+        this.digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        this.digest.update((byte) ':');
+        this.digest.update(bytes);
+    }
+}
@@ -1,53 +1,23 @@
 package net.caffeinemc.mods.sodium.client.gl.sync;
 
-import org.lwjgl.opengl.GL32C;
-import org.lwjgl.system.MemoryStack;
-
-import java.nio.IntBuffer;
-
-public class GlFence {
-    private final long id;
-    private boolean disposed;
-
-    public GlFence(long id) {
-        this.id = id;
-    }
-
-    public boolean isCompleted() {
-        this.checkDisposed();
-
-        int result;
-
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer count = stack.callocInt(1);
-            result = GL32C.glGetSynci(this.id, GL32C.GL_SYNC_STATUS, count);
-
-            if (count.get(0) != 1) {
-                throw new RuntimeException("glGetSync returned more than one value");
-            }
-        }
-
-        return result == GL32C.GL_SIGNALED;
-    }
-
-    public void sync() {
-        this.checkDisposed();
-        this.sync(Long.MAX_VALUE);
-    }
-
-    public void sync(long timeout) {
-        this.checkDisposed();
-        GL32C.glWaitSync(this.id, GL32C.GL_SYNC_FLUSH_COMMANDS_BIT, timeout);
-    }
-
-    public void delete() {
-        GL32C.glDeleteSync(this.id);
-        this.disposed = true;
-    }
-
-    private void checkDisposed() {
-        if (this.disposed) {
-            throw new IllegalStateException("Fence object has been disposed");
-        }
-    }
+/**
+ * A fence which is signalled once all commands submitted before its creation have been completed by the device.
+ */
+public interface GlFence {
+    /**
+     * @return True if the fence has been signalled, otherwise false
+     */
+    boolean isCompleted();
+
+    /**
+     * Waits until the fence has been signalled.
+     */
+    void sync();
+
+    /**
+     * Waits until the fence has been signalled, or until the timeout (in nanoseconds) has elapsed.
+     */
+    void sync(long timeout);
+
+    void delete();
 }
@@ -0,0 +1,51 @@
+package net.caffeinemc.mods.sodium.client.gl.texture;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import net.caffeinemc.mods.sodium.client.gl.GlObject;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBuffer;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL13C;
+import org.lwjgl.opengl.GL31C;
+
+/**
+ * A buffer texture, which allows the contents of a buffer object to be read from shaders as a one-dimensional array
+ * of texels. Buffer textures are supported with OpenGL 3.1+.
+ */
+public class GlBufferTexture extends GlObject {
+    private final int internalFormat;
+
+    public GlBufferTexture(int internalFormat) {
+        this.internalFormat = internalFormat;
+        this.setHandle(GL11C.glGenTextures());
+    }
+
+    /**
+     * Binds this texture to the given texture unit, and attaches the data store of the buffer to it. The buffer must
+     * have been bound at least once before.
+     */
+    public void bind(int unit, GlBuffer buffer) {
+        GlStateManager._activeTexture(GL13C.GL_TEXTURE0 + unit);
+
+        GL11C.glBindTexture(GL31C.GL_TEXTURE_BUFFER, this.handle());
+        GL31C.glTexBuffer(GL31C.GL_TEXTURE_BUFFER, this.internalFormat, buffer.handle());
+    }
+
+    public void unbind(int unit) {
+        GlStateManager._activeTexture(GL13C.GL_TEXTURE0 + unit);
+
+        GL11C.glBindTexture(GL31C.GL_TEXTURE_BUFFER, 0);
+    }
+
+    public void delete() {
+        GL11C.glDeleteTextures(this.handle());
+
+        this.invalidateHandle();
+    }
+
+    /**
+     * @return The maximum number of texels which can be accessed through a buffer texture
+     */
+    public static int getMaxTexelCount() {
+        return GL11C.glGetInteger(GL31C.GL_MAX_TEXTURE_BUFFER_SIZE);
+    }
+}
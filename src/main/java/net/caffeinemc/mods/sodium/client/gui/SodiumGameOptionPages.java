@@ -5,6 +5,7 @@ import com.mojang.blaze3d.pipeline.RenderTarget;
 import com.mojang.blaze3d.platform.Window;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
+import net.caffeinemc.mods.sodium.client.gl.shader.binary.GlProgramBinaries;
 import net.caffeinemc.mods.sodium.client.gui.options.*;
 import net.caffeinemc.mods.sodium.client.gui.options.binding.compat.VanillaBooleanOptionBinding;
 import net.caffeinemc.mods.sodium.client.gui.options.control.ControlValueFormatter;
@@ -262,6 +263,14 @@ public class SodiumGameOptionPages {
                         .setBinding((opts, value) -> opts.performance.alwaysDeferChunkUpdates = value, opts -> opts.performance.alwaysDeferChunkUpdates)
                         .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
                         .build())
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.simplified_mesh_distance.name"))
+                        .setTooltip(Component.translatable("sodium.options.simplified_mesh_distance.tooltip"))
+                        .setControl(o -> new SliderControl(o, 0, 32, 1, ControlValueFormatter.quantityOrDisabled("chunks", "Disabled")))
+                        .setImpact(OptionImpact.HIGH)
+                        .setBinding((opts, value) -> opts.performance.simplifiedMeshDistance = value, opts -> opts.performance.simplifiedMeshDistance)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build())
                 .build()
         );
 
@@ -292,6 +301,30 @@ public class SodiumGameOptionPages {
                         .setBinding((opts, value) -> opts.performance.useEntityCulling = value, opts -> opts.performance.useEntityCulling)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_model_instancing.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_model_instancing.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.useModelInstancing = value, opts -> opts.performance.useModelInstancing)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_text_mesh_cache.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_text_mesh_cache.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.performance.useTextMeshCache = value, opts -> opts.performance.useTextMeshCache)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.block_entity_render_distance.name"))
+                        .setTooltip(Component.translatable("sodium.options.block_entity_render_distance.tooltip"))
+                        .setControl(o -> new SliderControl(o, 0, 256, 16, ControlValueFormatter.quantityOrDisabled("blocks", "Default")))
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.blockEntityRenderDistance = value, opts -> opts.performance.blockEntityRenderDistance)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(Component.translatable("sodium.options.animate_only_visible_textures.name"))
                         .setTooltip(Component.translatable("sodium.options.animate_only_visible_textures.tooltip"))
@@ -310,6 +343,15 @@ public class SodiumGameOptionPages {
                         .setEnabled(supportsNoErrorContext())
                         .setFlags(OptionFlag.REQUIRES_GAME_RESTART)
                         .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_program_binary_cache.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_program_binary_cache.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.performance.useProgramBinaryCache = value, opts -> opts.performance.useProgramBinaryCache)
+                        .setEnabled(GlProgramBinaries.isSupported())
+                        .setFlags(OptionFlag.REQUIRES_GAME_RESTART)
+                        .build())
                 .build());
 
         groups.add(OptionGroup.createBuilder()
@@ -358,6 +400,17 @@ public class SodiumGameOptionPages {
                 )
                 .build());
 
+        groups.add(OptionGroup.createBuilder()
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.enable_pipeline_metrics.name"))
+                        .setTooltip(Component.translatable("sodium.options.enable_pipeline_metrics.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.advanced.enablePipelineMetrics = value, opts -> opts.advanced.enablePipelineMetrics)
+                        .build()
+                )
+                .build());
+
         return new OptionPage(Component.translatable("sodium.options.pages.advanced"), ImmutableList.copyOf(groups));
     }
 }
@@ -42,12 +42,25 @@ public class SodiumGameOptions {
 
         public boolean animateOnlyVisibleTextures = true;
         public boolean useEntityCulling = true;
+        public boolean useModelInstancing = false;
+        public boolean useTextMeshCache = true;
         public boolean useFogOcclusion = true;
         public boolean useBlockFaceCulling = true;
         public boolean useNoErrorGLContext = true;
+        public boolean useProgramBinaryCache = true;
 
         public boolean sortingEnabled = true;
 
+        /**
+         * The distance (in chunks) beyond which sections are built with simplified meshes, or zero if disabled.
+         */
+        public int simplifiedMeshDistance = 0;
+
+        /**
+         * The maximum distance (in blocks) at which block entities are rendered, or zero if not limited.
+         */
+        public int blockEntityRenderDistance = 0;
+
         public SortBehavior getSortBehavior() {
             return this.sortingEnabled ? SortBehavior.DYNAMIC_DEFER_NEARBY_ZERO_FRAMES : SortBehavior.OFF;
         }
@@ -55,6 +68,7 @@ public class SodiumGameOptions {
 
     public static class AdvancedSettings {
         public boolean enableMemoryTracing = false;
+        public boolean enablePipelineMetrics = false;
         public boolean useAdvancedStagingBuffers = true;
 
         public int cpuRenderAheadLimit = 3;
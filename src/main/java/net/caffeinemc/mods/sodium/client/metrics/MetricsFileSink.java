@@ -0,0 +1,67 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.caffeinemc.mods.sodium.client.util.FileUtil;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.Util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Periodically writes a snapshot of the pipeline metrics to a JSON file in the logs directory, so that they can be
+ * inspected (or collected by external tools) without attaching a profiler. The file is replaced atomically, and
+ * always contains the values accumulated since metrics were enabled.
+ */
+class MetricsFileSink {
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .create();
+
+    private static final long WRITE_INTERVAL_NANOS = 10_000_000_000L;
+
+    private long lastWriteTime = System.nanoTime();
+    private volatile boolean writing;
+
+    public void update() {
+        long now = System.nanoTime();
+
+        if (this.writing || now - this.lastWriteTime < WRITE_INTERVAL_NANOS) {
+            return;
+        }
+
+        this.lastWriteTime = now;
+        this.writing = true;
+
+        Map<String, Object> snapshot = createSnapshot();
+
+        Util.ioPool().execute(() -> {
+            try {
+                FileUtil.writeTextRobustly(GSON.toJson(snapshot), getFilePath());
+            } catch (IOException e) {
+                SodiumClientMod.logger().warn("Failed to write pipeline metrics", e);
+            } finally {
+                this.writing = false;
+            }
+        });
+    }
+
+    private static Map<String, Object> createSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("timestamp", System.currentTimeMillis());
+        snapshot.putAll(PipelineMetrics.createSnapshot());
+
+        return snapshot;
+    }
+
+    private static Path getFilePath() {
+        return FabricLoader.getInstance()
+                .getGameDir()
+                .resolve("logs")
+                .resolve("sodium-metrics.json");
+    }
+}
@@ -0,0 +1,36 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+/**
+ * The counters which are tracked by {@link PipelineMetrics}.
+ */
+public enum PipelineCounter {
+    /**
+     * The number of bytes uploaded into the geometry and index arenas of render regions.
+     */
+    ARENA_UPLOAD_BYTES("Arena Upload Bytes"),
+
+    /**
+     * The number of times an arena had to be re-allocated to make room for new uploads.
+     */
+    ARENA_RESIZES("Arena Resizes"),
+
+    /**
+     * The number of copies which could not fit into the mapped staging buffer, and had to use the fallback path.
+     */
+    STAGING_FALLBACKS("Staging Fallbacks"),
+
+    /**
+     * The number of bytes copied through the fallback path of the mapped staging buffer.
+     */
+    STAGING_FALLBACK_BYTES("Staging Fallback Bytes");
+
+    private final String name;
+
+    PipelineCounter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
@@ -0,0 +1,184 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+import net.caffeinemc.mods.sodium.client.gui.SodiumGameOptions;
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timings of the stages of the chunk rendering pipeline, and counters for the memory transfers it performs.
+ * Metrics can be recorded from any thread.
+ *
+ * Stages are timed by calling {@link #begin()} when the stage starts, and passing the returned timer to
+ * {@link #end(PipelineStage, PipelineTimer)} when it finishes. While metrics are disabled, {@link #begin()} returns
+ * null and nothing else is done, so instrumented code only pays for reading a single field.
+ */
+public class PipelineMetrics {
+    private static final TimingHistogram[] HISTOGRAMS = new TimingHistogram[PipelineStage.values().length];
+    private static final LongAdder[] COUNTERS = new LongAdder[PipelineCounter.values().length];
+
+    private static final MetricsFileSink SINK = new MetricsFileSink();
+
+    private static volatile boolean enabled;
+    private static volatile boolean forceEnabled;
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new TimingHistogram();
+        }
+
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Applies the configuration and writes a snapshot to the metrics file if it is due. Called once per frame.
+     */
+    public static void update(SodiumGameOptions options) {
+        setEnabled(options.advanced.enablePipelineMetrics || forceEnabled);
+
+        if (enabled) {
+            SINK.update();
+        }
+    }
+
+    static void setEnabled(boolean value) {
+        if (value && !enabled) {
+            // start from a clean slate, since the old values were recorded in a different session
+            reset();
+        }
+
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records metrics regardless of the user's configuration, starting with the next call to {@link #update}. Used by
+     * benchmarks which need the metrics for their report.
+     */
+    public static void setForceEnabled(boolean value) {
+        forceEnabled = value;
+    }
+
+    /**
+     * Starts timing a stage, and starts its flight recorder event if that event is enabled in a recording.
+     *
+     * @return The timer of the stage, or null if metrics are disabled
+     */
+    public static @Nullable PipelineTimer begin() {
+        if (!enabled) {
+            return null;
+        }
+
+        return new PipelineTimer(System.nanoTime(), PipelineStageEvent.beginIfEnabled());
+    }
+
+    /**
+     * Records the duration of a stage which was started with {@link #begin()}, and commits its flight recorder event.
+     */
+    public static void end(PipelineStage stage, @Nullable PipelineTimer timer) {
+        if (timer == null) {
+            return;
+        }
+
+        record(stage, System.nanoTime() - timer.startNanos);
+
+        if (timer.event != null) {
+            timer.event.finish(stage);
+        }
+    }
+
+    public static void record(PipelineStage stage, long nanos) {
+        if (enabled) {
+            HISTOGRAMS[stage.ordinal()].record(nanos);
+        }
+    }
+
+    public static void increment(PipelineCounter counter, long amount) {
+        if (enabled) {
+            COUNTERS[counter.ordinal()].add(amount);
+        }
+    }
+
+    public static TimingHistogram.Snapshot getTimings(PipelineStage stage) {
+        return HISTOGRAMS[stage.ordinal()].snapshot();
+    }
+
+    public static long getCount(PipelineCounter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    public static void reset() {
+        for (TimingHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * @return The current timings of every stage and the values of every counter, in a form which can be serialized
+     * as JSON
+     */
+    public static Map<String, Object> createSnapshot() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+
+        for (PipelineStage stage : PipelineStage.values()) {
+            var timings = getTimings(stage);
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", timings.count());
+            values.put("total_ns", timings.totalNanos());
+            values.put("mean_ns", timings.meanNanos());
+            values.put("p50_ns", timings.percentileNanos(0.50));
+            values.put("p99_ns", timings.percentileNanos(0.99));
+            values.put("max_ns", timings.maxNanos());
+
+            stages.put(stage.name().toLowerCase(Locale.ROOT), values);
+        }
+
+        Map<String, Object> counters = new LinkedHashMap<>();
+
+        for (PipelineCounter counter : PipelineCounter.values()) {
+            counters.put(counter.name().toLowerCase(Locale.ROOT), getCount(counter));
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("stages", stages);
+        snapshot.put("counters", counters);
+
+        return snapshot;
+    }
+
+    public static void addDebugStrings(List<String> list) {
+        if (!enabled) {
+            return;
+        }
+
+        for (PipelineStage stage : PipelineStage.values()) {
+            var timings = getTimings(stage);
+
+            if (timings.count() == 0) {
+                continue;
+            }
+
+            list.add(String.format("%s: avg %.2f ms | p99 %.2f ms | n=%d", stage.getName(),
+                    timings.meanNanos() / 1_000_000.0, timings.percentileNanos(0.99) / 1_000_000.0, timings.count()));
+        }
+
+        list.add(String.format("Arena Uploads: %d MiB (%d resizes) | Staging Fallbacks: %d (%d MiB)",
+                MathUtil.toMib(getCount(PipelineCounter.ARENA_UPLOAD_BYTES)), getCount(PipelineCounter.ARENA_RESIZES),
+                getCount(PipelineCounter.STAGING_FALLBACKS), MathUtil.toMib(getCount(PipelineCounter.STAGING_FALLBACK_BYTES))));
+    }
+}
@@ -0,0 +1,46 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+/**
+ * The stages of the chunk rendering pipeline which are timed by {@link PipelineMetrics}.
+ */
+public enum PipelineStage {
+    /**
+     * The time a chunk build task spends in the queue before a worker thread starts executing it.
+     */
+    TASK_WAIT("Task Wait"),
+
+    /**
+     * The time spent copying the world data around a section, before a meshing task can be created for it.
+     */
+    CLONE("Clone"),
+
+    /**
+     * The time spent building the meshes of a section.
+     */
+    MESH("Mesh"),
+
+    /**
+     * The time spent sorting the translucent geometry of a section.
+     */
+    SORT("Sort"),
+
+    /**
+     * The time spent uploading the results of chunk build tasks to the device.
+     */
+    UPLOAD("Upload"),
+
+    /**
+     * The time spent submitting the draw commands of a terrain render pass.
+     */
+    DRAW("Draw");
+
+    private final String name;
+
+    PipelineStage(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
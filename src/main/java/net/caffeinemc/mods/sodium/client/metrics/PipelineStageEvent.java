@@ -0,0 +1,50 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A flight recorder event which is emitted for every timed stage of the chunk rendering pipeline, while metrics are
+ * enabled and the event is enabled in the recording. The event is started together with the stage, so its start time
+ * and duration are those of the stage.
+ */
+@Name("sodium.PipelineStage")
+@Label("Pipeline Stage")
+@Category({"Sodium", "Rendering"})
+@Description("A stage of the chunk rendering pipeline")
+@StackTrace(false)
+public class PipelineStageEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(PipelineStageEvent.class);
+
+    @Label("Stage")
+    public String stage;
+
+    /**
+     * @return A started event, or null if the event is not enabled in any recording
+     */
+    static @Nullable PipelineStageEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+
+        var event = new PipelineStageEvent();
+        event.begin();
+
+        return event;
+    }
+
+    void finish(PipelineStage stage) {
+        this.end();
+
+        if (this.shouldCommit()) {
+            this.stage = stage.getName();
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A single execution of a pipeline stage, which is started by {@link PipelineMetrics#begin()} and passed to
+ * {@link PipelineMetrics#end(PipelineStage, PipelineTimer)} when the stage finishes.
+ */
+public final class PipelineTimer {
+    final long startNanos;
+    final @Nullable PipelineStageEvent event;
+
+    PipelineTimer(long startNanos, @Nullable PipelineStageEvent event) {
+        this.startNanos = startNanos;
+        this.event = event;
+    }
+}
@@ -0,0 +1,79 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations which can be recorded from any thread without locking. Durations are counted in buckets
+ * of exponentially increasing size, where bucket {@code i} holds the durations in {@code [2^i, 2^(i+1))} nanoseconds.
+ * This bounds the error of the reported percentiles to a factor of two, which is sufficient for finding the stages
+ * which take up the most time.
+ */
+public class TimingHistogram {
+    // 2^40 nanoseconds is about 18 minutes, and longer durations are counted in the last bucket
+    private static final int BUCKET_COUNT = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 1L);
+
+        int bucket = Math.min(63 - Long.numberOfLeadingZeros(nanos), BUCKET_COUNT - 1);
+
+        this.buckets.incrementAndGet(bucket);
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Takes a snapshot of the histogram. Durations which are recorded concurrently may only be partially included.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+
+        return new Snapshot(count, this.totalNanos.sum(), this.maxNanos.get(), counts);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0L);
+        }
+
+        this.totalNanos.reset();
+        this.maxNanos.set(0L);
+    }
+
+    public record Snapshot(long count, long totalNanos, long maxNanos, long[] buckets) {
+        public double meanNanos() {
+            return this.count == 0 ? 0.0 : (double) this.totalNanos / this.count;
+        }
+
+        /**
+         * @param quantile The quantile in the range of [0, 1]
+         * @return The upper bound of the bucket containing the quantile, in nanoseconds
+         */
+        public long percentileNanos(double quantile) {
+            long target = (long) Math.ceil(this.count * quantile);
+            long seen = 0;
+
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+
+                if (seen >= target && seen > 0) {
+                    return Math.min(1L << (i + 1), this.maxNanos);
+                }
+            }
+
+            return this.maxNanos;
+        }
+    }
+}
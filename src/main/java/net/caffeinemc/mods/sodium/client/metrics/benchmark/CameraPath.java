@@ -0,0 +1,125 @@
+package net.caffeinemc.mods.sodium.client.metrics.benchmark;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.util.FileUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A recorded path of the camera, with one entry for every frame which was rendered. Each frame also contains the
+ * block edits which the renderer was notified of before the frame, so that the same sections are rebuilt when the
+ * path is replayed.
+ *
+ * Paths are stored as plain text, with one line for every frame and block edit:
+ * <pre>
+ * frame &lt;x&gt; &lt;y&gt; &lt;z&gt; &lt;yaw&gt; &lt;pitch&gt;
+ * edit &lt;minX&gt; &lt;minY&gt; &lt;minZ&gt; &lt;maxX&gt; &lt;maxY&gt; &lt;maxZ&gt; &lt;important&gt;
+ * </pre>
+ * Edits belong to the frame which follows them. Empty lines and lines starting with {@code #} are ignored.
+ */
+public record CameraPath(List<Frame> frames) {
+    private static final String HEADER = "# Sodium camera path";
+
+    public static CameraPath read(Path path) throws IOException {
+        List<Frame> frames = new ObjectArrayList<>();
+        List<BlockEdit> edits = new ObjectArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] tokens = line.split("\\s+");
+
+                try {
+                    switch (tokens[0]) {
+                        case "frame" -> {
+                            checkTokenCount(tokens, 6);
+
+                            frames.add(new Frame(Double.parseDouble(tokens[1]), Double.parseDouble(tokens[2]),
+                                    Double.parseDouble(tokens[3]), Float.parseFloat(tokens[4]),
+                                    Float.parseFloat(tokens[5]), List.copyOf(edits)));
+                            edits.clear();
+                        }
+                        case "edit" -> {
+                            checkTokenCount(tokens, 8);
+
+                            edits.add(new BlockEdit(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]),
+                                    Integer.parseInt(tokens[3]), Integer.parseInt(tokens[4]),
+                                    Integer.parseInt(tokens[5]), Integer.parseInt(tokens[6]),
+                                    Boolean.parseBoolean(tokens[7])));
+                        }
+                        default -> throw new IllegalArgumentException("Unknown entry type: " + tokens[0]);
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Malformed camera path on line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        if (frames.isEmpty()) {
+            throw new IOException("Camera path does not contain any frames");
+        }
+
+        return new CameraPath(List.copyOf(frames));
+    }
+
+    private static void checkTokenCount(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " values, found " + tokens.length);
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(HEADER).append('\n');
+
+        for (Frame frame : this.frames) {
+            for (BlockEdit edit : frame.edits()) {
+                builder.append("edit ")
+                        .append(edit.minX()).append(' ')
+                        .append(edit.minY()).append(' ')
+                        .append(edit.minZ()).append(' ')
+                        .append(edit.maxX()).append(' ')
+                        .append(edit.maxY()).append(' ')
+                        .append(edit.maxZ()).append(' ')
+                        .append(edit.important()).append('\n');
+            }
+
+            // the shortest representation which parses back to the exact same value, so that replays are identical
+            builder.append("frame ")
+                    .append(frame.x()).append(' ')
+                    .append(frame.y()).append(' ')
+                    .append(frame.z()).append(' ')
+                    .append(frame.yaw()).append(' ')
+                    .append(frame.pitch()).append('\n');
+        }
+
+        FileUtil.writeTextRobustly(builder.toString(), path);
+    }
+
+    /**
+     * The position and rotation of the camera in a single frame, and the block edits which happened before it.
+     */
+    public record Frame(double x, double y, double z, float yaw, float pitch, List<BlockEdit> edits) {
+
+    }
+
+    /**
+     * A region of blocks which was marked as changed, in block coordinates (inclusive).
+     */
+    public record BlockEdit(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
+
+    }
+}
@@ -0,0 +1,55 @@
+package net.caffeinemc.mods.sodium.client.metrics.benchmark;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.client.Camera;
+import net.minecraft.world.phys.Vec3;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Records the camera of every rendered frame, and the block edits in between them, into a {@link CameraPath}.
+ */
+class CameraPathRecorder {
+    private final Path path;
+
+    private final List<CameraPath.Frame> frames = new ObjectArrayList<>();
+    private final List<CameraPath.BlockEdit> pendingEdits = new ObjectArrayList<>();
+
+    CameraPathRecorder(Path path) {
+        this.path = path;
+    }
+
+    public void onFrame(Camera camera) {
+        Vec3 pos = camera.getPosition();
+
+        this.frames.add(new CameraPath.Frame(pos.x(), pos.y(), pos.z(), camera.getYRot(), camera.getXRot(),
+                List.copyOf(this.pendingEdits)));
+        this.pendingEdits.clear();
+    }
+
+    public void onBlockEdit(CameraPath.BlockEdit edit) {
+        // edits which happen before the first frame are part of loading the world, and not of the path
+        if (!this.frames.isEmpty()) {
+            this.pendingEdits.add(edit);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.frames.isEmpty();
+    }
+
+    public int getFrameCount() {
+        return this.frames.size();
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    public void save() throws IOException {
+        new CameraPath(List.copyOf(this.frames))
+                .write(this.path);
+    }
+}
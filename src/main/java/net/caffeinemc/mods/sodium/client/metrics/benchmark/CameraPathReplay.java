@@ -0,0 +1,166 @@
+package net.caffeinemc.mods.sodium.client.metrics.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
+import net.caffeinemc.mods.sodium.client.render.SodiumWorldRenderer;
+import net.caffeinemc.mods.sodium.client.util.FileUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replays a {@link CameraPath} one frame at a time, and measures how long every frame takes to render.
+ *
+ * Before the replay starts, the camera is held at the first frame of the path until no sections have been waiting to
+ * be built for a while, so that the replay always starts with the same terrain loaded. Since every rendered frame
+ * advances the path by exactly one frame, the camera visits the same positions regardless of the frame rate. Once the
+ * path has been replayed, a report containing the frame times and the pipeline metrics is written as JSON.
+ */
+class CameraPathReplay {
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .create();
+
+    // The number of consecutive frames in which the build queue must be empty before the replay starts
+    private static final int SETTLE_FRAMES = 60;
+
+    private final CameraPath path;
+    private final Path sourcePath, reportPath;
+
+    private final LongArrayList frameTimes = new LongArrayList();
+
+    private State state = State.SETTLING;
+
+    private int idleFrames;
+    private int frameIndex;
+
+    private long startTime;
+    private long lastFrameTime;
+
+    CameraPathReplay(CameraPath path, Path sourcePath, Path reportPath) {
+        this.path = path;
+        this.sourcePath = sourcePath;
+        this.reportPath = reportPath;
+    }
+
+    /**
+     * Advances the replay by one frame.
+     *
+     * @return The frame which the camera should be placed at, or null if the replay has finished
+     */
+    public @Nullable CameraPath.Frame nextFrame(SodiumWorldRenderer renderer) {
+        return switch (this.state) {
+            case SETTLING -> this.settle(renderer);
+            case REPLAYING -> this.replay(renderer);
+            case FINISHED -> null;
+        };
+    }
+
+    private @Nullable CameraPath.Frame settle(SodiumWorldRenderer renderer) {
+        if (renderer.isTerrainRenderComplete()) {
+            this.idleFrames++;
+        } else {
+            this.idleFrames = 0;
+        }
+
+        if (this.idleFrames >= SETTLE_FRAMES) {
+            this.state = State.REPLAYING;
+
+            // only the work caused by the path itself should be included in the report
+            PipelineMetrics.reset();
+
+            this.startTime = System.nanoTime();
+            this.lastFrameTime = this.startTime;
+
+            return this.replay(renderer);
+        }
+
+        return this.path.frames()
+                .get(0);
+    }
+
+    private @Nullable CameraPath.Frame replay(SodiumWorldRenderer renderer) {
+        long now = System.nanoTime();
+
+        if (this.frameIndex > 0) {
+            this.frameTimes.add(now - this.lastFrameTime);
+        }
+
+        this.lastFrameTime = now;
+
+        if (this.frameIndex >= this.path.frames().size()) {
+            this.state = State.FINISHED;
+            return null;
+        }
+
+        CameraPath.Frame frame = this.path.frames()
+                .get(this.frameIndex++);
+
+        for (CameraPath.BlockEdit edit : frame.edits()) {
+            renderer.scheduleRebuildForBlockArea(edit.minX(), edit.minY(), edit.minZ(),
+                    edit.maxX(), edit.maxY(), edit.maxZ(), edit.important());
+        }
+
+        return frame;
+    }
+
+    public boolean isFinished() {
+        return this.state == State.FINISHED;
+    }
+
+    public Path getReportPath() {
+        return this.reportPath;
+    }
+
+    public void writeReport() throws IOException {
+        long[] sorted = this.frameTimes.toLongArray();
+        Arrays.sort(sorted);
+
+        long total = 0L;
+
+        for (long frameTime : sorted) {
+            total += frameTime;
+        }
+
+        Map<String, Object> frames = new LinkedHashMap<>();
+        frames.put("count", sorted.length);
+        frames.put("mean_ns", sorted.length == 0 ? 0.0 : (double) total / sorted.length);
+        frames.put("p50_ns", percentile(sorted, 0.50));
+        frames.put("p90_ns", percentile(sorted, 0.90));
+        frames.put("p99_ns", percentile(sorted, 0.99));
+        frames.put("max_ns", sorted.length == 0 ? 0L : sorted[sorted.length - 1]);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("path", this.sourcePath.toString());
+        report.put("duration_ns", this.lastFrameTime - this.startTime);
+        report.put("frame_times", frames);
+        report.putAll(PipelineMetrics.createSnapshot());
+
+        FileUtil.writeTextRobustly(GSON.toJson(report), this.reportPath);
+    }
+
+    /**
+     * @return The nearest-rank percentile of the sorted values
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+
+        int index = (int) Math.ceil(sorted.length * quantile) - 1;
+
+        return sorted[Math.max(index, 0)];
+    }
+
+    private enum State {
+        SETTLING,
+        REPLAYING,
+        FINISHED
+    }
+}
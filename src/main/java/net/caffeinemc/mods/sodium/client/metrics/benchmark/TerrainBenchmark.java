@@ -0,0 +1,189 @@
+package net.caffeinemc.mods.sodium.client.metrics.benchmark;
+
+import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
+import net.caffeinemc.mods.sodium.client.render.SodiumWorldRenderer;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.Camera;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Records and replays camera paths, in order to measure the performance of loading, building and rendering terrain
+ * in a reproducible way. The benchmark is configured with system properties, so that it can be run unattended (e.g.
+ * together with {@code --quickPlaySingleplayer} to load a saved world):
+ *
+ * <ul>
+ *     <li>{@code sodium.benchmark.record=<file>} records the camera until the world is closed, and then writes the
+ *     path to the file.</li>
+ *     <li>{@code sodium.benchmark.replay=<file>} replays a recorded path in the first world which is loaded, and then
+ *     writes a report of the frame times and pipeline metrics to {@code logs/sodium-benchmark.json}, or the file
+ *     given by {@code sodium.benchmark.report}.</li>
+ *     <li>{@code sodium.benchmark.exit=true} closes the game after the report has been written.</li>
+ * </ul>
+ *
+ * The camera is only hooked into when a path is recorded or replayed at launch, so that the game is never affected
+ * otherwise. The player is moved along with the camera while a path is replayed, since the server only sends the
+ * chunks around the player, so terrain is streamed in along the path just as it was while recording. Paths should be
+ * replayed in singleplayer, where the server accepts the movement regardless of its speed, and preferably in
+ * spectator mode, so that the player doesn't collide with the terrain in between frames.
+ */
+public class TerrainBenchmark {
+    private static @Nullable CameraPathRecorder recorder;
+    private static @Nullable CameraPathReplay replay;
+
+    private static boolean exitWhenFinished;
+
+    public static void onClientInitialization() {
+        var recordPath = getPathProperty("record");
+        var replayPath = getPathProperty("replay");
+
+        if (replayPath != null) {
+            if (recordPath != null) {
+                SodiumClientMod.logger().warn("Camera paths cannot be recorded while replaying, ignoring sodium.benchmark.record");
+            }
+
+            try {
+                replay = new CameraPathReplay(CameraPath.read(replayPath), replayPath, getReportPath());
+            } catch (IOException e) {
+                SodiumClientMod.logger().error("Failed to load camera path from {}", replayPath, e);
+                return;
+            }
+
+            exitWhenFinished = Boolean.getBoolean("sodium.benchmark.exit");
+
+            // the report includes the build and upload metrics, even if they are disabled in the options
+            PipelineMetrics.setForceEnabled(true);
+
+            SodiumClientMod.logger().info("Replaying camera path from {}", replayPath);
+        } else if (recordPath != null) {
+            recorder = new CameraPathRecorder(recordPath);
+
+            SodiumClientMod.logger().info("Recording camera path to {}", recordPath);
+        }
+    }
+
+    /**
+     * Called after the camera has been positioned for a frame.
+     *
+     * @return The frame which the camera should be moved to instead, or null if it should be left in place
+     */
+    public static @Nullable CameraPath.Frame onCameraSetup(Camera camera) {
+        if (recorder != null) {
+            recorder.onFrame(camera);
+        }
+
+        if (replay != null) {
+            var renderer = SodiumWorldRenderer.instanceNullable();
+
+            if (renderer == null) {
+                return null;
+            }
+
+            var frame = replay.nextFrame(renderer);
+
+            if (frame != null) {
+                movePlayer(frame);
+            }
+
+            if (replay.isFinished()) {
+                finishReplay(replay);
+                replay = null;
+            }
+
+            return frame;
+        }
+
+        return null;
+    }
+
+    /**
+     * Called when the renderer is notified that the blocks in a region have changed.
+     */
+    public static void onBlocksChanged(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
+        if (recorder != null) {
+            recorder.onBlockEdit(new CameraPath.BlockEdit(minX, minY, minZ, maxX, maxY, maxZ, important));
+        }
+    }
+
+    /**
+     * Called when the world which is being rendered is unloaded, which ends any recording or replay in progress.
+     */
+    public static void onLevelUnloaded() {
+        if (recorder != null && !recorder.isEmpty()) {
+            try {
+                recorder.save();
+
+                SodiumClientMod.logger().info("Saved camera path with {} frames to {}", recorder.getFrameCount(), recorder.getPath());
+            } catch (IOException e) {
+                SodiumClientMod.logger().error("Failed to save camera path to {}", recorder.getPath(), e);
+            }
+
+            recorder = null;
+        }
+
+        if (replay != null) {
+            SodiumClientMod.logger().warn("The world was closed before the camera path was replayed, no report will be written");
+
+            PipelineMetrics.setForceEnabled(false);
+            replay = null;
+        }
+    }
+
+    private static void movePlayer(CameraPath.Frame frame) {
+        LocalPlayer player = Minecraft.getInstance().player;
+
+        if (player == null) {
+            return;
+        }
+
+        // the camera is placed at the player's eyes, and the previous position is reset so that it isn't interpolated
+        player.moveTo(frame.x(), frame.y() - player.getEyeHeight(), frame.z(), frame.yaw(), frame.pitch());
+        player.setDeltaMovement(Vec3.ZERO);
+    }
+
+    private static void finishReplay(CameraPathReplay finished) {
+        PipelineMetrics.setForceEnabled(false);
+
+        try {
+            finished.writeReport();
+
+            SodiumClientMod.logger().info("Wrote benchmark report to {}", finished.getReportPath());
+        } catch (IOException e) {
+            SodiumClientMod.logger().error("Failed to write benchmark report to {}", finished.getReportPath(), e);
+        }
+
+        if (exitWhenFinished) {
+            Minecraft.getInstance()
+                    .stop();
+        }
+    }
+
+    private static Path getReportPath() {
+        var path = getPathProperty("report");
+
+        if (path != null) {
+            return path;
+        }
+
+        return FabricLoader.getInstance()
+                .getGameDir()
+                .resolve("logs")
+                .resolve("sodium-benchmark.json");
+    }
+
+    private static @Nullable Path getPathProperty(String name) {
+        var value = System.getProperty("sodium.benchmark." + name, null);
+
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        return Path.of(value);
+    }
+}
@@ -6,9 +6,13 @@ import com.mojang.blaze3d.vertex.SheetedDecalTextureGenerator;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.blaze3d.vertex.VertexMultiConsumer;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceLinkedOpenHashMap;
 import net.caffeinemc.mods.sodium.client.SodiumClientMod;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
 import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
+import net.caffeinemc.mods.sodium.client.metrics.benchmark.TerrainBenchmark;
 import net.caffeinemc.mods.sodium.client.render.chunk.ChunkRenderMatrices;
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSectionManager;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.ChunkRenderList;
@@ -37,8 +41,10 @@ import net.minecraft.util.Mth;
 import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3d;
 
 import java.util.Collection;
@@ -60,6 +66,12 @@ public class SodiumWorldRenderer {
 
     private boolean useEntityCulling;
 
+    private Viewport viewport;
+
+    // The block entities to render in the current frame, grouped by type. Block entities of the same type share a
+    // renderer (and usually the same render types), so drawing them together avoids flushing buffers in between.
+    private final Reference2ReferenceLinkedOpenHashMap<BlockEntityType<?>, ObjectArrayList<BlockEntity>> blockEntityBatches = new Reference2ReferenceLinkedOpenHashMap<>();
+
     private RenderSectionManager renderSectionManager;
 
     /**
@@ -118,6 +130,8 @@ public class SodiumWorldRenderer {
     }
 
     private void unloadLevel() {
+        TerrainBenchmark.onLevelUnloaded();
+
         if (this.renderSectionManager != null) {
             this.renderSectionManager.destroy();
             this.renderSectionManager = null;
@@ -143,6 +157,13 @@ public class SodiumWorldRenderer {
         }
     }
 
+    /**
+     * @return The viewport of the current frame, or null if the terrain has not been set up yet
+     */
+    public @Nullable Viewport getViewport() {
+        return this.viewport;
+    }
+
     /**
      * @return True if no chunks are pending rebuilds
      */
@@ -163,6 +184,9 @@ public class SodiumWorldRenderer {
         this.processChunkEvents();
 
         this.useEntityCulling = SodiumClientMod.options().performance.useEntityCulling;
+        this.viewport = viewport;
+
+        PipelineMetrics.update(SodiumClientMod.options());
 
         if (this.client.options.getEffectiveRenderDistance() != this.renderDistance) {
             this.reload();
@@ -213,6 +237,11 @@ public class SodiumWorldRenderer {
             this.renderSectionManager.update(camera, viewport, frame, spectator);
         }
 
+        // the triggering may have been started in an earlier frame, so this is checked even if the camera didn't move
+        profiler.popPush("translucent_triggering_apply");
+
+        this.renderSectionManager.finishGFNIMovement();
+
         profiler.popPush("chunk_update");
 
         this.renderSectionManager.cleanupAndFlip();
@@ -266,7 +295,7 @@ public class SodiumWorldRenderer {
 
         this.renderDistance = this.client.options.getEffectiveRenderDistance();
 
-        this.renderSectionManager = new RenderSectionManager(this.level, this.renderDistance, commandList);
+        this.renderSectionManager = new RenderSectionManager(RenderDevice.INSTANCE, this.level, this.renderDistance, commandList);
 
         var tracker = ChunkTrackerHolder.get(this.level);
         ChunkTracker.forEachChunk(tracker.getReadyChunks(), this.renderSectionManager::onChunkAdded);
@@ -286,19 +315,16 @@ public class SodiumWorldRenderer {
 
         BlockEntityRenderDispatcher blockEntityRenderer = Minecraft.getInstance().getBlockEntityRenderDispatcher();
 
-        this.renderBlockEntities(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer);
-        this.renderGlobalBlockEntities(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer);
+        int maxDistance = SodiumClientMod.options().performance.blockEntityRenderDistance;
+        double maxDistanceSq = maxDistance > 0 ? Mth.square((double) maxDistance) : Double.POSITIVE_INFINITY;
+
+        this.collectBlockEntities(x, y, z, maxDistanceSq);
+        this.collectGlobalBlockEntities(x, y, z, maxDistanceSq);
+
+        this.renderBlockEntityBatches(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer);
     }
 
-    private void renderBlockEntities(PoseStack matrices,
-                                     RenderBuffers bufferBuilders,
-                                     Long2ObjectMap<SortedSet<BlockDestructionProgress>> blockBreakingProgressions,
-                                     float tickDelta,
-                                     MultiBufferSource.BufferSource immediate,
-                                     double x,
-                                     double y,
-                                     double z,
-                                     BlockEntityRenderDispatcher blockEntityRenderer) {
+    private void collectBlockEntities(double x, double y, double z, double maxDistanceSq) {
         SortedRenderLists renderLists = this.renderSectionManager.getRenderLists();
         Iterator<ChunkRenderList> renderListIterator = renderLists.iterator();
 
@@ -323,21 +349,17 @@ public class SodiumWorldRenderer {
                 }
 
                 for (BlockEntity blockEntity : blockEntities) {
-                    renderBlockEntity(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer, blockEntity);
+                    BlockPos pos = blockEntity.getBlockPos();
+
+                    if (isWithinDistance(pos, x, y, z, maxDistanceSq) && this.isWithinFrustum(pos)) {
+                        this.addToBatch(blockEntity);
+                    }
                 }
             }
         }
     }
 
-    private void renderGlobalBlockEntities(PoseStack matrices,
-                                           RenderBuffers bufferBuilders,
-                                           Long2ObjectMap<SortedSet<BlockDestructionProgress>> blockBreakingProgressions,
-                                           float tickDelta,
-                                           MultiBufferSource.BufferSource immediate,
-                                           double x,
-                                           double y,
-                                           double z,
-                                           BlockEntityRenderDispatcher blockEntityRenderer) {
+    private void collectGlobalBlockEntities(double x, double y, double z, double maxDistanceSq) {
         for (var renderSection : this.renderSectionManager.getSectionsWithGlobalEntities()) {
             var blockEntities = renderSection.getGlobalBlockEntities();
 
@@ -345,13 +367,27 @@ public class SodiumWorldRenderer {
                 continue;
             }
 
+            // These block entities can render outside their own volume (such as beacon beams), so they can't be
+            // tested against the frustum, but they can still be dropped when they are too far away.
             for (var blockEntity : blockEntities) {
-                renderBlockEntity(matrices, bufferBuilders, blockBreakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer, blockEntity);
+                if (isWithinDistance(blockEntity.getBlockPos(), x, y, z, maxDistanceSq)) {
+                    this.addToBatch(blockEntity);
+                }
             }
         }
     }
 
-    private static void renderBlockEntity(PoseStack matrices,
+    private void addToBatch(BlockEntity blockEntity) {
+        var batch = this.blockEntityBatches.get(blockEntity.getType());
+
+        if (batch == null) {
+            this.blockEntityBatches.put(blockEntity.getType(), batch = new ObjectArrayList<>());
+        }
+
+        batch.add(blockEntity);
+    }
+
+    private void renderBlockEntityBatches(PoseStack matrices,
                                           RenderBuffers bufferBuilders,
                                           Long2ObjectMap<SortedSet<BlockDestructionProgress>> blockBreakingProgressions,
                                           float tickDelta,
@@ -359,6 +395,51 @@ public class SodiumWorldRenderer {
                                           double x,
                                           double y,
                                           double z,
+                                          BlockEntityRenderDispatcher blockEntityRenderer) {
+        // Only look up the breaking progress of each block entity if something is actually being broken
+        var breakingProgressions = blockBreakingProgressions.isEmpty() ? null : blockBreakingProgressions;
+
+        for (var batch : this.blockEntityBatches.values()) {
+            // noinspection ForLoopReplaceableByForEach
+            for (int i = 0, size = batch.size(); i < size; i++) {
+                renderBlockEntity(matrices, bufferBuilders, breakingProgressions, tickDelta, immediate, x, y, z, blockEntityRenderer, batch.get(i));
+            }
+
+            batch.clear();
+        }
+    }
+
+    private static boolean isWithinDistance(BlockPos pos, double x, double y, double z, double maxDistanceSq) {
+        return pos.distToCenterSqr(x, y, z) <= maxDistanceSq;
+    }
+
+    // The half-size of the box which block entities are tested with. Their models can extend outside their block
+    // volume by up to a block in every direction (such as banners), so this is half a block plus one block.
+    private static final double BLOCK_ENTITY_BOUNDS_RADIUS = 1.5D;
+
+    private boolean isWithinFrustum(BlockPos pos) {
+        if (this.viewport == null) {
+            return true;
+        }
+
+        // the box is centered on the middle of the block, and not on its minimum corner
+        double centerX = pos.getX() + 0.5D;
+        double centerY = pos.getY() + 0.5D;
+        double centerZ = pos.getZ() + 0.5D;
+
+        return this.viewport.isBoxVisible(
+                centerX - BLOCK_ENTITY_BOUNDS_RADIUS, centerY - BLOCK_ENTITY_BOUNDS_RADIUS, centerZ - BLOCK_ENTITY_BOUNDS_RADIUS,
+                centerX + BLOCK_ENTITY_BOUNDS_RADIUS, centerY + BLOCK_ENTITY_BOUNDS_RADIUS, centerZ + BLOCK_ENTITY_BOUNDS_RADIUS);
+    }
+
+    private static void renderBlockEntity(PoseStack matrices,
+                                          RenderBuffers bufferBuilders,
+                                          @Nullable Long2ObjectMap<SortedSet<BlockDestructionProgress>> blockBreakingProgressions,
+                                          float tickDelta,
+                                          MultiBufferSource.BufferSource immediate,
+                                          double x,
+                                          double y,
+                                          double z,
                                           BlockEntityRenderDispatcher dispatcher,
                                           BlockEntity entity) {
         BlockPos pos = entity.getBlockPos();
@@ -367,7 +448,7 @@ public class SodiumWorldRenderer {
         matrices.translate((double) pos.getX() - x, (double) pos.getY() - y, (double) pos.getZ() - z);
 
         MultiBufferSource consumer = immediate;
-        SortedSet<BlockDestructionProgress> breakingInfo = blockBreakingProgressions.get(pos.asLong());
+        SortedSet<BlockDestructionProgress> breakingInfo = blockBreakingProgressions != null ? blockBreakingProgressions.get(pos.asLong()) : null;
 
         if (breakingInfo != null && !breakingInfo.isEmpty()) {
             int stage = breakingInfo.last().getProgress();
@@ -408,16 +489,39 @@ public class SodiumWorldRenderer {
 
         AABB bb = entity.getBoundingBoxForCulling();
 
-        // bail on very large entities to avoid checking many sections
+        // use a coarser check for very large entities to avoid checking many sections
         double entityVolume = (bb.maxX - bb.minX) * (bb.maxY - bb.minY) * (bb.maxZ - bb.minZ);
         if (entityVolume > MAX_ENTITY_CHECK_VOLUME) {
-            // TODO: do a frustum check instead, even large entities aren't visible if they're outside the frustum
-            return true;
+            return this.isLargeBoxVisible(bb.minX, bb.minY, bb.minZ, bb.maxX, bb.maxY, bb.maxZ);
         }
 
         return this.isBoxVisible(bb.minX, bb.minY, bb.minZ, bb.maxX, bb.maxY, bb.maxZ);
     }
 
+    /**
+     * Returns whether a very large box is visible. The box is first tested against the frustum, and then against the
+     * render regions which were reached by the visibility graph search, instead of against each individual section.
+     */
+    private boolean isLargeBoxVisible(double x1, double y1, double z1, double x2, double y2, double z2) {
+        // Boxes outside the valid level height will never map to a rendered chunk
+        if (y2 < this.level.getMinBuildHeight() + 0.5D || y1 > this.level.getMaxBuildHeight() - 0.5D) {
+            return true;
+        }
+
+        // Even large entities aren't visible if they're outside the frustum
+        if (this.viewport != null && !this.viewport.isBoxVisible(x1, y1, z1, x2, y2, z2)) {
+            return false;
+        }
+
+        return this.renderSectionManager.isRegionVisible(
+                SectionPos.posToSectionCoord(x1 - 0.5D),
+                SectionPos.posToSectionCoord(y1 - 0.5D),
+                SectionPos.posToSectionCoord(z1 - 0.5D),
+                SectionPos.posToSectionCoord(x2 + 0.5D),
+                SectionPos.posToSectionCoord(y2 + 0.5D),
+                SectionPos.posToSectionCoord(z2 + 0.5D));
+    }
+
     public boolean isBoxVisible(double x1, double y1, double z1, double x2, double y2, double z2) {
         // Boxes outside the valid level height will never map to a rendered chunk
         // Always render these boxes, or they'll be culled incorrectly!
@@ -456,6 +560,8 @@ public class SodiumWorldRenderer {
      * Schedules chunk rebuilds for all chunks in the specified block region.
      */
     public void scheduleRebuildForBlockArea(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
+        TerrainBenchmark.onBlocksChanged(minX, minY, minZ, maxX, maxY, maxZ, important);
+
         this.scheduleRebuildForChunks(minX >> 4, minY >> 4, minZ >> 4, maxX >> 4, maxY >> 4, maxZ >> 4, important);
     }
 
@@ -472,6 +578,16 @@ public class SodiumWorldRenderer {
         }
     }
 
+    /**
+     * Called when the biome data of a chunk has been received, replaced or unloaded. The affected sections are
+     * scheduled for rebuilds separately.
+     */
+    public void onChunkBiomesChanged(int x, int z) {
+        if (this.renderSectionManager != null) {
+            this.renderSectionManager.onChunkBiomesChanged(x, z);
+        }
+    }
+
     /**
      * Schedules a chunk rebuild for the render belonging to the given chunk section position.
      */
@@ -3,10 +3,7 @@ package net.caffeinemc.mods.sodium.client.render.chunk;
 import net.caffeinemc.mods.sodium.client.SodiumClientMod;
 import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
-import net.caffeinemc.mods.sodium.client.gl.device.DrawCommandList;
-import net.caffeinemc.mods.sodium.client.gl.device.MultiDrawBatch;
 import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
-import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.GlPrimitiveType;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.TessellationBinding;
@@ -25,18 +22,17 @@ import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshAtt
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import net.caffeinemc.mods.sodium.client.render.viewport.CameraTransform;
 import net.caffeinemc.mods.sodium.client.util.BitwiseMath;
-import org.lwjgl.system.MemoryUtil;
 import java.util.Iterator;
 
 public class DefaultChunkRenderer extends ShaderChunkRenderer {
-    private final MultiDrawBatch batch;
+    private final RegionDrawCommands commands;
 
     private final SharedQuadIndexBuffer sharedIndexBuffer;
 
     public DefaultChunkRenderer(RenderDevice device, ChunkVertexType vertexType) {
         super(device, vertexType);
 
-        this.batch = new MultiDrawBatch((ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE) + 1);
+        this.commands = new RegionDrawCommands();
         this.sharedIndexBuffer = new SharedQuadIndexBuffer(device.createCommandList(), SharedQuadIndexBuffer.IndexType.INTEGER);
     }
 
@@ -44,6 +40,9 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
      * Renders the terrain for a particular render pass. Each region is rendered
      * with one draw call. The command buffer for each draw command is filled by
      * iterating the sections and adding the draw commands for each section.
+     * Regions which contain both 16-bit and 32-bit index data take one draw call
+     * for each run of sections with the same index type, so that the order of
+     * the sections is kept.
      */
     @Override
     public void render(ChunkRenderMatrices matrices,
@@ -72,16 +71,16 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                 continue;
             }
 
-            fillCommandBuffer(this.batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+            fillCommandBuffer(this.commands, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
 
-            if (this.batch.isEmpty()) {
+            if (this.commands.isEmpty()) {
                 continue;
             }
 
             // When the shared index buffer is being used, we must ensure the storage has been allocated *before*
             // the tessellation is prepared.
             if (!useIndexedTessellation) {
-                this.sharedIndexBuffer.ensureCapacity(commandList, this.batch.getIndexBufferSize());
+                this.sharedIndexBuffer.ensureCapacity(commandList, this.commands.getIndexBufferSize());
             }
 
             GlTessellation tessellation;
@@ -93,7 +92,8 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
             }
 
             setModelMatrixUniforms(shader, region, camera);
-            executeDrawBatch(commandList, tessellation, this.batch);
+
+            this.commands.submit(commandList, tessellation);
         }
 
         super.end(renderPass);
@@ -104,14 +104,14 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                 && SodiumClientMod.options().performance.getSortBehavior() != SortBehavior.OFF;
     }
 
-    private static void fillCommandBuffer(MultiDrawBatch batch,
-                                          RenderRegion renderRegion,
-                                          SectionRenderDataStorage renderDataStorage,
-                                          ChunkRenderList renderList,
-                                          CameraTransform camera,
-                                          TerrainRenderPass pass,
-                                          boolean useBlockFaceCulling) {
-        batch.clear();
+    static void fillCommandBuffer(RegionDrawCommands commands,
+                                  RenderRegion renderRegion,
+                                  SectionRenderDataStorage renderDataStorage,
+                                  ChunkRenderList renderList,
+                                  CameraTransform camera,
+                                  TerrainRenderPass pass,
+                                  boolean useBlockFaceCulling) {
+        commands.clear();
 
         var iterator = renderList.sectionsWithGeometryIterator(pass.isTranslucent());
 
@@ -150,82 +150,8 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                 continue;
             }
 
-            addDrawCommands(batch, pMeshData, slices);
-        }
-    }
-
-    /**
-     * Add the draw command into the multi draw batch of the current region for one
-     * section. The section's mesh data is given as a pointer into the render data
-     * storage's allocated memory. It goes through each direction and writes the
-     * offsets and lengths of the already uploaded vertex and index data. The multi
-     * draw batch provides pointers to arrays where each of the section's data is
-     * stored. The batch's size counts how many commands it contains.
-     */
-    private static void addDrawCommands(MultiDrawBatch batch, long pMeshData, int mask) {
-        int elementOffset = SectionRenderDataUnsafe.getBaseElement(pMeshData);
-
-        // If high bit is set, the indices should be sourced from the arena's index buffer
-        if ((elementOffset & SectionRenderDataUnsafe.BASE_ELEMENT_MSB) != 0) {
-            addIndexedDrawCommands(batch, pMeshData, mask);
-        } else {
-            addNonIndexedDrawCommands(batch, pMeshData, mask);
-        }
-    }
-
-    /**
-     * Generates the draw commands for a chunk's meshes using the shared index buffer.
-     */
-    @SuppressWarnings("IntegerMultiplicationImplicitCastToLong")
-    private static void addNonIndexedDrawCommands(MultiDrawBatch batch, long pMeshData, int mask) {
-        final var pElementPointer = batch.pElementPointer;
-        final var pBaseVertex = batch.pBaseVertex;
-        final var pElementCount = batch.pElementCount;
-
-        int size = batch.size;
-
-        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
-            MemoryUtil.memPutInt(pBaseVertex + (size << 2), SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing));
-            MemoryUtil.memPutInt(pElementCount + (size << 2), SectionRenderDataUnsafe.getElementCount(pMeshData, facing));
-            MemoryUtil.memPutAddress(pElementPointer + (size << 3), 0 /* using a shared index buffer */);
-
-            size += (mask >> facing) & 1;
-        }
-
-        batch.size = size;
-    }
-
-    /**
-     * Generates the draw commands for a chunk's meshes, where each mesh has a separate index buffer. This is used
-     * when rendering translucent geometry, as each geometry set needs a sorted index buffer.
-     */
-    @SuppressWarnings("IntegerMultiplicationImplicitCastToLong")
-    private static void addIndexedDrawCommands(MultiDrawBatch batch, long pMeshData, int mask) {
-        final var pElementPointer = batch.pElementPointer;
-        final var pBaseVertex = batch.pBaseVertex;
-        final var pElementCount = batch.pElementCount;
-
-        int size = batch.size;
-
-        int elementOffset = SectionRenderDataUnsafe.getBaseElement(pMeshData)
-                & ~SectionRenderDataUnsafe.BASE_ELEMENT_MSB;
-
-        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
-            final var elementCount = SectionRenderDataUnsafe.getElementCount(pMeshData, facing);
-
-            MemoryUtil.memPutInt(pBaseVertex + (size << 2), SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing));
-            MemoryUtil.memPutInt(pElementCount + (size << 2), elementCount);
-
-            // * 4 to convert to bytes (the buffer contains 32-bit integers)
-            // the section render data storage for the indices stores the offset in indices (also called elements)
-            MemoryUtil.memPutAddress(pElementPointer + (size << 3), elementOffset << 2);
-
-            // adding the number of elements works because the index data has one index per element (which are the indices)
-            elementOffset += elementCount;
-            size += (mask >> facing) & 1;
+            commands.addSection(pMeshData, slices);
         }
-
-        batch.size = size;
     }
 
     private static final int MODEL_UNASSIGNED = ModelQuadFacing.UNASSIGNED.ordinal();
@@ -335,17 +261,11 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
         });
     }
 
-    private static void executeDrawBatch(CommandList commandList, GlTessellation tessellation, MultiDrawBatch batch) {
-        try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
-            drawCommandList.multiDrawElementsBaseVertex(batch, GlIndexType.UNSIGNED_INT);
-        }
-    }
-
     @Override
     public void delete(CommandList commandList) {
         super.delete(commandList);
 
         this.sharedIndexBuffer.delete(commandList);
-        this.batch.delete();
+        this.commands.delete();
     }
 }
@@ -0,0 +1,193 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.DrawCommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.MultiDrawBatch;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionRenderDataUnsafe;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * The draw commands of a render region, in the order in which they must be drawn. Sections may store their index
+ * data as either 16-bit or 32-bit indices, but each draw call can only use one index type. Instead of grouping the
+ * commands by their index type (which would break the back-to-front order of translucent geometry), the commands are
+ * split into runs of consecutive commands with the same index type, and each run is submitted as its own draw call.
+ * Most regions only contain one kind of index data, and are still drawn with a single call.
+ */
+public class RegionDrawCommands {
+    private final MultiDrawBatch batch;
+
+    // The index type of each run, and the index of the command following its last command
+    private final GlIndexType[] runIndexTypes;
+    private final int[] runEnds;
+    private int runCount;
+
+    public RegionDrawCommands() {
+        this((ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE) + 1);
+    }
+
+    public RegionDrawCommands(int capacity) {
+        this.batch = new MultiDrawBatch(capacity);
+
+        // every command could start a new run in the worst case
+        this.runIndexTypes = new GlIndexType[capacity];
+        this.runEnds = new int[capacity];
+    }
+
+    public void clear() {
+        this.batch.clear();
+        this.runCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return this.batch.isEmpty();
+    }
+
+    /**
+     * @return The number of indices which the draw commands using the shared index buffer need
+     */
+    public int getIndexBufferSize() {
+        return this.batch.getIndexBufferSize();
+    }
+
+    /**
+     * Add the draw commands for one section. The section's mesh data is given as a pointer into the render data
+     * storage's allocated memory. It goes through each direction and writes the offsets and lengths of the already
+     * uploaded vertex and index data.
+     *
+     * @param pMeshData The pointer to the section's render data
+     * @param mask The bit field of the facings which should be drawn
+     */
+    public void addSection(long pMeshData, int mask) {
+        int elementOffset = SectionRenderDataUnsafe.getBaseElement(pMeshData);
+        GlIndexType indexType;
+
+        // If high bit is set, the indices should be sourced from the arena's index buffer
+        if ((elementOffset & SectionRenderDataUnsafe.BASE_ELEMENT_MSB) != 0) {
+            if ((elementOffset & SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES) != 0) {
+                this.addIndexedDrawCommands(pMeshData, mask, 1);
+                indexType = GlIndexType.UNSIGNED_SHORT;
+            } else {
+                this.addIndexedDrawCommands(pMeshData, mask, 2);
+                indexType = GlIndexType.UNSIGNED_INT;
+            }
+        } else {
+            this.addNonIndexedDrawCommands(pMeshData, mask);
+            indexType = GlIndexType.UNSIGNED_INT;
+        }
+
+        this.extendRun(indexType);
+    }
+
+    private void extendRun(GlIndexType indexType) {
+        int end = this.batch.size;
+
+        if (this.runCount > 0 && this.runIndexTypes[this.runCount - 1] == indexType) {
+            this.runEnds[this.runCount - 1] = end;
+        } else {
+            this.runIndexTypes[this.runCount] = indexType;
+            this.runEnds[this.runCount] = end;
+            this.runCount++;
+        }
+    }
+
+    /**
+     * Generates the draw commands for a chunk's meshes using the shared index buffer.
+     */
+    @SuppressWarnings("IntegerMultiplicationImplicitCastToLong")
+    private void addNonIndexedDrawCommands(long pMeshData, int mask) {
+        final var pElementPointer = this.batch.pElementPointer;
+        final var pBaseVertex = this.batch.pBaseVertex;
+        final var pElementCount = this.batch.pElementCount;
+
+        int size = this.batch.size;
+
+        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+            MemoryUtil.memPutInt(pBaseVertex + (size << 2), SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing));
+            MemoryUtil.memPutInt(pElementCount + (size << 2), SectionRenderDataUnsafe.getElementCount(pMeshData, facing));
+            MemoryUtil.memPutAddress(pElementPointer + (size << 3), 0 /* using a shared index buffer */);
+
+            size += (mask >> facing) & 1;
+        }
+
+        this.batch.size = size;
+    }
+
+    /**
+     * Generates the draw commands for a chunk's meshes, where each mesh has a separate index buffer. This is used
+     * when rendering translucent geometry, as each geometry set needs a sorted index buffer.
+     *
+     * @param indexShift The log2 of the size of the section's indices in bytes
+     */
+    @SuppressWarnings("IntegerMultiplicationImplicitCastToLong")
+    private void addIndexedDrawCommands(long pMeshData, int mask, int indexShift) {
+        final var pElementPointer = this.batch.pElementPointer;
+        final var pBaseVertex = this.batch.pBaseVertex;
+        final var pElementCount = this.batch.pElementCount;
+
+        int size = this.batch.size;
+
+        int elementOffset = SectionRenderDataUnsafe.getBaseElement(pMeshData)
+                & ~(SectionRenderDataUnsafe.BASE_ELEMENT_MSB | SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES);
+
+        // * 4 to convert to bytes (the buffer consists of 32-bit elements)
+        // the section render data storage for the indices stores the offset in elements of the index buffer
+        long elementPointer = (long) elementOffset << 2;
+
+        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+            final var elementCount = SectionRenderDataUnsafe.getElementCount(pMeshData, facing);
+
+            MemoryUtil.memPutInt(pBaseVertex + (size << 2), SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing));
+            MemoryUtil.memPutInt(pElementCount + (size << 2), elementCount);
+            MemoryUtil.memPutAddress(pElementPointer + (size << 3), elementPointer);
+
+            // the element count of a draw command is its number of indices, each of which is 2 or 4 bytes long
+            elementPointer += (long) elementCount << indexShift;
+            size += (mask >> facing) & 1;
+        }
+
+        this.batch.size = size;
+    }
+
+    /**
+     * Draws all commands with the given tessellation, using one draw call for each run of commands.
+     */
+    public void submit(CommandList commandList, GlTessellation tessellation) {
+        try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
+            int start = 0;
+
+            for (int run = 0; run < this.runCount; run++) {
+                int end = this.runEnds[run];
+
+                if (end > start) {
+                    drawCommandList.multiDrawElementsBaseVertex(this.batch, start, end - start, this.runIndexTypes[run]);
+                }
+
+                start = end;
+            }
+        }
+    }
+
+    public MultiDrawBatch getBatch() {
+        return this.batch;
+    }
+
+    public int getRunCount() {
+        return this.runCount;
+    }
+
+    public GlIndexType getRunIndexType(int run) {
+        return this.runIndexTypes[run];
+    }
+
+    public int getRunEnd(int run) {
+        return this.runEnds[run];
+    }
+
+    public void delete() {
+        this.batch.delete();
+    }
+}
@@ -44,6 +44,7 @@ public class RenderSection {
 
     // Rendering State
     private boolean built = false; // merge with the flags?
+    private boolean simplified = false;
     private int flags = RenderSectionFlags.NONE;
     private BlockEntity @Nullable[] globalBlockEntities;
     private BlockEntity @Nullable[] culledBlockEntities;
@@ -149,6 +150,7 @@ public class RenderSection {
 
     private void setRenderState(@NotNull BuiltSectionInfo info) {
         this.built = true;
+        this.simplified = info.simplified;
         this.flags = info.flags;
         this.visibilityData = info.visibilityData;
         this.globalBlockEntities = info.globalBlockEntities;
@@ -158,6 +160,7 @@ public class RenderSection {
 
     private void clearRenderState() {
         this.built = false;
+        this.simplified = false;
         this.flags = RenderSectionFlags.NONE;
         this.visibilityData = VisibilityEncoding.NULL;
         this.globalBlockEntities = null;
@@ -261,6 +264,13 @@ public class RenderSection {
         return this.built;
     }
 
+    /**
+     * Returns true if the current meshes of this section were built with the simplified (far detail) mesher.
+     */
+    public boolean isSimplified() {
+        return this.simplified;
+    }
+
     public int getSectionIndex() {
         return this.sectionIndex;
     }
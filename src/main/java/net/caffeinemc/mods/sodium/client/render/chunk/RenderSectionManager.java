@@ -11,6 +11,9 @@ import it.unimi.dsi.fastutil.objects.ReferenceSets;
 import net.caffeinemc.mods.sodium.client.SodiumClientMod;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
 import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineStage;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineTimer;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
@@ -26,6 +29,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.lists.SortedRenderLists;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.VisibleChunkCollector;
 import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.GraphDirection;
 import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.SectionVisibilityGrid;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegionManager;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
@@ -43,6 +47,7 @@ import net.caffeinemc.mods.sodium.client.render.viewport.CameraTransform;
 import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
 import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import net.caffeinemc.mods.sodium.client.world.LevelSlice;
+import net.caffeinemc.mods.sodium.client.world.biome.BiomeColorTileCache;
 import net.caffeinemc.mods.sodium.client.world.cloned.ChunkRenderContext;
 import net.caffeinemc.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
 import net.minecraft.client.Camera;
@@ -63,10 +68,12 @@ import java.util.*;
 import java.util.concurrent.ConcurrentLinkedDeque;
 
 public class RenderSectionManager {
+    private final RenderDevice device;
     private final ChunkBuilder builder;
 
     private final RenderRegionManager regions;
     private final ClonedChunkSectionCache sectionCache;
+    private final BiomeColorTileCache colorTileCache;
 
     private final Long2ReferenceMap<RenderSection> sectionByPosition = new Long2ReferenceOpenHashMap<>();
 
@@ -79,8 +86,10 @@ public class RenderSectionManager {
     private final ReferenceSet<RenderSection> sectionsWithGlobalEntities = new ReferenceOpenHashSet<>();
 
     private final OcclusionCuller occlusionCuller;
+    private final SectionVisibilityGrid visibilityGrid;
 
     private final int renderDistance;
+    private final SimplifiedMeshThresholds simplifiedMeshThresholds;
 
     private final SortTriggering sortTriggering;
 
@@ -99,23 +108,31 @@ public class RenderSectionManager {
     private @Nullable BlockPos cameraBlockPos;
     private @Nullable Vector3dc cameraPosition;
 
-    public RenderSectionManager(ClientLevel level, int renderDistance, CommandList commandList) {
-        this.chunkRenderer = new DefaultChunkRenderer(RenderDevice.INSTANCE, ChunkMeshFormats.COMPACT);
+    public RenderSectionManager(RenderDevice device, ClientLevel level, int renderDistance, CommandList commandList) {
+        this.device = device;
+        this.chunkRenderer = new DefaultChunkRenderer(device, ChunkMeshFormats.COMPACT);
 
         this.level = level;
         this.builder = new ChunkBuilder(level, ChunkMeshFormats.COMPACT);
 
         this.needsGraphUpdate = true;
         this.renderDistance = renderDistance;
+        this.simplifiedMeshThresholds = new SimplifiedMeshThresholds(SodiumClientMod.options().performance.simplifiedMeshDistance * 16.0f);
 
         this.sortTriggering = new SortTriggering();
 
-        this.regions = new RenderRegionManager(commandList);
+        this.regions = new RenderRegionManager(device, commandList,
+                SodiumClientMod.options().advanced.useAdvancedStagingBuffers);
         this.sectionCache = new ClonedChunkSectionCache(this.level);
+        this.colorTileCache = new BiomeColorTileCache(Minecraft.getInstance().options.biomeBlendRadius().get(),
+                BiomeColorTileCache.getMaxMemoryUsage(renderDistance));
 
         this.renderLists = SortedRenderLists.empty();
         this.occlusionCuller = new OcclusionCuller(Long2ReferenceMaps.unmodifiable(this.sectionByPosition), this.level);
 
+        // the graph search never leaves the render distance, but allow for one extra section of slack
+        this.visibilityGrid = new SectionVisibilityGrid(renderDistance + 1, this.level.getMinSection(), this.level.getMaxSection());
+
         this.taskLists = new EnumMap<>(ChunkUpdateType.class);
 
         for (var type : ChunkUpdateType.values()) {
@@ -141,7 +158,10 @@ public class RenderSectionManager {
         final var searchDistance = this.getSearchDistance();
         final var useOcclusionCulling = this.shouldUseOcclusionCulling(camera, spectator);
 
-        var visitor = new VisibleChunkCollector(frame);
+        var origin = viewport.getChunkCoord();
+        this.visibilityGrid.reset(origin.getX(), origin.getZ());
+
+        var visitor = new VisibleChunkCollector(frame, this.visibilityGrid, viewport.getTransform(), this.simplifiedMeshThresholds);
 
         this.occlusionCuller.findVisible(visitor, viewport, searchDistance, useOcclusionCulling, frame);
 
@@ -238,12 +258,15 @@ public class RenderSectionManager {
     }
 
     public void renderLayer(ChunkRenderMatrices matrices, TerrainRenderPass pass, double x, double y, double z) {
-        RenderDevice device = RenderDevice.INSTANCE;
-        CommandList commandList = device.createCommandList();
+        CommandList commandList = this.device.createCommandList();
+
+        PipelineTimer timer = PipelineMetrics.begin();
 
         this.chunkRenderer.render(matrices, commandList, this.renderLists, pass, new CameraTransform(x, y, z));
 
         commandList.flush();
+
+        PipelineMetrics.end(PipelineStage.DRAW, timer);
     }
 
     public void tickVisibleRenders() {
@@ -280,13 +303,15 @@ public class RenderSectionManager {
     }
 
     public boolean isSectionVisible(int x, int y, int z) {
-        RenderSection render = this.getRenderSection(x, y, z);
-
-        if (render == null) {
-            return false;
-        }
+        return this.visibilityGrid.isVisible(x, y, z);
+    }
 
-        return render.getLastVisibleFrame() == this.lastUpdatedFrame;
+    /**
+     * Returns whether any render region overlapping the given range of sections was visible in the last update. This
+     * is a coarse check meant for very large volumes, for which checking each section would be too expensive.
+     */
+    public boolean isRegionVisible(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return this.regions.isAnyRegionVisible(minX, minY, minZ, maxX, maxY, maxZ, this.lastUpdatedFrame);
     }
 
     public void uploadChunks() {
@@ -310,7 +335,9 @@ public class RenderSectionManager {
     private boolean processChunkBuildResults(ArrayList<BuilderTaskOutput> results) {
         var filtered = filterChunkBuildResults(results);
 
-        this.regions.uploadResults(RenderDevice.INSTANCE.createCommandList(), filtered);
+        PipelineTimer timer = PipelineMetrics.begin();
+        this.regions.uploadResults(this.device.createCommandList(), filtered);
+        PipelineMetrics.end(PipelineStage.UPLOAD, timer);
 
         boolean touchedSectionInfo = false;
         for (var result : filtered) {
@@ -505,21 +532,51 @@ public class RenderSectionManager {
     }
 
     public @Nullable ChunkBuilderMeshingTask createRebuildTask(RenderSection render, int frame) {
-        ChunkRenderContext context = LevelSlice.prepare(this.level, render.getPosition(), this.sectionCache);
+        PipelineTimer timer = PipelineMetrics.begin();
+        ChunkRenderContext context = LevelSlice.prepare(this.level, render.getPosition(), this.sectionCache,
+                this.colorTileCache);
+        PipelineMetrics.end(PipelineStage.CLONE, timer);
 
         if (context == null) {
             return null;
         }
 
-        return new ChunkBuilderMeshingTask(render, frame, this.cameraPosition, context);
+        return new ChunkBuilderMeshingTask(render, frame, this.cameraPosition, context, this.shouldUseSimplifiedMesh(render));
+    }
+
+    private boolean shouldUseSimplifiedMesh(RenderSection section) {
+        if (!this.simplifiedMeshThresholds.isEnabled() || this.cameraPosition == null) {
+            return false;
+        }
+
+        float distance = section.getSquaredDistance(
+                (float) this.cameraPosition.x(), (float) this.cameraPosition.y(), (float) this.cameraPosition.z());
+
+        return this.simplifiedMeshThresholds.shouldSimplify(section.isSimplified(), distance);
     }
 
     public ChunkBuilderSortingTask createSortTask(RenderSection render, int frame) {
         return ChunkBuilderSortingTask.createTask(render, frame, this.cameraPosition);
     }
 
+    /**
+     * Starts processing the translucency sort triggers for the given camera movement in the background. The results
+     * are applied by {@link #finishGFNIMovement()} once they are available.
+     */
     public void processGFNIMovement(CameraMovement movement) {
-        this.sortTriggering.triggerSections(this::scheduleSort, movement);
+        this.sortTriggering.beginTriggerSections(movement);
+    }
+
+    /**
+     * Schedules the sorts for the sections which were triggered in the background, if the triggering has completed.
+     * This never waits for the triggering, and must be called every frame so that the results of slow movements are
+     * applied in a later frame.
+     */
+    public void finishGFNIMovement() {
+        // the graph may have already been updated this frame, so it must be updated again to pick up the sort tasks
+        if (this.sortTriggering.finishTriggerSections(this::scheduleSort) > 0) {
+            this.needsGraphUpdate = true;
+        }
     }
 
     public void markGraphDirty() {
@@ -536,6 +593,7 @@ public class RenderSectionManager {
 
     public void destroy() {
         this.builder.shutdown(); // stop all the workers, and cancel any tasks
+        this.sortTriggering.cancelTriggerSections();
 
         for (var result : this.collectChunkBuildResults()) {
             result.destroy(); // delete resources for any pending tasks (including those that were cancelled)
@@ -548,7 +606,7 @@ public class RenderSectionManager {
         this.sectionsWithGlobalEntities.clear();
         this.resetRenderLists();
 
-        try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+        try (CommandList commandList = this.device.createCommandList()) {
             this.regions.delete(commandList);
             this.chunkRenderer.delete(commandList);
         }
@@ -709,6 +767,8 @@ public class RenderSectionManager {
 
         this.sortTriggering.addDebugStrings(list);
 
+        PipelineMetrics.addDebugStrings(list);
+
         return list;
     }
 
@@ -733,6 +793,10 @@ public class RenderSectionManager {
         }
     }
 
+    public void onChunkBiomesChanged(int x, int z) {
+        this.colorTileCache.invalidateChunk(x, z);
+    }
+
     public Collection<RenderSection> getSectionsWithGlobalEntities() {
         return ReferenceSets.unmodifiable(this.sectionsWithGlobalEntities);
     }
@@ -44,27 +44,16 @@ public abstract class ShaderChunkRenderer implements ChunkRenderer {
     private GlProgram<ChunkShaderInterface> createShader(String path, ChunkShaderOptions options) {
         ShaderConstants constants = options.constants();
 
-        GlShader vertShader = ShaderLoader.loadShader(ShaderType.VERTEX,
-                new ResourceLocation("sodium", path + ".vsh"), constants);
-        
-        GlShader fragShader = ShaderLoader.loadShader(ShaderType.FRAGMENT,
-                new ResourceLocation("sodium", path + ".fsh"), constants);
-
-        try {
-            return GlProgram.builder(new ResourceLocation("sodium", "chunk_shader"))
-                    .attachShader(vertShader)
-                    .attachShader(fragShader)
-                    .bindAttribute("a_PositionHi", ChunkShaderBindingPoints.ATTRIBUTE_POSITION_HI)
-                    .bindAttribute("a_PositionLo", ChunkShaderBindingPoints.ATTRIBUTE_POSITION_LO)
-                    .bindAttribute("a_Color", ChunkShaderBindingPoints.ATTRIBUTE_COLOR)
-                    .bindAttribute("a_TexCoord", ChunkShaderBindingPoints.ATTRIBUTE_TEXTURE)
-                    .bindAttribute("a_LightAndData", ChunkShaderBindingPoints.ATTRIBUTE_LIGHT_MATERIAL_INDEX)
-                    .bindFragmentData("fragColor", ChunkShaderBindingPoints.FRAG_COLOR)
-                    .link((shader) -> new ChunkShaderInterface(shader, options));
-        } finally {
-            vertShader.delete();
-            fragShader.delete();
-        }
+        return GlProgram.builder(new ResourceLocation("sodium", "chunk_shader"))
+                .attachShader(ShaderType.VERTEX, new ResourceLocation("sodium", path + ".vsh"), constants)
+                .attachShader(ShaderType.FRAGMENT, new ResourceLocation("sodium", path + ".fsh"), constants)
+                .bindAttribute("a_PositionHi", ChunkShaderBindingPoints.ATTRIBUTE_POSITION_HI)
+                .bindAttribute("a_PositionLo", ChunkShaderBindingPoints.ATTRIBUTE_POSITION_LO)
+                .bindAttribute("a_Color", ChunkShaderBindingPoints.ATTRIBUTE_COLOR)
+                .bindAttribute("a_TexCoord", ChunkShaderBindingPoints.ATTRIBUTE_TEXTURE)
+                .bindAttribute("a_LightAndData", ChunkShaderBindingPoints.ATTRIBUTE_LIGHT_MATERIAL_INDEX)
+                .bindFragmentData("fragColor", ChunkShaderBindingPoints.FRAG_COLOR)
+                .link((shader) -> new ChunkShaderInterface(shader, options));
     }
 
     protected void begin(TerrainRenderPass pass) {
@@ -0,0 +1,53 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import net.minecraft.util.Mth;
+
+/**
+ * Decides which sections should be built with simplified meshes. The decision depends on the detail level which a
+ * section currently has, so that sections near the boundary don't flip between detail levels (and get rebuilt) every
+ * time the camera moves slightly: sections are only simplified once they are {@link #HYSTERESIS} blocks past the
+ * configured distance, and only return to full detail once they are closer than the configured distance.
+ *
+ * The same thresholds are used when deciding which sections to rebuild, and when deciding how to build them, so
+ * that a section which is rebuilt for any other reason keeps its detail level while it is inside the hysteresis band.
+ */
+public class SimplifiedMeshThresholds {
+    /**
+     * The width of the band (in blocks) in which sections keep their current detail level.
+     */
+    public static final float HYSTERESIS = 16.0f;
+
+    private final float simplifyDistanceSq;
+    private final float unsimplifyDistanceSq;
+
+    /**
+     * @param simplifiedMeshDistance The distance (in blocks) beyond which sections should use simplified meshes, or
+     *                               zero if simplified meshes are disabled
+     */
+    public SimplifiedMeshThresholds(float simplifiedMeshDistance) {
+        if (simplifiedMeshDistance > 0.0f) {
+            this.simplifyDistanceSq = Mth.square(simplifiedMeshDistance + HYSTERESIS);
+            this.unsimplifyDistanceSq = Mth.square(simplifiedMeshDistance);
+        } else {
+            this.simplifyDistanceSq = Float.POSITIVE_INFINITY;
+            this.unsimplifyDistanceSq = Float.POSITIVE_INFINITY;
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.simplifyDistanceSq != Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param simplified True if the section's current meshes are simplified
+     * @param distanceSq The squared distance from the camera to the section
+     * @return True if the section should be built with simplified meshes
+     */
+    public boolean shouldSimplify(boolean simplified, float distanceSq) {
+        if (simplified) {
+            return distanceSq >= this.unsimplifyDistanceSq;
+        } else {
+            return distanceSq > this.simplifyDistanceSq;
+        }
+    }
+}
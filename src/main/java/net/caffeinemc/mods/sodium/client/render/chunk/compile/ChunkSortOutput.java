@@ -2,12 +2,15 @@ package net.caffeinemc.mods.sodium.client.render.chunk.compile;
 
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicTopoData;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.IndexDelta;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.SortData;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.Sorter;
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
 public class ChunkSortOutput extends BuilderTaskOutput implements SortData {
     private NativeBuffer indexBuffer;
+    private boolean shortIndices;
+    private IndexDelta indexDelta;
     private boolean reuseUploadedIndexData;
     private DynamicTopoData.DynamicTopoSorter topoSorter;
 
@@ -22,6 +25,8 @@ public class ChunkSortOutput extends BuilderTaskOutput implements SortData {
 
     public void copyResultFrom(Sorter sorter) {
         this.indexBuffer = sorter.getIndexBuffer();
+        this.shortIndices = sorter.usesShortIndices();
+        this.indexDelta = sorter.getIndexDelta();
         this.reuseUploadedIndexData = false;
         if (sorter instanceof DynamicTopoData.DynamicTopoSorter topoSorterInstance) {
             this.topoSorter = topoSorterInstance;
@@ -37,6 +42,14 @@ public class ChunkSortOutput extends BuilderTaskOutput implements SortData {
         return this.indexBuffer;
     }
 
+    public boolean usesShortIndices() {
+        return this.shortIndices;
+    }
+
+    public IndexDelta getIndexDelta() {
+        return this.indexDelta;
+    }
+
     @Override
     public boolean isReusingUploadedIndexData() {
         return this.reuseUploadedIndexData;
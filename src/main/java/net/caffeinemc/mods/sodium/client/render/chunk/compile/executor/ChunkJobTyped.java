@@ -1,5 +1,8 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.compile.executor;
 
+import net.caffeinemc.mods.sodium.client.metrics.PipelineMetrics;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineStage;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineTimer;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderTask;
@@ -12,6 +15,9 @@ public class ChunkJobTyped<TASK extends ChunkBuilderTask<OUTPUT>, OUTPUT extends
     private final TASK task;
     private final Consumer<ChunkJobResult<OUTPUT>> consumer;
 
+    // Started when the job is submitted, used to measure how long it waited in the queue
+    private final PipelineTimer submitTimer = PipelineMetrics.begin();
+
     private volatile boolean cancelled;
     private volatile boolean started;
 
@@ -39,10 +45,14 @@ public class ChunkJobTyped<TASK extends ChunkBuilderTask<OUTPUT>, OUTPUT extends
 
         this.started = true;
 
+        PipelineMetrics.end(PipelineStage.TASK_WAIT, this.submitTimer);
+
         ChunkJobResult<OUTPUT> result;
+        PipelineTimer timer = PipelineMetrics.begin();
 
         try {
             var output = this.task.execute(context, this);
+            PipelineMetrics.end(this.task.getPipelineStage(), timer);
 
             // Task was cancelled while executing
             if (output == null) {
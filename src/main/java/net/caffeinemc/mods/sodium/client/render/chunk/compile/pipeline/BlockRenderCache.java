@@ -46,6 +46,7 @@ public class BlockRenderCache {
 
     public void init(ChunkRenderContext context) {
         this.lightDataCache.reset(context.getOrigin());
+        this.fluidRenderer.reset(context.getOrigin());
         this.levelSlice.copyData(context);
     }
 
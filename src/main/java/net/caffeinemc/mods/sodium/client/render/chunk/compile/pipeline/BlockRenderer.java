@@ -59,13 +59,7 @@ public class BlockRenderer {
         ColorProvider<BlockState> colorizer = this.colorProviderRegistry.getColorProvider(ctx.state().getBlock());
 
         LightPipeline lighter = this.lighters.getLighter(this.getLightingMode(ctx.state(), ctx.model()));
-        Vec3 renderOffset;
-        
-        if (ctx.state().hasOffsetFunction()) {
-            renderOffset = ctx.state().getOffset(ctx.slice(), ctx.pos());
-        } else {
-            renderOffset = Vec3.ZERO;
-        }
+        Vec3 renderOffset = this.getRenderOffset(ctx);
 
         for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
             List<BakedQuad> quads = this.getGeometry(ctx, face);
@@ -82,6 +76,46 @@ public class BlockRenderer {
         }
     }
 
+    /**
+     * Renders only the upwards-facing geometry of a block model, using flat lighting. This is used for the simplified
+     * meshes of distant sections, where the sides of blocks and smooth lighting are rarely distinguishable.
+     */
+    public void renderModelTopSurface(BlockRenderContext ctx, ChunkBuildBuffers buffers) {
+        var material = DefaultMaterials.forBlockState(ctx.state());
+        var meshBuilder = buffers.get(material);
+
+        ColorProvider<BlockState> colorizer = this.colorProviderRegistry.getColorProvider(ctx.state().getBlock());
+
+        LightPipeline lighter = this.lighters.getLighter(LightMode.FLAT);
+        Vec3 renderOffset = this.getRenderOffset(ctx);
+
+        List<BakedQuad> quads = this.getGeometry(ctx, Direction.UP);
+
+        if (!quads.isEmpty() && this.isFaceVisible(ctx, Direction.UP)) {
+            this.renderQuadList(ctx, material, lighter, colorizer, renderOffset, meshBuilder, quads, Direction.UP);
+        }
+
+        List<BakedQuad> all = this.getGeometry(ctx, null);
+
+        // Unculled geometry (such as the tops of slabs and stairs) is only kept if it faces upwards
+        // noinspection ForLoopReplaceableByForEach
+        for (int i = 0, quadsSize = all.size(); i < quadsSize; i++) {
+            BakedQuadView quad = (BakedQuadView) all.get(i);
+
+            if (quad.getNormalFace() == ModelQuadFacing.POS_Y) {
+                this.renderQuad(ctx, material, lighter, colorizer, renderOffset, meshBuilder, quad, null);
+            }
+        }
+    }
+
+    private Vec3 getRenderOffset(BlockRenderContext ctx) {
+        if (ctx.state().hasOffsetFunction()) {
+            return ctx.state().getOffset(ctx.slice(), ctx.pos());
+        } else {
+            return Vec3.ZERO;
+        }
+    }
+
     private List<BakedQuad> getGeometry(BlockRenderContext ctx, Direction face) {
         var random = this.random;
         random.setSeed(ctx.seed());
@@ -99,18 +133,21 @@ public class BlockRenderer {
         // This is a very hot allocation, iterate over it manually
         // noinspection ForLoopReplaceableByForEach
         for (int i = 0, quadsSize = quads.size(); i < quadsSize; i++) {
-            BakedQuadView quad = (BakedQuadView) quads.get(i);
+            this.renderQuad(ctx, material, lighter, colorizer, offset, builder, (BakedQuadView) quads.get(i), cullFace);
+        }
+    }
 
-            final var lightData = this.getVertexLight(ctx, lighter, cullFace, quad);
-            final var vertexColors = this.getVertexColors(ctx, colorizer, quad);
+    private void renderQuad(BlockRenderContext ctx, Material material, LightPipeline lighter, ColorProvider<BlockState> colorizer, Vec3 offset,
+                            ChunkModelBuilder builder, BakedQuadView quad, Direction cullFace) {
+        final var lightData = this.getVertexLight(ctx, lighter, cullFace, quad);
+        final var vertexColors = this.getVertexColors(ctx, colorizer, quad);
 
-            this.writeGeometry(ctx, builder, offset, material, quad, vertexColors, lightData);
+        this.writeGeometry(ctx, builder, offset, material, quad, vertexColors, lightData);
 
-            TextureAtlasSprite sprite = quad.getSprite();
+        TextureAtlasSprite sprite = quad.getSprite();
 
-            if (sprite != null) {
-                builder.addSprite(sprite);
-            }
+        if (sprite != null) {
+            builder.addSprite(sprite);
         }
     }
 
@@ -28,6 +28,7 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
 import net.minecraft.tags.FluidTags;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.BlockAndTintGetter;
@@ -48,10 +49,19 @@ public class DefaultFluidRenderer {
     public static final float EPSILON = 0.001f;
     private static final float ALIGNED_EQUALS_EPSILON = 0.011f;
 
+    // The height below which the bottom face of a fluid is tested for occlusion, which never changes
+    private static final VoxelShape DOWN_THRESHOLD = Shapes.box(0.0D, 0.0D, 0.0D, 1.0D, 0.8888889F, 1.0D);
+
     private final BlockPos.MutableBlockPos scratchPos = new BlockPos.MutableBlockPos();
     private final MutableFloat scratchHeight = new MutableFloat(0);
     private final MutableInt scratchSamples = new MutableInt();
 
+    private final FluidHeightCache heightCache = new FluidHeightCache();
+
+    // Most fluid blocks in a section share the same few heights, so the last threshold shape is usually re-usable
+    private VoxelShape lastThresholdShape = DOWN_THRESHOLD;
+    private float lastThresholdHeight = 0.8888889F;
+
     private final ModelQuadViewMutable quad = new ModelQuad();
 
     private final LightPipelineProvider lighters;
@@ -69,15 +79,27 @@ public class DefaultFluidRenderer {
         this.colorProviderRegistry = colorProviderRegistry;
     }
 
-    private boolean isFluidOccluded(BlockAndTintGetter world, int x, int y, int z, Direction dir, Fluid fluid) {
-        BlockPos pos = this.scratchPos.set(x, y, z);
-        BlockState blockState = world.getBlockState(pos);
+    /**
+     * Resets the cached state of this renderer for a new chunk section. This must be called before rendering any
+     * fluids within the section.
+     */
+    public void reset(SectionPos origin) {
+        this.heightCache.reset(origin);
+    }
+
+    private boolean isFluidOccluded(BlockAndTintGetter world, BlockState blockState, int x, int y, int z, Direction dir,
+                                    Fluid fluid) {
         BlockPos adjPos = this.scratchPos.set(x + dir.getStepX(), y + dir.getStepY(), z + dir.getStepZ());
 
-        if (blockState.canOcclude()) {
-            return world.getFluidState(adjPos).getType().isSame(fluid) || blockState.isFaceSturdy(world, pos, dir, SupportType.FULL);
+        if (world.getFluidState(adjPos).getType().isSame(fluid)) {
+            return true;
         }
-        return world.getFluidState(adjPos).getType().isSame(fluid);
+
+        // The support shape is queried with the adjacent position, as it always has been: previously, both positions
+        // were written to the same scratch position, so the adjacent position replaced the block's own position
+        // before the query. Passing the block's own position instead would change which faces are culled for
+        // blocks with position-dependent shapes.
+        return blockState.canOcclude() && blockState.isFaceSturdy(world, adjPos, dir, SupportType.FULL);
     }
 
     private boolean isSideExposed(BlockAndTintGetter world, int x, int y, int z, Direction dir, float height) {
@@ -95,28 +117,36 @@ public class DefaultFluidRenderer {
                 return true;
             }
 
-            VoxelShape threshold = Shapes.box(0.0D, 0.0D, 0.0D, 1.0D, height, 1.0D);
-
-            return !Shapes.blockOccudes(threshold, shape, dir);
+            return !Shapes.blockOccudes(this.getThresholdShape(height), shape, dir);
         }
 
         return true;
     }
 
+    private VoxelShape getThresholdShape(float height) {
+        if (height != this.lastThresholdHeight) {
+            this.lastThresholdShape = Shapes.box(0.0D, 0.0D, 0.0D, 1.0D, height, 1.0D);
+            this.lastThresholdHeight = height;
+        }
+
+        return this.lastThresholdShape;
+    }
+
     public void render(LevelSlice level, FluidState fluidState, BlockPos blockPos, BlockPos offset, TranslucentGeometryCollector collector, ChunkModelBuilder meshBuilder, Material material, FluidRenderHandler handler) {
         int posX = blockPos.getX();
         int posY = blockPos.getY();
         int posZ = blockPos.getZ();
 
         Fluid fluid = fluidState.getType();
+        BlockState blockState = level.getBlockState(blockPos);
 
-        boolean sfUp = this.isFluidOccluded(level, posX, posY, posZ, Direction.UP, fluid);
-        boolean sfDown = this.isFluidOccluded(level, posX, posY, posZ, Direction.DOWN, fluid) ||
+        boolean sfUp = this.isFluidOccluded(level, blockState, posX, posY, posZ, Direction.UP, fluid);
+        boolean sfDown = this.isFluidOccluded(level, blockState, posX, posY, posZ, Direction.DOWN, fluid) ||
                 !this.isSideExposed(level, posX, posY, posZ, Direction.DOWN, 0.8888889F);
-        boolean sfNorth = this.isFluidOccluded(level, posX, posY, posZ, Direction.NORTH, fluid);
-        boolean sfSouth = this.isFluidOccluded(level, posX, posY, posZ, Direction.SOUTH, fluid);
-        boolean sfWest = this.isFluidOccluded(level, posX, posY, posZ, Direction.WEST, fluid);
-        boolean sfEast = this.isFluidOccluded(level, posX, posY, posZ, Direction.EAST, fluid);
+        boolean sfNorth = this.isFluidOccluded(level, blockState, posX, posY, posZ, Direction.NORTH, fluid);
+        boolean sfSouth = this.isFluidOccluded(level, blockState, posX, posY, posZ, Direction.SOUTH, fluid);
+        boolean sfWest = this.isFluidOccluded(level, blockState, posX, posY, posZ, Direction.WEST, fluid);
+        boolean sfEast = this.isFluidOccluded(level, blockState, posX, posY, posZ, Direction.EAST, fluid);
 
         if (sfUp && sfDown && sfEast && sfWest && sfNorth && sfSouth) {
             return;
@@ -128,7 +158,7 @@ public class DefaultFluidRenderer {
 
         TextureAtlasSprite[] sprites = handler.getFluidSprites(level, blockPos, fluidState);
 
-        float fluidHeight = this.fluidHeight(level, fluid, blockPos, Direction.UP);
+        float fluidHeight = this.fluidHeight(level, fluid, posX, posY, posZ);
         float northWestHeight, southWestHeight, southEastHeight, northEastHeight;
         if (fluidHeight >= 1.0f) {
             northWestHeight = 1.0f;
@@ -136,23 +166,18 @@ public class DefaultFluidRenderer {
             southEastHeight = 1.0f;
             northEastHeight = 1.0f;
         } else {
-            var scratchPos = new BlockPos.MutableBlockPos();
-            float heightNorth = this.fluidHeight(level, fluid, scratchPos.setWithOffset(blockPos, Direction.NORTH), Direction.NORTH);
-            float heightSouth = this.fluidHeight(level, fluid, scratchPos.setWithOffset(blockPos, Direction.SOUTH), Direction.SOUTH);
-            float heightEast = this.fluidHeight(level, fluid, scratchPos.setWithOffset(blockPos, Direction.EAST), Direction.EAST);
-            float heightWest = this.fluidHeight(level, fluid, scratchPos.setWithOffset(blockPos, Direction.WEST), Direction.WEST);
-            northWestHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightNorth, heightWest, scratchPos.set(blockPos)
-                    .move(Direction.NORTH)
-                    .move(Direction.WEST));
-            southWestHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightSouth, heightWest, scratchPos.set(blockPos)
-                    .move(Direction.SOUTH)
-                    .move(Direction.WEST));
-            southEastHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightSouth, heightEast, scratchPos.set(blockPos)
-                    .move(Direction.SOUTH)
-                    .move(Direction.EAST));
-            northEastHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightNorth, heightEast, scratchPos.set(blockPos)
-                    .move(Direction.NORTH)
-                    .move(Direction.EAST));
+            float heightNorth = this.fluidHeight(level, fluid, posX, posY, posZ - 1);
+            float heightSouth = this.fluidHeight(level, fluid, posX, posY, posZ + 1);
+            float heightEast = this.fluidHeight(level, fluid, posX + 1, posY, posZ);
+            float heightWest = this.fluidHeight(level, fluid, posX - 1, posY, posZ);
+            northWestHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightNorth, heightWest,
+                    posX - 1, posY, posZ - 1);
+            southWestHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightSouth, heightWest,
+                    posX - 1, posY, posZ + 1);
+            southEastHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightSouth, heightEast,
+                    posX + 1, posY, posZ + 1);
+            northEastHeight = this.fluidCornerHeight(level, fluid, fluidHeight, heightNorth, heightEast,
+                    posX + 1, posY, posZ - 1);
         }
         float yOffset = sfDown ? 0.0F : EPSILON;
 
@@ -459,13 +484,14 @@ public class DefaultFluidRenderer {
         quad.setTexV(i, v);
     }
 
-    private float fluidCornerHeight(BlockAndTintGetter world, Fluid fluid, float fluidHeight, float fluidHeightX, float fluidHeightY, BlockPos blockPos) {
+    private float fluidCornerHeight(BlockAndTintGetter world, Fluid fluid, float fluidHeight, float fluidHeightX, float fluidHeightY,
+                                    int x, int y, int z) {
         if (fluidHeightY >= 1.0f || fluidHeightX >= 1.0f) {
             return 1.0f;
         }
 
         if (fluidHeightY > 0.0f || fluidHeightX > 0.0f) {
-            float height = this.fluidHeight(world, fluid, blockPos, Direction.UP);
+            float height = this.fluidHeight(world, fluid, x, y, z);
 
             if (height >= 1.0f) {
                 return 1.0f;
@@ -495,12 +521,29 @@ public class DefaultFluidRenderer {
         }
     }
 
-    private float fluidHeight(BlockAndTintGetter world, Fluid fluid, BlockPos blockPos, Direction direction) {
-        BlockState blockState = world.getBlockState(blockPos);
+    private float fluidHeight(BlockAndTintGetter world, Fluid fluid, int x, int y, int z) {
+        int index = this.heightCache.index(x, y, z);
+
+        if (index < 0) {
+            return this.computeFluidHeight(world, fluid, x, y, z);
+        }
+
+        if (this.heightCache.contains(index, fluid)) {
+            return this.heightCache.get(index);
+        }
+
+        float height = this.computeFluidHeight(world, fluid, x, y, z);
+        this.heightCache.put(index, fluid, height);
+
+        return height;
+    }
+
+    private float computeFluidHeight(BlockAndTintGetter world, Fluid fluid, int x, int y, int z) {
+        BlockState blockState = world.getBlockState(this.scratchPos.set(x, y, z));
         FluidState fluidState = blockState.getFluidState();
 
         if (fluid.isSame(fluidState.getType())) {
-            FluidState fluidStateUp = world.getFluidState(blockPos.above());
+            FluidState fluidStateUp = world.getFluidState(this.scratchPos.set(x, y + 1, z));
 
             if (fluid.isSame(fluidStateUp.getType())) {
                 return 1.0f;
@@ -0,0 +1,61 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.compile.pipeline;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.material.Fluid;
+
+import java.util.Arrays;
+
+/**
+ * A flat-array cache of the fluid heights for the blocks in a given chunk section and its direct neighbors. Every
+ * fluid block samples the heights of its eight surrounding blocks, so without caching, each height would be computed
+ * up to nine times per section. The height of a block depends on the fluid it is compared against, so each entry also
+ * remembers the fluid it was computed for, and a mismatch is treated as a cache miss.
+ */
+public class FluidHeightCache {
+    private static final int NEIGHBOR_BLOCK_RADIUS = 1;
+    private static final int BLOCK_LENGTH = 16 + (NEIGHBOR_BLOCK_RADIUS * 2);
+
+    private final Fluid[] fluids = new Fluid[BLOCK_LENGTH * BLOCK_LENGTH * BLOCK_LENGTH];
+    private final float[] heights = new float[BLOCK_LENGTH * BLOCK_LENGTH * BLOCK_LENGTH];
+
+    private int xOffset, yOffset, zOffset;
+
+    public void reset(SectionPos origin) {
+        this.xOffset = origin.minBlockX() - NEIGHBOR_BLOCK_RADIUS;
+        this.yOffset = origin.minBlockY() - NEIGHBOR_BLOCK_RADIUS;
+        this.zOffset = origin.minBlockZ() - NEIGHBOR_BLOCK_RADIUS;
+
+        Arrays.fill(this.fluids, null);
+    }
+
+    /**
+     * @return The index of the given block position in the cache, or -1 if it lies outside the cached volume
+     */
+    public int index(int x, int y, int z) {
+        int x2 = x - this.xOffset;
+        int y2 = y - this.yOffset;
+        int z2 = z - this.zOffset;
+
+        // unsigned comparisons also reject negative coordinates
+        if (Integer.compareUnsigned(x2, BLOCK_LENGTH) >= 0 ||
+                Integer.compareUnsigned(y2, BLOCK_LENGTH) >= 0 ||
+                Integer.compareUnsigned(z2, BLOCK_LENGTH) >= 0) {
+            return -1;
+        }
+
+        return (z2 * BLOCK_LENGTH * BLOCK_LENGTH) + (y2 * BLOCK_LENGTH) + x2;
+    }
+
+    public boolean contains(int index, Fluid fluid) {
+        return this.fluids[index] == fluid;
+    }
+
+    public float get(int index) {
+        return this.heights[index];
+    }
+
+    public void put(int index, Fluid fluid, float height) {
+        this.fluids[index] = fluid;
+        this.heights[index] = height;
+    }
+}
@@ -13,6 +13,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import net.caffeinemc.mods.sodium.client.render.chunk.terrain.material.DefaultMaterials;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortBehavior;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortType;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TranslucentGeometryCollector;
@@ -21,6 +22,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.T
 import net.caffeinemc.mods.sodium.client.util.task.CancellationToken;
 import net.caffeinemc.mods.sodium.client.world.LevelSlice;
 import net.caffeinemc.mods.sodium.client.world.cloned.ChunkRenderContext;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineStage;
 import net.minecraft.CrashReport;
 import net.minecraft.CrashReportCategory;
 import net.minecraft.ReportedException;
@@ -43,18 +45,26 @@ import org.joml.Vector3dc;
  *
  * This task takes a slice of the level from the thread it is created on. Since these slices require rather large
  * array allocations, they are pooled to ensure that the garbage collector doesn't become overloaded.
+ *
+ * If the task is simplified, only the upwards-facing surfaces of blocks are meshed and small cutout details (such as
+ * grass and flowers) are skipped entirely. This is used for sections far away from the camera, where the rest of the
+ * geometry is barely visible but would still cost vertex memory and upload bandwidth.
  */
 public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput> {
     private final ChunkRenderContext renderContext;
+    private final boolean simplified;
 
-    public ChunkBuilderMeshingTask(RenderSection render, int buildTime, Vector3dc absoluteCameraPos, ChunkRenderContext renderContext) {
+    public ChunkBuilderMeshingTask(RenderSection render, int buildTime, Vector3dc absoluteCameraPos, ChunkRenderContext renderContext,
+                                   boolean simplified) {
         super(render, buildTime, absoluteCameraPos);
         this.renderContext = renderContext;
+        this.simplified = simplified;
     }
 
     @Override
     public ChunkBuildOutput execute(ChunkBuildContext buildContext, CancellationToken cancellationToken) {
         BuiltSectionInfo.Builder renderData = new BuiltSectionInfo.Builder();
+        renderData.setSimplified(this.simplified);
         VisGraph occluder = new VisGraph();
 
         ChunkBuildBuffers buffers = buildContext.buffers;
@@ -107,8 +117,14 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
                             long seed = blockState.getSeed(blockPos);
 
                             context.update(blockPos, modelOffset, blockState, model, seed);
-                            cache.getBlockRenderer()
-                                .renderModel(context, buffers);
+
+                            if (!this.simplified) {
+                                cache.getBlockRenderer()
+                                    .renderModel(context, buffers);
+                            } else if (!isCutoutDetail(slice, blockState, blockPos)) {
+                                cache.getBlockRenderer()
+                                    .renderModelTopSurface(context, buffers);
+                            }
                         }
 
                         FluidState fluidState = blockState.getFluidState();
@@ -192,6 +208,15 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
         return output;
     }
 
+    /**
+     * Returns true if the block is a small cutout detail (such as grass, flowers, or torches) which can be skipped in
+     * simplified meshes. Cutout blocks which fill their entire volume, such as leaves, are not considered details.
+     */
+    private static boolean isCutoutDetail(LevelSlice slice, BlockState blockState, BlockPos blockPos) {
+        return DefaultMaterials.forBlockState(blockState).pass == DefaultTerrainRenderPasses.CUTOUT
+                && !blockState.isCollisionShapeFullBlock(slice, blockPos);
+    }
+
     private ReportedException fillCrashInfo(CrashReport report, LevelSlice slice, BlockPos pos) {
         CrashReportCategory crashReportSection = report.addCategory("Block being rendered", 1);
 
@@ -202,6 +227,7 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
         CrashReportCategory.populateBlockDetails(crashReportSection, slice, pos, state);
 
         crashReportSection.setDetail("Chunk section", this.render);
+        crashReportSection.setDetail("Simplified mesh", this.simplified);
         if (this.renderContext != null) {
             crashReportSection.setDetail("Render context volume", this.renderContext.getVolume());
         }
@@ -213,4 +239,9 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
     public int getEffort() {
         return ChunkBuilder.HIGH_EFFORT;
     }
+
+    @Override
+    public PipelineStage getPipelineStage() {
+        return PipelineStage.MESH;
+    }
 }
@@ -9,6 +9,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.executor.ChunkBuilder;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicData;
 import net.caffeinemc.mods.sodium.client.util.task.CancellationToken;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineStage;
 
 public class ChunkBuilderSortingTask extends ChunkBuilderTask<ChunkSortOutput> {
     private final Sorter sorter;
@@ -38,4 +39,9 @@ public class ChunkBuilderSortingTask extends ChunkBuilderTask<ChunkSortOutput> {
     public int getEffort() {
         return ChunkBuilder.LOW_EFFORT;
     }
+
+    @Override
+    public PipelineStage getPipelineStage() {
+        return PipelineStage.SORT;
+    }
 }
@@ -9,6 +9,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.CombinedCameraPos;
 import net.caffeinemc.mods.sodium.client.util.task.CancellationToken;
+import net.caffeinemc.mods.sodium.client.metrics.PipelineStage;
 
 /**
  * Build tasks are immutable jobs (with optional prioritization) which contain all the necessary state to perform
@@ -56,6 +57,11 @@ public abstract class ChunkBuilderTask<OUTPUT extends BuilderTaskOutput> impleme
 
     public abstract int getEffort();
 
+    /**
+     * @return The pipeline stage which the execution time of this task is recorded as
+     */
+    public abstract PipelineStage getPipelineStage();
+
     @Override
     public Vector3fc getRelativeCameraPos() {
         return this.cameraPos;
@@ -29,11 +29,17 @@ public class BuiltSectionInfo {
     public final BlockEntity @Nullable[] culledBlockEntities;
     public final TextureAtlasSprite @Nullable[] animatedSprites;
 
+    /**
+     * True if the meshes of this section were built with the simplified (far detail) mesher.
+     */
+    public final boolean simplified;
+
     private BuiltSectionInfo(@NotNull Collection<TerrainRenderPass> blockRenderPasses,
                              @NotNull Collection<BlockEntity> globalBlockEntities,
                              @NotNull Collection<BlockEntity> culledBlockEntities,
                              @NotNull Collection<TextureAtlasSprite> animatedSprites,
-                             @NotNull VisibilitySet occlusionData) {
+                             @NotNull VisibilitySet occlusionData,
+                             boolean simplified) {
         this.globalBlockEntities = toArray(globalBlockEntities, BlockEntity[]::new);
         this.culledBlockEntities = toArray(culledBlockEntities, BlockEntity[]::new);
         this.animatedSprites = toArray(animatedSprites, TextureAtlasSprite[]::new);
@@ -55,6 +61,7 @@ public class BuiltSectionInfo {
         this.flags = flags;
 
         this.visibilityData = VisibilityEncoding.encode(occlusionData);
+        this.simplified = simplified;
     }
 
     public static class Builder {
@@ -64,6 +71,7 @@ public class BuiltSectionInfo {
         private final Set<TextureAtlasSprite> animatedSprites = new ObjectOpenHashSet<>();
 
         private VisibilitySet occlusionData;
+        private boolean simplified;
 
         public void addRenderPass(TerrainRenderPass pass) {
             this.blockRenderPasses.add(pass);
@@ -73,6 +81,10 @@ public class BuiltSectionInfo {
             this.occlusionData = data;
         }
 
+        public void setSimplified(boolean simplified) {
+            this.simplified = simplified;
+        }
+
         /**
          * Adds a sprite to this data container for tracking. If the sprite is tickable, it will be ticked every frame
          * before rendering as necessary.
@@ -94,7 +106,7 @@ public class BuiltSectionInfo {
         }
 
         public BuiltSectionInfo build() {
-            return new BuiltSectionInfo(this.blockRenderPasses, this.globalBlockEntities, this.culledBlockEntities, this.animatedSprites, this.occlusionData);
+            return new BuiltSectionInfo(this.blockRenderPasses, this.globalBlockEntities, this.culledBlockEntities, this.animatedSprites, this.occlusionData, this.simplified);
         }
     }
 
@@ -84,7 +84,7 @@ public class SectionRenderDataStorage {
         SectionRenderDataUnsafe.setSliceMask(pMeshData, sliceMask);
     }
 
-    public void setIndexData(int localSectionIndex, GlBufferSegment allocation) {
+    public void setIndexData(int localSectionIndex, GlBufferSegment allocation, boolean shortIndices) {
         if (this.elementAllocations == null) {
             throw new IllegalStateException("Cannot set index data when storesIndices is false");
         }
@@ -99,8 +99,21 @@ public class SectionRenderDataStorage {
 
         var pMeshData = this.getDataPointer(localSectionIndex);
 
-        SectionRenderDataUnsafe.setBaseElement(pMeshData,
-                allocation.getOffset() | SectionRenderDataUnsafe.BASE_ELEMENT_MSB);
+        int flags = SectionRenderDataUnsafe.BASE_ELEMENT_MSB;
+
+        if (shortIndices) {
+            flags |= SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES;
+        }
+
+        SectionRenderDataUnsafe.setBaseElement(pMeshData, allocation.getOffset() | flags);
+    }
+
+    public @Nullable GlBufferSegment getIndexData(int localSectionIndex) {
+        if (this.elementAllocations == null) {
+            return null;
+        }
+
+        return this.elementAllocations[localSectionIndex];
     }
 
     public void removeData(int localSectionIndex) {
@@ -185,8 +198,12 @@ public class SectionRenderDataStorage {
             var allocation = this.elementAllocations[sectionIndex];
 
             if (allocation != null) {
-                SectionRenderDataUnsafe.setBaseElement(this.getDataPointer(sectionIndex),
-                        allocation.getOffset() | SectionRenderDataUnsafe.BASE_ELEMENT_MSB);
+                var pMeshData = this.getDataPointer(sectionIndex);
+
+                // keep the flags and only update the offset
+                int flags = SectionRenderDataUnsafe.getBaseElement(pMeshData)
+                        & (SectionRenderDataUnsafe.BASE_ELEMENT_MSB | SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES);
+                SectionRenderDataUnsafe.setBaseElement(pMeshData, allocation.getOffset() | flags);
             }
         }
     }
@@ -29,6 +29,12 @@ import org.lwjgl.system.MemoryUtil;
 public class SectionRenderDataUnsafe {
     public static final int BASE_ELEMENT_MSB = 1 << 31;
 
+    /**
+     * Set together with {@link #BASE_ELEMENT_MSB} when the section's index data consists of 16-bit indices. The
+     * base element is always given in units of 32-bit elements of the region's index buffer.
+     */
+    public static final int BASE_ELEMENT_SHORT_INDICES = 1 << 30;
+
     /**
      * When the "base element" field is not specified (indicated by setting the MSB to 0), the indices for the geometry set
      * should be sourced from a monotonic sequence (see {@link net.caffeinemc.mods.sodium.client.render.chunk.SharedQuadIndexBuffer}).
@@ -3,8 +3,11 @@ package net.caffeinemc.mods.sodium.client.render.chunk.lists;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.caffeinemc.mods.sodium.client.render.chunk.ChunkUpdateType;
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.render.chunk.SimplifiedMeshThresholds;
 import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.SectionVisibilityGrid;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import net.caffeinemc.mods.sodium.client.render.viewport.CameraTransform;
 
 import java.util.*;
 
@@ -18,8 +21,22 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
 
     private final int frame;
 
-    public VisibleChunkCollector(int frame) {
+    private final SectionVisibilityGrid visibilityGrid;
+
+    private final CameraTransform transform;
+    private final SimplifiedMeshThresholds simplifiedMeshThresholds;
+
+    /**
+     * @param visibilityGrid           The grid in which each visited section is marked as visible
+     * @param transform                The camera transform used to select the detail level of sections
+     * @param simplifiedMeshThresholds The thresholds which decide which sections should use simplified meshes
+     */
+    public VisibleChunkCollector(int frame, SectionVisibilityGrid visibilityGrid, CameraTransform transform,
+                                 SimplifiedMeshThresholds simplifiedMeshThresholds) {
         this.frame = frame;
+        this.visibilityGrid = visibilityGrid;
+        this.transform = transform;
+        this.simplifiedMeshThresholds = simplifiedMeshThresholds;
 
         this.sortedRenderLists = new ObjectArrayList<>();
         this.sortedRebuildLists = new EnumMap<>(ChunkUpdateType.class);
@@ -42,13 +59,34 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
             this.sortedRenderLists.add(renderList);
         }
 
+        this.visibilityGrid.markVisible(section);
+
         if (visible && section.getFlags() != 0) {
             renderList.add(section);
         }
 
+        if (this.simplifiedMeshThresholds.isEnabled()) {
+            this.updateDetailLevel(section);
+        }
+
         this.addToRebuildLists(section);
     }
 
+    private void updateDetailLevel(RenderSection section) {
+        // Sections which have no geometry at full detail have nothing to simplify, and would otherwise be rebuilt
+        // over and over again without ever changing their detail level.
+        if (!section.isBuilt() || section.getPendingUpdate() != null ||
+                (section.getFlags() == 0 && !section.isSimplified())) {
+            return;
+        }
+
+        float distance = section.getSquaredDistance((float) this.transform.x, (float) this.transform.y, (float) this.transform.z);
+
+        if (this.simplifiedMeshThresholds.shouldSimplify(section.isSimplified(), distance) != section.isSimplified()) {
+            section.setPendingUpdate(ChunkUpdateType.REBUILD);
+        }
+    }
+
     private void addToRebuildLists(RenderSection section) {
         ChunkUpdateType type = section.getPendingUpdate();
 
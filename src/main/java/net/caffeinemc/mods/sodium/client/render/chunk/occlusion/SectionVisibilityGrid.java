@@ -0,0 +1,78 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.util.collections.BitArray;
+
+/**
+ * A dense bit set over the grid of sections around the camera, which records the sections that were reached by the
+ * visibility graph search. This allows visibility queries (such as those made for entity culling) to be answered with
+ * a single array access, rather than a hash map lookup per section.
+ *
+ * The grid is re-centered on the camera's section every time it is reset. Sections outside of the grid can never be
+ * reached by the graph search (as they are beyond the render distance) and are always considered not visible.
+ */
+public class SectionVisibilityGrid {
+    private final int radius;
+    private final int width;
+
+    private final int minY;
+    private final int height;
+
+    private final BitArray visible;
+
+    private int originX, originZ;
+
+    /**
+     * @param radius      The maximum horizontal distance (in sections) from the camera which is tracked
+     * @param minSectionY The lowest section coordinate of the level (inclusive)
+     * @param maxSectionY The highest section coordinate of the level (exclusive)
+     */
+    public SectionVisibilityGrid(int radius, int minSectionY, int maxSectionY) {
+        this.radius = radius;
+        this.width = (radius * 2) + 1;
+
+        this.minY = minSectionY;
+        this.height = maxSectionY - minSectionY;
+
+        this.visible = new BitArray(this.width * this.width * this.height);
+    }
+
+    /**
+     * Clears all visibility state and centers the grid on the given section column.
+     */
+    public void reset(int originX, int originZ) {
+        this.originX = originX;
+        this.originZ = originZ;
+
+        this.visible.unset();
+    }
+
+    public void markVisible(RenderSection section) {
+        int index = this.getIndex(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+
+        if (index >= 0) {
+            this.visible.set(index);
+        }
+    }
+
+    public boolean isVisible(int x, int y, int z) {
+        int index = this.getIndex(x, y, z);
+
+        return index >= 0 && this.visible.get(index);
+    }
+
+    private int getIndex(int x, int y, int z) {
+        int lx = x - this.originX + this.radius;
+        int ly = y - this.minY;
+        int lz = z - this.originZ + this.radius;
+
+        // unsigned comparisons also reject negative coordinates
+        if (Integer.compareUnsigned(lx, this.width) >= 0 ||
+                Integer.compareUnsigned(ly, this.height) >= 0 ||
+                Integer.compareUnsigned(lz, this.width) >= 0) {
+            return -1;
+        }
+
+        return (((ly * this.width) + lz) * this.width) + lx;
+    }
+}
@@ -34,6 +34,11 @@ public class RenderRegion {
 
     public static final int REGION_SIZE = REGION_WIDTH * REGION_HEIGHT * REGION_LENGTH;
 
+    /**
+     * The size of the elements of the index arena. Sections with 16-bit indices pack two indices into each element.
+     */
+    public static final int INDEX_ELEMENT_BYTES = Integer.BYTES;
+
     static {
         Validate.isTrue(MathUtil.isPowerOfTwo(REGION_WIDTH));
         Validate.isTrue(MathUtil.isPowerOfTwo(REGION_HEIGHT));
@@ -208,7 +213,8 @@ public class RenderRegion {
          * The buffer arenas return offsets in terms of how many stride units big things
          * are. This means that if the stride is the length of a vertex, the buffer
          * arena works with vertices and returns vertex offsets. The arena working with
-         * indices has as stride of four corresponding to the length of an integer. The
+         * indices has as stride of four corresponding to the length of an integer (or two
+         * 16-bit indices for sections with few enough vertices). The
          * two can't easily be combined because integers and vertices require different
          * amounts of data which makes the returned offsets incompatible.
          */
@@ -219,7 +225,7 @@ public class RenderRegion {
             var initialVertices = 756;
             this.geometryArena = new GlBufferArena(commandList, REGION_SIZE * initialVertices, stride, stagingBuffer);
             var initialIndices = (initialVertices / 4) * 6;
-            this.indexArena = new GlBufferArena(commandList, REGION_SIZE * initialIndices, Integer.BYTES, stagingBuffer);
+            this.indexArena = new GlBufferArena(commandList, REGION_SIZE * initialIndices, INDEX_ELEMENT_BYTES, stagingBuffer);
         }
 
         public void updateTessellation(CommandList commandList, GlTessellation tessellation) {
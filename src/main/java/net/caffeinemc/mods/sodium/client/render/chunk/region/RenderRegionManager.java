@@ -3,7 +3,7 @@ package net.caffeinemc.mods.sodium.client.render.chunk.region;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
-import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferSegment;
 import net.caffeinemc.mods.sodium.client.gl.arena.PendingUpload;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.FallbackStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
@@ -17,6 +17,9 @@ import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.IndexDelta;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
+import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -25,16 +28,22 @@ import java.util.*;
 public class RenderRegionManager {
     private final Long2ReferenceOpenHashMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
 
+    private final RenderDevice device;
     private final StagingBuffer stagingBuffer;
 
-    public RenderRegionManager(CommandList commandList) {
-        this.stagingBuffer = createStagingBuffer(commandList);
+    /**
+     * @param useAdvancedStagingBuffers True if a persistently mapped staging buffer should be used when the device
+     *                                  supports it, otherwise false
+     */
+    public RenderRegionManager(RenderDevice device, CommandList commandList, boolean useAdvancedStagingBuffers) {
+        this.device = device;
+        this.stagingBuffer = createStagingBuffer(device, commandList, useAdvancedStagingBuffers);
     }
 
     public void update() {
         this.stagingBuffer.flip();
 
-        try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+        try (CommandList commandList = this.device.createCommandList()) {
             Iterator<RenderRegion> it = this.regions.values()
                     .iterator();
 
@@ -60,6 +69,7 @@ public class RenderRegionManager {
     private void uploadResults(CommandList commandList, RenderRegion region, Collection<BuilderTaskOutput> results) {
         var uploads = new ArrayList<PendingSectionMeshUpload>();
         var indexUploads = new ArrayList<PendingSectionIndexBufferUpload>();
+        var indexDeltaUploads = new ArrayList<PendingSectionIndexDeltaUpload>();
 
         for (BuilderTaskOutput result : results) {
             int renderSectionIndex = result.render.getSectionIndex();
@@ -93,9 +103,24 @@ public class RenderRegionManager {
                     continue;
                 }
 
-                indexUploads.add(new PendingSectionIndexBufferUpload(result.render, new PendingUpload(buffer)));
-
                 var storage = region.getStorage(DefaultTerrainRenderPasses.TRANSLUCENT);
+                var delta = indexDataOutput.getIndexDelta();
+
+                // if the uploaded index data is the order the delta was computed against,
+                // only the changed ranges are written into the existing allocation
+                if (delta != null && storage != null && delta.canApplyTo(result.render.getTranslucentData())) {
+                    var allocation = storage.getIndexData(renderSectionIndex);
+
+                    if (allocation != null && allocation.getLength() * RenderRegion.INDEX_ELEMENT_BYTES == buffer.getLength()) {
+                        indexDeltaUploads.add(new PendingSectionIndexDeltaUpload(allocation, buffer,
+                                indexDataOutput.usesShortIndices(), delta));
+                        continue;
+                    }
+                }
+
+                indexUploads.add(new PendingSectionIndexBufferUpload(result.render, new PendingUpload(buffer),
+                        indexDataOutput.usesShortIndices(), delta));
+
                 if (storage != null) {
                     storage.removeIndexData(renderSectionIndex);
                 }
@@ -103,7 +128,7 @@ public class RenderRegionManager {
         }
 
         // If we have nothing to upload, abort!
-        if (uploads.isEmpty() && indexUploads.isEmpty()) {
+        if (uploads.isEmpty() && indexUploads.isEmpty() && indexDeltaUploads.isEmpty()) {
             return;
         }
 
@@ -128,6 +153,34 @@ public class RenderRegionManager {
             }
         }
 
+        // the delta uploads are submitted before any full uploads, as those may re-allocate the arena
+        if (!indexDeltaUploads.isEmpty()) {
+            var arena = resources.getIndexArena();
+
+            for (PendingSectionIndexDeltaUpload upload : indexDeltaUploads) {
+                var data = upload.indexBuffer.getDirectBuffer();
+                var delta = upload.delta;
+
+                int bytesPerQuad = TranslucentData.INDICES_PER_QUAD * (upload.shortIndices
+                        ? TranslucentData.BYTES_PER_SHORT_INDEX
+                        : TranslucentData.BYTES_PER_INDEX);
+
+                // a quad's indices always cover a whole number of elements in the index arena
+                for (int i = 0; i < delta.getRangeCount(); i++) {
+                    int start = delta.getRangeStartQuad(i) * bytesPerQuad;
+                    int end = delta.getRangeEndQuad(i) * bytesPerQuad;
+
+                    arena.uploadRange(commandList, upload.allocation, start / RenderRegion.INDEX_ELEMENT_BYTES,
+                            data.slice(start, end - start));
+                }
+
+                delta.markUploaded();
+            }
+
+            // the copies of all sections in the region are flushed together so that adjacent ones can be merged
+            arena.flushUploads(commandList);
+        }
+
         if (!indexUploads.isEmpty()) {
             var arena = resources.getIndexArena();
             boolean bufferChanged = arena.upload(commandList, indexUploads.stream()
@@ -139,7 +192,12 @@ public class RenderRegionManager {
 
             for (PendingSectionIndexBufferUpload upload : indexUploads) {
                 var storage = region.createStorage(DefaultTerrainRenderPasses.TRANSLUCENT);
-                storage.setIndexData(upload.section.getSectionIndex(), upload.indexBufferUpload.getResult());
+                storage.setIndexData(upload.section.getSectionIndex(), upload.indexBufferUpload.getResult(),
+                        upload.shortIndices);
+
+                if (upload.indexDelta != null) {
+                    upload.indexDelta.markUploaded();
+                }
             }
         }
     }
@@ -178,6 +236,33 @@ public class RenderRegionManager {
                 chunkZ >> RenderRegion.REGION_LENGTH_SH);
     }
 
+    /**
+     * Returns whether any loaded render region overlapping the given range of chunk sections was reached by the
+     * visibility graph search in the given frame. This is much cheaper than checking each section individually when
+     * the range is large, at the cost of being far less precise.
+     */
+    public boolean isAnyRegionVisible(int minChunkX, int minChunkY, int minChunkZ,
+                                      int maxChunkX, int maxChunkY, int maxChunkZ,
+                                      int frame) {
+        int minX = minChunkX >> RenderRegion.REGION_WIDTH_SH, maxX = maxChunkX >> RenderRegion.REGION_WIDTH_SH;
+        int minY = minChunkY >> RenderRegion.REGION_HEIGHT_SH, maxY = maxChunkY >> RenderRegion.REGION_HEIGHT_SH;
+        int minZ = minChunkZ >> RenderRegion.REGION_LENGTH_SH, maxZ = maxChunkZ >> RenderRegion.REGION_LENGTH_SH;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    var region = this.regions.get(RenderRegion.key(x, y, z));
+
+                    if (region != null && region.getRenderList().getLastVisibleFrame() == frame) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
     @NotNull
     private RenderRegion create(int x, int y, int z) {
         var key = RenderRegion.key(x, y, z);
@@ -193,12 +278,18 @@ public class RenderRegionManager {
     private record PendingSectionMeshUpload(RenderSection section, BuiltSectionMeshParts meshData, TerrainRenderPass pass, PendingUpload vertexUpload) {
     }
 
-    private record PendingSectionIndexBufferUpload(RenderSection section, PendingUpload indexBufferUpload) {
+    private record PendingSectionIndexBufferUpload(RenderSection section, PendingUpload indexBufferUpload,
+                                                   boolean shortIndices, IndexDelta indexDelta) {
+    }
+
+    private record PendingSectionIndexDeltaUpload(GlBufferSegment allocation, NativeBuffer indexBuffer,
+                                                  boolean shortIndices, IndexDelta delta) {
     }
 
 
-    private static StagingBuffer createStagingBuffer(CommandList commandList) {
-        if (SodiumClientMod.options().advanced.useAdvancedStagingBuffers && MappedStagingBuffer.isSupported(RenderDevice.INSTANCE)) {
+    private static StagingBuffer createStagingBuffer(RenderDevice device, CommandList commandList,
+                                                     boolean useAdvancedStagingBuffers) {
+        if (useAdvancedStagingBuffers && MappedStagingBuffer.isSupported(device)) {
             return new MappedStagingBuffer(commandList);
         }
 
@@ -1,11 +1,8 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
 
-import org.joml.Vector3fc;
-
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TQuad;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TopoGraphSorting;
-import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 import net.caffeinemc.mods.sodium.api.util.NormI8;
 import net.minecraft.core.SectionPos;
 
@@ -25,11 +22,12 @@ import net.minecraft.core.SectionPos;
  */
 public abstract class BSPNode {
 
-    abstract void collectSortedQuads(BSPSortState sortState, Vector3fc cameraPos);
-
-    public void collectSortedQuads(NativeBuffer nativeBuffer, Vector3fc cameraPos) {
-        this.collectSortedQuads(new BSPSortState(nativeBuffer), cameraPos);
-    }
+    /**
+     * Writes this node and its children into the flattened tree.
+     *
+     * @return the offset of this node in the flattened tree
+     */
+    abstract int flatten(FlatBSPTree.Builder builder);
 
     public static BSPResult buildBSP(TQuad[] quads, SectionPos sectionPos, BSPNode oldRoot,
             boolean prepareNodeReuse) {
@@ -50,6 +48,9 @@ public abstract class BSPNode {
         var rootNode = BSPNode.build(workspace, allIndexes, -1, oldRoot);
         var result = workspace.result;
         result.setRootNode(rootNode);
+
+        // reused nodes keep their reuse data and can be reused again
+        result.setReusable(workspace.reusableNodeCount > 0 || workspace.reusedNodeCount > 0);
         return result;
     }
 
@@ -8,6 +8,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigge
  */
 public class BSPResult extends GeometryPlanes {
     private BSPNode rootNode;
+    private boolean reusable;
 
     public BSPNode getRootNode() {
         return this.rootNode;
@@ -16,4 +17,17 @@ public class BSPResult extends GeometryPlanes {
     public void setRootNode(BSPNode rootNode) {
         this.rootNode = rootNode;
     }
+
+    /**
+     * Returns true if the tree contains nodes that the next build of the section
+     * can reuse. Otherwise, the node objects don't need to be kept once the tree
+     * has been flattened.
+     */
+    public boolean isReusable() {
+        return this.reusable;
+    }
+
+    public void setReusable(boolean reusable) {
+        this.reusable = reusable;
+    }
 }
@@ -1,69 +1,18 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
 
-import java.nio.IntBuffer;
 import java.lang.Math;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntConsumer;
-import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
-import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
 /**
- * The sort state is passed around the tree (similar to visitor pattern) and
- * contains the index buffer being written to alongside additional state for
- * remapping indexes when traversing the subtree of a reused node.
+ * Contains the compression of the quad index arrays stored in the BSP nodes and
+ * the constants for remapping indexes when flattening the subtree of a reused
+ * node (see {@link FlatBSPTree}).
  */
 class BSPSortState {
     static final int NO_FIXED_OFFSET = Integer.MIN_VALUE;
 
-    private IntBuffer indexBuffer;
-
-    private int indexModificationsRemaining;
-    private int[] indexMap;
-    private int fixedIndexOffset = NO_FIXED_OFFSET;
-
-    BSPSortState(NativeBuffer nativeBuffer) {
-        this.indexBuffer = nativeBuffer.getDirectBuffer().asIntBuffer();
-    }
-
-    void startNode(InnerPartitionBSPNode node) {
-        if (node.indexMap != null) {
-            if (this.indexMap != null || this.fixedIndexOffset != NO_FIXED_OFFSET) {
-                throw new IllegalStateException("Index modification already in progress");
-            }
-
-            this.indexMap = node.indexMap;
-            this.indexModificationsRemaining = node.reuseData.indexCount();
-        } else if (node.fixedIndexOffset != NO_FIXED_OFFSET) {
-            if (this.indexMap != null || this.fixedIndexOffset != NO_FIXED_OFFSET) {
-                throw new IllegalStateException("Index modification already in progress");
-            }
-
-            this.fixedIndexOffset = node.fixedIndexOffset;
-            this.indexModificationsRemaining = node.reuseData.indexCount();
-        }
-    }
-
-    private void checkModificationCounter(int reduceBy) {
-        this.indexModificationsRemaining -= reduceBy;
-        if (this.indexModificationsRemaining <= 0) {
-            this.indexMap = null;
-            this.fixedIndexOffset = NO_FIXED_OFFSET;
-        }
-    }
-
-    void writeIndex(int index) {
-        if (this.indexMap != null) {
-            TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.indexMap[index]);
-            checkModificationCounter(1);
-        } else if (this.fixedIndexOffset != NO_FIXED_OFFSET) {
-            TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.fixedIndexOffset + index);
-            checkModificationCounter(1);
-        } else {
-            TranslucentData.writeQuadVertexIndexes(this.indexBuffer, index);
-        }
-    }
-
     /**
      * The minimum size of an index array that will be compressed. This value is
      * non-zero to avoid wasting work on compressing arrays that won't benefit from
@@ -277,44 +226,4 @@ class BSPSortState {
     static boolean isCompressed(int[] indexes) {
         return indexes[0] < 0;
     }
-
-    private IntConsumer indexConsumer = (int index) -> TranslucentData.writeQuadVertexIndexes(
-            this.indexBuffer, index);
-
-    private IntConsumer indexMapConsumer = (int index) -> TranslucentData.writeQuadVertexIndexes(
-            this.indexBuffer, this.indexMap[index]);
-
-    void writeIndexes(int[] indexes) {
-        boolean useIndexMap = this.indexMap != null;
-        boolean useFixedIndexOffset = this.fixedIndexOffset != NO_FIXED_OFFSET;
-
-        int valueCount;
-        if (isCompressed(indexes)) {
-            if (useFixedIndexOffset) {
-                valueCount = decompressWithOffset(indexes, this.fixedIndexOffset, this.indexConsumer);
-            } else {
-                valueCount = decompress(indexes, useIndexMap ? this.indexMapConsumer : this.indexConsumer);
-            }
-        } else {
-            // uncompressed indexes
-            if (useIndexMap) {
-                for (int i = 0; i < indexes.length; i++) {
-                    TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.indexMap[indexes[i]]);
-                }
-            } else if (useFixedIndexOffset) {
-                for (int i = 0; i < indexes.length; i++) {
-                    TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.fixedIndexOffset + indexes[i]);
-                }
-            } else {
-                TranslucentData.writeQuadVertexIndexes(this.indexBuffer, indexes);
-            }
-            valueCount = indexes.length;
-        }
-
-        // check if the index modification session is over. this is very important or
-        // there's an exception
-        if (useIndexMap || useFixedIndexOffset) {
-            checkModificationCounter(valueCount);
-        }
-    }
 }
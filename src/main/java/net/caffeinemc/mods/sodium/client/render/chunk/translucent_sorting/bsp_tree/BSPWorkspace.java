@@ -25,6 +25,19 @@ class BSPWorkspace {
 
     final boolean prepareNodeReuse;
 
+    /**
+     * The number of nodes of the old tree that have been reused so far. Nodes
+     * compare this before and after building their children to determine if any
+     * of their descendants were reused.
+     */
+    int reusedNodeCount = 0;
+
+    /**
+     * The number of newly built nodes that have reuse data and can therefore be
+     * reused by the next generation.
+     */
+    int reusableNodeCount = 0;
+
     BSPWorkspace(TQuad[] quads, SectionPos sectionPos, boolean prepareNodeReuse) {
         this.quads = quads;
         this.sectionPos = sectionPos;
@@ -0,0 +1,290 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
+
+import java.nio.IntBuffer;
+
+import org.joml.Vector3fc;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
+import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+
+/**
+ * A BSP tree flattened into a single int array for sorting. The node object
+ * tree is only kept around if it has nodes that can be reused during the next
+ * rebuild of the section (see {@link BSPResult#isReusable()}). Traversing it
+ * chases a pointer per node and decompresses and remaps the index arrays on
+ * every sort. The flattened tree is built once per generation with all index
+ * remapping of reused nodes already applied, and is then traversed iteratively.
+ * Since it is never modified after construction, it can also be sorted while
+ * the next generation of the tree is being built from the node objects.
+ * <p>
+ * The nodes are stored in the array as follows, where child references are
+ * offsets into the array or {@link #NONE}:
+ * <ul>
+ * <li>Leaf: [LEAF, quad count, quad indexes...]</li>
+ * <li>Binary partition: [BINARY, axis, plane distance bits, inside, outside,
+ * on-plane leaf]</li>
+ * <li>Multi partition: [MULTI, axis, plane count, plane distance bits...,
+ * partitions (plane count + 1)..., on-plane leaves (plane count)...]</li>
+ * <li>Fixed double: [FIXED_DOUBLE, first, second]</li>
+ * </ul>
+ */
+public class FlatBSPTree {
+    static final int NONE = -1;
+
+    private static final int LEAF = 0;
+    private static final int BINARY = 1;
+    private static final int MULTI = 2;
+    private static final int FIXED_DOUBLE = 3;
+
+    /**
+     * The traversal stack of each sorting thread, which is reused between sorts so
+     * that sorting doesn't allocate.
+     */
+    private static final ThreadLocal<IntArrayList> SORT_STACK = ThreadLocal.withInitial(IntArrayList::new);
+
+    /**
+     * The capacity which a sorting thread's stack is trimmed back to after a sort
+     * of an unusually deep tree, so that it doesn't keep that memory forever.
+     */
+    private static final int RETAINED_STACK_CAPACITY = 1024;
+
+    private final int[] data;
+    private final int rootOffset;
+
+    private FlatBSPTree(int[] data, int rootOffset) {
+        this.data = data;
+        this.rootOffset = rootOffset;
+    }
+
+    public static FlatBSPTree flatten(BSPNode rootNode) {
+        var builder = new Builder();
+        int rootOffset = rootNode == null ? NONE : rootNode.flatten(builder);
+        return new FlatBSPTree(builder.data.toIntArray(), rootOffset);
+    }
+
+    public void writeSortedQuads(NativeBuffer nativeBuffer, Vector3fc cameraPos) {
+        if (this.rootOffset == NONE) {
+            return;
+        }
+
+        IntBuffer indexBuffer = nativeBuffer.getDirectBuffer().asIntBuffer();
+
+        // the nodes are visited depth-first, children are pushed in reverse order
+        var stack = SORT_STACK.get();
+        stack.push(this.rootOffset);
+
+        try {
+            this.writeSortedQuads(indexBuffer, stack, cameraPos);
+        } finally {
+            stack.clear();
+            stack.trim(RETAINED_STACK_CAPACITY);
+        }
+    }
+
+    private void writeSortedQuads(IntBuffer indexBuffer, IntArrayList stack, Vector3fc cameraPos) {
+        int[] data = this.data;
+
+        while (!stack.isEmpty()) {
+            int node = stack.popInt();
+
+            switch (data[node]) {
+                case LEAF -> {
+                    int end = node + 2 + data[node + 1];
+                    for (int i = node + 2; i < end; i++) {
+                        TranslucentData.writeQuadVertexIndexes(indexBuffer, data[i]);
+                    }
+                }
+                case BINARY -> {
+                    var cameraDistance = ModelQuadFacing.ALIGNED_NORMALS[data[node + 1]].dot(cameraPos);
+                    var cameraInside = cameraDistance < Float.intBitsToFloat(data[node + 2]);
+                    int inside = data[node + 3];
+                    int outside = data[node + 4];
+
+                    // the side the camera is in is collected last
+                    pushIfPresent(stack, cameraInside ? inside : outside);
+                    pushIfPresent(stack, data[node + 5]);
+                    pushIfPresent(stack, cameraInside ? outside : inside);
+                }
+                case MULTI -> pushMultiPartition(stack, data, node, cameraPos);
+                case FIXED_DOUBLE -> {
+                    pushIfPresent(stack, data[node + 2]);
+                    pushIfPresent(stack, data[node + 1]);
+                }
+                default -> throw new IllegalStateException("Unknown node type: " + data[node]);
+            }
+        }
+    }
+
+    /**
+     * Pushes the partitions and on-plane quads of a multi partition node in the
+     * reverse of the order they need to be collected in. Partitions are collected
+     * in order of their distance to the partition the camera is in, with the
+     * camera's partition last.
+     */
+    private static void pushMultiPartition(IntArrayList stack, int[] data, int node, Vector3fc cameraPos) {
+        var cameraDistance = ModelQuadFacing.ALIGNED_NORMALS[data[node + 1]].dot(cameraPos);
+        int planeCount = data[node + 2];
+        int distances = node + 3;
+        int partitions = distances + planeCount;
+        int planes = partitions + planeCount + 1;
+
+        // find the first plane that the camera is not in front of
+        int cameraPlane = 0;
+        while (cameraPlane < planeCount && !(cameraDistance <= Float.intBitsToFloat(data[distances + cameraPlane]))) {
+            cameraPlane++;
+        }
+
+        if (cameraPlane == planeCount) {
+            // the camera is in the last partition
+            pushIfPresent(stack, data[partitions + planeCount]);
+        } else {
+            var isOnPlane = cameraDistance == Float.intBitsToFloat(data[distances + cameraPlane]);
+
+            if (!isOnPlane) {
+                pushIfPresent(stack, data[partitions + cameraPlane]);
+            }
+
+            // the partitions after the camera are collected backwards
+            for (int j = cameraPlane + 1; j <= planeCount; j++) {
+                pushIfPresent(stack, data[planes + j - 1]);
+                pushIfPresent(stack, data[partitions + j]);
+            }
+
+            if (isOnPlane) {
+                pushIfPresent(stack, data[partitions + cameraPlane]);
+            }
+        }
+
+        // the partitions before the camera are collected forwards
+        for (int i = cameraPlane - 1; i >= 0; i--) {
+            pushIfPresent(stack, data[planes + i]);
+            pushIfPresent(stack, data[partitions + i]);
+        }
+    }
+
+    private static void pushIfPresent(IntArrayList stack, int offset) {
+        if (offset != NONE) {
+            stack.push(offset);
+        }
+    }
+
+    /**
+     * Writes the nodes of the tree into the array. Children are written before
+     * their parents. While writing the subtree of a reused node, the quad indexes
+     * are mapped from the numbering the subtree was built with to the current
+     * numbering.
+     */
+    static class Builder {
+        private final IntArrayList data = new IntArrayList();
+        private final ReferenceArrayList<InnerPartitionBSPNode> remappingNodes = new ReferenceArrayList<>();
+
+        /**
+         * Starts writing the given node and returns whether it remaps the indexes of
+         * its subtree. If so, {@link #endNode()} must be called once it's written.
+         */
+        boolean startNode(InnerPartitionBSPNode node) {
+            if (node.indexMap != null || node.fixedIndexOffset != BSPSortState.NO_FIXED_OFFSET) {
+                this.remappingNodes.push(node);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Finishes writing the node that was last started with remapping. The
+         * remapping has been applied to the flattened tree at this point, so it's
+         * cleared to not keep the index map alive until the node is next reused.
+         */
+        void endNode() {
+            var node = this.remappingNodes.pop();
+            node.indexMap = null;
+            node.fixedIndexOffset = BSPSortState.NO_FIXED_OFFSET;
+        }
+
+        private int mapIndex(int index) {
+            // apply the innermost remapping first
+            for (int i = this.remappingNodes.size() - 1; i >= 0; i--) {
+                var node = this.remappingNodes.get(i);
+                if (node.indexMap != null) {
+                    index = node.indexMap[index];
+                } else {
+                    index += node.fixedIndexOffset;
+                }
+            }
+            return index;
+        }
+
+        int addLeaf(int quadIndex) {
+            int offset = this.data.size();
+            this.data.add(LEAF);
+            this.data.add(1);
+            this.data.add(this.mapIndex(quadIndex));
+            return offset;
+        }
+
+        int addLeaf(int quadIndexA, int quadIndexB) {
+            int offset = this.data.size();
+            this.data.add(LEAF);
+            this.data.add(2);
+            this.data.add(this.mapIndex(quadIndexA));
+            this.data.add(this.mapIndex(quadIndexB));
+            return offset;
+        }
+
+        /**
+         * Adds a leaf from a possibly compressed index array, or returns
+         * {@link #NONE} if there is no array.
+         */
+        int addLeaf(int[] quadIndexes) {
+            if (quadIndexes == null) {
+                return NONE;
+            }
+
+            int offset = this.data.size();
+            this.data.add(LEAF);
+            this.data.add(0);
+            int count = BSPSortState.decompressOrRead(quadIndexes, index -> this.data.add(this.mapIndex(index)));
+            this.data.set(offset + 1, count);
+            return offset;
+        }
+
+        int addBinary(int axis, float planeDistance, int inside, int outside, int onPlane) {
+            int offset = this.data.size();
+            this.data.add(BINARY);
+            this.data.add(axis);
+            this.data.add(Float.floatToRawIntBits(planeDistance));
+            this.data.add(inside);
+            this.data.add(outside);
+            this.data.add(onPlane);
+            return offset;
+        }
+
+        int addMulti(int axis, float[] planeDistances, int[] partitions, int[] onPlane) {
+            int offset = this.data.size();
+            this.data.add(MULTI);
+            this.data.add(axis);
+            this.data.add(planeDistances.length);
+            for (float distance : planeDistances) {
+                this.data.add(Float.floatToRawIntBits(distance));
+            }
+            this.data.addElements(this.data.size(), partitions);
+            this.data.addElements(this.data.size(), onPlane);
+            return offset;
+        }
+
+        int addFixedDouble(int first, int second) {
+            int offset = this.data.size();
+            this.data.add(FIXED_DOUBLE);
+            this.data.add(first);
+            this.data.add(second);
+            return offset;
+        }
+
+        int flattenChild(BSPNode child) {
+            return child == null ? NONE : child.flatten(this);
+        }
+    }
+}
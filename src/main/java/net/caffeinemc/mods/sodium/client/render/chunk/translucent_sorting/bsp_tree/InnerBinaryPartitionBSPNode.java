@@ -1,7 +1,5 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
 
-import org.joml.Vector3fc;
-
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 /**
@@ -9,12 +7,12 @@ import it.unimi.dsi.fastutil.ints.IntArrayList;
  * and a set of quads that lie on the plane.
  */
 class InnerBinaryPartitionBSPNode extends InnerPartitionBSPNode {
-    private final float planeDistance;
+    final float planeDistance;
 
     // side towards which the normal points
-    private final BSPNode inside; // nullable
-    private final BSPNode outside; // nullable
-    private final int[] onPlaneQuads;
+    final BSPNode inside; // nullable
+    final BSPNode outside; // nullable
+    final int[] onPlaneQuads;
 
     InnerBinaryPartitionBSPNode(NodeReuseData reuseData, float planeDistance, int axis,
             BSPNode inside, BSPNode outside, int[] onPlaneQuads) {
@@ -38,42 +36,26 @@ class InnerBinaryPartitionBSPNode extends InnerPartitionBSPNode {
         }
     }
 
-    private void collectInside(BSPSortState sortState, Vector3fc cameraPos) {
-        if (this.inside != null) {
-            this.inside.collectSortedQuads(sortState, cameraPos);
-        }
-    }
-
-    private void collectOutside(BSPSortState sortState, Vector3fc cameraPos) {
-        if (this.outside != null) {
-            this.outside.collectSortedQuads(sortState, cameraPos);
-        }
-    }
-
     @Override
-    void collectSortedQuads(BSPSortState sortState, Vector3fc cameraPos) {
-        sortState.startNode(this);
+    int flatten(FlatBSPTree.Builder builder) {
+        boolean remapping = builder.startNode(this);
 
-        var cameraInside = this.planeNormal.dot(cameraPos) < this.planeDistance;
-        if (cameraInside) {
-            this.collectOutside(sortState, cameraPos);
-        } else {
-            this.collectInside(sortState, cameraPos);
-        }
-        if (this.onPlaneQuads != null) {
-            sortState.writeIndexes(this.onPlaneQuads);
-        }
-        if (cameraInside) {
-            this.collectInside(sortState, cameraPos);
-        } else {
-            this.collectOutside(sortState, cameraPos);
+        int inside = builder.flattenChild(this.inside);
+        int outside = builder.flattenChild(this.outside);
+        int onPlane = builder.addLeaf(this.onPlaneQuads);
+        int offset = builder.addBinary(this.axis, this.planeDistance, inside, outside, onPlane);
+
+        if (remapping) {
+            builder.endNode();
         }
+        return offset;
     }
 
     static BSPNode buildFromPartitions(BSPWorkspace workspace, IntArrayList indexes, int depth, BSPNode oldNode,
             Partition inside, Partition outside, int axis) {
         var partitionDistance = inside.distance();
         workspace.addAlignedPartitionPlane(axis, partitionDistance);
+        int reusedNodesBefore = workspace.reusedNodeCount;
 
         BSPNode oldInsideNode = null;
         BSPNode oldOutsideNode = null;
@@ -95,7 +77,7 @@ class InnerBinaryPartitionBSPNode extends InnerPartitionBSPNode {
         var onPlane = inside.quadsOn() == null ? null : BSPSortState.compressIndexes(inside.quadsOn());
 
         return new InnerBinaryPartitionBSPNode(
-                prepareNodeReuse(workspace, indexes, depth),
+                prepareNodeReuse(workspace, indexes, depth, reusedNodesBefore),
                 partitionDistance, axis,
                 insideNode, outsideNode, onPlane);
     }
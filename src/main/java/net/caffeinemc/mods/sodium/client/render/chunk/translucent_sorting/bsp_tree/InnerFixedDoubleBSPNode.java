@@ -1,11 +1,10 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
-import org.joml.Vector3fc;
 
 public class InnerFixedDoubleBSPNode extends InnerPartitionBSPNode {
-    private final BSPNode first;
-    private final BSPNode second;
+    final BSPNode first;
+    final BSPNode second;
 
     InnerFixedDoubleBSPNode(NodeReuseData reuseData, BSPNode first, BSPNode second) {
         super(reuseData, 0);
@@ -14,11 +13,17 @@ public class InnerFixedDoubleBSPNode extends InnerPartitionBSPNode {
     }
 
     @Override
-    void collectSortedQuads(BSPSortState sortState, Vector3fc cameraPos) {
-        sortState.startNode(this);
+    int flatten(FlatBSPTree.Builder builder) {
+        boolean remapping = builder.startNode(this);
 
-        this.first.collectSortedQuads(sortState, cameraPos);
-        this.second.collectSortedQuads(sortState, cameraPos);
+        int first = builder.flattenChild(this.first);
+        int second = builder.flattenChild(this.second);
+        int offset = builder.addFixedDouble(first, second);
+
+        if (remapping) {
+            builder.endNode();
+        }
+        return offset;
     }
 
     @Override
@@ -34,11 +39,12 @@ public class InnerFixedDoubleBSPNode extends InnerPartitionBSPNode {
             secondOldNode = old.second;
         }
 
+        int reusedNodesBefore = workspace.reusedNodeCount;
         var firstNode = BSPNode.build(workspace, first, depth, firstOldNode);
         var secondNode = BSPNode.build(workspace, second, depth, secondOldNode);
 
         return new InnerFixedDoubleBSPNode(
-                prepareNodeReuse(workspace, indexes, depth),
+                prepareNodeReuse(workspace, indexes, depth, reusedNodesBefore),
                 firstNode, secondNode);
     }
 }
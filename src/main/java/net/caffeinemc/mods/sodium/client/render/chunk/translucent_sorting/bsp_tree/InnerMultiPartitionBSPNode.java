@@ -1,7 +1,5 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
 
-import org.joml.Vector3fc;
-
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
 
@@ -15,10 +13,10 @@ import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
  * detriment.
  */
 class InnerMultiPartitionBSPNode extends InnerPartitionBSPNode {
-    private final float[] planeDistances; // one less than there are partitions
+    final float[] planeDistances; // one less than there are partitions
 
-    private final BSPNode[] partitions;
-    private final int[][] onPlaneQuads;
+    final BSPNode[] partitions;
+    final int[][] onPlaneQuads;
 
     InnerMultiPartitionBSPNode(NodeReuseData reuseData, int axis, float[] planeDistances,
             BSPNode[] partitions, int[][] onPlaneQuads) {
@@ -42,55 +40,26 @@ class InnerMultiPartitionBSPNode extends InnerPartitionBSPNode {
         }
     }
 
-    private void collectPlaneQuads(BSPSortState sortState, int planeIndex) {
-        if (this.onPlaneQuads[planeIndex] != null) {
-            sortState.writeIndexes(this.onPlaneQuads[planeIndex]);
-        }
-    }
-
-    private void collectPartitionQuads(BSPSortState sortState, int partitionIndex, Vector3fc cameraPos) {
-        if (this.partitions[partitionIndex] != null) {
-            this.partitions[partitionIndex].collectSortedQuads(sortState, cameraPos);
-        }
-    }
-
     @Override
-    void collectSortedQuads(BSPSortState sortState, Vector3fc cameraPos) {
-        sortState.startNode(this);
+    int flatten(FlatBSPTree.Builder builder) {
+        boolean remapping = builder.startNode(this);
 
-        // calculate the camera's distance. Then render the partitions in order of
-        // distance to the partition the camera is in.
-        var cameraDistance = this.planeNormal.dot(cameraPos);
-
-        // forward sweep: collect quads until the camera is in the partition
-        for (int i = 0; i < this.planeDistances.length; i++) {
-            if (cameraDistance <= this.planeDistances[i]) {
-                // collect the plane the camera is in
-                var isOnPlane = cameraDistance == this.planeDistances[i];
-                if (isOnPlane) {
-                    this.collectPartitionQuads(sortState, i, cameraPos);
-                }
-
-                // backwards sweep: collect all partitions backwards until the camera is reached
-                for (int j = this.planeDistances.length; j > i; j--) {
-                    this.collectPartitionQuads(sortState, j, cameraPos);
-                    this.collectPlaneQuads(sortState, j - 1);
-                }
+        int[] partitions = new int[this.partitions.length];
+        for (int i = 0; i < this.partitions.length; i++) {
+            partitions[i] = builder.flattenChild(this.partitions[i]);
+        }
 
-                if (!isOnPlane) {
-                    this.collectPartitionQuads(sortState, i, cameraPos);
-                }
+        int[] onPlane = new int[this.onPlaneQuads.length];
+        for (int i = 0; i < this.onPlaneQuads.length; i++) {
+            onPlane[i] = builder.addLeaf(this.onPlaneQuads[i]);
+        }
 
-                return;
-            }
+        int offset = builder.addMulti(this.axis, this.planeDistances, partitions, onPlane);
 
-            // collect the quads in the partition and on the plane
-            this.collectPartitionQuads(sortState, i, cameraPos);
-            this.collectPlaneQuads(sortState, i);
+        if (remapping) {
+            builder.endNode();
         }
-
-        // collect the last partition
-        this.collectPartitionQuads(sortState, this.planeDistances.length, cameraPos);
+        return offset;
     }
 
     static BSPNode buildFromPartitions(BSPWorkspace workspace, IntArrayList indexes, int depth, BSPNode oldNode,
@@ -99,6 +68,7 @@ class InnerMultiPartitionBSPNode extends InnerPartitionBSPNode {
         float[] planeDistances = new float[planeCount];
         BSPNode[] partitionNodes = new BSPNode[planeCount + 1];
         int[][] onPlaneQuads = new int[planeCount][];
+        int reusedNodesBefore = workspace.reusedNodeCount;
 
         BSPNode[] oldPartitionNodes = null;
         float[] oldPlaneDistances = null;
@@ -153,7 +123,7 @@ class InnerMultiPartitionBSPNode extends InnerPartitionBSPNode {
             }
         }
 
-        return new InnerMultiPartitionBSPNode(prepareNodeReuse(workspace, indexes, depth),
+        return new InnerMultiPartitionBSPNode(prepareNodeReuse(workspace, indexes, depth, reusedNodesBefore),
                 axis, planeDistances, partitionNodes, onPlaneQuads);
     }
 }
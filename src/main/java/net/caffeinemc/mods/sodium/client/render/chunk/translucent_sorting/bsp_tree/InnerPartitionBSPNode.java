@@ -13,7 +13,6 @@ import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.T
 import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import net.caffeinemc.mods.sodium.client.util.sorting.RadixSort;
 import net.minecraft.util.Mth;
-import org.joml.Vector3fc;
 
 import java.util.Arrays;
 import java.util.Random;
@@ -51,9 +50,9 @@ import java.util.Random;
  */
 abstract class InnerPartitionBSPNode extends BSPNode {
     private static final int NODE_REUSE_THRESHOLD = 30;
+    private static final int NODE_REUSE_MAX_DEPTH = 3;
     private static final int MAX_INTERSECTION_ATTEMPTS = 500;
 
-    final Vector3fc planeNormal;
     final int axis;
 
     int[] indexMap;
@@ -75,17 +74,36 @@ abstract class InnerPartitionBSPNode extends BSPNode {
     }
 
     InnerPartitionBSPNode(NodeReuseData reuseData, int axis) {
-        this.planeNormal = ModelQuadFacing.ALIGNED_NORMALS[axis];
         this.axis = axis;
         this.reuseData = reuseData;
     }
 
     abstract void addPartitionPlanes(BSPWorkspace workspace);
 
-    static NodeReuseData prepareNodeReuse(BSPWorkspace workspace, IntArrayList indexes, int depth) {
-        // if node reuse is enabled, only enable on the first level of children (not the
-        // root node and not anything deeper than its children)
-        if (workspace.prepareNodeReuse && depth == 1 && indexes.size() > NODE_REUSE_THRESHOLD) {
+    /**
+     * Generates the reuse data for a newly built node if it's a candidate for
+     * being reused when the section is next rebuilt.
+     * <p>
+     * Reuse is enabled on the first few levels below the root node (the root node
+     * itself is covered by reusing the whole translucent data if the geometry
+     * hasn't changed). This way an edit that invalidates a large node only
+     * rebuilds the part of the subtree that actually contains the changed quads,
+     * since the children of the invalidated node are tried for reuse individually.
+     * <p>
+     * Nodes with reused descendants (which remap their indexes) aren't made
+     * reusable themselves, which keeps the chain of index remappings applied
+     * while flattening a subtree at a length of one. Their children will be
+     * reused again instead.
+     *
+     * @param reusedNodesBefore the workspace's reused node count before the
+     *                          node's children were built
+     */
+    static NodeReuseData prepareNodeReuse(BSPWorkspace workspace, IntArrayList indexes, int depth,
+            int reusedNodesBefore) {
+        if (workspace.prepareNodeReuse
+                && depth >= 1 && depth <= NODE_REUSE_MAX_DEPTH
+                && indexes.size() > NODE_REUSE_THRESHOLD
+                && workspace.reusedNodeCount == reusedNodesBefore) {
             // collect the extents of the indexed quads and hash them
             var quadExtents = new float[indexes.size()][];
             int maxIndex = -1;
@@ -97,6 +115,8 @@ abstract class InnerPartitionBSPNode extends BSPNode {
                 maxIndex = Math.max(maxIndex, index);
             }
 
+            workspace.reusableNodeCount++;
+
             // compress indexes but without sorting them, as the order needs to be the same
             // for the extents comparison loop to work
             return new NodeReuseData(
@@ -179,6 +199,7 @@ abstract class InnerPartitionBSPNode extends BSPNode {
         // import the triggering data from the old node to ensure it still triggers at
         // the right time
         oldNode.addPartitionPlanes(workspace);
+        workspace.reusedNodeCount++;
 
         return oldNode;
     }
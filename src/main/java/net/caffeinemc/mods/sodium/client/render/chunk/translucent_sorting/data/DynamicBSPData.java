@@ -5,6 +5,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TQuad;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree.BSPNode;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree.BSPResult;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree.FlatBSPTree;
 import net.minecraft.core.SectionPos;
 import org.joml.Vector3dc;
 
@@ -17,23 +18,25 @@ import org.joml.Vector3dc;
 public class DynamicBSPData extends DynamicData {
     private static final int NODE_REUSE_MIN_GENERATION = 1;
 
-    private final BSPNode rootNode;
+    private final BSPNode rootNode; // null unless it has nodes to reuse in the next generation
+    private final FlatBSPTree sortTree;
     private final int generation;
 
     private DynamicBSPData(SectionPos sectionPos, VertexRange range, BSPResult result, Vector3dc initialCameraPos, TQuad[] quads, int generation) {
         super(sectionPos, range, quads.length, result, initialCameraPos);
-        this.rootNode = result.getRootNode();
+        this.sortTree = FlatBSPTree.flatten(result.getRootNode());
+        this.rootNode = result.isReusable() ? result.getRootNode() : null;
         this.generation = generation;
     }
 
     private class DynamicBSPSorter extends DynamicSorter {
         private DynamicBSPSorter(int quadCount) {
-            super(quadCount);
+            super(quadCount, DynamicBSPData.this);
         }
 
         @Override
         void writeSort(CombinedCameraPos cameraPos, boolean initial) {
-            DynamicBSPData.this.rootNode.collectSortedQuads(this.getIndexBuffer(), cameraPos.getRelativeCameraPos());
+            DynamicBSPData.this.sortTree.writeSortedQuads(this.getIndexBuffer(), cameraPos.getRelativeCameraPos());
         }
     }
 
@@ -6,10 +6,20 @@ import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigge
 import net.minecraft.core.SectionPos;
 import org.joml.Vector3dc;
 
+import java.nio.IntBuffer;
+
 public abstract class DynamicData extends MixedDirectionData {
     private GeometryPlanes geometryPlanes;
     private final Vector3dc initialCameraPos;
 
+    // the quad order of the most recent sort, used to compute index deltas. It's
+    // allocated once and then updated in place by each sort.
+    private int[] lastSortOrder;
+    private int lastSortVersion = IndexDelta.NO_VERSION;
+
+    // only accessed on the main thread
+    private int uploadedSortVersion = IndexDelta.NO_VERSION;
+
     DynamicData(SectionPos sectionPos, VertexRange range, int quadCount, GeometryPlanes geometryPlanes, Vector3dc initialCameraPos) {
         super(sectionPos, range, quadCount);
         this.geometryPlanes = geometryPlanes;
@@ -32,4 +42,36 @@ public abstract class DynamicData extends MixedDirectionData {
     public Vector3dc getInitialCameraPos() {
         return this.initialCameraPos;
     }
+
+    /**
+     * Records the quad order written into the given index buffer by a sort and
+     * returns the delta against the previously recorded order. Sort tasks for the
+     * same section may overlap if one of them was cancelled, which is why this is
+     * synchronized. A cancelled task's order is never uploaded, which only means
+     * the next delta won't be applicable.
+     */
+    synchronized IndexDelta recordSortOrder(IntBuffer indexBuffer, int quadCount) {
+        int version = this.lastSortVersion + 1;
+        IndexDelta delta;
+
+        if (this.lastSortOrder == null || this.lastSortOrder.length != quadCount) {
+            this.lastSortOrder = new int[quadCount];
+            IndexDelta.readQuadOrder(indexBuffer, this.lastSortOrder, 0);
+            delta = IndexDelta.initial(this, version);
+        } else {
+            delta = IndexDelta.compare(this, this.lastSortVersion, version, this.lastSortOrder, indexBuffer);
+        }
+
+        this.lastSortVersion = version;
+
+        return delta;
+    }
+
+    int getUploadedSortVersion() {
+        return this.uploadedSortVersion;
+    }
+
+    void setUploadedSortVersion(int version) {
+        this.uploadedSortVersion = version;
+    }
 }
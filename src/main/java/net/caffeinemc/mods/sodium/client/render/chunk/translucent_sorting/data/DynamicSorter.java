@@ -2,9 +2,12 @@ package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
 
 abstract class DynamicSorter extends Sorter {
     private final int quadCount;
+    private final DynamicData data;
+    private IndexDelta indexDelta;
 
-    DynamicSorter(int quadCount) {
+    DynamicSorter(int quadCount, DynamicData data) {
         this.quadCount = quadCount;
+        this.data = data;
     }
 
     abstract void writeSort(CombinedCameraPos cameraPos, boolean initial);
@@ -13,5 +16,12 @@ abstract class DynamicSorter extends Sorter {
     public void writeIndexBuffer(CombinedCameraPos cameraPos, boolean initial) {
         this.initBufferWithQuadLength(this.quadCount);
         this.writeSort(cameraPos, initial);
+        this.indexDelta = this.data.recordSortOrder(this.getIntBuffer(), this.quadCount);
+        this.finishIndexBuffer();
+    }
+
+    @Override
+    public IndexDelta getIndexDelta() {
+        return this.indexDelta;
     }
 }
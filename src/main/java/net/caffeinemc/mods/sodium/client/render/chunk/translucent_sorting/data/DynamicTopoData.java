@@ -31,6 +31,10 @@ import java.util.function.IntConsumer;
  */
 public class DynamicTopoData extends DynamicData {
     private static final int MAX_TOPO_SORT_QUADS = 1000;
+
+    // limits the memory retained by the cached graph of a section to 64 KiB
+    private static final int MAX_VISIBILITY_GRAPH_EDGES = 1 << 14;
+    private static final int MAX_VISIBILITY_GRAPH_BUILD_TIME_NS = 250_000;
     private static final int MAX_TOPO_SORT_TIME_NS = 1_000_000;
     private static final int MAX_FAILING_TOPO_SORT_TIME_NS = 750_000;
     private static final int MAX_TOPO_SORT_PATIENT_TIME_NS = 250_000;
@@ -47,6 +51,16 @@ public class DynamicTopoData extends DynamicData {
     private final TQuad[] quads;
     private final Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal;
 
+    /**
+     * The cached visibility graph of the quads. It's built a slice at a time by
+     * the topo sorts after the initial one, and until it's finished the sorts
+     * search the implicit graph. If the graph turns out to be too dense to be
+     * worth caching, the sorts keep searching the implicit graph.
+     */
+    private TopoGraphSorting.VisibilityGraph.Builder visibilityGraphBuilder;
+    private TopoGraphSorting.VisibilityGraph visibilityGraph;
+    private boolean visibilityGraphFinished = false;
+
     private DynamicTopoData(SectionPos sectionPos, VertexRange range, TQuad[] quads,
                             GeometryPlanes geometryPlanes, Vector3dc initialCameraPos,
                             Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal) {
@@ -60,6 +74,27 @@ public class DynamicTopoData extends DynamicData {
         }
     }
 
+    /**
+     * Continues building the visibility graph for the build's own time budget,
+     * which isn't counted against the sort time limits.
+     *
+     * @return the graph, or null if it's not finished or too dense
+     */
+    private synchronized TopoGraphSorting.VisibilityGraph advanceVisibilityGraph() {
+        if (!this.visibilityGraphFinished) {
+            if (this.visibilityGraphBuilder == null) {
+                this.visibilityGraphBuilder = new TopoGraphSorting.VisibilityGraph.Builder(this.quads, MAX_VISIBILITY_GRAPH_EDGES);
+            }
+
+            if (this.visibilityGraphBuilder.advance(MAX_VISIBILITY_GRAPH_BUILD_TIME_NS)) {
+                this.visibilityGraph = this.visibilityGraphBuilder.getGraph();
+                this.visibilityGraphBuilder = null;
+                this.visibilityGraphFinished = true;
+            }
+        }
+        return this.visibilityGraph;
+    }
+
     @Override
     public Sorter getSorter() {
         return new DynamicTopoSorter(this.getQuadCount(), this, this.pendingTriggerIsDirect, this.consecutiveTopoSortFailures, this.GFNITrigger, this.directTrigger);
@@ -140,7 +175,7 @@ public class DynamicTopoData extends DynamicData {
         private IntBuffer intBuffer;
 
         private DynamicTopoSorter(int quadCount, DynamicTopoData parent, boolean isDirectTrigger, int consecutiveTopoSortFailures, boolean GFNITrigger, boolean directTrigger) {
-            super(quadCount);
+            super(quadCount, parent);
             this.parent = parent;
             this.isDirectTrigger = isDirectTrigger;
             this.consecutiveTopoSortFailures = consecutiveTopoSortFailures;
@@ -173,8 +208,17 @@ public class DynamicTopoData extends DynamicData {
 
             if (this.GFNITrigger && !this.isDirectTrigger) {
                 this.intBuffer = indexBuffer;
+                // the initial sort runs before the JIT is warmed up, so it doesn't build the graph
+                var graph = initial ? null : DynamicTopoData.this.advanceVisibilityGraph();
                 var sortStart = initial ? 0 : System.nanoTime();
-                var result = TopoGraphSorting.topoGraphSort(this, DynamicTopoData.this.quads, DynamicTopoData.this.distancesByNormal, cameraPos.getRelativeCameraPos());
+                boolean result;
+                if (graph != null) {
+                    result = TopoGraphSorting.topoGraphSort(this, DynamicTopoData.this.quads, graph,
+                            DynamicTopoData.this.distancesByNormal, cameraPos.getRelativeCameraPos());
+                } else {
+                    result = TopoGraphSorting.topoGraphSort(this, DynamicTopoData.this.quads,
+                            DynamicTopoData.this.distancesByNormal, cameraPos.getRelativeCameraPos());
+                }
                 this.intBuffer = null;
 
                 var sortTime = initial ? 0 : System.nanoTime() - sortStart;
@@ -0,0 +1,159 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
+
+import java.nio.IntBuffer;
+
+/**
+ * Describes how the index buffer produced by a dynamic sort differs from the
+ * one produced by the previous sort of the same translucent data. If the
+ * previous index buffer is what's currently uploaded, only the changed quad
+ * ranges need to be written into the existing allocation instead of
+ * re-uploading the whole index buffer.
+ *
+ * Changed quads that are close together are merged into a single range since
+ * each range is a separate buffer copy. If too much of the buffer changed, no
+ * ranges are produced and the delta only serves to track the version of the
+ * uploaded data.
+ */
+public class IndexDelta {
+    /**
+     * The number of unchanged quads between two changed ranges up to which the
+     * ranges are merged.
+     */
+    private static final int MERGE_GAP_QUADS = 16;
+
+    /**
+     * The maximum number of ranges in a delta. Sorts that scramble the order more
+     * than this are uploaded in full.
+     */
+    private static final int MAX_RANGES = 16;
+
+    /**
+     * The maximum fraction of quads that may be in changed ranges for the delta to
+     * be used instead of a full upload.
+     */
+    private static final float MAX_CHANGED_FRACTION = 0.75f;
+
+    static final int NO_VERSION = -1;
+
+    private final DynamicData data;
+    private final int baseVersion;
+    private final int version;
+    private final int[] ranges;
+
+    private IndexDelta(DynamicData data, int baseVersion, int version, int[] ranges) {
+        this.data = data;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Compares the quad order written into an index buffer with the previous
+     * order and creates a delta describing the changed quad ranges. The previous
+     * order is overwritten with the new order in place, so that sorting doesn't
+     * allocate a new order array every time.
+     *
+     * @param data        The translucent data the sort belongs to
+     * @param baseVersion The version of the previous order
+     * @param version     The version of the new order
+     * @param order       The previous quad order, which is updated to the new order
+     * @param indexBuffer The index buffer containing the new order
+     */
+    static IndexDelta compare(DynamicData data, int baseVersion, int version, int[] order, IntBuffer indexBuffer) {
+        int[] ranges = new int[MAX_RANGES * 2];
+        int rangeCount = 0;
+        int changedQuads = 0;
+        int maxChangedQuads = (int) (order.length * MAX_CHANGED_FRACTION);
+
+        int i = 0;
+        while (i < order.length) {
+            int quad = readQuad(indexBuffer, i);
+            if (order[i] == quad) {
+                i++;
+                continue;
+            }
+            order[i] = quad;
+
+            // extend the range until a large enough run of unchanged quads is found
+            int start = i;
+            int end = i + 1;
+            for (i = end; i < order.length && i - end <= MERGE_GAP_QUADS; i++) {
+                quad = readQuad(indexBuffer, i);
+                if (order[i] != quad) {
+                    order[i] = quad;
+                    end = i + 1;
+                }
+            }
+
+            changedQuads += end - start;
+            if (rangeCount == MAX_RANGES || changedQuads > maxChangedQuads) {
+                readQuadOrder(indexBuffer, order, i);
+                return new IndexDelta(data, NO_VERSION, version, null);
+            }
+
+            ranges[rangeCount * 2] = start;
+            ranges[rangeCount * 2 + 1] = end;
+            rangeCount++;
+        }
+
+        int[] trimmed = new int[rangeCount * 2];
+        System.arraycopy(ranges, 0, trimmed, 0, trimmed.length);
+        return new IndexDelta(data, baseVersion, version, trimmed);
+    }
+
+    /**
+     * Creates the delta of the first sort, which has no previous order to be
+     * compared with.
+     */
+    static IndexDelta initial(DynamicData data, int version) {
+        return new IndexDelta(data, NO_VERSION, version, null);
+    }
+
+    /**
+     * Reads the order of the quads back from an index buffer written with
+     * {@link TranslucentData#writeQuadVertexIndexes(IntBuffer, int)}, starting
+     * at the given quad.
+     */
+    static void readQuadOrder(IntBuffer indexBuffer, int[] order, int fromQuad) {
+        for (int i = fromQuad; i < order.length; i++) {
+            order[i] = readQuad(indexBuffer, i);
+        }
+    }
+
+    private static int readQuad(IntBuffer indexBuffer, int quad) {
+        return indexBuffer.get(quad * TranslucentData.INDICES_PER_QUAD) / TranslucentData.VERTICES_PER_QUAD;
+    }
+
+    /**
+     * Returns true if the ranges of this delta can be written over the currently
+     * uploaded index data of the section. This requires the section to still
+     * have the same translucent data and for the uploaded data to be the order
+     * this delta was computed against.
+     */
+    public boolean canApplyTo(TranslucentData currentData) {
+        return this.ranges != null
+                && currentData == this.data
+                && this.data.getUploadedSortVersion() == this.baseVersion;
+    }
+
+    /**
+     * Records that the index data described by this delta is now what's uploaded
+     * for the section. Must be called on the main thread after every upload of
+     * the sort result, whether it was partial or complete.
+     */
+    public void markUploaded() {
+        this.data.setUploadedSortVersion(this.version);
+    }
+
+    public int getRangeCount() {
+        return this.ranges == null ? 0 : this.ranges.length / 2;
+    }
+
+    public int getRangeStartQuad(int range) {
+        return this.ranges[range * 2];
+    }
+
+    public int getRangeEndQuad(int range) {
+        return this.ranges[range * 2 + 1];
+    }
+}
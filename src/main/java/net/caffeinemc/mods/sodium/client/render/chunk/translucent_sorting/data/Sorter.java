@@ -2,8 +2,12 @@ package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
 
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
 public abstract class Sorter implements PresentSortData {
     private NativeBuffer indexBuffer;
+    private boolean shortIndices;
 
     public abstract void writeIndexBuffer(CombinedCameraPos cameraPos, boolean initial);
 
@@ -12,7 +16,53 @@ public abstract class Sorter implements PresentSortData {
         return this.indexBuffer;
     }
 
+    /**
+     * Returns true if the index buffer has been narrowed to 16-bit indices.
+     */
+    public boolean usesShortIndices() {
+        return this.shortIndices;
+    }
+
+    /**
+     * Returns the difference of the written index buffer to the previous sort
+     * result, or null if the index buffer must always be uploaded in full.
+     */
+    public IndexDelta getIndexDelta() {
+        return null;
+    }
+
     void initBufferWithQuadLength(int quadCount) {
         this.indexBuffer = new NativeBuffer(TranslucentData.quadCountToIndexBytes(quadCount));
+        this.shortIndices = false;
+    }
+
+    /**
+     * Converts the written index buffer to 16-bit indices if the section has few
+     * enough vertices for all of them to be addressable. The sorting algorithms
+     * always write 32-bit indices, which are narrowed in one pass at the end. This
+     * halves the size of the index data that is uploaded and stored in the
+     * region's index buffer.
+     */
+    void finishIndexBuffer() {
+        int quadCount = TranslucentData.indexBytesToQuadCount(this.indexBuffer.getLength());
+
+        if (!TranslucentData.canUseShortIndices(quadCount)) {
+            return;
+        }
+
+        int indexCount = quadCount * TranslucentData.INDICES_PER_QUAD;
+        var shortIndexBuffer = new NativeBuffer(indexCount * TranslucentData.BYTES_PER_SHORT_INDEX);
+
+        IntBuffer src = this.getIntBuffer();
+        ShortBuffer dst = shortIndexBuffer.getDirectBuffer().asShortBuffer();
+
+        // the indices are unsigned, which is what the truncated value is interpreted as
+        for (int i = 0; i < indexCount; i++) {
+            dst.put(i, (short) src.get(i));
+        }
+
+        this.indexBuffer.free();
+        this.indexBuffer = shortIndexBuffer;
+        this.shortIndices = true;
     }
 }
@@ -7,6 +7,7 @@ class StaticSorter extends Sorter {
 
     @Override
     public void writeIndexBuffer(CombinedCameraPos cameraPos, boolean initial) {
-        // no-op
+        // the index buffer has already been written by the translucent data
+        this.finishIndexBuffer();
     }
 }
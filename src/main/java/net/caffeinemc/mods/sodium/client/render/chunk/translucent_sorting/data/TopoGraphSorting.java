@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
 import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.AlignableNormal;
@@ -137,6 +138,22 @@ public class TopoGraphSorting {
      */
     private static boolean quadVisibleThrough(TQuad quad, TQuad other,
                                               Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal, Vector3fc cameraPos) {
+        boolean result = quadGeometryVisibleThrough(quad, other);
+
+        // if enabled and necessary, try to disprove this see-through relationship with
+        // a separator plane
+        if (result && distancesByNormal != null) {
+            return visibilityWithSeparator(quad, other, distancesByNormal, cameraPos);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if one quad is visible through the other quad based only on their
+     * geometry. The result doesn't depend on the camera position.
+     */
+    private static boolean quadGeometryVisibleThrough(TQuad quad, TQuad other) {
         if (quad == other) {
             return false;
         }
@@ -169,13 +186,112 @@ public class TopoGraphSorting {
                     && !pointInsideHalfSpace(other.getDotProduct(), other.getQuantizedNormal(), quad.getCenter());
         }
 
-        // if enabled and necessary, try to disprove this see-through relationship with
-        // a separator plane
-        if (result && distancesByNormal != null) {
-            return visibilityWithSeparator(quad, other, distancesByNormal, cameraPos);
+        return result;
+    }
+
+    /**
+     * The camera-independent part of the visibility graph of a set of quads,
+     * stored as adjacency lists in compressed sparse row format. An edge from quad
+     * A to quad B exists if B is geometrically visible through A. Only the
+     * separator plane test of each edge depends on the camera position, so sorts
+     * using this graph only need to re-test the edges instead of all pairs of
+     * quads.
+     */
+    public static class VisibilityGraph {
+        // edges of quad i are at edgeTargets[edgeStarts[i]] to edgeTargets[edgeStarts[i + 1] - 1]
+        private final int[] edgeStarts;
+        private final int[] edgeTargets;
+
+        private VisibilityGraph(int[] edgeStarts, int[] edgeTargets) {
+            this.edgeStarts = edgeStarts;
+            this.edgeTargets = edgeTargets;
         }
 
-        return result;
+        /**
+         * Builds the visibility graph of the given quads at once.
+         *
+         * @param maxEdges the maximum number of edges to store
+         * @return the graph, or null if it has more than the maximum number of edges
+         */
+        public static VisibilityGraph build(TQuad[] quads, int maxEdges) {
+            var builder = new Builder(quads, maxEdges);
+            builder.advance(Long.MAX_VALUE);
+            return builder.getGraph();
+        }
+
+        /**
+         * Builds the visibility graph in slices of limited time, since testing all
+         * pairs of quads can take longer than a sort is allowed to take. The edges of
+         * one quad are built per step, which keeps the targets of each quad in
+         * ascending order.
+         */
+        public static class Builder {
+            private final TQuad[] quads;
+            private final int maxEdges;
+            private final int[] edgeStarts;
+            private final IntArrayList edgeTargets = new IntArrayList();
+
+            private int nextQuad = 0;
+            private boolean tooDense = false;
+
+            public Builder(TQuad[] quads, int maxEdges) {
+                this.quads = quads;
+                this.maxEdges = maxEdges;
+                this.edgeStarts = new int[quads.length + 1];
+            }
+
+            /**
+             * Continues building the graph until it's complete or the time budget has
+             * been used up. At least the edges of one quad are built.
+             *
+             * @param budgetNs the time this step may take in nanoseconds
+             * @return true if the build is finished
+             */
+            public boolean advance(long budgetNs) {
+                var start = System.nanoTime();
+                var quads = this.quads;
+
+                while (!this.isFinished()) {
+                    int i = this.nextQuad;
+                    this.edgeStarts[i] = this.edgeTargets.size();
+
+                    for (int j = 0; j < quads.length; j++) {
+                        if (quadGeometryVisibleThrough(quads[i], quads[j])) {
+                            if (this.edgeTargets.size() >= this.maxEdges) {
+                                this.tooDense = true;
+                                return true;
+                            }
+                            this.edgeTargets.add(j);
+                        }
+                    }
+
+                    this.nextQuad++;
+
+                    if (System.nanoTime() - start >= budgetNs) {
+                        break;
+                    }
+                }
+
+                return this.isFinished();
+            }
+
+            public boolean isFinished() {
+                return this.tooDense || this.nextQuad == this.quads.length;
+            }
+
+            /**
+             * Returns the finished graph, or null if the build isn't finished or the graph
+             * has more than the maximum number of edges.
+             */
+            public VisibilityGraph getGraph() {
+                if (this.tooDense || this.nextQuad < this.quads.length) {
+                    return null;
+                }
+
+                this.edgeStarts[this.quads.length] = this.edgeTargets.size();
+                return new VisibilityGraph(this.edgeStarts, this.edgeTargets.toIntArray());
+            }
+        }
     }
 
     /**
@@ -229,6 +345,91 @@ public class TopoGraphSorting {
         return topoGraphSort(indexConsumer, quads, quadCount, activeToRealIndex, distancesByNormal, cameraPos);
     }
 
+    /**
+     * Performs a topological sort using a precomputed visibility graph. Only the
+     * edges of the graph are tested with the separator planes, which is much faster
+     * than testing all pairs of quads if the graph is sparse.
+     *
+     * @param indexConsumer     the consumer to write the topo sort result to
+     * @param quads             the quads to sort
+     * @param graph             the visibility graph of the quads
+     * @param distancesByNormal a map of normals to sorted arrays of face plane
+     *                          distances, null to disable
+     * @param cameraPos         the camera position
+     */
+    public static boolean topoGraphSort(
+            IntConsumer indexConsumer, TQuad[] quads, VisibilityGraph graph,
+            Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal,
+            Vector3fc cameraPos) {
+        int quadCount = quads.length;
+        BitArray unvisited = new BitArray(quadCount);
+
+        for (int i = 0; i < quadCount; i++) {
+            TQuad quad = quads[i];
+            if (pointOutsideHalfSpace(quad.getDotProduct(), quad.getQuantizedNormal(), cameraPos)) {
+                unvisited.set(i);
+            } else {
+                // write the invisible quads right away
+                indexConsumer.accept(i);
+            }
+        }
+
+        int[] edgeStarts = graph.edgeStarts;
+        int[] edgeTargets = graph.edgeTargets;
+
+        BitArray onStack = new BitArray(quadCount);
+        int[] stack = new int[quadCount];
+        int[] nextEdge = new int[quadCount];
+
+        // start dfs searches until all quads are visited
+        int root;
+        while ((root = unvisited.nextSetBit(0)) != -1) {
+            int stackPos = 0;
+            stack[stackPos] = root;
+            onStack.set(root);
+            nextEdge[stackPos] = edgeStarts[root];
+
+            stackLoop:
+            while (stackPos >= 0) {
+                var currentQuadIndex = stack[stackPos];
+                var currentQuad = quads[currentQuadIndex];
+
+                // find the next unvisited quad that is visible through the current quad
+                for (int edge = nextEdge[stackPos], end = edgeStarts[currentQuadIndex + 1]; edge < end; edge++) {
+                    var nextQuadIndex = edgeTargets[edge];
+                    if (!unvisited.get(nextQuadIndex)) {
+                        continue;
+                    }
+
+                    if (distancesByNormal == null
+                            || visibilityWithSeparator(currentQuad, quads[nextQuadIndex], distancesByNormal, cameraPos)) {
+                        // if the visible quad is on the stack, there is a cycle
+                        if (onStack.getAndSet(nextQuadIndex)) {
+                            return false;
+                        }
+
+                        // set the next edge and visit the next quad, onStack is already set
+                        nextEdge[stackPos] = edge + 1;
+                        stackPos++;
+                        stack[stackPos] = nextQuadIndex;
+                        nextEdge[stackPos] = edgeStarts[nextQuadIndex];
+                        continue stackLoop;
+                    }
+                }
+
+                // no more edges left, pop the stack
+                onStack.unset(currentQuadIndex);
+                unvisited.unset(currentQuadIndex);
+                stackPos--;
+
+                // write to the index buffer since the order is now correct
+                indexConsumer.accept(currentQuadIndex);
+            }
+        }
+
+        return true;
+    }
+
     public static boolean topoGraphSort(IntConsumer indexConsumer, TQuad[] quads, int quadCount, int[] activeToRealIndex, Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal, Vector3fc cameraPos) {
         // special case for 0 to 2 quads
         if (quadCount == 0) {
@@ -19,6 +19,14 @@ public abstract class TranslucentData {
     public static final int VERTICES_PER_QUAD = 4;
     public static final int BYTES_PER_INDEX = 4;
     public static final int BYTES_PER_QUAD = INDICES_PER_QUAD * BYTES_PER_INDEX;
+    public static final int BYTES_PER_SHORT_INDEX = 2;
+
+    /**
+     * The number of vertices that can be addressed with 16-bit indices. Since the
+     * indices are relative to the base vertex of each draw command, this only
+     * depends on the number of quads in the section.
+     */
+    private static final int MAX_SHORT_INDEX_VERTICES = 1 << 16;
 
     public final SectionPos sectionPos;
 
@@ -50,6 +58,10 @@ public abstract class TranslucentData {
         return indexBytes / BYTES_PER_QUAD;
     }
 
+    public static boolean canUseShortIndices(int quadCount) {
+        return quadCount * VERTICES_PER_QUAD <= MAX_SHORT_INDEX_VERTICES;
+    }
+
     public static void writeQuadVertexIndexes(IntBuffer intBuffer, int quadIndex) {
         int vertexOffset = quadIndex * VERTICES_PER_QUAD;
 
@@ -2,7 +2,9 @@ package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigg
 
 import org.joml.Vector3fc;
 
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicData;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger.SortTriggering.SectionTriggers;
@@ -23,6 +25,13 @@ class GFNITriggers implements SectionTriggers<DynamicData> {
      */
     private Object2ReferenceOpenHashMap<Vector3fc, NormalList> normalLists = new Object2ReferenceOpenHashMap<>();
 
+    /**
+     * A map from chunk sections to the normal lists that contain groups for them.
+     * This allows removing and updating a section without visiting every normal
+     * list, most of which don't contain the section.
+     */
+    private final Long2ReferenceOpenHashMap<ReferenceArrayList<NormalList>> normalListsBySection = new Long2ReferenceOpenHashMap<>();
+
     int getUniqueNormalCount() {
         return this.normalLists.size();
     }
@@ -34,30 +43,41 @@ class GFNITriggers implements SectionTriggers<DynamicData> {
         }
     }
 
-    private void addSectionInNewNormalLists(DynamicData dynamicData, NormalPlanes normalPlanes) {
+    private void addSectionInNewNormalLists(ReferenceArrayList<NormalList> sectionLists, NormalPlanes normalPlanes,
+                                            long sectionPos) {
         var normal = normalPlanes.normal;
         var normalList = this.normalLists.get(normal);
         if (normalList == null) {
             normalList = new NormalList(normal);
             this.normalLists.put(normal, normalList);
-            normalList.addSection(normalPlanes, normalPlanes.sectionPos.asLong());
+        } else if (normalList.hasSection(sectionPos)) {
+            // already updated from the section's existing normal lists
+            return;
         }
+
+        normalList.addSection(normalPlanes, sectionPos);
+        sectionLists.add(normalList);
     }
 
     /**
-     * Removes the section from the normal list and returns whether the normal list
-     * is now empty and should itself be removed from the normal lists map. This is
-     * done with a return value so that the iterator can be used to remove it safely
-     * without a concurrent modification.
+     * Removes the section from the normal list and removes the normal list itself
+     * if it is now empty.
      */
-    private boolean removeSectionFromList(NormalList normalList, long sectionPos) {
+    private void removeSectionFromList(NormalList normalList, long sectionPos) {
         normalList.removeSection(sectionPos);
-        return normalList.isEmpty();
+        if (normalList.isEmpty()) {
+            this.normalLists.remove(normalList.getNormal());
+        }
     }
 
     @Override
     public void removeSection(long sectionPos, TranslucentData data) {
-        this.normalLists.values().removeIf(normalList -> this.removeSectionFromList(normalList, sectionPos));
+        var sectionLists = this.normalListsBySection.remove(sectionPos);
+        if (sectionLists != null) {
+            for (var normalList : sectionLists) {
+                this.removeSectionFromList(normalList, sectionPos);
+            }
+        }
     }
 
     @Override
@@ -65,52 +85,59 @@ class GFNITriggers implements SectionTriggers<DynamicData> {
         long sectionPos = pos.asLong();
         var geometryPlanes = data.getGeometryPlanes();
 
-        // go through all normal lists and check against the normals that the group
-        // builder has. if the normal list has data for the section, but the group
-        // builder doesn't, the group is removed. otherwise, the group is updated.
-        var iterator = this.normalLists.values().iterator();
+        var sectionLists = this.normalListsBySection.get(sectionPos);
+        if (sectionLists == null) {
+            sectionLists = new ReferenceArrayList<>();
+        }
+
+        // go through the normal lists that contain the section and check against the
+        // normals that the group builder has. if the normal list has data for the
+        // section, but the group builder doesn't, the group is removed. otherwise, the
+        // group is updated.
+        var iterator = sectionLists.iterator();
         while (iterator.hasNext()) {
             var normalList = iterator.next();
 
             // check if the geometry collector includes data for this normal.
             var normalPlanes = geometryPlanes.getPlanesForNormal(normalList);
-            if (normalList.hasSection(sectionPos)) {
-                if (normalPlanes == null) {
-                    if (this.removeSectionFromList(normalList, sectionPos)) {
-                        iterator.remove();
-                    }
-                } else {
-                    normalList.updateSection(normalPlanes, sectionPos);
-                }
-            } else if (normalPlanes != null) {
-                normalList.addSection(normalPlanes, sectionPos);
+            if (normalPlanes == null) {
+                this.removeSectionFromList(normalList, sectionPos);
+                iterator.remove();
+            } else {
+                normalList.updateSection(normalPlanes, sectionPos);
             }
         }
 
-        // go through the data of the geometry collector to check for data of new
-        // normals
-        // for which there are no normal lists yet. This only checks for new normal
-        // lists since new data for existing normal lists is handled above.
+        // go through the data of the geometry collector to check for data of normals
+        // that the section wasn't in yet, creating new normal lists as necessary.
+        // Existing data for the section is handled above.
         var aligned = geometryPlanes.getAligned();
         if (aligned != null) {
             for (var normalPlane : aligned) {
                 if (normalPlane != null) {
-                    this.addSectionInNewNormalLists(data, normalPlane);
+                    this.addSectionInNewNormalLists(sectionLists, normalPlane, sectionPos);
                 }
             }
         }
         var unaligned = geometryPlanes.getUnaligned();
         if (unaligned != null) {
             for (var normalPlane : unaligned) {
-                this.addSectionInNewNormalLists(data, normalPlane);
+                this.addSectionInNewNormalLists(sectionLists, normalPlane, sectionPos);
             }
         }
 
+        if (sectionLists.isEmpty()) {
+            this.normalListsBySection.remove(sectionPos);
+        } else {
+            this.normalListsBySection.put(sectionPos, sectionLists);
+        }
+
         data.discardGeometryPlanes();
 
-        // check if catchup trigger is necessary
+        // check if catchup trigger is necessary, only the section's own normal lists
+        // can contain groups for it
         if (movement.hasChanged()) {
-            for (var normalList : this.normalLists.values()) {
+            for (var normalList : sectionLists) {
                 normalList.processCatchup(ts, movement, sectionPos);
             }
         }
@@ -1,7 +1,5 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
 
-import com.lodborg.intervaltree.DoubleInterval;
-
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.AlignableNormal;
 
 /**
@@ -29,19 +27,28 @@ class Group {
      * The closed (inclusive of both boundaries) minimum and maximum distances.
      * Absolute values, not relative to the base distance.
      */
-    DoubleInterval distances;
+    double distanceStart;
+    double distanceEnd;
 
     double baseDistance;
 
     AlignableNormal normal;
 
+    /**
+     * The interval start this group was sorted by in the
+     * {@link GroupIntervalIndex} it's in, which is used to find it again after its
+     * interval has changed.
+     */
+    double indexedStart = Double.NaN;
+
     Group(NormalPlanes normalPlanes) {
         this.replaceWith(normalPlanes);
     }
 
     void replaceWith(NormalPlanes normalPlanes) {
         this.sectionPos = normalPlanes.sectionPos.asLong();
-        this.distances = normalPlanes.distanceRange;
+        this.distanceStart = normalPlanes.distanceStart;
+        this.distanceEnd = normalPlanes.distanceEnd;
         this.relDistanceHash = normalPlanes.relDistanceHash;
         this.facePlaneDistances = normalPlanes.relativeDistances;
         this.baseDistance = normalPlanes.baseDistance;
@@ -49,7 +56,7 @@ class Group {
     }
 
     private boolean planeTriggered(double start, double end) {
-        return start < this.distances.getEnd() && end > this.distances.getStart()
+        return start < this.distanceEnd && end > this.distanceStart
                 && AlignableNormal.queryRange(this.facePlaneDistances,
                         (float) (start - this.baseDistance), (float) (end - this.baseDistance));
     }
@@ -75,7 +82,8 @@ class Group {
      */
     boolean normalPlanesEquals(NormalPlanes normalPlanes) {
         return this.facePlaneDistances.length == normalPlanes.relativeDistancesSet.size()
-                && this.distances.equals(normalPlanes.distanceRange)
+                && this.distanceStart == normalPlanes.distanceStart
+                && this.distanceEnd == normalPlanes.distanceEnd
                 && this.relDistanceHash == normalPlanes.relDistanceHash;
     }
 }
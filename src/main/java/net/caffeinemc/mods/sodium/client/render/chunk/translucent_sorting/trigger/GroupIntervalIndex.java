@@ -0,0 +1,190 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * An index of the distance intervals of groups that supports finding all groups
+ * whose interval overlaps a query interval without allocating.
+ *
+ * The groups are kept sorted by the start of their interval. Groups are inserted
+ * at and removed from their sorted position, which only moves the groups after
+ * them instead of sorting the whole index again. On top of the sorted groups, a
+ * max-tree over the interval ends is built lazily before the first query after a
+ * change, which takes linear time. A query binary searches for the groups that
+ * start before the end of the query interval and then descends the max-tree to
+ * find those among them that end after the start of the query interval. This
+ * takes O(log n + k) time for k results.
+ *
+ * Since sections are rebuilt much less often than the camera moves, the cost of
+ * rebuilding the max-tree is amortized over many queries.
+ */
+class GroupIntervalIndex {
+    /**
+     * The groups sorted by the start of their intervals, and their interval
+     * starts. Groups with the same start are kept in insertion order.
+     */
+    private final ObjectArrayList<Group> sortedGroups = new ObjectArrayList<>();
+    private final DoubleArrayList sortedStarts = new DoubleArrayList();
+
+    /**
+     * An implicit binary tree where each node stores the maximum interval end of
+     * the sorted groups it covers. The leaves start at index {@link #leafOffset}
+     * and unused leaves are set to negative infinity. Only valid if the tree is not
+     * dirty.
+     */
+    private double[] maxEnds = new double[0];
+    private int leafOffset;
+    private boolean maxEndsDirty = false;
+
+    void add(Group group) {
+        double start = group.distanceStart;
+
+        // insert after all groups with the same start
+        int position = upperBound(this.sortedStarts.elements(), this.sortedStarts.size(), start);
+
+        this.sortedGroups.add(position, group);
+        this.sortedStarts.add(position, start);
+
+        group.indexedStart = start;
+        this.maxEndsDirty = true;
+    }
+
+    void remove(Group group) {
+        int position = this.findPosition(group);
+
+        this.sortedGroups.remove(position);
+        this.sortedStarts.removeDouble(position);
+
+        group.indexedStart = Double.NaN;
+        this.maxEndsDirty = true;
+    }
+
+    /**
+     * Must be called when the interval of a group in the index has changed.
+     */
+    void update(Group group) {
+        if (group.distanceStart != group.indexedStart) {
+            // the group has to be moved to its new sorted position
+            this.remove(group);
+            this.add(group);
+        } else {
+            // only the end has changed, which doesn't affect the order
+            this.maxEndsDirty = true;
+        }
+    }
+
+    boolean isEmpty() {
+        return this.sortedGroups.isEmpty();
+    }
+
+    /**
+     * Calls {@link Group#triggerRange(SortTriggering, double, double)} for each
+     * group whose closed interval overlaps the closed query interval.
+     */
+    void triggerOverlapping(SortTriggering ts, double start, double end) {
+        if (this.maxEndsDirty) {
+            this.rebuildMaxEnds();
+        }
+
+        // the groups that start after the end of the query can't overlap it
+        int count = upperBound(this.sortedStarts.elements(), this.sortedStarts.size(), end);
+        if (count > 0) {
+            this.triggerOverlapping(ts, 1, 0, this.leafOffset, count, start, end);
+        }
+    }
+
+    private void triggerOverlapping(SortTriggering ts, int node, int nodeStart, int nodeLength, int count,
+                                    double start, double end) {
+        if (nodeStart >= count || this.maxEnds[node] < start) {
+            return;
+        }
+
+        if (nodeLength == 1) {
+            this.sortedGroups.get(nodeStart).triggerRange(ts, start, end);
+            return;
+        }
+
+        int halfLength = nodeLength >> 1;
+        this.triggerOverlapping(ts, node << 1, nodeStart, halfLength, count, start, end);
+        this.triggerOverlapping(ts, (node << 1) + 1, nodeStart + halfLength, halfLength, count, start, end);
+    }
+
+    /**
+     * Returns the position of the group in the sorted groups. The group is found
+     * by the start it was inserted with, since its current interval may have
+     * changed since then.
+     */
+    private int findPosition(Group group) {
+        double[] starts = this.sortedStarts.elements();
+        int size = this.sortedStarts.size();
+
+        for (int i = lowerBound(starts, size, group.indexedStart); i < size && starts[i] == group.indexedStart; i++) {
+            if (this.sortedGroups.get(i) == group) {
+                return i;
+            }
+        }
+
+        throw new IllegalStateException("Group is not in the index");
+    }
+
+    /**
+     * Returns the number of elements in the sorted array that are less than or
+     * equal to the given value.
+     */
+    private static int upperBound(double[] sorted, int size, double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of elements in the sorted array that are less than the
+     * given value.
+     */
+    private static int lowerBound(double[] sorted, int size, double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void rebuildMaxEnds() {
+        int size = this.sortedGroups.size();
+
+        // the smallest power of two that fits all groups
+        int leafOffset = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        if (this.maxEnds.length < leafOffset * 2) {
+            this.maxEnds = new double[leafOffset * 2];
+        }
+        this.leafOffset = leafOffset;
+
+        for (int i = 0; i < size; i++) {
+            this.maxEnds[leafOffset + i] = this.sortedGroups.get(i).distanceEnd;
+        }
+        Arrays.fill(this.maxEnds, leafOffset + size, leafOffset * 2, Double.NEGATIVE_INFINITY);
+
+        for (int node = leafOffset - 1; node > 0; node--) {
+            this.maxEnds[node] = Math.max(this.maxEnds[node << 1], this.maxEnds[(node << 1) + 1]);
+        }
+
+        this.maxEndsDirty = false;
+    }
+}
@@ -1,12 +1,21 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortBehavior;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicData;
+import org.joml.Vector3d;
 import org.joml.Vector3dc;
 
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.caffeinemc.mods.sodium.client.SodiumClientMod;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.AlignableNormal;
@@ -57,6 +66,51 @@ public class SortTriggering {
      */
     private final int[] sortTypeCounters = new int[SortType.values().length];
 
+    /**
+     * Camera movements are processed on this thread, so that neither the render
+     * thread nor the chunk builder threads ever wait for them. A single thread is
+     * enough, since only one movement is processed at a time.
+     */
+    private static final ExecutorService TRIGGER_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Sodium Sort Triggering");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The sections triggered by the movement being processed in the background,
+     * along with whether each trigger was a direct trigger. These are only accessed
+     * by the background task until it has completed.
+     */
+    private final LongArrayList backgroundTriggeredSections = new LongArrayList();
+    private final BooleanArrayList backgroundTriggeredDirect = new BooleanArrayList();
+    private CompletableFuture<Void> backgroundTriggering = null;
+
+    /**
+     * Changes to the trigger state which were requested while a movement was being
+     * processed in the background. They are applied in order once the background
+     * task has completed, since the trigger components are not thread-safe.
+     */
+    private final List<Runnable> deferredUpdates = new ArrayList<>();
+
+    /**
+     * The camera movements which happened while a movement was being processed in
+     * the background. They are all processed by the next background task, each on
+     * its own, since a single movement from the first start to the last end would
+     * miss the planes crossed by a camera which moved back and forth.
+     */
+    private final ObjectArrayList<CameraMovement> pendingMovements = new ObjectArrayList<>();
+
+    private final Executor executor;
+
+    public SortTriggering() {
+        this(TRIGGER_EXECUTOR);
+    }
+
+    SortTriggering(Executor executor) {
+        this.executor = executor;
+    }
+
     private final GFNITriggers gfni = new GFNITriggers();
     private final DirectTriggers direct = new DirectTriggers();
 
@@ -95,6 +149,116 @@ public class SortTriggering {
         this.triggerSectionCallback = null;
     }
 
+    /**
+     * Starts triggering the sections that the given camera movement crosses face
+     * planes of on a background thread. The triggered sections are delivered by
+     * {@link #finishTriggerSections(BiConsumer)} once the triggering has completed.
+     * If a previous movement is still being processed, this movement is queued and
+     * processed after it, together with any other queued movements.
+     *
+     * @param movement the camera movement to trigger for
+     */
+    public void beginTriggerSections(CameraMovement movement) {
+        if (this.backgroundTriggering != null) {
+            this.pendingMovements.add(new CameraMovement(new Vector3d(movement.start()), new Vector3d(movement.end())));
+            return;
+        }
+
+        this.startBackgroundTriggering(new CameraMovement[] { movement });
+    }
+
+    private void startBackgroundTriggering(CameraMovement[] movements) {
+        this.backgroundTriggering = CompletableFuture.runAsync(() -> {
+            for (var movement : movements) {
+                this.triggerSections(this::collectBackgroundTrigger, movement);
+            }
+        }, this.executor);
+    }
+
+    /**
+     * Passes the sections triggered in the background to the callback on the
+     * calling thread, if the background triggering has completed. This never waits
+     * for the background task, so the sorts caused by a movement may only be
+     * scheduled in one of the following frames if triggering takes longer than the
+     * rest of the frame setup. Any changes which were deferred while the task was
+     * running are applied afterwards, and a queued movement is started.
+     *
+     * @param triggerSectionCallback called for each section that was triggered
+     * @return the number of sections that were triggered
+     */
+    public int finishTriggerSections(BiConsumer<Long, Boolean> triggerSectionCallback) {
+        if (this.backgroundTriggering == null || !this.backgroundTriggering.isDone()) {
+            return 0;
+        }
+
+        try {
+            this.backgroundTriggering.join();
+        } finally {
+            this.backgroundTriggering = null;
+        }
+
+        int count = this.backgroundTriggeredSections.size();
+        for (int i = 0; i < count; i++) {
+            triggerSectionCallback.accept(this.backgroundTriggeredSections.getLong(i),
+                    this.backgroundTriggeredDirect.getBoolean(i));
+        }
+
+        this.backgroundTriggeredSections.clear();
+        this.backgroundTriggeredDirect.clear();
+
+        this.applyDeferredUpdates();
+
+        if (!this.pendingMovements.isEmpty()) {
+            var movements = this.pendingMovements.toArray(new CameraMovement[0]);
+            this.pendingMovements.clear();
+
+            this.startBackgroundTriggering(movements);
+        }
+
+        return count;
+    }
+
+    /**
+     * Waits for any background triggering to complete and discards its results.
+     * Only used when the renderer is being destroyed.
+     */
+    public void cancelTriggerSections() {
+        if (this.backgroundTriggering != null) {
+            this.backgroundTriggering.join();
+            this.backgroundTriggering = null;
+        }
+
+        this.backgroundTriggeredSections.clear();
+        this.backgroundTriggeredDirect.clear();
+        this.deferredUpdates.clear();
+        this.pendingMovements.clear();
+    }
+
+    /**
+     * Runs the update right away, or once the background triggering has completed
+     * if it is in progress.
+     */
+    private void runOrDefer(Runnable update) {
+        if (this.backgroundTriggering != null) {
+            this.deferredUpdates.add(update);
+        } else {
+            update.run();
+        }
+    }
+
+    private void applyDeferredUpdates() {
+        for (int i = 0; i < this.deferredUpdates.size(); i++) {
+            this.deferredUpdates.get(i).run();
+        }
+
+        this.deferredUpdates.clear();
+    }
+
+    private void collectBackgroundTrigger(Long sectionPos, Boolean isDirectTrigger) {
+        this.backgroundTriggeredSections.add(sectionPos.longValue());
+        this.backgroundTriggeredDirect.add(isDirectTrigger.booleanValue());
+    }
+
     private boolean isCatchingUp() {
         return this.catchupData != null;
     }
@@ -133,6 +297,11 @@ public class SortTriggering {
     }
 
     public void applyTriggerChanges(DynamicTopoData data, DynamicTopoData.DynamicTopoSorter topoSorter, SectionPos pos, Vector3dc cameraPos) {
+        var cameraPosCopy = new Vector3d(cameraPos);
+        this.runOrDefer(() -> this.applyTriggerChanges0(data, topoSorter, pos, cameraPosCopy));
+    }
+
+    private void applyTriggerChanges0(DynamicTopoData data, DynamicTopoData.DynamicTopoSorter topoSorter, SectionPos pos, Vector3dc cameraPos) {
         if (!data.isMatchingSorter(topoSorter)) {
             return;
         }
@@ -174,6 +343,10 @@ public class SortTriggering {
         if (oldData == null) {
             return;
         }
+        this.runOrDefer(() -> this.removeSection0(oldData, sectionPos));
+    }
+
+    private void removeSection0(TranslucentData oldData, long sectionPos) {
         this.gfni.removeSection(sectionPos, oldData);
         this.direct.removeSection(sectionPos, oldData);
         this.decrementSortTypeCounter(oldData);
@@ -190,6 +363,12 @@ public class SortTriggering {
             return;
         }
 
+        var cameraPosCopy = new Vector3d(cameraPos);
+        this.runOrDefer(() -> this.integrateTranslucentData0(oldData, newData, cameraPosCopy, triggerSectionCallback));
+    }
+
+    private void integrateTranslucentData0(TranslucentData oldData, TranslucentData newData, Vector3dc cameraPos,
+                                           BiConsumer<Long, Boolean> triggerSectionCallback) {
         var pos = newData.sectionPos;
 
         this.incrementSortTypeCounter(newData);
@@ -219,7 +398,7 @@ public class SortTriggering {
             this.triggerSectionCallback = null;
             this.catchupData = null;
         } else {
-            this.removeSection(oldData, pos.asLong());
+            this.removeSection0(oldData, pos.asLong());
         }
     }
 
@@ -9,11 +9,14 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.Tesselator;
 import com.mojang.blaze3d.vertex.VertexBuffer;
 import com.mojang.blaze3d.vertex.VertexFormat;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.caffeinemc.mods.sodium.api.vertex.format.common.ColorVertex;
 import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
 import net.caffeinemc.mods.sodium.api.util.ColorABGR;
 import net.caffeinemc.mods.sodium.api.util.ColorARGB;
 import net.caffeinemc.mods.sodium.api.util.ColorMixer;
+import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import net.minecraft.Util;
 import net.minecraft.client.Camera;
 import net.minecraft.client.CloudStatus;
 import net.minecraft.client.Minecraft;
@@ -26,16 +29,17 @@ import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.ResourceProvider;
 import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.opengl.GL32C;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Objects;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CloudRenderer {
     private static final ResourceLocation CLOUDS_TEXTURE_ID = new ResourceLocation("textures/environment/clouds.png");
@@ -43,7 +47,18 @@ public class CloudRenderer {
     private CloudTextureData textureData;
     private ShaderInstance shaderProgram;
 
-    private @Nullable CloudRenderer.CloudGeometry cachedGeometry;
+    /**
+     * The number of cells on each axis of a cloud tile.
+     */
+    static final int TILE_SIZE = 16;
+
+    /**
+     * The maximum number of vertices which can be emitted for a single cell, with all the exterior and interior faces
+     * of the cell being visible.
+     */
+    private static final int MAX_VERTICES_PER_CELL = 2 * CloudFace.COUNT * 4;
+
+    private @Nullable CloudTileGrid tileGrid;
 
     public CloudRenderer(ResourceProvider resourceProvider) {
         this.reloadTextures(resourceProvider);
@@ -83,14 +98,27 @@ public class CloudRenderer {
         int orientation = (int) Math.signum(pos.y() - cloudHeight);
         var parameters = new CloudGeometryParameters(centerCellX, centerCellZ, cloudDistance, orientation, Minecraft.getInstance().options.getCloudsType());
 
-        CloudGeometry geometry = this.cachedGeometry;
+        CloudTileGrid tileGrid = this.tileGrid;
+
+        if (tileGrid == null || tileGrid.radius != parameters.radius()) {
+            if (tileGrid != null) {
+                tileGrid.destroy();
+            }
 
-        if (geometry == null || !Objects.equals(geometry.params(), parameters)) {
-            this.cachedGeometry = (geometry = rebuildGeometry(geometry, parameters, this.textureData));
+            this.tileGrid = (tileGrid = new CloudTileGrid(parameters.radius()));
         }
 
-        final float translateX = (float) (cloudCenterX - (centerCellX * 12));
-        final float translateZ = (float) (cloudCenterZ - (centerCellZ * 12));
+        tileGrid.update(parameters, this.textureData);
+
+        CloudGeometryParameters meshParameters = tileGrid.meshParameters;
+
+        if (tileGrid.vertexBuffer == null || meshParameters == null || tileGrid.meshVertexCount == 0) {
+            return;
+        }
+
+        // The mesh might still be positioned around a previous origin while it is being rebuilt
+        final float translateX = (float) (cloudCenterX - (meshParameters.originX() * 12));
+        final float translateZ = (float) (cloudCenterZ - (meshParameters.originZ() * 12));
 
         poseStack.pushPose();
 
@@ -105,7 +133,7 @@ public class CloudRenderer {
 
         FogRenderer.setupFog(camera, FogRenderer.FogMode.FOG_TERRAIN, cloudDistance * 8, shouldUseWorldFog(level, pos), tickDelta);
 
-        boolean fastClouds = geometry.params().renderMode() == CloudStatus.FAST;
+        boolean fastClouds = meshParameters.renderMode() == CloudStatus.FAST;
         boolean fabulous = Minecraft.useShaderTransparency();
 
         if (fastClouds) {
@@ -119,16 +147,15 @@ public class CloudRenderer {
         Vec3 colorModulator = level.getCloudColor(tickDelta);
         RenderSystem.setShaderColor((float) colorModulator.x, (float) colorModulator.y, (float) colorModulator.z, 0.8f);
 
-        VertexBuffer vertexBuffer = geometry.vertexBuffer();
-        vertexBuffer.bind();
-
         RenderSystem.enableBlend();
         RenderSystem.enableDepthTest();
         RenderSystem.blendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA,
                 GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
         RenderSystem.depthFunc(GL32C.GL_LESS);
 
-        vertexBuffer.drawWithShader(modelViewMatrix, projectionMatrix, this.shaderProgram);
+        // The cells are ordered from nearest to farthest, so that the nearest clouds occlude the ones behind them
+        tileGrid.vertexBuffer.bind();
+        tileGrid.vertexBuffer.drawWithShader(modelViewMatrix, projectionMatrix, this.shaderProgram);
 
         RenderSystem.depthFunc(GL32C.GL_LEQUAL);
         RenderSystem.disableBlend();
@@ -152,110 +179,173 @@ public class CloudRenderer {
         poseStack.popPose();
     }
 
-    private static @NotNull CloudGeometry rebuildGeometry(@Nullable CloudGeometry existingGeometry,
-                                                          CloudGeometryParameters parameters,
-                                                          CloudTextureData textureData)
-    {
-        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
-        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+    /**
+     * Builds the geometry of a tile. This does not access any global state, and is run on a worker thread.
+     */
+    static CloudTileMesh buildTileGeometry(CloudTileKey key, CloudTextureData textureData) {
+        var scratch = new NativeBuffer(TILE_SIZE * TILE_SIZE * MAX_VERTICES_PER_CELL * ColorVertex.STRIDE);
 
-        var writer = VertexBufferWriter.of(bufferBuilder);
+        final long start = MemoryUtil.memAddress(scratch.getDirectBuffer());
+        long ptr = start;
 
-        var originCellX = parameters.originX();
-        var originCellZ = parameters.originZ();
+        int minCellX = key.tileX() * TILE_SIZE, maxCellX = minCellX + TILE_SIZE - 1;
+        int minCellZ = key.tileZ() * TILE_SIZE, maxCellZ = minCellZ + TILE_SIZE - 1;
 
-        var orientation = parameters.orientation();
+        int minDistance = getDistanceToRange(key.originX(), minCellX, maxCellX) +
+                getDistanceToRange(key.originZ(), minCellZ, maxCellZ);
+        int maxDistance = Math.max(Math.abs(key.originX() - minCellX), Math.abs(key.originX() - maxCellX)) +
+                Math.max(Math.abs(key.originZ() - minCellZ), Math.abs(key.originZ() - maxCellZ));
 
-        var radius = parameters.radius();
-        var useFastGraphics = parameters.renderMode() == CloudStatus.FAST;
+        // The end of the vertices for each distance to the origin, which is needed to merge the tiles in order
+        int[] distanceEnds = new int[maxDistance - minDistance + 1];
 
-        addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, 0, 0, orientation, useFastGraphics);
+        // The cells are emitted in order of their distance to the origin, so that they can be merged with the cells of
+        // the other tiles in the same order as the spiral which is used when all the clouds are built at once
+        for (int distance = minDistance; distance <= maxDistance; distance++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int distanceZ = distance - Math.abs(cellX - key.originX());
 
-        for (int layer = 1; layer <= radius; layer++) {
-            for (int z = -layer; z < layer; z++) {
-                int x = Math.abs(z) - layer;
-                addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, x, z, orientation, useFastGraphics);
-            }
+                if (distanceZ < 0) {
+                    continue;
+                }
 
-            for (int z = layer; z > -layer; z--) {
-                int x = layer - Math.abs(z);
-                addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, x, z, orientation, useFastGraphics);
+                int cellZ = key.originZ() - distanceZ;
+
+                if (cellZ >= minCellZ && cellZ <= maxCellZ) {
+                    ptr = addCellGeometry(ptr, key, textureData, cellX, cellZ, minCellX, minCellZ);
+                }
+
+                if (distanceZ != 0 && (cellZ = key.originZ() + distanceZ) >= minCellZ && cellZ <= maxCellZ) {
+                    ptr = addCellGeometry(ptr, key, textureData, cellX, cellZ, minCellX, minCellZ);
+                }
             }
+
+            distanceEnds[distance - minDistance] = (int) ((ptr - start) / ColorVertex.STRIDE);
         }
 
-        for (int layer = radius + 1; layer <= 2 * radius; layer++) {
-            int l = layer - radius;
+        int vertexCount = (int) ((ptr - start) / ColorVertex.STRIDE);
 
-            for (int z = -radius; z <= -l; z++) {
-                int x = -z - layer;
-                addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, x, z, orientation, useFastGraphics);
-            }
+        // The mesh is kept until the tile is rebuilt, so it shouldn't hold on to the space for the worst case
+        var buffer = new NativeBuffer(Math.max(vertexCount, 1) * ColorVertex.STRIDE);
+        MemoryUtil.memCopy(start, MemoryUtil.memAddress(buffer.getDirectBuffer()), (long) vertexCount * ColorVertex.STRIDE);
 
-            for (int z = l; z <= radius; z++) {
-                int x = z - layer;
-                addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, x, z, orientation, useFastGraphics);
-            }
+        scratch.free();
 
-            for (int z = radius; z >= l; z--) {
-                int x = layer - z;
-                addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, x, z, orientation, useFastGraphics);
-            }
+        return new CloudTileMesh(key, buffer, vertexCount, minDistance, distanceEnds);
+    }
+
+    /**
+     * Merges the meshes of the tiles into a single mesh, which is positioned relative to the origin. The cells of all
+     * tiles are ordered by their distance to the origin, as the cells of a tile which is closer to the origin can
+     * still be behind the cells of the tiles around it. This only copies the vertices, and is run on a worker thread.
+     */
+    static CloudMesh mergeTileGeometry(CloudGeometryParameters parameters, List<CloudTileMesh> tiles) {
+        int vertexCount = 0;
+        int maxDistance = 0;
+
+        // The distance to the actual origin of the first cells in each tile. The geometry of a tile is ordered by the
+        // distance to the origin of its key, which is either the same, or offset by a constant for all the cells.
+        int[] firstDistances = new int[tiles.size()];
+
+        for (int i = 0; i < tiles.size(); i++) {
+            var tile = tiles.get(i);
+            var key = tile.key();
+
+            firstDistances[i] = tile.minDistance() +
+                    Math.abs(parameters.originX() - key.originX()) +
+                    Math.abs(parameters.originZ() - key.originZ());
+
+            maxDistance = Math.max(maxDistance, firstDistances[i] + tile.distanceEnds().length - 1);
+            vertexCount += tile.vertexCount();
+        }
+
+        var buffer = new NativeBuffer(Math.max(vertexCount, 1) * ColorVertex.STRIDE);
+        long ptr = MemoryUtil.memAddress(buffer.getDirectBuffer());
 
-            for (int z = -l; z >= -radius; z--) {
-                int x = layer + z;
-                addCellGeometryToBuffer(writer, textureData, originCellX, originCellZ, x, z, orientation, useFastGraphics);
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            for (int i = 0; i < tiles.size(); i++) {
+                var tile = tiles.get(i);
+                var distanceEnds = tile.distanceEnds();
+
+                int index = distance - firstDistances[i];
+
+                if (index < 0 || index >= distanceEnds.length) {
+                    continue;
+                }
+
+                int firstVertex = index == 0 ? 0 : distanceEnds[index - 1];
+                int lastVertex = distanceEnds[index];
+
+                if (firstVertex == lastVertex) {
+                    continue;
+                }
+
+                float offsetX = ((tile.key().tileX() * TILE_SIZE) - parameters.originX()) * 12;
+                float offsetZ = ((tile.key().tileZ() * TILE_SIZE) - parameters.originZ()) * 12;
+
+                ptr = copyVertices(ptr, tile, firstVertex, lastVertex, offsetX, offsetZ);
             }
         }
 
-        BufferBuilder.RenderedBuffer builtBuffer = bufferBuilder.end();
+        return new CloudMesh(parameters, buffer, vertexCount);
+    }
 
-        VertexBuffer vertexBuffer;
+    private static long copyVertices(long ptr, CloudTileMesh tile, int firstVertex, int lastVertex, float offsetX, float offsetZ) {
+        long src = MemoryUtil.memAddress(tile.buffer().getDirectBuffer()) + ((long) firstVertex * ColorVertex.STRIDE);
 
-        if (existingGeometry != null) {
-            vertexBuffer = existingGeometry.vertexBuffer();
-        } else {
-            vertexBuffer = new VertexBuffer(VertexBuffer.Usage.DYNAMIC);
+        for (int vertex = firstVertex; vertex < lastVertex; vertex++) {
+            float x = MemoryUtil.memGetFloat(src + 0);
+            float y = MemoryUtil.memGetFloat(src + 4);
+            float z = MemoryUtil.memGetFloat(src + 8);
+            int color = MemoryUtil.memGetInt(src + 12);
+
+            ptr = writeVertex(ptr, x + offsetX, y, z + offsetZ, color);
+            src += ColorVertex.STRIDE;
         }
 
-        uploadToVertexBuffer(vertexBuffer, builtBuffer);
+        return ptr;
+    }
 
-        return new CloudGeometry(vertexBuffer, parameters);
+    private static int getDistanceToRange(int value, int min, int max) {
+        return Math.max(0, Math.max(min - value, value - max));
     }
 
-    private static void addCellGeometryToBuffer(VertexBufferWriter writer,
-                                                CloudTextureData textureData,
-                                                int originX,
-                                                int originZ,
-                                                int offsetX,
-                                                int offsetZ,
-                                                int orientation,
-                                                boolean useFastGraphics) {
-        int cellX = originX + offsetX;
-        int cellZ = originZ + offsetZ;
+    static long addCellGeometry(long ptr,
+                                        CloudTileKey key,
+                                        CloudTextureData textureData,
+                                        int cellX,
+                                        int cellZ,
+                                        int tileOriginX,
+                                        int tileOriginZ) {
+        int offsetX = cellX - key.originX();
+        int offsetZ = cellZ - key.originZ();
 
         int cellIndex = textureData.getCellIndexWrapping(cellX, cellZ);
-        int cellFaces = textureData.getCellFaces(cellIndex) & getVisibleFaces(offsetX, offsetZ, orientation);
+        int cellFaces = textureData.getCellFaces(cellIndex) & getVisibleFaces(offsetX, offsetZ, key.orientation());
 
         if (cellFaces == 0) {
-            return;
+            return ptr;
         }
 
         int cellColor = textureData.getCellColor(cellIndex);
 
-        float x = offsetX * 12;
-        float z = offsetZ * 12;
+        // The geometry is positioned relative to the tile, so that it can be re-used as the origin moves
+        float x = (cellX - tileOriginX) * 12;
+        float z = (cellZ - tileOriginZ) * 12;
 
-        if (useFastGraphics) {
-            emitCellGeometry2D(writer, cellFaces, cellColor, x, z);
+        if (key.renderMode() == CloudStatus.FAST) {
+            ptr = emitCellGeometry2D(ptr, cellFaces, cellColor, x, z);
         } else {
-            emitCellGeometry3D(writer, cellFaces, cellColor, x, z, false);
+            ptr = emitCellGeometry3D(ptr, cellFaces, cellColor, x, z, false);
 
             int distance = Math.abs(offsetX) + Math.abs(offsetZ);
 
             if (distance <= 1) {
-                emitCellGeometry3D(writer, CloudFaceSet.all(), cellColor, x, z, true);
+                ptr = emitCellGeometry3D(ptr, CloudFaceSet.all(), cellColor, x, z, true);
             }
         }
+
+        return ptr;
     }
 
     private static int getVisibleFaces(int x, int z, int orientation) {
@@ -334,63 +424,41 @@ public class CloudRenderer {
         };
     }
 
-    private static void emitCellGeometry2D(VertexBufferWriter writer, int faces, int color, float x, float z) {
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            final long buffer = stack.nmalloc(4 * ColorVertex.STRIDE);
-
-            long ptr = buffer;
-            int count = 0;
-
-            // -Y
-            if (CloudFaceSet.contains(faces, CloudFace.NEG_Y)) {
-                int mixedColor = ColorMixer.mul(color, CloudFace.POS_Y.getColor());
-
-                ptr = writeVertex(ptr, x + 12.0f, 0.0f, z + 12.0f, mixedColor);
-                ptr = writeVertex(ptr, x +  0.0f, 0.0f, z + 12.0f, mixedColor);
-                ptr = writeVertex(ptr, x +  0.0f, 0.0f, z +  0.0f, mixedColor);
-                ptr = writeVertex(ptr, x + 12.0f, 0.0f, z +  0.0f, mixedColor);
-
-                count += 4;
-            }
+    private static long emitCellGeometry2D(long ptr, int faces, int color, float x, float z) {
+        // -Y
+        if (CloudFaceSet.contains(faces, CloudFace.NEG_Y)) {
+            int mixedColor = ColorMixer.mul(color, CloudFace.POS_Y.getColor());
 
-            if (count > 0) {
-                writer.push(stack, buffer, count, ColorVertex.FORMAT);
-            }
+            ptr = writeVertex(ptr, x + 12.0f, 0.0f, z + 12.0f, mixedColor);
+            ptr = writeVertex(ptr, x +  0.0f, 0.0f, z + 12.0f, mixedColor);
+            ptr = writeVertex(ptr, x +  0.0f, 0.0f, z +  0.0f, mixedColor);
+            ptr = writeVertex(ptr, x + 12.0f, 0.0f, z +  0.0f, mixedColor);
         }
-    }
-
-    private static void emitCellGeometry3D(VertexBufferWriter writer, int visibleFaces, int baseColor, float posX, float posZ, boolean interior) {
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            final long buffer = stack.nmalloc(6 * 4 * ColorVertex.STRIDE);
-
-            long ptr = buffer;
-            int count = 0;
 
-            for (var face : CloudFace.VALUES) {
-                if (!CloudFaceSet.contains(visibleFaces, face)) {
-                    continue;
-                }
+        return ptr;
+    }
 
-                final var vertices = VERTICES[face.ordinal()];
-                final int color = ColorMixer.mul(baseColor, face.getColor());
+    private static long emitCellGeometry3D(long ptr, int visibleFaces, int baseColor, float posX, float posZ, boolean interior) {
+        for (var face : CloudFace.VALUES) {
+            if (!CloudFaceSet.contains(visibleFaces, face)) {
+                continue;
+            }
 
-                for (int vertexIndex = 0; vertexIndex < 4; vertexIndex++) {
-                    Vector3f vertex = vertices[interior ? 3 - vertexIndex : vertexIndex];
+            final var vertices = VERTICES[face.ordinal()];
+            final int color = ColorMixer.mul(baseColor, face.getColor());
 
-                    final float x = vertex.x + posX;
-                    final float y = vertex.y;
-                    final float z = vertex.z + posZ;
+            for (int vertexIndex = 0; vertexIndex < 4; vertexIndex++) {
+                Vector3f vertex = vertices[interior ? 3 - vertexIndex : vertexIndex];
 
-                    ptr = writeVertex(ptr, x, y, z, color);
-                }
+                final float x = vertex.x + posX;
+                final float y = vertex.y;
+                final float z = vertex.z + posZ;
 
-                count += 4;
-            }
-
-            if (count > 0) {
-                writer.push(stack, buffer, count, ColorVertex.FORMAT);
+                ptr = writeVertex(ptr, x, y, z, color);
             }
         }
+
+        return ptr;
     }
 
     private static long writeVertex(long buffer, float x, float y, float z, int color) {
@@ -398,9 +466,17 @@ public class CloudRenderer {
         return buffer + ColorVertex.STRIDE;
     }
 
-    private static void uploadToVertexBuffer(VertexBuffer vertexBuffer, BufferBuilder.RenderedBuffer builtBuffer) {
+    private static void uploadToVertexBuffer(VertexBuffer vertexBuffer, CloudMesh mesh) {
+        BufferBuilder bufferBuilder = Tesselator.getInstance().getBuilder();
+        bufferBuilder.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_COLOR);
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            long ptr = MemoryUtil.memAddress(mesh.buffer().getDirectBuffer());
+            VertexBufferWriter.of(bufferBuilder).push(stack, ptr, mesh.vertexCount(), ColorVertex.FORMAT);
+        }
+
         vertexBuffer.bind();
-        vertexBuffer.upload(builtBuffer);
+        vertexBuffer.upload(bufferBuilder.end());
 
         VertexBuffer.unbind();
     }
@@ -423,11 +499,9 @@ public class CloudRenderer {
             this.shaderProgram = null;
         }
 
-        if (this.cachedGeometry != null) {
-            var vertexBuffer = this.cachedGeometry.vertexBuffer();
-            vertexBuffer.close();
-
-            this.cachedGeometry = null;
+        if (this.tileGrid != null) {
+            this.tileGrid.destroy();
+            this.tileGrid = null;
         }
     }
 
@@ -502,7 +576,7 @@ public class CloudRenderer {
         return ColorARGB.unpackAlpha(color) <= 1;
     }
 
-    private static class CloudTextureData {
+    static class CloudTextureData {
         private final byte[] faces;
         private final int[] colors;
         private boolean isBlank;
@@ -510,9 +584,10 @@ public class CloudRenderer {
         private final int width, height;
 
         public CloudTextureData(NativeImage texture) {
-            int width = texture.getWidth();
-            int height = texture.getHeight();
+            this(texture.getWidth(), texture.getHeight(), texture::getPixelRGBA);
+        }
 
+        CloudTextureData(int width, int height, TexelSource texels) {
             this.faces = new byte[width * height];
             this.colors = new int[width * height];
             this.isBlank = true;
@@ -520,26 +595,26 @@ public class CloudRenderer {
             this.width = width;
             this.height = height;
 
-            this.loadTextureData(texture, width, height);
+            this.loadTextureData(texels, width, height);
         }
 
-        private void loadTextureData(NativeImage texture, int width, int height) {
+        private void loadTextureData(TexelSource texels, int width, int height) {
             for (int x = 0; x < width; x++) {
                 for (int z = 0; z < height; z++) {
                     int index = this.getCellIndex(x, z);
-                    int color = texture.getPixelRGBA(x, z);
+                    int color = texels.getTexel(x, z);
 
                     this.colors[index] = color;
 
                     if (!isTransparentCell(color)) {
-                        this.faces[index] = (byte) getOpenFaces(texture, color, x, z);
+                        this.faces[index] = (byte) getOpenFaces(texels, width, height, color, x, z);
                         this.isBlank = false;
                     }
                 }
             }
         }
 
-        private static int getOpenFaces(NativeImage image, int color, int x, int z) {
+        private static int getOpenFaces(TexelSource image, int width, int height, int color, int x, int z) {
             // Since the cloud texture is only 2D, nothing can hide the top or bottom faces
             int faces = CloudFaceSet.empty();
             faces = CloudFaceSet.add(faces, CloudFace.NEG_Y);
@@ -549,7 +624,7 @@ public class CloudRenderer {
             // Do not generate duplicate faces between two cells
             {
                 // -X face
-                int neighbor = getNeighborTexel(image, x - 1, z);
+                int neighbor = getNeighborTexel(image, width, height, x - 1, z);
 
                 if (color != neighbor) {
                     faces = CloudFaceSet.add(faces, CloudFace.NEG_X);
@@ -558,7 +633,7 @@ public class CloudRenderer {
 
             {
                 // +X face
-                int neighbor = getNeighborTexel(image, x + 1, z);
+                int neighbor = getNeighborTexel(image, width, height, x + 1, z);
 
                 if (color != neighbor) {
                     faces = CloudFaceSet.add(faces, CloudFace.POS_X);
@@ -567,7 +642,7 @@ public class CloudRenderer {
 
             {
                 // -Z face
-                int neighbor = getNeighborTexel(image, x, z - 1);
+                int neighbor = getNeighborTexel(image, width, height, x, z - 1);
 
                 if (color != neighbor) {
                     faces = CloudFaceSet.add(faces, CloudFace.NEG_Z);
@@ -576,7 +651,7 @@ public class CloudRenderer {
 
             {
                 // +Z face
-                int neighbor = getNeighborTexel(image, x, z + 1);
+                int neighbor = getNeighborTexel(image, width, height, x, z + 1);
 
                 if (color != neighbor) {
                     faces = CloudFaceSet.add(faces, CloudFace.POS_Z);
@@ -586,11 +661,11 @@ public class CloudRenderer {
             return faces;
         }
 
-        private static int getNeighborTexel(NativeImage image, int x, int z) {
-            x = wrapTexelCoord(x, 0, image.getWidth() - 1);
-            z = wrapTexelCoord(z, 0, image.getHeight() - 1);
+        private static int getNeighborTexel(TexelSource image, int width, int height, int x, int z) {
+            x = wrapTexelCoord(x, 0, width - 1);
+            z = wrapTexelCoord(z, 0, height - 1);
 
-            return image.getPixelRGBA(x, z);
+            return image.getTexel(x, z);
         }
 
         private static int wrapTexelCoord(int coord, int min, int max) {
@@ -623,13 +698,274 @@ public class CloudRenderer {
         private int getCellIndex(int x, int z) {
             return (x * this.width) + z;
         }
+
+        @FunctionalInterface
+        interface TexelSource {
+            int getTexel(int x, int z);
+        }
+    }
+
+    /**
+     * The clouds are split into square tiles of cells, which are stored in a grid that wraps around as the origin
+     * moves. When the origin moves, only the tiles which became visible, and the tiles whose geometry depends on the
+     * exact position of the origin, need to be rebuilt. The tiles are built on worker threads, and once all the tiles
+     * around the origin are up-to-date, they are merged into a single mesh which contains all the cells in order of
+     * their distance to the origin. Until then, the previous mesh is drawn at its original position.
+     */
+    private static class CloudTileGrid {
+        private final int radius;
+        private final int width;
+
+        private final CloudTile[] tiles;
+
+        // The meshes of the tiles around the origin, which are merged once all of them are up-to-date
+        private final ObjectArrayList<CloudTileMesh> currentMeshes = new ObjectArrayList<>();
+
+        // The buffers of tile meshes which have been replaced, but might still be read by the pending merge
+        private final ObjectArrayList<NativeBuffer> retiredBuffers = new ObjectArrayList<>();
+
+        private @Nullable CompletableFuture<CloudMesh> pendingMerge;
+
+        private @Nullable VertexBuffer vertexBuffer;
+        private @Nullable CloudGeometryParameters meshParameters;
+        private int meshVertexCount;
+
+        private CloudTileGrid(int radius) {
+            this.radius = radius;
+            // the maximum number of tiles which can intersect the clouds on each axis
+            this.width = Mth.positiveCeilDiv((radius * 2) + 1, TILE_SIZE) + 1;
+
+            this.tiles = new CloudTile[this.width * this.width];
+
+            for (int i = 0; i < this.tiles.length; i++) {
+                this.tiles[i] = new CloudTile();
+            }
+        }
+
+        private void update(CloudGeometryParameters parameters, CloudTextureData textureData) {
+            // The geometry of every cell depends on the orientation and render mode, so the previous mesh can't be
+            // drawn in the meantime. This only happens when the camera crosses the clouds or the options are changed,
+            // and the clouds are rebuilt on the render thread instead.
+            boolean immediate = this.meshParameters == null ||
+                    this.meshParameters.orientation() != parameters.orientation() ||
+                    this.meshParameters.renderMode() != parameters.renderMode();
+
+            if (this.pendingMerge != null && (immediate || this.pendingMerge.isDone())) {
+                var mesh = this.pendingMerge.join();
+                this.pendingMerge = null;
+
+                if (immediate) {
+                    mesh.buffer().free();
+                } else {
+                    this.uploadMesh(mesh);
+                }
+            }
+
+            this.currentMeshes.clear();
+
+            boolean complete = true;
+
+            int minTileX = Math.floorDiv(parameters.originX() - this.radius, TILE_SIZE);
+            int minTileZ = Math.floorDiv(parameters.originZ() - this.radius, TILE_SIZE);
+
+            int maxTileX = Math.floorDiv(parameters.originX() + this.radius, TILE_SIZE);
+            int maxTileZ = Math.floorDiv(parameters.originZ() + this.radius, TILE_SIZE);
+
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                    var tile = this.tiles[this.getTileIndex(tileX, tileZ)];
+                    tile.acceptPendingMesh(this.retiredBuffers);
+
+                    var key = CloudTileKey.create(tileX, tileZ, parameters);
+
+                    if (!tile.hasMesh(key)) {
+                        if (immediate) {
+                            tile.rebuildNow(key, textureData, this.retiredBuffers);
+                        } else if (!key.equals(tile.pendingKey)) {
+                            tile.scheduleRebuild(key, textureData);
+                        }
+                    }
+
+                    if (tile.hasMesh(key)) {
+                        this.currentMeshes.add(tile.mesh);
+                    } else {
+                        complete = false;
+                    }
+                }
+            }
+
+            if (complete && this.pendingMerge == null && !parameters.equals(this.meshParameters)) {
+                if (immediate) {
+                    this.uploadMesh(mergeTileGeometry(parameters, this.currentMeshes));
+                } else {
+                    var meshes = List.copyOf(this.currentMeshes);
+                    this.pendingMerge = CompletableFuture.supplyAsync(() -> mergeTileGeometry(parameters, meshes),
+                            Util.backgroundExecutor());
+                }
+            }
+
+            this.currentMeshes.clear();
+
+            if (this.pendingMerge == null) {
+                this.freeRetiredBuffers();
+            }
+        }
+
+        private void uploadMesh(CloudMesh mesh) {
+            try {
+                if (mesh.vertexCount() > 0) {
+                    if (this.vertexBuffer == null) {
+                        this.vertexBuffer = new VertexBuffer(VertexBuffer.Usage.DYNAMIC);
+                    }
+
+                    uploadToVertexBuffer(this.vertexBuffer, mesh);
+                }
+
+                this.meshParameters = mesh.parameters();
+                this.meshVertexCount = mesh.vertexCount();
+            } finally {
+                mesh.buffer().free();
+            }
+        }
+
+        private void freeRetiredBuffers() {
+            for (var buffer : this.retiredBuffers) {
+                buffer.free();
+            }
+
+            this.retiredBuffers.clear();
+        }
+
+        private int getTileIndex(int tileX, int tileZ) {
+            return (Math.floorMod(tileX, this.width) * this.width) + Math.floorMod(tileZ, this.width);
+        }
+
+        private void destroy() {
+            if (this.pendingMerge != null) {
+                // the merge reads the meshes of the tiles, so they can only be freed after it completes
+                this.pendingMerge.join()
+                        .buffer()
+                        .free();
+                this.pendingMerge = null;
+            }
+
+            for (var tile : this.tiles) {
+                tile.destroy(this.retiredBuffers);
+            }
+
+            this.freeRetiredBuffers();
+
+            if (this.vertexBuffer != null) {
+                this.vertexBuffer.close();
+                this.vertexBuffer = null;
+            }
+
+            this.meshParameters = null;
+            this.meshVertexCount = 0;
+        }
+    }
+
+    private static class CloudTile {
+        // The most recently built geometry of the tile, which is kept until it is replaced
+        private @Nullable CloudTileMesh mesh;
+
+        private @Nullable CloudTileKey pendingKey;
+        private @Nullable CompletableFuture<CloudTileMesh> pendingMesh;
+
+        private void scheduleRebuild(CloudTileKey key, CloudTextureData textureData) {
+            this.discardPendingMesh();
+
+            this.pendingKey = key;
+            this.pendingMesh = CompletableFuture.supplyAsync(() -> buildTileGeometry(key, textureData),
+                    Util.backgroundExecutor());
+        }
+
+        private void rebuildNow(CloudTileKey key, CloudTextureData textureData, List<NativeBuffer> retiredBuffers) {
+            this.discardPendingMesh();
+            this.setMesh(buildTileGeometry(key, textureData), retiredBuffers);
+        }
+
+        private void acceptPendingMesh(List<NativeBuffer> retiredBuffers) {
+            if (this.pendingMesh == null || !this.pendingMesh.isDone()) {
+                return;
+            }
+
+            var mesh = this.pendingMesh.join();
+
+            this.pendingKey = null;
+            this.pendingMesh = null;
+
+            this.setMesh(mesh, retiredBuffers);
+        }
+
+        private void setMesh(CloudTileMesh mesh, List<NativeBuffer> retiredBuffers) {
+            if (this.mesh != null) {
+                retiredBuffers.add(this.mesh.buffer());
+            }
+
+            this.mesh = mesh;
+        }
+
+        private boolean hasMesh(CloudTileKey key) {
+            return this.mesh != null && this.mesh.key().equals(key);
+        }
+
+        private void discardPendingMesh() {
+            if (this.pendingMesh != null) {
+                // the mesh can't be cancelled once it's being built, so it has to be freed after it completes
+                this.pendingMesh.thenAccept(mesh -> mesh.buffer().free());
+
+                this.pendingKey = null;
+                this.pendingMesh = null;
+            }
+        }
+
+        private void destroy(List<NativeBuffer> retiredBuffers) {
+            this.discardPendingMesh();
+
+            if (this.mesh != null) {
+                retiredBuffers.add(this.mesh.buffer());
+                this.mesh = null;
+            }
+        }
+    }
+
+    /**
+     * Identifies the geometry of a tile. The geometry of a cell depends on which side of the origin it is on, and
+     * whether it is directly next to the origin. For the tiles which are more than one cell away from the origin on
+     * an axis, the origin is replaced with a position two cells away from the tile on that axis. This does not change
+     * the geometry of the tile, and makes it possible to re-use the tile while the origin moves.
+     */
+    record CloudTileKey(int tileX, int tileZ, int originX, int originZ, int orientation, CloudStatus renderMode) {
+        static CloudTileKey create(int tileX, int tileZ, CloudGeometryParameters parameters) {
+            int originX = getTileRelativeOrigin(parameters.originX(), tileX * TILE_SIZE);
+            int originZ = getTileRelativeOrigin(parameters.originZ(), tileZ * TILE_SIZE);
+
+            return new CloudTileKey(tileX, tileZ, originX, originZ, parameters.orientation(), parameters.renderMode());
+        }
+
+        private static int getTileRelativeOrigin(int origin, int minCell) {
+            int maxCell = minCell + TILE_SIZE - 1;
+            return Mth.clamp(origin, minCell - 2, maxCell + 2);
+        }
+    }
+
+    /**
+     * The geometry of a tile, positioned relative to the tile. The cells are ordered by their distance to the origin
+     * of the key, and the vertices of the cells at distance {@code minDistance + i} end at {@code distanceEnds[i]}.
+     */
+    record CloudTileMesh(CloudTileKey key, NativeBuffer buffer, int vertexCount, int minDistance, int[] distanceEnds) {
+
     }
 
-    private record CloudGeometry(VertexBuffer vertexBuffer, CloudGeometryParameters params) {
+    /**
+     * The merged geometry of all tiles, positioned relative to the origin of the parameters.
+     */
+    record CloudMesh(CloudGeometryParameters parameters, NativeBuffer buffer, int vertexCount) {
 
     }
 
-    private record CloudGeometryParameters(int originX, int originZ, int radius, int orientation, CloudStatus renderMode) {
+    record CloudGeometryParameters(int originX, int originZ, int radius, int orientation, CloudStatus renderMode) {
 
     }
 }
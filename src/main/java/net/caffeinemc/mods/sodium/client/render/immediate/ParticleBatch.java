@@ -0,0 +1,275 @@
+package net.caffeinemc.mods.sodium.client.render.immediate;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.ParticleVertex;
+import net.caffeinemc.mods.sodium.client.render.SodiumWorldRenderer;
+import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Quaternionf;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+
+/**
+ * Collects the quads of all single-quad particles which are rendered into the same vertex consumer, and writes them
+ * in one pass when the particle render type is finished. The attributes of each particle are stored in separate
+ * arrays, so that the particles can be culled against the frustum in bulk before any vertices are generated. Since
+ * particles are small and plentiful, this is much cheaper than expanding them into four vertices each and pushing
+ * those to the vertex consumer one quad at a time.
+ *
+ * Particles are only batched while the particle engine renders on the render thread, otherwise they are written
+ * immediately. Particles which render themselves with custom code are written directly to the vertex consumer, and
+ * as such will appear before the batched particles of the same render type. The particle engine does not sort its
+ * particles, so this does not change the result in any meaningful way.
+ */
+public class ParticleBatch {
+    /**
+     * The maximum number of quads pushed to the vertex consumer at once. This is limited since vertex buffer writers
+     * may need to copy the vertices onto the memory stack.
+     */
+    private static final int MAX_PUSH_QUADS = 256;
+
+    // Quads can be rotated by any angle around their center, so they are culled as a square which contains them
+    private static final float CULLING_SIZE_SCALE = (float) Math.sqrt(2.0);
+
+    private static final long scratchBuffer = MemoryUtil.nmemAlignedAlloc(64, MAX_PUSH_QUADS * 4L * ParticleVertex.STRIDE);
+    private static final Quaternionf scratchRotation = new Quaternionf();
+
+    // The batch of the particle engine, which is only used on the render thread
+    private static final ParticleBatch INSTANCE = new ParticleBatch();
+
+    private static boolean batching;
+
+    private static VertexConsumer consumer;
+    private static Quaternionf cameraRotation;
+
+    private int count;
+
+    private float[] posX = new float[0], posY = new float[0], posZ = new float[0];
+    private float[] sizes = new float[0], rolls = new float[0];
+    private float[] minUs = new float[0], maxUs = new float[0], minVs = new float[0], maxVs = new float[0];
+    private int[] colors = new int[0], lights = new int[0];
+
+    ParticleBatch() {
+
+    }
+
+    public static void begin() {
+        batching = RenderSystem.isOnRenderThread();
+        INSTANCE.clear();
+    }
+
+    public static boolean isBatching() {
+        return batching && RenderSystem.isOnRenderThread();
+    }
+
+    /**
+     * Adds a particle to the batch, writing the particles which were collected for another vertex consumer first.
+     *
+     * @param x The position of the particle's center relative to the camera
+     * @param roll The rotation of the particle around the view axis in radians
+     */
+    public static void add(VertexConsumer consumer, Quaternionf cameraRotation,
+                           float x, float y, float z, float size, float roll,
+                           float minU, float maxU, float minV, float maxV, int color, int light) {
+        if (ParticleBatch.consumer != consumer || ParticleBatch.cameraRotation != cameraRotation) {
+            flush();
+
+            ParticleBatch.consumer = consumer;
+            ParticleBatch.cameraRotation = cameraRotation;
+        }
+
+        INSTANCE.append(x, y, z, size, roll, minU, maxU, minV, maxV, color, light);
+    }
+
+    /**
+     * Writes all collected particles to their vertex consumer. Must be called before the vertex consumer is drawn.
+     */
+    public static void flush() {
+        if (INSTANCE.count != 0) {
+            var renderer = SodiumWorldRenderer.instanceNullable();
+
+            try {
+                INSTANCE.write(VertexBufferWriter.of(consumer), cameraRotation, renderer != null ? renderer.getViewport() : null);
+            } finally {
+                INSTANCE.clear();
+            }
+        }
+
+        consumer = null;
+        cameraRotation = null;
+    }
+
+    public static void end() {
+        if (!batching) {
+            return;
+        }
+
+        batching = false;
+
+        flush();
+    }
+
+    void append(float x, float y, float z, float size, float roll,
+                float minU, float maxU, float minV, float maxV, int color, int light) {
+        if (this.count == this.posX.length) {
+            this.grow();
+        }
+
+        int i = this.count++;
+
+        this.posX[i] = x;
+        this.posY[i] = y;
+        this.posZ[i] = z;
+        this.sizes[i] = size;
+        this.rolls[i] = roll;
+        this.minUs[i] = minU;
+        this.maxUs[i] = maxU;
+        this.minVs[i] = minV;
+        this.maxVs[i] = maxV;
+        this.colors[i] = color;
+        this.lights[i] = light;
+    }
+
+    /**
+     * Expands the collected particles into quads facing the camera, and pushes them to the writer.
+     *
+     * @param viewport The viewport which the particles are culled against, or null if they should not be culled
+     * @return The number of quads which were written
+     */
+    int write(VertexBufferWriter writer, Quaternionf cameraRotation, @Nullable Viewport viewport) {
+        long ptr = scratchBuffer;
+        int quads = 0, written = 0;
+
+        for (int i = 0; i < this.count; i++) {
+            if (viewport != null && !this.isVisible(viewport, i)) {
+                continue;
+            }
+
+            Quaternionf rotation = cameraRotation;
+
+            if (this.rolls[i] != 0.0f) {
+                rotation = scratchRotation.set(cameraRotation)
+                        .rotateZ(this.rolls[i]);
+            }
+
+            writeQuad(ptr, rotation, this.posX[i], this.posY[i], this.posZ[i], this.sizes[i],
+                    this.minUs[i], this.maxUs[i], this.minVs[i], this.maxVs[i], this.colors[i], this.lights[i]);
+            ptr += 4L * ParticleVertex.STRIDE;
+
+            if (++quads == MAX_PUSH_QUADS) {
+                push(writer, quads);
+                written += quads;
+
+                ptr = scratchBuffer;
+                quads = 0;
+            }
+        }
+
+        if (quads != 0) {
+            push(writer, quads);
+            written += quads;
+        }
+
+        return written;
+    }
+
+    private boolean isVisible(Viewport viewport, int i) {
+        float extent = this.sizes[i] * CULLING_SIZE_SCALE;
+
+        return viewport.isRelativeBoxVisible(
+                this.posX[i] - extent, this.posY[i] - extent, this.posZ[i] - extent,
+                this.posX[i] + extent, this.posY[i] + extent, this.posZ[i] + extent);
+    }
+
+    void clear() {
+        this.count = 0;
+    }
+
+    int getCount() {
+        return this.count;
+    }
+
+    private static void push(VertexBufferWriter writer, int quads) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            writer.push(stack, scratchBuffer, quads * 4, ParticleVertex.FORMAT);
+        }
+    }
+
+    /**
+     * Writes the four vertices of a particle quad, facing the camera and rotated by the given rotation.
+     */
+    public static void writeQuad(long ptr, Quaternionf rotation, float x, float y, float z, float size,
+                                 float minU, float maxU, float minV, float maxV, int color, int light) {
+        writeVertex(ptr, rotation, -1.0F, -1.0F, x, y, z, maxU, maxV, color, light, size);
+        ptr += ParticleVertex.STRIDE;
+
+        writeVertex(ptr, rotation, -1.0F, 1.0F, x, y, z, maxU, minV, color, light, size);
+        ptr += ParticleVertex.STRIDE;
+
+        writeVertex(ptr, rotation, 1.0F, 1.0F, x, y, z, minU, minV, color, light, size);
+        ptr += ParticleVertex.STRIDE;
+
+        writeVertex(ptr, rotation, 1.0F, -1.0F, x, y, z, minU, maxV, color, light, size);
+    }
+
+    @SuppressWarnings("UnnecessaryLocalVariable")
+    private static void writeVertex(long buffer,
+                                    Quaternionf rotation,
+                                    float cornerX, float cornerY,
+                                    float originX, float originY, float originZ,
+                                    float u, float v, int color, int light, float size) {
+        // Quaternion q0 = new Quaternion(rotation);
+        float q0x = rotation.x();
+        float q0y = rotation.y();
+        float q0z = rotation.z();
+        float q0w = rotation.w();
+
+        // q0.hamiltonProduct(x, y, 0.0f, 0.0f)
+        float q1x = (q0w * cornerX) - (q0z * cornerY);
+        float q1y = (q0w * cornerY) + (q0z * cornerX);
+        float q1w = (q0x * cornerY) - (q0y * cornerX);
+        float q1z = -(q0x * cornerX) - (q0y * cornerY);
+
+        // Quaternion q2 = new Quaternion(rotation);
+        // q2.conjugate()
+        float q2x = -q0x;
+        float q2y = -q0y;
+        float q2z = -q0z;
+        float q2w = q0w;
+
+        // q2.hamiltonProduct(q1)
+        float q3x = q1z * q2x + q1x * q2w + q1y * q2z - q1w * q2y;
+        float q3y = q1z * q2y - q1x * q2z + q1y * q2w + q1w * q2x;
+        float q3z = q1z * q2z + q1x * q2y - q1y * q2x + q1w * q2w;
+
+        // Vector3f f = new Vector3f(q2.getX(), q2.getY(), q2.getZ())
+        // f.multiply(size)
+        // f.add(pos)
+        float fx = (q3x * size) + originX;
+        float fy = (q3y * size) + originY;
+        float fz = (q3z * size) + originZ;
+
+        ParticleVertex.put(buffer, fx, fy, fz, u, v, color, light);
+    }
+
+    private void grow() {
+        // grow geometrically to avoid re-allocating for slowly increasing particle counts
+        int capacity = Math.max(256, this.posX.length + (this.posX.length >> 1));
+
+        this.posX = Arrays.copyOf(this.posX, capacity);
+        this.posY = Arrays.copyOf(this.posY, capacity);
+        this.posZ = Arrays.copyOf(this.posZ, capacity);
+        this.sizes = Arrays.copyOf(this.sizes, capacity);
+        this.rolls = Arrays.copyOf(this.rolls, capacity);
+        this.minUs = Arrays.copyOf(this.minUs, capacity);
+        this.maxUs = Arrays.copyOf(this.maxUs, capacity);
+        this.minVs = Arrays.copyOf(this.minVs, capacity);
+        this.maxVs = Arrays.copyOf(this.maxVs, capacity);
+        this.colors = Arrays.copyOf(this.colors, capacity);
+        this.lights = Arrays.copyOf(this.lights, capacity);
+    }
+}
@@ -8,80 +8,59 @@ import net.minecraft.client.model.geom.ModelPart;
 import net.minecraft.core.Direction;
 import org.apache.commons.lang3.ArrayUtils;
 import org.joml.Matrix4f;
-import org.joml.Vector2f;
-import org.joml.Vector3f;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
+import static net.caffeinemc.mods.sodium.client.render.immediate.model.ModelCuboid.*;
+
+/**
+ * Renders the cuboids of a model part and its children. The vertices of the whole part tree are written into a
+ * scratch buffer, which is only pushed to the vertex buffer writer when it's full or the part tree is finished. This
+ * greatly reduces the number of calls into the writer, which previously happened once for each cuboid.
+ *
+ * The size of a batch is limited, since vertex buffer writers may need to copy the vertices onto the memory stack.
+ *
+ * The poses of the parts are kept in a {@link ModelPoseStack} owned by the render state of the thread, so that walking
+ * the part tree doesn't allocate any memory once the state has been created.
+ */
 public class EntityRenderer {
+    private static final int MAX_BATCH_VERTICES = 256;
 
-    private static final int NUM_CUBE_VERTICES = 8;
-    private static final int NUM_CUBE_FACES = 6;
-    private static final int NUM_FACE_VERTICES = 4;
-
-    private static final int
-            FACE_NEG_Y = 0, // DOWN
-            FACE_POS_Y = 1, // UP
-            FACE_NEG_Z = 2, // NORTH
-            FACE_POS_Z = 3, // SOUTH
-            FACE_NEG_X = 4, // WEST
-            FACE_POS_X = 5; // EAST
-
-    private static final int
-            VERTEX_X1_Y1_Z1 = 0,
-            VERTEX_X2_Y1_Z1 = 1,
-            VERTEX_X2_Y2_Z1 = 2,
-            VERTEX_X1_Y2_Z1 = 3,
-            VERTEX_X1_Y1_Z2 = 4,
-            VERTEX_X2_Y1_Z2 = 5,
-            VERTEX_X2_Y2_Z2 = 6,
-            VERTEX_X1_Y2_Z2 = 7;
-
-
-    private static final long SCRATCH_BUFFER = MemoryUtil.nmemAlignedAlloc(64, NUM_CUBE_FACES * NUM_FACE_VERTICES * ModelVertex.STRIDE);
-
-    private static final Vector3f[] CUBE_CORNERS = new Vector3f[NUM_CUBE_VERTICES];
-    private static final int[][] CUBE_VERTICES = new int[][] {
-            { VERTEX_X2_Y1_Z2, VERTEX_X1_Y1_Z2, VERTEX_X1_Y1_Z1, VERTEX_X2_Y1_Z1 },
-            { VERTEX_X2_Y2_Z1, VERTEX_X1_Y2_Z1, VERTEX_X1_Y2_Z2, VERTEX_X2_Y2_Z2 },
-            { VERTEX_X2_Y1_Z1, VERTEX_X1_Y1_Z1, VERTEX_X1_Y2_Z1, VERTEX_X2_Y2_Z1 },
-            { VERTEX_X1_Y1_Z2, VERTEX_X2_Y1_Z2, VERTEX_X2_Y2_Z2, VERTEX_X1_Y2_Z2 },
-            { VERTEX_X2_Y1_Z2, VERTEX_X2_Y1_Z1, VERTEX_X2_Y2_Z1, VERTEX_X2_Y2_Z2 },
-            { VERTEX_X1_Y1_Z1, VERTEX_X1_Y1_Z2, VERTEX_X1_Y2_Z2, VERTEX_X1_Y2_Z1 },
-    };
-
-    private static final Vector3f[][] VERTEX_POSITIONS = new Vector3f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
-    private static final Vector3f[][] VERTEX_POSITIONS_MIRRORED = new Vector3f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
-
-    private static final Vector2f[][] VERTEX_TEXTURES = new Vector2f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
-    private static final Vector2f[][] VERTEX_TEXTURES_MIRRORED = new Vector2f[NUM_CUBE_FACES][NUM_FACE_VERTICES];
-
-    private static final int[] CUBE_NORMALS = new int[NUM_CUBE_FACES];
-    private static final int[] CUBE_NORMALS_MIRRORED = new int[NUM_CUBE_FACES];
-
-    static {
-        for (int cornerIndex = 0; cornerIndex < NUM_CUBE_VERTICES; cornerIndex++) {
-            CUBE_CORNERS[cornerIndex] = new Vector3f();
-        }
+    private static final ThreadLocal<RenderState> RENDER_STATE = ThreadLocal.withInitial(RenderState::new);
 
-        for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
-            for (int vertexIndex = 0; vertexIndex < NUM_FACE_VERTICES; vertexIndex++) {
-                VERTEX_TEXTURES[quadIndex][vertexIndex] = new Vector2f();
-                VERTEX_POSITIONS[quadIndex][vertexIndex] = CUBE_CORNERS[CUBE_VERTICES[quadIndex][vertexIndex]];
-            }
+    public static void render(PoseStack poseStack, VertexBufferWriter writer, ModelPart part, int light, int overlay, int color) {
+        render(poseStack.last(), writer, ModelPartData.from(part), light, overlay, color);
+    }
+
+    static void render(PoseStack.Pose pose, VertexBufferWriter writer, ModelPartData part, int light, int overlay, int color) {
+        var state = RENDER_STATE.get();
+        state.begin(pose, writer, light, overlay, color);
+
+        try {
+            renderPart(state, part);
+            state.flush();
+        } finally {
+            state.end();
         }
+    }
 
-        for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
-            for (int vertexIndex = 0; vertexIndex < NUM_FACE_VERTICES; vertexIndex++) {
-                VERTEX_TEXTURES_MIRRORED[quadIndex][vertexIndex] = VERTEX_TEXTURES[quadIndex][3 - vertexIndex];
-                VERTEX_POSITIONS_MIRRORED[quadIndex][vertexIndex] = VERTEX_POSITIONS[quadIndex][3 - vertexIndex];
-            }
+    /**
+     * Renders the cuboids with the given pose, in the same way as the cuboids of a model part. This doesn't need the
+     * part tree, and is used to compare the output of the renderer without a game instance.
+     */
+    static void renderCuboids(PoseStack.Pose pose, VertexBufferWriter writer, ModelCuboid[] cuboids, int light, int overlay, int color) {
+        var state = RENDER_STATE.get();
+        state.begin(pose, writer, light, overlay, color);
+
+        try {
+            renderCuboids(pose, state, cuboids);
+            state.flush();
+        } finally {
+            state.end();
         }
     }
 
-    public static void render(PoseStack poseStack, VertexBufferWriter writer, ModelPart part, int light, int overlay, int color) {
-        ModelPartData accessor = ModelPartData.from(part);
-        
+    private static void renderPart(RenderState state, ModelPartData accessor) {
         if (!accessor.isVisible()) {
             return;
         }
@@ -93,120 +72,126 @@ public class EntityRenderer {
             return;
         }
 
-        poseStack.pushPose();
-
-        part.translateAndRotate(poseStack);
+        var pose = state.poses.push(accessor);
 
         if (!accessor.isHidden()) {
-            renderCuboids(poseStack.last(), writer, cuboids, light, overlay, color);
+            renderCuboids(pose, state, cuboids);
         }
 
-        renderChildren(poseStack, writer, light, overlay, color, children);
+        renderChildren(state, children);
 
-        poseStack.popPose();
+        state.poses.pop();
     }
 
-    private static void renderChildren(PoseStack poseStack, VertexBufferWriter writer, int light, int overlay, int color, ModelPart[] children) {
-        for (ModelPart part : children) {
-            render(poseStack, writer, part, light, overlay, color);
+    private static void renderChildren(RenderState state, ModelPartData[] children) {
+        for (ModelPartData part : children) {
+            renderPart(state, part);
         }
     }
 
-    private static void renderCuboids(PoseStack.Pose matrices, VertexBufferWriter writer, ModelCuboid[] cuboids, int light, int overlay, int color) {
-        prepareNormals(matrices);
+    private static void renderCuboids(PoseStack.Pose matrices, RenderState state, ModelCuboid[] cuboids) {
+        prepareNormals(matrices, state.normals);
 
         for (ModelCuboid cuboid : cuboids) {
-            prepareVertices(matrices, cuboid);
-
-            var vertexCount = emitQuads(cuboid, color, overlay, light);
+            if (cuboid.vertexCount == 0) {
+                continue;
+            }
 
-            try (MemoryStack stack = MemoryStack.stackPush()) {
-                writer.push(stack, SCRATCH_BUFFER, vertexCount, ModelVertex.FORMAT);
+            if (state.vertexCount + cuboid.vertexCount > MAX_BATCH_VERTICES) {
+                state.flush();
             }
+
+            transformCorners(matrices.pose(), cuboid.corners, state.corners);
+            emitVertices(state, cuboid);
         }
     }
 
-    private static int emitQuads(ModelCuboid cuboid, int color, int overlay, int light) {
-        final var positions = cuboid.mirror ? VERTEX_POSITIONS_MIRRORED : VERTEX_POSITIONS;
-        final var textures = cuboid.mirror ? VERTEX_TEXTURES_MIRRORED : VERTEX_TEXTURES;
-        final var normals = cuboid.mirror ? CUBE_NORMALS_MIRRORED :  CUBE_NORMALS;
+    private static void transformCorners(Matrix4f matrix, float[] corners, float[] transformed) {
+        for (int index = 0; index < NUM_CUBE_VERTICES * 3; index += 3) {
+            float x = corners[index + 0];
+            float y = corners[index + 1];
+            float z = corners[index + 2];
 
-        var vertexCount = 0;
+            transformed[index + 0] = MatrixHelper.transformPositionX(matrix, x, y, z);
+            transformed[index + 1] = MatrixHelper.transformPositionY(matrix, x, y, z);
+            transformed[index + 2] = MatrixHelper.transformPositionZ(matrix, x, y, z);
+        }
+    }
 
-        long ptr = SCRATCH_BUFFER;
+    private static void emitVertices(RenderState state, ModelCuboid cuboid) {
+        final var corners = state.corners;
+        final var normals = state.normals;
 
-        for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
-            if (!cuboid.shouldDrawFace(quadIndex)) {
-                continue;
-            }
+        final var vertexCorners = cuboid.vertexCorners;
+        final var vertexNormals = cuboid.vertexNormals;
+        final var vertexTexCoords = cuboid.vertexTexCoords;
 
-            emitVertex(ptr, positions[quadIndex][0], color, textures[quadIndex][0], overlay, light, normals[quadIndex]);
-            ptr += ModelVertex.STRIDE;
+        long ptr = state.buffer + ((long) state.vertexCount * ModelVertex.STRIDE);
 
-            emitVertex(ptr, positions[quadIndex][1], color, textures[quadIndex][1], overlay, light, normals[quadIndex]);
-            ptr += ModelVertex.STRIDE;
+        for (int vertexIndex = 0; vertexIndex < cuboid.vertexCount; vertexIndex++) {
+            int corner = vertexCorners[vertexIndex] * 3;
 
-            emitVertex(ptr, positions[quadIndex][2], color, textures[quadIndex][2], overlay, light, normals[quadIndex]);
-            ptr += ModelVertex.STRIDE;
+            ModelVertex.write(ptr, corners[corner + 0], corners[corner + 1], corners[corner + 2], state.color,
+                    vertexTexCoords[(vertexIndex * 2) + 0], vertexTexCoords[(vertexIndex * 2) + 1],
+                    state.overlay, state.light, normals[vertexNormals[vertexIndex]]);
 
-            emitVertex(ptr, positions[quadIndex][3], color, textures[quadIndex][3], overlay, light, normals[quadIndex]);
             ptr += ModelVertex.STRIDE;
-
-            vertexCount += 4;
         }
 
-        return vertexCount;
+        state.vertexCount += cuboid.vertexCount;
     }
 
-    private static void emitVertex(long ptr, Vector3f pos, int color, Vector2f tex, int overlay, int light, int normal) {
-        ModelVertex.write(ptr, pos.x, pos.y, pos.z, color, tex.x, tex.y, overlay, light, normal);
+    private static void prepareNormals(PoseStack.Pose matrices, int[] normals) {
+        normals[FACE_NEG_Y] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.DOWN);
+        normals[FACE_POS_Y] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.UP);
+        normals[FACE_NEG_Z] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.NORTH);
+        normals[FACE_POS_Z] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.SOUTH);
+        normals[FACE_POS_X] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.WEST);
+        normals[FACE_NEG_X] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.EAST);
     }
 
-    private static void prepareVertices(PoseStack.Pose matrices, ModelCuboid cuboid) {
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y1_Z1], cuboid.x1, cuboid.y1, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y1_Z1], cuboid.x2, cuboid.y1, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y2_Z1], cuboid.x2, cuboid.y2, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y2_Z1], cuboid.x1, cuboid.y2, cuboid.z1, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y1_Z2], cuboid.x1, cuboid.y1, cuboid.z2, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y1_Z2], cuboid.x2, cuboid.y1, cuboid.z2, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X2_Y2_Z2], cuboid.x2, cuboid.y2, cuboid.z2, matrices.pose());
-        buildVertexPosition(CUBE_CORNERS[VERTEX_X1_Y2_Z2], cuboid.x1, cuboid.y2, cuboid.z2, matrices.pose());
-
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_NEG_Y], cuboid.u1, cuboid.v0, cuboid.u2, cuboid.v1);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_POS_Y], cuboid.u2, cuboid.v1, cuboid.u3, cuboid.v0);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_NEG_Z], cuboid.u1, cuboid.v1, cuboid.u2, cuboid.v2);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_POS_Z], cuboid.u4, cuboid.v1, cuboid.u5, cuboid.v2);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_NEG_X], cuboid.u2, cuboid.v1, cuboid.u4, cuboid.v2);
-        buildVertexTexCoord(VERTEX_TEXTURES[FACE_POS_X], cuboid.u0, cuboid.v1, cuboid.u1, cuboid.v2);
-    }
+    /**
+     * The scratch state used while rendering a part tree. Each thread has its own state, which is allocated once and
+     * re-used for every part tree rendered by the thread.
+     */
+    private static class RenderState {
+        private final long buffer = MemoryUtil.nmemAlignedAlloc(64, MAX_BATCH_VERTICES * ModelVertex.STRIDE);
+        private int vertexCount;
 
-    private static void prepareNormals(PoseStack.Pose matrices) {
-        CUBE_NORMALS[FACE_NEG_Y] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.DOWN);
-        CUBE_NORMALS[FACE_POS_Y] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.UP);
-        CUBE_NORMALS[FACE_NEG_Z] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.NORTH);
-        CUBE_NORMALS[FACE_POS_Z] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.SOUTH);
-        CUBE_NORMALS[FACE_POS_X] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.WEST);
-        CUBE_NORMALS[FACE_NEG_X] = MatrixHelper.transformNormal(matrices.normal(), matrices.trustedNormals, Direction.EAST);
-
-        // When mirroring is used, the normals for EAST and WEST are swapped.
-        CUBE_NORMALS_MIRRORED[FACE_NEG_Y] = CUBE_NORMALS[FACE_NEG_Y];
-        CUBE_NORMALS_MIRRORED[FACE_POS_Y] = CUBE_NORMALS[FACE_POS_Y];
-        CUBE_NORMALS_MIRRORED[FACE_NEG_Z] = CUBE_NORMALS[FACE_NEG_Z];
-        CUBE_NORMALS_MIRRORED[FACE_POS_Z] = CUBE_NORMALS[FACE_POS_Z];
-        CUBE_NORMALS_MIRRORED[FACE_POS_X] = CUBE_NORMALS[FACE_NEG_X]; // mirrored
-        CUBE_NORMALS_MIRRORED[FACE_NEG_X] = CUBE_NORMALS[FACE_POS_X]; // mirrored
-    }
+        private final float[] corners = new float[NUM_CUBE_VERTICES * 3];
+        private final int[] normals = new int[NUM_CUBE_FACES];
 
-    private static void buildVertexPosition(Vector3f vector, float x, float y, float z, Matrix4f matrix) {
-        vector.x = MatrixHelper.transformPositionX(matrix, x, y, z);
-        vector.y = MatrixHelper.transformPositionY(matrix, x, y, z);
-        vector.z = MatrixHelper.transformPositionZ(matrix, x, y, z);
-    }
+        private final ModelPoseStack poses = new ModelPoseStack();
+
+        private VertexBufferWriter writer;
+        private int light, overlay, color;
 
-    private static void buildVertexTexCoord(Vector2f[] uvs, float u1, float v1, float u2, float v2) {
-        uvs[0].set(u2, v1);
-        uvs[1].set(u1, v1);
-        uvs[2].set(u1, v2);
-        uvs[3].set(u2, v2);
+        private void begin(PoseStack.Pose base, VertexBufferWriter writer, int light, int overlay, int color) {
+            this.poses.begin(base);
+            this.writer = writer;
+            this.light = light;
+            this.overlay = overlay;
+            this.color = color;
+
+            this.vertexCount = 0;
+        }
+
+        private void flush() {
+            if (this.vertexCount == 0) {
+                return;
+            }
+
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                this.writer.push(stack, this.buffer, this.vertexCount, ModelVertex.FORMAT);
+            }
+
+            this.vertexCount = 0;
+        }
+
+        private void end() {
+            this.poses.end();
+            this.writer = null;
+            this.vertexCount = 0;
+        }
     }
 }
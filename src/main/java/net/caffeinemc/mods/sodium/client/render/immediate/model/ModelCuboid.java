@@ -4,6 +4,37 @@ import java.util.Set;
 import net.minecraft.core.Direction;
 
 public class ModelCuboid {
+    static final int NUM_CUBE_VERTICES = 8;
+    static final int NUM_CUBE_FACES = 6;
+    static final int NUM_FACE_VERTICES = 4;
+
+    static final int
+            FACE_NEG_Y = 0, // DOWN
+            FACE_POS_Y = 1, // UP
+            FACE_NEG_Z = 2, // NORTH
+            FACE_POS_Z = 3, // SOUTH
+            FACE_NEG_X = 4, // WEST
+            FACE_POS_X = 5; // EAST
+
+    private static final int
+            VERTEX_X1_Y1_Z1 = 0,
+            VERTEX_X2_Y1_Z1 = 1,
+            VERTEX_X2_Y2_Z1 = 2,
+            VERTEX_X1_Y2_Z1 = 3,
+            VERTEX_X1_Y1_Z2 = 4,
+            VERTEX_X2_Y1_Z2 = 5,
+            VERTEX_X2_Y2_Z2 = 6,
+            VERTEX_X1_Y2_Z2 = 7;
+
+    private static final int[][] CUBE_VERTICES = new int[][] {
+            { VERTEX_X2_Y1_Z2, VERTEX_X1_Y1_Z2, VERTEX_X1_Y1_Z1, VERTEX_X2_Y1_Z1 },
+            { VERTEX_X2_Y2_Z1, VERTEX_X1_Y2_Z1, VERTEX_X1_Y2_Z2, VERTEX_X2_Y2_Z2 },
+            { VERTEX_X2_Y1_Z1, VERTEX_X1_Y1_Z1, VERTEX_X1_Y2_Z1, VERTEX_X2_Y2_Z1 },
+            { VERTEX_X1_Y1_Z2, VERTEX_X2_Y1_Z2, VERTEX_X2_Y2_Z2, VERTEX_X1_Y2_Z2 },
+            { VERTEX_X2_Y1_Z2, VERTEX_X2_Y1_Z1, VERTEX_X2_Y2_Z1, VERTEX_X2_Y2_Z2 },
+            { VERTEX_X1_Y1_Z1, VERTEX_X1_Y1_Z2, VERTEX_X1_Y2_Z2, VERTEX_X1_Y2_Z1 },
+    };
+
     public final float x1, y1, z1;
     public final float x2, y2, z2;
 
@@ -14,6 +45,15 @@ public class ModelCuboid {
 
     public final boolean mirror;
 
+    // The vertex template of the cuboid, which only needs to be transformed by the pose of the model part to be
+    // rendered. It contains the position of each corner, and for each emitted vertex, the corner it is positioned
+    // at, its texture coordinates, and the face whose normal it uses.
+    final float[] corners;
+    final int vertexCount;
+    final byte[] vertexCorners;
+    final byte[] vertexNormals;
+    final float[] vertexTexCoords;
+
     public ModelCuboid(int u, int v,
                        float x1, float y1, float z1,
                        float sizeX, float sizeY, float sizeZ,
@@ -70,6 +110,71 @@ public class ModelCuboid {
         }
 
         this.faces = faces;
+
+        this.corners = new float[NUM_CUBE_VERTICES * 3];
+        this.setCorner(VERTEX_X1_Y1_Z1, this.x1, this.y1, this.z1);
+        this.setCorner(VERTEX_X2_Y1_Z1, this.x2, this.y1, this.z1);
+        this.setCorner(VERTEX_X2_Y2_Z1, this.x2, this.y2, this.z1);
+        this.setCorner(VERTEX_X1_Y2_Z1, this.x1, this.y2, this.z1);
+        this.setCorner(VERTEX_X1_Y1_Z2, this.x1, this.y1, this.z2);
+        this.setCorner(VERTEX_X2_Y1_Z2, this.x2, this.y1, this.z2);
+        this.setCorner(VERTEX_X2_Y2_Z2, this.x2, this.y2, this.z2);
+        this.setCorner(VERTEX_X1_Y2_Z2, this.x1, this.y2, this.z2);
+
+        var texCoords = new float[NUM_CUBE_FACES][];
+        texCoords[FACE_NEG_Y] = getFaceTexCoords(this.u1, this.v0, this.u2, this.v1);
+        texCoords[FACE_POS_Y] = getFaceTexCoords(this.u2, this.v1, this.u3, this.v0);
+        texCoords[FACE_NEG_Z] = getFaceTexCoords(this.u1, this.v1, this.u2, this.v2);
+        texCoords[FACE_POS_Z] = getFaceTexCoords(this.u4, this.v1, this.u5, this.v2);
+        texCoords[FACE_NEG_X] = getFaceTexCoords(this.u2, this.v1, this.u4, this.v2);
+        texCoords[FACE_POS_X] = getFaceTexCoords(this.u0, this.v1, this.u1, this.v2);
+
+        this.vertexCount = Integer.bitCount(faces & ((1 << NUM_CUBE_FACES) - 1)) * NUM_FACE_VERTICES;
+        this.vertexCorners = new byte[this.vertexCount];
+        this.vertexNormals = new byte[this.vertexCount];
+        this.vertexTexCoords = new float[this.vertexCount * 2];
+
+        int vertexIndex = 0;
+
+        for (int quadIndex = 0; quadIndex < NUM_CUBE_FACES; quadIndex++) {
+            if (!this.shouldDrawFace(quadIndex)) {
+                continue;
+            }
+
+            // When mirroring is used, the winding of each face is reversed, and the normals for EAST and WEST
+            // are swapped.
+            int normalIndex = quadIndex;
+
+            if (mirror && (quadIndex == FACE_NEG_X || quadIndex == FACE_POS_X)) {
+                normalIndex = quadIndex == FACE_NEG_X ? FACE_POS_X : FACE_NEG_X;
+            }
+
+            for (int quadVertexIndex = 0; quadVertexIndex < NUM_FACE_VERTICES; quadVertexIndex++) {
+                int templateIndex = mirror ? (NUM_FACE_VERTICES - 1) - quadVertexIndex : quadVertexIndex;
+
+                this.vertexCorners[vertexIndex] = (byte) CUBE_VERTICES[quadIndex][templateIndex];
+                this.vertexNormals[vertexIndex] = (byte) normalIndex;
+                this.vertexTexCoords[(vertexIndex * 2) + 0] = texCoords[quadIndex][(templateIndex * 2) + 0];
+                this.vertexTexCoords[(vertexIndex * 2) + 1] = texCoords[quadIndex][(templateIndex * 2) + 1];
+
+                vertexIndex++;
+            }
+        }
+    }
+
+    private void setCorner(int index, float x, float y, float z) {
+        this.corners[(index * 3) + 0] = x;
+        this.corners[(index * 3) + 1] = y;
+        this.corners[(index * 3) + 2] = z;
+    }
+
+    private static float[] getFaceTexCoords(float u1, float v1, float u2, float v2) {
+        return new float[] {
+                u2, v1,
+                u1, v1,
+                u1, v2,
+                u2, v2
+        };
     }
 
     public boolean shouldDrawFace(int quadIndex) {
@@ -0,0 +1,160 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import net.caffeinemc.mods.sodium.api.util.ColorABGR;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * Collects the instances of a model which are drawn with the same render type. For each instance, the light, overlay
+ * and color of the model are stored, followed by the pose of every part in the model. The data is laid out as texels
+ * of four floats, so that it can be read by the vertex shader through a buffer texture.
+ *
+ * <pre>
+ *   texel 0:                  (light u, light v, overlay u, overlay v)
+ *   texel 1:                  (red, green, blue, alpha)
+ *   texel 2 + (part * 7) + 0: pose matrix, columns 0..3
+ *   texel 2 + (part * 7) + 4: normal matrix, columns 0..2
+ * </pre>
+ *
+ * The pose of a part which is not rendered is zero, which collapses all of its vertices into a single point that does
+ * not produce any fragments.
+ */
+public class ModelInstanceBatch {
+    static final int TEXEL_SIZE = 4;
+
+    private static final int HEADER_TEXELS = 2;
+    private static final int PART_TEXELS = 7;
+
+    private final ModelInstanceMesh mesh;
+    private final int instanceTexels;
+
+    private float[] data = new float[0];
+    private int instanceCount;
+
+    // The index of the part which is written next, used while walking the part tree of an instance
+    private int partIndex;
+
+    public ModelInstanceBatch(ModelInstanceMesh mesh) {
+        this.mesh = mesh;
+        this.instanceTexels = HEADER_TEXELS + (mesh.getPartCount() * PART_TEXELS);
+    }
+
+    /**
+     * Adds an instance of the model, with the root part transformed by the base pose.
+     *
+     * @param poses The stack used for the poses of the parts while walking the part tree
+     */
+    public void add(ModelPoseStack poses, PoseStack.Pose base, ModelPartData root, int light, int overlay, int color) {
+        int offset = this.instanceCount * this.instanceTexels * TEXEL_SIZE;
+        this.ensureCapacity(offset + (this.instanceTexels * TEXEL_SIZE));
+
+        float[] data = this.data;
+        data[offset + 0] = light & 0xFFFF;
+        data[offset + 1] = light >>> 16;
+        data[offset + 2] = overlay & 0xFFFF;
+        data[offset + 3] = overlay >>> 16;
+        data[offset + 4] = ColorABGR.unpackRed(color) / 255.0f;
+        data[offset + 5] = ColorABGR.unpackGreen(color) / 255.0f;
+        data[offset + 6] = ColorABGR.unpackBlue(color) / 255.0f;
+        data[offset + 7] = ColorABGR.unpackAlpha(color) / 255.0f;
+
+        this.partIndex = 0;
+
+        poses.begin(base);
+
+        try {
+            this.writePart(poses, root, offset + (HEADER_TEXELS * TEXEL_SIZE), true);
+        } finally {
+            poses.end();
+        }
+
+        this.instanceCount++;
+    }
+
+    private void writePart(ModelPoseStack poses, ModelPartData part, int partsOffset, boolean visible) {
+        int offset = partsOffset + (this.partIndex++ * PART_TEXELS * TEXEL_SIZE);
+
+        // an invisible part also hides its children, while a hidden part only skips its own cuboids
+        visible &= part.isVisible();
+
+        if (!visible) {
+            Arrays.fill(this.data, offset, offset + (PART_TEXELS * TEXEL_SIZE), 0.0f);
+        } else {
+            var pose = poses.push(part);
+
+            if (part.isHidden()) {
+                Arrays.fill(this.data, offset, offset + (PART_TEXELS * TEXEL_SIZE), 0.0f);
+            } else {
+                this.writePose(pose, offset);
+            }
+        }
+
+        for (ModelPartData child : part.getChildren()) {
+            this.writePart(poses, child, partsOffset, visible);
+        }
+
+        if (visible) {
+            poses.pop();
+        }
+    }
+
+    private void writePose(PoseStack.Pose pose, int offset) {
+        Matrix4f position = pose.pose();
+        position.get(this.data, offset);
+
+        Matrix3f normal = pose.normal();
+        float[] data = this.data;
+
+        data[offset + 16] = normal.m00;
+        data[offset + 17] = normal.m01;
+        data[offset + 18] = normal.m02;
+        data[offset + 19] = 0.0f;
+        data[offset + 20] = normal.m10;
+        data[offset + 21] = normal.m11;
+        data[offset + 22] = normal.m12;
+        data[offset + 23] = 0.0f;
+        data[offset + 24] = normal.m20;
+        data[offset + 25] = normal.m21;
+        data[offset + 26] = normal.m22;
+        data[offset + 27] = 0.0f;
+    }
+
+    private void ensureCapacity(int length) {
+        if (this.data.length < length) {
+            this.data = Arrays.copyOf(this.data, Math.max(length, this.data.length * 2));
+        }
+    }
+
+    public ModelInstanceMesh getMesh() {
+        return this.mesh;
+    }
+
+    public int getInstanceCount() {
+        return this.instanceCount;
+    }
+
+    /**
+     * @return The number of texels used by each instance
+     */
+    public int getInstanceTexels() {
+        return this.instanceTexels;
+    }
+
+    /**
+     * @return The instance data, of which only the first {@code instanceCount * instanceTexels * 4} floats are valid
+     */
+    public float[] getData() {
+        return this.data;
+    }
+
+    public boolean isEmpty() {
+        return this.instanceCount == 0;
+    }
+
+    public void clear() {
+        this.instanceCount = 0;
+    }
+}
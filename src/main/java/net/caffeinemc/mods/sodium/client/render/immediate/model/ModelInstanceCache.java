@@ -0,0 +1,158 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The meshes of the models drawn with instancing, and the batches of instances which have been recorded for them
+ * since they were last drawn. The batches are grouped by a key, which is the render type they are drawn with.
+ *
+ * The number of cached meshes is limited, and the least recently used meshes are evicted whenever a new mesh is
+ * added. A mesh which is still used by a pending batch can't be deleted right away, so it is kept until its batches
+ * have been drawn.
+ */
+public class ModelInstanceCache<K> {
+    private final int maxModels;
+
+    private final Reference2ReferenceLinkedOpenHashMap<ModelPartData, CachedModel<K>> models =
+            new Reference2ReferenceLinkedOpenHashMap<>();
+    private final Reference2ReferenceOpenHashMap<K, ObjectArrayList<ModelInstanceBatch>> pendingBatches =
+            new Reference2ReferenceOpenHashMap<>();
+    private int pendingBatchCount;
+
+    // Models which have been evicted, but whose meshes are still used by pending batches
+    private final ObjectArrayList<CachedModel<K>> evictedModels = new ObjectArrayList<>();
+
+    public ModelInstanceCache(int maxModels) {
+        this.maxModels = maxModels;
+    }
+
+    /**
+     * @return The cached model of the part, or null if no mesh has been created for it yet
+     */
+    public @Nullable CachedModel<K> getModel(ModelPartData part) {
+        return this.models.getAndMoveToLast(part);
+    }
+
+    /**
+     * Creates the mesh of the part, and evicts the least recently used models to stay within the maximum size.
+     */
+    public CachedModel<K> createModel(CommandList commandList, ModelPartData part) {
+        var model = new CachedModel<K>(ModelInstanceMesh.create(commandList, part));
+
+        while (this.models.size() >= this.maxModels) {
+            this.evictModel(commandList, this.models.removeFirst());
+        }
+
+        this.models.putAndMoveToLast(part, model);
+
+        return model;
+    }
+
+    private void evictModel(CommandList commandList, CachedModel<K> model) {
+        if (model.hasPendingInstances()) {
+            this.evictedModels.add(model);
+        } else {
+            model.mesh.delete(commandList);
+        }
+    }
+
+    /**
+     * Returns the batch which the instances of the model are added to when drawn with the given key. If the batch is
+     * empty, it is added to the pending batches of the key, so the caller must add an instance to it.
+     */
+    public ModelInstanceBatch getBatch(CachedModel<K> model, K key) {
+        ModelInstanceBatch batch = model.batches.get(key);
+
+        if (batch == null) {
+            model.batches.put(key, batch = new ModelInstanceBatch(model.mesh));
+        }
+
+        if (batch.isEmpty()) {
+            this.pendingBatches.computeIfAbsent(key, (K k) -> new ObjectArrayList<>())
+                    .add(batch);
+            this.pendingBatchCount++;
+        }
+
+        return batch;
+    }
+
+    /**
+     * @return The batches with instances which have been recorded for the key since it was last cleared
+     */
+    public List<ModelInstanceBatch> getPendingBatches(K key) {
+        var batches = this.pendingBatches.get(key);
+
+        return batches != null ? batches : List.of();
+    }
+
+    /**
+     * Clears the pending batches of the key after they have been drawn, and deletes the meshes of evicted models
+     * which are no longer used by any pending batch.
+     */
+    public void clearPendingBatches(CommandList commandList, K key) {
+        var batches = this.pendingBatches.get(key);
+
+        if (batches == null || batches.isEmpty()) {
+            return;
+        }
+
+        for (ModelInstanceBatch batch : batches) {
+            batch.clear();
+        }
+
+        this.pendingBatchCount -= batches.size();
+        batches.clear();
+
+        this.evictedModels.removeIf(model -> {
+            if (model.hasPendingInstances()) {
+                return false;
+            }
+
+            model.mesh.delete(commandList);
+
+            return true;
+        });
+    }
+
+    public int getModelCount() {
+        return this.models.size();
+    }
+
+    public int getEvictedModelCount() {
+        return this.evictedModels.size();
+    }
+
+    public int getPendingBatchCount() {
+        return this.pendingBatchCount;
+    }
+
+    public static class CachedModel<K> {
+        private final ModelInstanceMesh mesh;
+        private final Reference2ReferenceOpenHashMap<K, ModelInstanceBatch> batches =
+                new Reference2ReferenceOpenHashMap<>();
+
+        private CachedModel(ModelInstanceMesh mesh) {
+            this.mesh = mesh;
+        }
+
+        public ModelInstanceMesh getMesh() {
+            return this.mesh;
+        }
+
+        private boolean hasPendingInstances() {
+            for (ModelInstanceBatch batch : this.batches.values()) {
+                if (!batch.isEmpty()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
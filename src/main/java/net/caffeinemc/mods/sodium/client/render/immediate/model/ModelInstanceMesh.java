@@ -0,0 +1,171 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttribute;
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttributeFormat;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferUsage;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlMutableBuffer;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlPrimitiveType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.TessellationBinding;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static net.caffeinemc.mods.sodium.client.render.immediate.model.ModelCuboid.NUM_FACE_VERTICES;
+
+/**
+ * The geometry of a model part tree in the local space of each part, which is drawn once for every instance of the
+ * model in a batch. Each vertex stores the index of the part it belongs to, which the vertex shader uses to fetch the
+ * pose of the part from the instance data.
+ *
+ * The parts are numbered in the order they are visited by {@link ModelInstanceBatch}, which is the same depth-first
+ * order used by {@link EntityRenderer}. Since the cuboids and children of a model part can not be changed after it has
+ * been created, the mesh never needs to be rebuilt.
+ */
+public class ModelInstanceMesh {
+    static final int ATTRIBUTE_POSITION = 0;
+    static final int ATTRIBUTE_TEXTURE = 1;
+    static final int ATTRIBUTE_PART_AND_NORMAL = 2;
+
+    private static final int STRIDE = 24;
+
+    // Each quad is drawn as two triangles, since instanced draws can not use the shared quad index buffer
+    private static final int[] QUAD_TRIANGLE_VERTICES = { 0, 1, 2, 2, 3, 0 };
+
+    private static final GlVertexAttributeBinding[] ATTRIBUTE_BINDINGS = new GlVertexAttributeBinding[] {
+            new GlVertexAttributeBinding(ATTRIBUTE_POSITION,
+                    new GlVertexAttribute(GlVertexAttributeFormat.FLOAT, 3, false, 0, STRIDE, false)),
+            new GlVertexAttributeBinding(ATTRIBUTE_TEXTURE,
+                    new GlVertexAttribute(GlVertexAttributeFormat.FLOAT, 2, false, 12, STRIDE, false)),
+            new GlVertexAttributeBinding(ATTRIBUTE_PART_AND_NORMAL,
+                    new GlVertexAttribute(GlVertexAttributeFormat.UNSIGNED_INT, 1, false, 20, STRIDE, true))
+    };
+
+    private final int partCount;
+    private final int vertexCount;
+
+    private GlMutableBuffer vertexBuffer;
+    private GlTessellation tessellation;
+
+    private ModelInstanceMesh(int partCount, int vertexCount) {
+        this.partCount = partCount;
+        this.vertexCount = vertexCount;
+    }
+
+    public static ModelInstanceMesh create(CommandList commandList, ModelPartData root) {
+        int partCount = countParts(root);
+        int vertexCount = countVertices(root);
+
+        var mesh = new ModelInstanceMesh(partCount, vertexCount);
+
+        if (vertexCount == 0) {
+            return mesh;
+        }
+
+        ByteBuffer buffer = MemoryUtil.memAlloc(vertexCount * STRIDE);
+
+        try {
+            writePart(MemoryUtil.memAddress(buffer), root, new int[1]);
+
+            mesh.vertexBuffer = commandList.createMutableBuffer();
+            commandList.uploadData(mesh.vertexBuffer, buffer, GlBufferUsage.STATIC_DRAW);
+        } finally {
+            MemoryUtil.memFree(buffer);
+        }
+
+        mesh.tessellation = commandList.createTessellation(GlPrimitiveType.TRIANGLES, new TessellationBinding[] {
+                TessellationBinding.forVertexBuffer(mesh.vertexBuffer, ATTRIBUTE_BINDINGS)
+        });
+
+        return mesh;
+    }
+
+    private static int countParts(ModelPartData part) {
+        int count = 1;
+
+        for (ModelPartData child : part.getChildren()) {
+            count += countParts(child);
+        }
+
+        return count;
+    }
+
+    private static int countVertices(ModelPartData part) {
+        int count = 0;
+
+        for (ModelCuboid cuboid : part.getCuboids()) {
+            count += (cuboid.vertexCount / NUM_FACE_VERTICES) * QUAD_TRIANGLE_VERTICES.length;
+        }
+
+        for (ModelPartData child : part.getChildren()) {
+            count += countVertices(child);
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes the vertices of the part and its children, and returns the pointer following them.
+     *
+     * @param nextPartIndex A single-element array holding the index which is assigned to the next visited part
+     */
+    private static long writePart(long ptr, ModelPartData part, int[] nextPartIndex) {
+        int partIndex = nextPartIndex[0]++;
+
+        for (ModelCuboid cuboid : part.getCuboids()) {
+            ptr = writeCuboid(ptr, cuboid, partIndex);
+        }
+
+        for (ModelPartData child : part.getChildren()) {
+            ptr = writePart(ptr, child, nextPartIndex);
+        }
+
+        return ptr;
+    }
+
+    private static long writeCuboid(long ptr, ModelCuboid cuboid, int partIndex) {
+        for (int quadStart = 0; quadStart < cuboid.vertexCount; quadStart += NUM_FACE_VERTICES) {
+            for (int quadVertex : QUAD_TRIANGLE_VERTICES) {
+                int vertexIndex = quadStart + quadVertex;
+                int corner = cuboid.vertexCorners[vertexIndex] * 3;
+
+                MemoryUtil.memPutFloat(ptr + 0, cuboid.corners[corner + 0]);
+                MemoryUtil.memPutFloat(ptr + 4, cuboid.corners[corner + 1]);
+                MemoryUtil.memPutFloat(ptr + 8, cuboid.corners[corner + 2]);
+                MemoryUtil.memPutFloat(ptr + 12, cuboid.vertexTexCoords[(vertexIndex * 2) + 0]);
+                MemoryUtil.memPutFloat(ptr + 16, cuboid.vertexTexCoords[(vertexIndex * 2) + 1]);
+                MemoryUtil.memPutInt(ptr + 20, partIndex | (cuboid.vertexNormals[vertexIndex] << 16));
+
+                ptr += STRIDE;
+            }
+        }
+
+        return ptr;
+    }
+
+    public int getPartCount() {
+        return this.partCount;
+    }
+
+    public int getVertexCount() {
+        return this.vertexCount;
+    }
+
+    public GlTessellation getTessellation() {
+        return this.tessellation;
+    }
+
+    public void delete(CommandList commandList) {
+        if (this.tessellation != null) {
+            commandList.deleteTessellation(this.tessellation);
+            this.tessellation = null;
+        }
+
+        if (this.vertexBuffer != null) {
+            commandList.deleteBuffer(this.vertexBuffer);
+            this.vertexBuffer = null;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferUsage;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlMutableBuffer;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.DrawCommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
+import net.caffeinemc.mods.sodium.client.gl.shader.GlProgram;
+import net.caffeinemc.mods.sodium.client.gl.shader.ShaderConstants;
+import net.caffeinemc.mods.sodium.client.gl.shader.ShaderType;
+import net.caffeinemc.mods.sodium.client.gl.texture.GlBufferTexture;
+import net.caffeinemc.mods.sodium.client.render.vertex.buffer.BufferBuilderRenderTypeExtension;
+import net.caffeinemc.mods.sodium.client.render.vertex.buffer.DirectBufferBuilder;
+import net.caffeinemc.mods.sodium.mixin.features.render.entity.instancing.RenderStateShardAccessor;
+import net.caffeinemc.mods.sodium.mixin.features.render.entity.instancing.RenderSystemAccessor;
+import net.minecraft.client.model.geom.ModelPart;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.resources.ResourceLocation;
+import org.lwjgl.opengl.GL30C;
+import org.lwjgl.opengl.GL32C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Draws the models of entities with hardware instancing. Instead of transforming the vertices of every cuboid on the
+ * CPU and writing them into the vertex buffer of the render type, only the pose of each model part is recorded. The
+ * geometry of each model is uploaded once, and all instances of a model which use the same render type are drawn with
+ * a single instanced draw call when the batch of the render type is drawn by its buffer source.
+ *
+ * This is only done for the opaque and cutout entity render types, since the instances are not drawn in the order
+ * they were submitted. Other render types, and models which are rendered into a wrapped vertex consumer (such as for
+ * outlines or enchantment glints), use the regular path in {@link EntityRenderer}.
+ *
+ * The instanced shader replicates the vanilla entity shaders, so any changes made to them by resource packs will not
+ * apply to instanced models. For this reason, instancing must be enabled by the user.
+ */
+public class ModelInstanceRenderer {
+    /**
+     * The maximum number of model meshes which are kept in memory. When this is exceeded, the least recently used
+     * meshes are deleted.
+     */
+    private static final int MAX_CACHED_MODELS = 512;
+
+    private static ModelInstanceRenderer instance;
+    private static boolean failed;
+
+    private final ModelInstanceCache<RenderType> cache = new ModelInstanceCache<>(MAX_CACHED_MODELS);
+
+    private final ModelPoseStack poses = new ModelPoseStack();
+
+    private final GlProgram<ModelInstanceShaderInterface> solidProgram;
+    private final GlProgram<ModelInstanceShaderInterface> cutoutProgram;
+
+    private final GlMutableBuffer instanceBuffer;
+    private final GlBufferTexture instanceTexture;
+    private final int maxInstanceTexels;
+
+    private ByteBuffer uploadBuffer = MemoryUtil.memAlloc(64 * 1024);
+
+    private ModelInstanceRenderer(CommandList commandList) {
+        this.solidProgram = createProgram(false);
+        this.cutoutProgram = createProgram(true);
+
+        this.instanceBuffer = commandList.createMutableBuffer();
+        this.instanceTexture = new GlBufferTexture(GL30C.GL_RGBA32F);
+        this.maxInstanceTexels = GlBufferTexture.getMaxTexelCount();
+    }
+
+    private static GlProgram<ModelInstanceShaderInterface> createProgram(boolean cutout) {
+        var constants = ShaderConstants.builder();
+        constants.add("USE_FOG");
+
+        if (cutout) {
+            constants.add("USE_FRAGMENT_DISCARD");
+        }
+
+        ShaderConstants shaderConstants = constants.build();
+
+        return GlProgram.builder(new ResourceLocation("sodium", "model_instanced"))
+                .attachShader(ShaderType.VERTEX, new ResourceLocation("sodium", "entity/model_instanced.vsh"), shaderConstants)
+                .attachShader(ShaderType.FRAGMENT, new ResourceLocation("sodium", "entity/model_instanced.fsh"), shaderConstants)
+                .bindAttribute("a_Position", ModelInstanceMesh.ATTRIBUTE_POSITION)
+                .bindAttribute("a_TexCoord", ModelInstanceMesh.ATTRIBUTE_TEXTURE)
+                .bindAttribute("a_PartAndNormal", ModelInstanceMesh.ATTRIBUTE_PART_AND_NORMAL)
+                .bindFragmentData("fragColor", 0)
+                .link(ModelInstanceShaderInterface::new);
+    }
+
+    /**
+     * Records an instance of the model part if the vertex consumer is the buffer of an instanced render type.
+     *
+     * @return True if the model part will be drawn with instancing, otherwise false if it must be rendered normally
+     */
+    public static boolean tryRecord(PoseStack poseStack, VertexConsumer consumer, ModelPart part,
+                                    int light, int overlay, int color) {
+        if (failed || !SodiumClientMod.options().performance.useModelInstancing || !RenderSystem.isOnRenderThread()) {
+            return false;
+        }
+
+        BufferBuilder builder;
+
+        if (consumer instanceof DirectBufferBuilder directBufferBuilder) {
+            builder = directBufferBuilder.getOriginalBufferBuilder();
+        } else if (consumer instanceof BufferBuilder bufferBuilder) {
+            builder = bufferBuilder;
+        } else {
+            return false;
+        }
+
+        RenderType renderType = ((BufferBuilderRenderTypeExtension) builder).sodium$getRenderType();
+
+        if (renderType == null || !builder.building() || !isInstanced(renderType)) {
+            return false;
+        }
+
+        var renderer = getInstance();
+
+        if (renderer == null) {
+            return false;
+        }
+
+        renderer.record(poseStack, renderType, part, light, overlay, color);
+
+        return true;
+    }
+
+    /**
+     * Draws all instances which were recorded for the render type. Must be called before the buffer source draws the
+     * batch of the render type.
+     */
+    public static void flush(RenderType renderType) {
+        if (instance != null) {
+            instance.flushBatches(renderType);
+        }
+    }
+
+    private static boolean isInstanced(RenderType renderType) {
+        if (renderType.format() != DefaultVertexFormat.NEW_ENTITY || renderType.mode() != VertexFormat.Mode.QUADS) {
+            return false;
+        }
+
+        String name = ((RenderStateShardAccessor) renderType).getName();
+
+        return name.equals("entity_solid") || isCutout(renderType);
+    }
+
+    private static boolean isCutout(RenderType renderType) {
+        String name = ((RenderStateShardAccessor) renderType).getName();
+
+        return name.equals("entity_cutout") || name.equals("entity_cutout_no_cull");
+    }
+
+    private static ModelInstanceRenderer getInstance() {
+        if (instance == null && !failed) {
+            RenderDevice.enterManagedCode();
+
+            try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+                instance = new ModelInstanceRenderer(commandList);
+            } catch (RuntimeException e) {
+                SodiumClientMod.logger().error("Failed to initialize instanced model rendering, it will be disabled", e);
+                failed = true;
+            } finally {
+                RenderDevice.exitManagedCode();
+            }
+        }
+
+        return instance;
+    }
+
+    private void record(PoseStack poseStack, RenderType renderType, ModelPart part, int light, int overlay, int color) {
+        var data = ModelPartData.from(part);
+        var model = this.cache.getModel(data);
+
+        if (model == null) {
+            model = this.createModel(data);
+        }
+
+        this.cache.getBatch(model, renderType)
+                .add(this.poses, poseStack.last(), data, light, overlay, color);
+    }
+
+    private ModelInstanceCache.CachedModel<RenderType> createModel(ModelPartData part) {
+        RenderDevice.enterManagedCode();
+
+        try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+            return this.cache.createModel(commandList, part);
+        } finally {
+            RenderDevice.exitManagedCode();
+        }
+    }
+
+    private void flushBatches(RenderType renderType) {
+        var batches = this.cache.getPendingBatches(renderType);
+
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        renderType.setupRenderState();
+        RenderDevice.enterManagedCode();
+
+        try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+            try {
+                var program = isCutout(renderType) ? this.cutoutProgram : this.solidProgram;
+                program.bind();
+
+                var shader = program.getInterface();
+                shader.setupState(RenderSystemAccessor.getShaderLightDirections());
+
+                for (ModelInstanceBatch batch : batches) {
+                    this.drawBatch(commandList, shader, batch);
+                }
+
+                program.unbind();
+                this.instanceTexture.unbind(ModelInstanceShaderInterface.TEXTURE_UNIT_INSTANCE_DATA);
+            } finally {
+                this.cache.clearPendingBatches(commandList, renderType);
+            }
+        } finally {
+            RenderDevice.exitManagedCode();
+
+            GlStateManager._activeTexture(GL32C.GL_TEXTURE0);
+            renderType.clearRenderState();
+        }
+    }
+
+    private void drawBatch(CommandList commandList, ModelInstanceShaderInterface shader, ModelInstanceBatch batch) {
+        ModelInstanceMesh mesh = batch.getMesh();
+
+        if (mesh.getTessellation() == null) {
+            return;
+        }
+
+        int instanceTexels = batch.getInstanceTexels();
+        int instanceFloats = instanceTexels * ModelInstanceBatch.TEXEL_SIZE;
+
+        // the instances are drawn in chunks which fit into the maximum size of a buffer texture
+        int maxInstances = Math.max(1, this.maxInstanceTexels / instanceTexels);
+
+        shader.setInstanceStride(instanceTexels);
+
+        for (int first = 0; first < batch.getInstanceCount(); first += maxInstances) {
+            int count = Math.min(maxInstances, batch.getInstanceCount() - first);
+
+            this.uploadInstances(commandList, batch.getData(), first * instanceFloats, count * instanceFloats);
+            this.instanceTexture.bind(ModelInstanceShaderInterface.TEXTURE_UNIT_INSTANCE_DATA, this.instanceBuffer);
+
+            try (DrawCommandList drawCommandList = commandList.beginTessellating(mesh.getTessellation())) {
+                drawCommandList.drawArraysInstanced(0, mesh.getVertexCount(), count);
+                drawCommandList.endTessellating();
+            }
+        }
+    }
+
+    private void uploadInstances(CommandList commandList, float[] data, int offset, int length) {
+        int size = length * Float.BYTES;
+
+        if (this.uploadBuffer.capacity() < size) {
+            this.uploadBuffer = MemoryUtil.memRealloc(this.uploadBuffer, Math.max(size, this.uploadBuffer.capacity() * 2));
+        }
+
+        this.uploadBuffer.clear();
+        this.uploadBuffer.asFloatBuffer()
+                .put(data, offset, length);
+        this.uploadBuffer.limit(size);
+
+        // the buffer is re-specified for every chunk, so that the driver can orphan the storage still in use
+        commandList.uploadData(this.instanceBuffer, this.uploadBuffer, GlBufferUsage.STREAM_DRAW);
+    }
+}
@@ -0,0 +1,89 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformFloat3v;
+import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformFloat4v;
+import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformInt;
+import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformMatrix4f;
+import net.caffeinemc.mods.sodium.client.render.chunk.shader.ChunkShaderFogComponent;
+import net.caffeinemc.mods.sodium.client.render.chunk.shader.ShaderBindingContext;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL32C;
+
+/**
+ * The shader interface for drawing instanced models. The uniforms mirror those of the vanilla entity shaders, and are
+ * copied from the render system state when the program is set up.
+ */
+public class ModelInstanceShaderInterface {
+    static final int TEXTURE_UNIT_DIFFUSE = 0;
+    static final int TEXTURE_UNIT_OVERLAY = 1;
+    static final int TEXTURE_UNIT_LIGHT = 2;
+    static final int TEXTURE_UNIT_INSTANCE_DATA = 3;
+
+    private final GlUniformMatrix4f uniformModelViewMatrix;
+    private final GlUniformMatrix4f uniformProjectionMatrix;
+    private final GlUniformFloat4v uniformColorModulator;
+
+    private final GlUniformFloat3v uniformLight0Direction;
+    private final GlUniformFloat3v uniformLight1Direction;
+
+    private final GlUniformInt uniformInstanceStride;
+
+    private final GlUniformInt uniformDiffuseTex;
+    private final GlUniformInt uniformOverlayTex;
+    private final GlUniformInt uniformLightTex;
+    private final GlUniformInt uniformInstanceData;
+
+    private final ChunkShaderFogComponent fogShader;
+
+    public ModelInstanceShaderInterface(ShaderBindingContext context) {
+        this.uniformModelViewMatrix = context.bindUniform("u_ModelViewMatrix", GlUniformMatrix4f::new);
+        this.uniformProjectionMatrix = context.bindUniform("u_ProjectionMatrix", GlUniformMatrix4f::new);
+        this.uniformColorModulator = context.bindUniform("u_ColorModulator", GlUniformFloat4v::new);
+
+        this.uniformLight0Direction = context.bindUniform("u_Light0Direction", GlUniformFloat3v::new);
+        this.uniformLight1Direction = context.bindUniform("u_Light1Direction", GlUniformFloat3v::new);
+
+        this.uniformInstanceStride = context.bindUniform("u_InstanceStride", GlUniformInt::new);
+
+        this.uniformDiffuseTex = context.bindUniform("u_DiffuseTex", GlUniformInt::new);
+        this.uniformOverlayTex = context.bindUniform("u_OverlayTex", GlUniformInt::new);
+        this.uniformLightTex = context.bindUniform("u_LightTex", GlUniformInt::new);
+        this.uniformInstanceData = context.bindUniform("u_InstanceData", GlUniformInt::new);
+
+        this.fogShader = new ChunkShaderFogComponent.Smooth(context);
+    }
+
+    /**
+     * Copies the current render system state into the uniforms and binds the textures of the render type, which must
+     * have been set up before.
+     */
+    public void setupState(Vector3f[] lightDirections) {
+        this.uniformModelViewMatrix.set(RenderSystem.getModelViewMatrix());
+        this.uniformProjectionMatrix.set(RenderSystem.getProjectionMatrix());
+        this.uniformColorModulator.set(RenderSystem.getShaderColor());
+
+        this.uniformLight0Direction.set(lightDirections[0].x, lightDirections[0].y, lightDirections[0].z);
+        this.uniformLight1Direction.set(lightDirections[1].x, lightDirections[1].y, lightDirections[1].z);
+
+        this.bindTexture(this.uniformDiffuseTex, TEXTURE_UNIT_DIFFUSE);
+        this.bindTexture(this.uniformOverlayTex, TEXTURE_UNIT_OVERLAY);
+        this.bindTexture(this.uniformLightTex, TEXTURE_UNIT_LIGHT);
+
+        this.uniformInstanceData.setInt(TEXTURE_UNIT_INSTANCE_DATA);
+
+        this.fogShader.setup();
+    }
+
+    private void bindTexture(GlUniformInt uniform, int unit) {
+        GlStateManager._activeTexture(GL32C.GL_TEXTURE0 + unit);
+        GlStateManager._bindTexture(RenderSystem.getShaderTexture(unit));
+
+        uniform.setInt(unit);
+    }
+
+    public void setInstanceStride(int texels) {
+        this.uniformInstanceStride.setInt(texels);
+    }
+}
@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.render.immediate.model;
 
+import com.mojang.blaze3d.vertex.PoseStack;
 import net.minecraft.client.model.geom.ModelPart;
 
 public interface ModelPartData {
@@ -8,8 +9,21 @@ public interface ModelPartData {
     }
 
     ModelCuboid[] getCuboids();
-    ModelPart[] getChildren();
+    ModelPartData[] getChildren();
 
     boolean isVisible();
     boolean isHidden();
+
+    /**
+     * Applies the transform of the part to the pose at the top of the stack. This is implemented by
+     * {@link ModelPart#translateAndRotate(PoseStack)}, and should be preferred over {@link #applyTransform(PoseStack.Pose)}
+     * so that any changes made to it by other mods are respected.
+     */
+    void translateAndRotate(PoseStack poseStack);
+
+    /**
+     * Applies the translation, rotation and scale of the part to the pose, which is equivalent to
+     * {@link ModelPart#translateAndRotate(PoseStack)} with the pose at the top of the stack.
+     */
+    void applyTransform(PoseStack.Pose pose);
 }
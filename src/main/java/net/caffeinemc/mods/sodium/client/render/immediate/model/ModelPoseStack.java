@@ -0,0 +1,94 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A matrix stack used while walking the part tree of a model. The poses are indexed by the depth of the part in the
+ * tree, and are allocated only once when the stack first grows to that depth, so that the stack can be re-used for
+ * every model rendered by its owner.
+ *
+ * The transform of each part is still applied through {@link net.minecraft.client.model.geom.ModelPart#translateAndRotate(PoseStack)},
+ * so that mods which modify it keep working. The poses are pushed onto a {@link PoseStack} owned by this stack, which
+ * unlike {@link PoseStack#pushPose()} doesn't need to allocate a new pose for every part.
+ *
+ * The base pose is the pose of the caller's matrix stack, which is only read from and never modified.
+ */
+public class ModelPoseStack {
+    private final PoseStack stack = new PoseStack();
+    private final Deque<PoseStack.Pose> stackPoses = this.stack.poseStack;
+
+    private PoseStack.Pose[] poses = new PoseStack.Pose[8];
+    private int depth;
+
+    public ModelPoseStack() {
+        for (int i = 1; i < this.poses.length; i++) {
+            this.poses[i] = createPose();
+        }
+    }
+
+    /**
+     * Resets the stack to contain only the given base pose.
+     */
+    public void begin(PoseStack.Pose base) {
+        this.poses[0] = base;
+        this.depth = 0;
+
+        this.stackPoses.clear();
+        this.stackPoses.addLast(base);
+    }
+
+    /**
+     * Releases the reference to the base pose.
+     */
+    public void end() {
+        this.poses[0] = null;
+        this.depth = 0;
+
+        this.stackPoses.clear();
+    }
+
+    /**
+     * Pushes a copy of the pose at the top of the stack, applies the transform of the model part to it, and returns
+     * the new top of the stack.
+     */
+    public PoseStack.Pose push(ModelPartData part) {
+        var parent = this.poses[this.depth];
+
+        if (++this.depth == this.poses.length) {
+            this.grow();
+        }
+
+        var pose = this.poses[this.depth];
+        pose.pose().set(parent.pose());
+        pose.normal().set(parent.normal());
+        pose.trustedNormals = parent.trustedNormals;
+
+        this.stackPoses.addLast(pose);
+        part.translateAndRotate(this.stack);
+
+        return pose;
+    }
+
+    public void pop() {
+        this.stackPoses.removeLast();
+        this.depth--;
+    }
+
+    private void grow() {
+        int length = this.poses.length;
+        this.poses = Arrays.copyOf(this.poses, length * 2);
+
+        for (int i = length; i < this.poses.length; i++) {
+            this.poses[i] = createPose();
+        }
+    }
+
+    private static PoseStack.Pose createPose() {
+        return new PoseStack.Pose(new Matrix4f(), new Matrix3f());
+    }
+}
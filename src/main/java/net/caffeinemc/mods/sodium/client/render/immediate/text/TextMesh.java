@@ -0,0 +1,129 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.text;
+
+import net.minecraft.client.renderer.RenderType;
+
+import java.util.Arrays;
+
+/**
+ * The glyph quads of a laid out run of text, in the local space of the text. The positions of the vertices are
+ * relative to the origin which the text was drawn at, so that the mesh can be drawn at any position and with any
+ * matrix. The light of the vertices is not stored, since it is specified separately every time the text is drawn.
+ */
+public class TextMesh {
+    static final int VERTEX_FLOATS = 5; // x, y, z, u, v
+
+    private final RenderType[] renderTypes;
+    private final float[] vertices;
+    private final int[] colors;
+
+    private final int quadCount;
+    private final float advance;
+
+    private TextMesh(RenderType[] renderTypes, float[] vertices, int[] colors, int quadCount, float advance) {
+        this.renderTypes = renderTypes;
+        this.vertices = vertices;
+        this.colors = colors;
+        this.quadCount = quadCount;
+        this.advance = advance;
+    }
+
+    /**
+     * @return The render type of each quad
+     */
+    public RenderType[] getRenderTypes() {
+        return this.renderTypes;
+    }
+
+    /**
+     * @return The position and texture coordinates of each vertex
+     */
+    public float[] getVertices() {
+        return this.vertices;
+    }
+
+    /**
+     * @return The packed ABGR color of each vertex
+     */
+    public int[] getColors() {
+        return this.colors;
+    }
+
+    public int getQuadCount() {
+        return this.quadCount;
+    }
+
+    /**
+     * @return The horizontal distance from the origin of the text to the end of the text
+     */
+    public float getAdvance() {
+        return this.advance;
+    }
+
+    /**
+     * @return The approximate number of bytes used by this mesh
+     */
+    public int getMemoryUsage() {
+        return 32 + (this.quadCount * ((4 * VERTEX_FLOATS * Float.BYTES) + (4 * Integer.BYTES) + 8));
+    }
+
+    /**
+     * Collects the glyph quads of a run of text while it is being laid out.
+     */
+    public static class Builder {
+        private final float originX, originY;
+
+        private RenderType[] renderTypes = new RenderType[16];
+        private float[] vertices = new float[16 * 4 * VERTEX_FLOATS];
+        private int[] colors = new int[16 * 4];
+
+        private int quadCount;
+        private int vertexCount;
+
+        public Builder(float originX, float originY) {
+            this.originX = originX;
+            this.originY = originY;
+        }
+
+        /**
+         * Starts a new quad. The four vertices of the quad must be added afterward.
+         */
+        public void beginQuad(RenderType renderType) {
+            if (this.quadCount == this.renderTypes.length) {
+                int capacity = this.renderTypes.length * 2;
+
+                this.renderTypes = Arrays.copyOf(this.renderTypes, capacity);
+                this.vertices = Arrays.copyOf(this.vertices, capacity * 4 * VERTEX_FLOATS);
+                this.colors = Arrays.copyOf(this.colors, capacity * 4);
+            }
+
+            this.renderTypes[this.quadCount++] = renderType;
+        }
+
+        /**
+         * Adds a vertex to the current quad, with the position given in the space of the text's matrix.
+         */
+        public void addVertex(float x, float y, float z, int color, float u, float v) {
+            int offset = this.vertexCount * VERTEX_FLOATS;
+
+            this.vertices[offset + 0] = x - this.originX;
+            this.vertices[offset + 1] = y - this.originY;
+            this.vertices[offset + 2] = z;
+            this.vertices[offset + 3] = u;
+            this.vertices[offset + 4] = v;
+
+            this.colors[this.vertexCount++] = color;
+        }
+
+        /**
+         * @param endX The horizontal position at which the text ended
+         */
+        public TextMesh build(float endX) {
+            return new TextMesh(
+                    Arrays.copyOf(this.renderTypes, this.quadCount),
+                    Arrays.copyOf(this.vertices, this.vertexCount * VERTEX_FLOATS),
+                    Arrays.copyOf(this.colors, this.vertexCount),
+                    this.quadCount,
+                    endX - this.originX);
+        }
+    }
+}
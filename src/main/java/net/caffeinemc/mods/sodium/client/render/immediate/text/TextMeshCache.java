@@ -0,0 +1,396 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.text;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Object2ReferenceLinkedOpenHashMap;
+import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
+import net.caffeinemc.mods.sodium.api.util.ColorABGR;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.GlyphVertex;
+import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.caffeinemc.mods.sodium.client.render.vertex.VertexConsumerUtils;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.network.chat.Style;
+import net.minecraft.util.FormattedCharSequence;
+import net.minecraft.util.FormattedCharSink;
+import net.minecraft.util.StringDecomposer;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+
+/**
+ * Caches the laid out glyph quads of text which is drawn repeatedly, such as the text of signs, name tags, the
+ * scoreboard, and the debug screen. When the same text is drawn again with the same font and style, the cached quads
+ * only need to be transformed by the text's matrix and written to the vertex consumer in bulk, instead of looking up
+ * and laying out every glyph of the text again.
+ *
+ * Text is only cached once it has been drawn twice, since many strings (such as the changing values on the debug
+ * screen, or formatted sequences which are re-created every frame) are never drawn again, and caching them would only
+ * waste time and memory. Text which has been drawn once is only remembered by the hash of its key in a small table,
+ * so that one-off text doesn't create any entries. Formatted sequences have no meaningful equality, so they can only
+ * be found again when their owner keeps the same sequence between frames, which is the case for most static text.
+ * Obfuscated text is never cached, since its glyphs are randomized every time it is drawn.
+ *
+ * The least recently drawn text is evicted once the cache grows beyond its memory limit or number of entries. The
+ * memory used by an entry includes an estimate of the components which its formatted sequence keeps alive. The cache
+ * must be cleared whenever the glyphs of a font are reloaded.
+ */
+public class TextMeshCache {
+    private static final long MAX_MEMORY_USAGE = 4L * 1024L * 1024L;
+    private static final int MAX_ENTRIES = 2048;
+
+    // The number of hashes remembered for text which has been drawn once, which must be a power of two
+    private static final int SEEN_TABLE_SIZE = 4096;
+
+    // The approximate number of bytes used by an entry in the cache, excluding the mesh and text
+    private static final int ENTRY_MEMORY_USAGE = 96;
+
+    // The approximate number of bytes kept alive by a formatted sequence, which refers to the components and styles
+    // it was created from, and for each of its characters
+    private static final int SEQUENCE_MEMORY_USAGE = 256;
+    private static final int SEQUENCE_CHAR_MEMORY_USAGE = 64;
+
+    /**
+     * The maximum number of quads pushed to the vertex consumer at once. This is limited since vertex buffer writers
+     * may need to copy the vertices onto the memory stack.
+     */
+    private static final int MAX_PUSH_QUADS = 256;
+
+    private static final long scratchBuffer = MemoryUtil.nmemAlignedAlloc(64, MAX_PUSH_QUADS * 4L * GlyphVertex.STRIDE);
+
+    private static final FormattedCharSink NOT_OBFUSCATED = (index, style, codepoint) -> !style.isObfuscated();
+
+    private static final TextMeshCache INSTANCE = new TextMeshCache(MAX_MEMORY_USAGE, MAX_ENTRIES);
+
+    private static TextMesh.Builder recorder;
+    private static Font.DisplayMode recorderDisplayMode;
+
+    private final long maxMemoryUsage;
+    private final int maxEntries;
+
+    private final Object2ReferenceLinkedOpenHashMap<Key, Entry> entries = new Object2ReferenceLinkedOpenHashMap<>();
+    private final int[] seenHashes = new int[SEEN_TABLE_SIZE];
+
+    private long memoryUsage;
+
+    TextMeshCache(long maxMemoryUsage, int maxEntries) {
+        this.maxMemoryUsage = maxMemoryUsage;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return The cache used for the text drawn on the render thread
+     */
+    public static TextMeshCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return True if text should be looked up in the cache, otherwise false
+     */
+    public static boolean isEnabled() {
+        return recorder == null && SodiumClientMod.options().performance.useTextMeshCache &&
+                RenderSystem.isOnRenderThread();
+    }
+
+    /**
+     * Finds the entry for the text and marks it as the most recently used. If the text is drawn for the second time,
+     * a new entry is created for it.
+     *
+     * @return The entry of the text, or null if the text has not been drawn before
+     */
+    public @Nullable Entry lookup(Key key) {
+        Entry entry = this.entries.getAndMoveToLast(key);
+
+        if (entry != null) {
+            return entry;
+        }
+
+        if (!this.markSeen(key)) {
+            return null;
+        }
+
+        entry = new Entry(key);
+        this.entries.putAndMoveToLast(key, entry);
+
+        this.memoryUsage += entry.getMemoryUsage();
+        this.evict();
+
+        return entry;
+    }
+
+    /**
+     * Remembers the hash of the key. Keys with colliding hashes may replace each other, which at worst causes text to
+     * be cached after being drawn only once, or not to be cached until it has been drawn a few more times.
+     *
+     * @return True if a key with the same hash was seen before, otherwise false
+     */
+    private boolean markSeen(Key key) {
+        int hash = HashCommon.mix(key.hashCode());
+        int slot = hash & (SEEN_TABLE_SIZE - 1);
+
+        if (this.seenHashes[slot] == hash) {
+            return true;
+        }
+
+        this.seenHashes[slot] = hash;
+
+        return false;
+    }
+
+    /**
+     * Starts collecting the glyph quads of the text which is laid out next. Until {@link #endRecording()} is called,
+     * the glyphs of all text are added to the returned builder instead of being drawn.
+     */
+    public static TextMesh.Builder beginRecording(float originX, float originY, Font.DisplayMode displayMode) {
+        if (recorder != null) {
+            throw new IllegalStateException("Already recording text");
+        }
+
+        recorder = new TextMesh.Builder(originX, originY);
+        recorderDisplayMode = displayMode;
+
+        return recorder;
+    }
+
+    public static void endRecording() {
+        recorder = null;
+        recorderDisplayMode = null;
+    }
+
+    /**
+     * @return The builder which glyphs should be added to instead of being drawn, or null if text is not being recorded
+     */
+    public static @Nullable TextMesh.Builder getRecorder() {
+        return recorder;
+    }
+
+    public static Font.DisplayMode getRecorderDisplayMode() {
+        return recorderDisplayMode;
+    }
+
+    /**
+     * Stores the mesh of the text, evicting the least recently used entries if necessary.
+     */
+    public void store(Entry entry, TextMesh mesh) {
+        entry.mesh = mesh;
+
+        this.memoryUsage += mesh.getMemoryUsage();
+        this.evict();
+    }
+
+    private void evict() {
+        // the most recently used entry is never evicted, even if its mesh alone is larger than the limit
+        while ((this.memoryUsage > this.maxMemoryUsage || this.entries.size() > this.maxEntries) && this.entries.size() > 1) {
+            this.memoryUsage -= this.entries.removeFirst()
+                    .getMemoryUsage();
+        }
+    }
+
+    public void clear() {
+        this.entries.clear();
+        this.memoryUsage = 0;
+
+        Arrays.fill(this.seenHashes, 0);
+    }
+
+    public int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return The approximate number of bytes used by the entries of the cache
+     */
+    public long getMemoryUsage() {
+        return this.memoryUsage;
+    }
+
+    /**
+     * @return True if any character of the text uses the obfuscated style
+     */
+    public static boolean isObfuscated(Object text) {
+        if (text instanceof String string) {
+            return !StringDecomposer.iterateFormatted(string, Style.EMPTY, NOT_OBFUSCATED);
+        } else if (text instanceof FormattedCharSequence sequence) {
+            return !sequence.accept(NOT_OBFUSCATED);
+        }
+
+        throw new IllegalArgumentException("Unsupported text type: " + text.getClass().getName());
+    }
+
+    /**
+     * Draws the mesh of a text with its origin at the given position.
+     *
+     * @return The horizontal position at which the text ended
+     */
+    public static float draw(TextMesh mesh, float x, float y, Matrix4f matrix, MultiBufferSource bufferSource,
+                             int light) {
+        RenderType[] renderTypes = mesh.getRenderTypes();
+        int quadCount = mesh.getQuadCount();
+
+        int start = 0;
+
+        // write each run of quads which share a render type to its vertex consumer at once
+        while (start < quadCount) {
+            RenderType renderType = renderTypes[start];
+            int end = start + 1;
+
+            while (end < quadCount && renderTypes[end] == renderType) {
+                end++;
+            }
+
+            write(bufferSource.getBuffer(renderType), mesh, start, end, x, y, matrix, light);
+            start = end;
+        }
+
+        return x + mesh.getAdvance();
+    }
+
+    private static void write(VertexConsumer consumer, TextMesh mesh, int startQuad, int endQuad,
+                              float x, float y, Matrix4f matrix, int light) {
+        var writer = VertexConsumerUtils.convertOrLog(consumer);
+
+        if (writer == null) {
+            writeSlow(consumer, mesh, startQuad, endQuad, x, y, matrix, light);
+            return;
+        }
+
+        write(writer, mesh, startQuad, endQuad, x, y, matrix, light);
+    }
+
+    /**
+     * Transforms the quads of the mesh in the given range, and pushes them to the writer.
+     */
+    static void write(VertexBufferWriter writer, TextMesh mesh, int startQuad, int endQuad,
+                      float x, float y, Matrix4f matrix, int light) {
+        for (int quad = startQuad; quad < endQuad; quad += MAX_PUSH_QUADS) {
+            int count = Math.min(endQuad - quad, MAX_PUSH_QUADS);
+
+            writeVertices(mesh, quad * 4, count * 4, x, y, matrix, light);
+            push(writer, count);
+        }
+    }
+
+    private static void writeVertices(TextMesh mesh, int firstVertex, int vertexCount,
+                                      float x, float y, Matrix4f matrix, int light) {
+        float[] vertices = mesh.getVertices();
+        int[] colors = mesh.getColors();
+
+        long ptr = scratchBuffer;
+
+        for (int vertex = firstVertex; vertex < firstVertex + vertexCount; vertex++) {
+            int offset = vertex * TextMesh.VERTEX_FLOATS;
+
+            float posX = vertices[offset + 0] + x;
+            float posY = vertices[offset + 1] + y;
+            float posZ = vertices[offset + 2];
+
+            float transformedX = MatrixHelper.transformPositionX(matrix, posX, posY, posZ);
+            float transformedY = MatrixHelper.transformPositionY(matrix, posX, posY, posZ);
+            float transformedZ = MatrixHelper.transformPositionZ(matrix, posX, posY, posZ);
+
+            GlyphVertex.put(ptr, transformedX, transformedY, transformedZ, colors[vertex],
+                    vertices[offset + 3], vertices[offset + 4], light);
+            ptr += GlyphVertex.STRIDE;
+        }
+    }
+
+    private static void push(VertexBufferWriter writer, int quads) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            writer.push(stack, scratchBuffer, quads * 4, GlyphVertex.FORMAT);
+        }
+    }
+
+    private static void writeSlow(VertexConsumer consumer, TextMesh mesh, int startQuad, int endQuad,
+                                  float x, float y, Matrix4f matrix, int light) {
+        float[] vertices = mesh.getVertices();
+        int[] colors = mesh.getColors();
+
+        for (int vertex = startQuad * 4; vertex < endQuad * 4; vertex++) {
+            int offset = vertex * TextMesh.VERTEX_FLOATS;
+            int color = colors[vertex];
+
+            consumer.vertex(matrix, vertices[offset + 0] + x, vertices[offset + 1] + y, vertices[offset + 2])
+                    .color(ColorABGR.unpackRed(color), ColorABGR.unpackGreen(color), ColorABGR.unpackBlue(color),
+                            ColorABGR.unpackAlpha(color))
+                    .uv(vertices[offset + 3], vertices[offset + 4])
+                    .uv2(light)
+                    .endVertex();
+        }
+    }
+
+    /**
+     * Identifies a run of text which is drawn by a font. Strings are compared by their contents, while formatted
+     * sequences are compared by their identity.
+     */
+    public record Key(Font font, Object text, int color, boolean shadow, Font.DisplayMode displayMode,
+                      int backgroundColor) {
+
+    }
+
+    public static class Entry {
+        private final int textMemoryUsage;
+
+        private @Nullable TextMesh mesh;
+        private boolean cacheable = true;
+
+        private Entry(Key key) {
+            this.textMemoryUsage = getTextMemoryUsage(key.text());
+        }
+
+        /**
+         * @return The cached mesh of the text, or null if it has not been built yet
+         */
+        public @Nullable TextMesh getMesh() {
+            return this.mesh;
+        }
+
+        public boolean isCacheable() {
+            return this.cacheable;
+        }
+
+        /**
+         * Marks the text as one which can never be cached, so that it is not checked again the next time it is drawn.
+         */
+        public void markUncacheable() {
+            this.cacheable = false;
+        }
+
+        private int getMemoryUsage() {
+            int usage = ENTRY_MEMORY_USAGE + this.textMemoryUsage;
+
+            if (this.mesh != null) {
+                usage += this.mesh.getMemoryUsage();
+            }
+
+            return usage;
+        }
+
+        /**
+         * Estimates the memory kept alive by the text of a key. This is computed once when the entry is created, so
+         * that the same amount is removed from the memory usage of the cache when the entry is evicted.
+         */
+        private static int getTextMemoryUsage(Object text) {
+            if (text instanceof String string) {
+                return string.length() * 2;
+            } else if (text instanceof FormattedCharSequence sequence) {
+                int[] length = new int[1];
+
+                sequence.accept((index, style, codepoint) -> {
+                    length[0]++;
+                    return true;
+                });
+
+                return SEQUENCE_MEMORY_USAGE + (length[0] * SEQUENCE_CHAR_MEMORY_USAGE);
+            }
+
+            return 0;
+        }
+    }
+}
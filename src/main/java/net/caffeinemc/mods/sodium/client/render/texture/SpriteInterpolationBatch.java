@@ -0,0 +1,229 @@
+package net.caffeinemc.mods.sodium.client.render.texture;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.util.NativeImageHelper;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the interpolated animation frames of all sprites in an atlas that are updated in the same tick, and blends
+ * them together before uploading them. When there is enough work, the frames are blended in parallel by a small pool
+ * of threads which is only used for this, while the render thread blends frames itself. The uploads are then
+ * performed in the order the frames were added, which is the order in which the atlas ticks its sprites.
+ *
+ * Frames are only batched while an atlas is cycling its animations on the render thread, otherwise they are blended
+ * and uploaded immediately.
+ */
+public class SpriteInterpolationBatch {
+    /**
+     * The minimum number of pixels in a batch before the blending is distributed across threads. Below this, the
+     * overhead of scheduling the tasks is larger than the time saved.
+     */
+    private static final int PARALLEL_PIXEL_THRESHOLD = 128 * 1024;
+
+    /**
+     * The approximate number of pixels blended by each task.
+     */
+    private static final int PIXELS_PER_TASK = 32 * 1024;
+
+    private static final int WORKER_COUNT = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * The threads which help with blending large batches. They are not shared with any other work, so the render
+     * thread never waits behind unrelated tasks.
+     */
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_COUNT, new WorkerThreadFactory());
+
+    private static final int STRIDE = 4;
+    private static final int CHANNEL_MASK = 0x00FF00FF;
+
+    private static final ObjectArrayList<Frame> frames = new ObjectArrayList<>();
+    private static int pixelCount;
+    private static boolean batching;
+
+    public static void begin() {
+        batching = RenderSystem.isOnRenderThread();
+
+        frames.clear();
+        pixelCount = 0;
+    }
+
+    /**
+     * Blends and uploads the given frame, or defers it until the end of the batch if a batch is active.
+     */
+    public static void submit(Frame frame) {
+        if (!batching) {
+            frame.blend();
+            frame.upload.run();
+            return;
+        }
+
+        frames.add(frame);
+        pixelCount += frame.getPixelCount();
+    }
+
+    public static void end() {
+        if (!batching) {
+            return;
+        }
+
+        batching = false;
+
+        try {
+            if (pixelCount >= PARALLEL_PIXEL_THRESHOLD) {
+                blendParallel();
+            } else {
+                for (Frame frame : frames) {
+                    frame.blend();
+                }
+            }
+
+            for (Frame frame : frames) {
+                frame.upload.run();
+            }
+        } finally {
+            frames.clear();
+            pixelCount = 0;
+        }
+    }
+
+    private static void blendParallel() {
+        // split the frames into ranges of roughly equal size, ending with the index after the last frame of each range
+        var rangeEnds = new IntArrayList();
+        int taskPixels = 0;
+
+        for (int i = 0; i < frames.size(); i++) {
+            taskPixels += frames.get(i).getPixelCount();
+
+            if (taskPixels >= PIXELS_PER_TASK || i + 1 == frames.size()) {
+                rangeEnds.add(i + 1);
+                taskPixels = 0;
+            }
+        }
+
+        var nextRange = new AtomicInteger();
+        var remaining = new CountDownLatch(rangeEnds.size());
+
+        Runnable worker = () -> blendRanges(rangeEnds, nextRange, remaining);
+
+        for (int i = 0; i < Math.min(WORKER_COUNT, rangeEnds.size() - 1); i++) {
+            WORKERS.execute(worker);
+        }
+
+        // the render thread claims ranges as well, so it only waits for ranges which are already being blended
+        worker.run();
+
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while blending sprite animations", e);
+        }
+    }
+
+    private static void blendRanges(IntArrayList rangeEnds, AtomicInteger nextRange, CountDownLatch remaining) {
+        int range;
+
+        while ((range = nextRange.getAndIncrement()) < rangeEnds.size()) {
+            try {
+                blendRange(range == 0 ? 0 : rangeEnds.getInt(range - 1), rangeEnds.getInt(range));
+            } finally {
+                remaining.countDown();
+            }
+        }
+    }
+
+    private static void blendRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            frames.get(i).blend();
+        }
+    }
+
+    /**
+     * An interpolated frame of an animated sprite, blended from two frames of the sprite's source images into the
+     * target images, with one image per mip level.
+     *
+     * @param ratio  The weight of the current frame in the range 0..256
+     * @param upload Uploads the blended target images to the atlas, must be run on the render thread
+     */
+    public record Frame(NativeImage[] source, NativeImage[] target, int width, int height,
+                        int curIndex, int nextIndex, int frameRowSize, int ratio, Runnable upload) {
+        private int getPixelCount() {
+            // the mip levels add up to less than a third of the base level
+            return (this.width * this.height * 4) / 3;
+        }
+
+        private void blend() {
+            for (int layer = 0; layer < this.target.length; layer++) {
+                int width = this.width >> layer;
+                int height = this.height >> layer;
+
+                int curX = ((this.curIndex % this.frameRowSize) * width);
+                int curY = ((this.curIndex / this.frameRowSize) * height);
+
+                int nextX = ((this.nextIndex % this.frameRowSize) * width);
+                int nextY = ((this.nextIndex / this.frameRowSize) * height);
+
+                NativeImage src = this.source[layer];
+                NativeImage dst = this.target[layer];
+
+                long ppSrcPixel = NativeImageHelper.getPointerRGBA(src);
+                long ppDstPixel = NativeImageHelper.getPointerRGBA(dst);
+
+                for (int layerY = 0; layerY < height; layerY++) {
+                    // Pointers to the pixel array for the current and next frame
+                    long pRgba1 = ppSrcPixel + (curX + (long) (curY + layerY) * src.getWidth()) * STRIDE;
+                    long pRgba2 = ppSrcPixel + (nextX + (long) (nextY + layerY) * src.getWidth()) * STRIDE;
+
+                    blendRow(pRgba1, pRgba2, ppDstPixel, width, this.ratio);
+
+                    ppDstPixel += (long) width * STRIDE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Blends a row of pixels, taking the alpha component from the first source pixel. This is the same packed
+     * arithmetic as {@link net.caffeinemc.mods.sodium.api.util.ColorMixer#mix(int, int, float)}, but with the mix
+     * factors converted only once per row. The loop has no branches or calls, so it can be unrolled by the JIT.
+     */
+    private static void blendRow(long pRgba1, long pRgba2, long pDst, int width, int aRatio) {
+        int bRatio = 256 - aRatio;
+
+        for (int x = 0; x < width; x++) {
+            long offset = (long) x * STRIDE;
+
+            int rgba1 = MemoryUtil.memGetInt(pRgba1 + offset);
+            int rgba2 = MemoryUtil.memGetInt(pRgba2 + offset);
+
+            int c1 = ((((rgba1 >> 0) & CHANNEL_MASK) * aRatio) + (((rgba2 >> 0) & CHANNEL_MASK) * bRatio)) >> 8;
+            int c2 = ((((rgba1 >> 8) & CHANNEL_MASK) * aRatio) + (((rgba2 >> 8) & CHANNEL_MASK) * bRatio)) >> 8;
+
+            // Mix the R, G and B components and take the A component from the current frame
+            int rgb = ((c1 & CHANNEL_MASK) | ((c2 & CHANNEL_MASK) << 8)) & 0x00FFFFFF;
+
+            MemoryUtil.memPutInt(pDst + offset, rgb | (rgba1 & 0xFF000000));
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Sodium Sprite Blending #" + this.count.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package net.caffeinemc.mods.sodium.client.render.vertex.buffer;
+
+import net.minecraft.client.renderer.RenderType;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Tracks the render type which a buffer builder of a buffer source is currently collecting vertices for. This is only
+ * known for buffer builders which were returned by a buffer source, and is cleared once the batch of the render type
+ * is drawn.
+ */
+public interface BufferBuilderRenderTypeExtension {
+    @Nullable RenderType sodium$getRenderType();
+
+    void sodium$setRenderType(@Nullable RenderType renderType);
+}
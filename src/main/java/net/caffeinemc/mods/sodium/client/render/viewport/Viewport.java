@@ -41,6 +41,25 @@ public final class Viewport {
         );
     }
 
+    public boolean isBoxVisible(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        return this.frustum.testAab(
+                (float) (minX - this.transform.x),
+                (float) (minY - this.transform.y),
+                (float) (minZ - this.transform.z),
+
+                (float) (maxX - this.transform.x),
+                (float) (maxY - this.transform.y),
+                (float) (maxZ - this.transform.z)
+        );
+    }
+
+    /**
+     * Tests whether a box is visible, where the coordinates of the box are relative to the position of the viewport.
+     */
+    public boolean isRelativeBoxVisible(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return this.frustum.testAab(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
     public CameraTransform getTransform() {
         return this.transform;
     }
@@ -86,7 +86,10 @@ public class NativeBuffer {
     }
 
     private static StackTraceElement[] getStackTrace() {
-        return SodiumClientMod.options().advanced.enableMemoryTracing ? Thread.currentThread()
+        // the options are not loaded when running outside of the game (such as in tests), and tracing is off then
+        var options = SodiumClientMod.optionsIfLoaded();
+
+        return options != null && options.advanced.enableMemoryTracing ? Thread.currentThread()
                 .getStackTrace() : null;
     }
 
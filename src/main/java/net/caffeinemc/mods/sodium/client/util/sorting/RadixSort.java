@@ -1,5 +1,7 @@
 package net.caffeinemc.mods.sodium.client.util.sorting;
 
+import java.util.Arrays;
+
 public class RadixSort extends AbstractSort {
     public static final int RADIX_SORT_THRESHOLD = 64;
 
@@ -9,6 +11,11 @@ public class RadixSort extends AbstractSort {
     private static final int DIGIT_COUNT = (RADIX_KEY_BITS + DIGIT_BITS - 1) / DIGIT_BITS;
     private static final int DIGIT_MASK = (1 << DIGIT_BITS) - 1;
 
+    /**
+     * The required length of the histogram array passed to {@link #sort(int[], int, int[], int[], int[])}.
+     */
+    public static final int HISTOGRAM_SIZE = DIGIT_COUNT * BUCKET_COUNT;
+
     public static int[] sort(int[] keys) {
         if (keys.length <= 1) {
             return new int[keys.length];
@@ -17,6 +24,65 @@ public class RadixSort extends AbstractSort {
         return radixSort(keys, createHistogram(keys));
     }
 
+    /**
+     * Sorts the indices of the first {@code length} keys by ascending unsigned key value without allocating any
+     * memory, which is useful when sorting repeatedly. The sorted indices are written to {@code indices}. The scratch
+     * array must be at least as long as the number of keys and the histogram must be at least
+     * {@link #HISTOGRAM_SIZE} long. Their contents are overwritten.
+     */
+    public static void sort(int[] keys, int length, int[] indices, int[] scratch, int[] histogram) {
+        Arrays.fill(histogram, 0, HISTOGRAM_SIZE, 0);
+
+        for (int index = 0; index < length; index++) {
+            final var key = keys[index];
+
+            for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+                histogram[(digit << DIGIT_BITS) + extractDigit(key, digit)] += 1;
+            }
+        }
+
+        for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+            final var base = digit << DIGIT_BITS;
+            var sum = 0;
+
+            for (int bucket_idx = 0; bucket_idx < BUCKET_COUNT; bucket_idx++) {
+                final var offset = sum;
+                sum += histogram[base + bucket_idx];
+                histogram[base + bucket_idx] = offset;
+            }
+        }
+
+        for (int index = 0; index < length; index++) {
+            indices[index] = index;
+        }
+
+        int[] cur = indices;
+        int[] next = scratch;
+
+        for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+            final var base = digit << DIGIT_BITS;
+
+            for (int pos = 0; pos < length; pos++) {
+                final var index = cur[pos];
+                final var bucket_idx = base + extractDigit(keys[index], digit);
+
+                next[histogram[bucket_idx]++] = index;
+            }
+
+            {
+                // (cur, next) = (next, cur)
+                var temp = next;
+                next = cur;
+                cur = temp;
+            }
+        }
+
+        // the number of digits is even, so the sorted indices always end up back in the output array
+        if (cur != indices) {
+            System.arraycopy(cur, 0, indices, 0, length);
+        }
+    }
+
     private static int[][] createHistogram(int[] keys) {
         var histogram = new int[DIGIT_COUNT][BUCKET_COUNT];
 
@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.util.sorting;
 
 import com.mojang.blaze3d.vertex.VertexSorting;
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import org.joml.Vector3f;
 
 public class VertexSorters {
@@ -16,15 +17,15 @@ public class VertexSorters {
         }
 
         @Override
-        protected float getKey(Vector3f position) {
-            return this.origin.distanceSquared(position);
+        protected float getKey(float x, float y, float z) {
+            return this.origin.distanceSquared(x, y, z);
         }
     }
 
     /**
      * Sorts the keys given by the subclass by descending value.
      */
-    private static abstract class AbstractVertexSorter implements VertexSorting {
+    public static abstract class AbstractVertexSorter implements VertexSorting {
         @Override
         public final int[] sort(Vector3f[] positions) {
             return this.mergeSort(positions);
@@ -34,12 +35,84 @@ public class VertexSorters {
             final var keys = new float[positions.length];
 
             for (int index = 0; index < positions.length; index++) {
-                keys[index] = this.getKey(positions[index]);
+                var position = positions[index];
+                keys[index] = this.getKey(position.x, position.y, position.z);
             }
 
             return MergeSort.mergeSort(keys);
         }
 
-        protected abstract float getKey(Vector3f object);
+        /**
+         * Sorts the quads whose centers are stored in the given buffers without allocating any memory. Small inputs
+         * are sorted with an insertion sort and larger ones with a radix sort on the comparable bits of the keys.
+         *
+         * @return The array of sorted quad indices, of which only the first {@code quadCount} entries are valid
+         */
+        public final int[] sortQuadCenters(SortBuffers buffers, int quadCount) {
+            final var centers = buffers.centers;
+            final var indices = buffers.indices;
+
+            if (RadixSort.useRadixSort(quadCount)) {
+                final var keys = buffers.intKeys;
+
+                for (int index = 0; index < quadCount; index++) {
+                    int offset = index * 3;
+
+                    // inverted to sort by descending key
+                    keys[index] = ~MathUtil.floatToComparableInt(
+                            this.getKey(centers[offset], centers[offset + 1], centers[offset + 2]));
+                }
+
+                RadixSort.sort(keys, quadCount, indices, buffers.scratch, buffers.histogram);
+            } else {
+                final var keys = buffers.floatKeys;
+
+                for (int index = 0; index < quadCount; index++) {
+                    int offset = index * 3;
+
+                    keys[index] = this.getKey(centers[offset], centers[offset + 1], centers[offset + 2]);
+                    indices[index] = index;
+                }
+
+                InsertionSort.insertionSort(indices, 0, quadCount, keys);
+            }
+
+            return indices;
+        }
+
+        protected abstract float getKey(float x, float y, float z);
+    }
+
+    /**
+     * Reusable arrays for sorting quads by their centers. The owner of the buffers is expected to write the quad
+     * centers as consecutive (x, y, z) triplets into {@link #centers} after ensuring the capacity.
+     */
+    public static class SortBuffers {
+        private final int[] histogram = new int[RadixSort.HISTOGRAM_SIZE];
+
+        private float[] centers = new float[0];
+        private float[] floatKeys = new float[0];
+        private int[] intKeys = new int[0];
+        private int[] indices = new int[0];
+        private int[] scratch = new int[0];
+
+        public void ensureCapacity(int quadCount) {
+            if (this.indices.length >= quadCount) {
+                return;
+            }
+
+            // grow geometrically to avoid re-allocating for slowly increasing quad counts
+            int capacity = Math.max(quadCount, this.indices.length + (this.indices.length >> 1));
+
+            this.centers = new float[capacity * 3];
+            this.floatKeys = new float[capacity];
+            this.intKeys = new int[capacity];
+            this.indices = new int[capacity];
+            this.scratch = new int[capacity];
+        }
+
+        public float[] getCenters() {
+            return this.centers;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.world;
 
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
+import net.caffeinemc.mods.sodium.client.world.biome.BiomeColorTileCache;
 import net.caffeinemc.mods.sodium.client.world.biome.LevelColorCache;
 import net.caffeinemc.mods.sodium.client.world.biome.BiomeColorSource;
 import net.caffeinemc.mods.sodium.client.world.biome.BiomeColorView;
@@ -97,7 +98,8 @@ public final class LevelSlice implements BlockAndTintGetter, BiomeColorView, Ren
     // The volume that this WorldSlice contains
     private BoundingBox volume;
 
-    public static ChunkRenderContext prepare(Level level, SectionPos pos, ClonedChunkSectionCache cache) {
+    public static ChunkRenderContext prepare(Level level, SectionPos pos, ClonedChunkSectionCache cache,
+                                             BiomeColorTileCache colorTiles) {
         LevelChunk chunk = level.getChunk(pos.getX(), pos.getZ());
         LevelChunkSection section = chunk.getSections()[level.getSectionIndexFromSectionY(pos.getY())];
 
@@ -135,7 +137,7 @@ public final class LevelSlice implements BlockAndTintGetter, BiomeColorView, Ren
             }
         }
 
-        return new ChunkRenderContext(pos, sections, box);
+        return new ChunkRenderContext(pos, sections, box, colorTiles);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,214 @@
+package net.caffeinemc.mods.sodium.client.world.biome;
+
+import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.ColorResolver;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Caches the blended biome colors of chunk sections so that they can be shared between chunk builds. Blending the
+ * colors of a section requires evaluating the biome and color resolver for every block in the blend radius around it,
+ * followed by a box blur, which has to be repeated for every layer of blocks in the section. The result only depends
+ * on the biomes around the section, so it can be re-used when the section is rebuilt (i.e. after a block change), and
+ * for the layers which vertically adjacent sections have in common.
+ *
+ * Each tile contains the blended colors of one horizontal layer of blocks in a section, including the neighboring
+ * blocks that are accessed by the chunk meshing task. Tiles are grouped by their section column, so that all the
+ * tiles which depend on the biomes of a chunk can be invalidated together whenever its biome data changes, which
+ * happens when the chunk is loaded, unloaded or re-sent by the server, and when its biomes are replaced (i.e. by the
+ * {@code /fillbiome} command). The cache is owned by the render section manager, and as such it is discarded whenever the renderer is reloaded, which is also
+ * how changes to the blend radius and resource packs are handled.
+ *
+ * The cache is accessed by all chunk build threads, and all access is synchronized. Since a tile is only looked up
+ * once per layer and color resolver in each chunk build, contention is not a concern.
+ */
+public class BiomeColorTileCache {
+    /**
+     * The memory used by a tile in addition to its colors, for the array header and its entry in the column's map.
+     */
+    private static final int TILE_OVERHEAD_BYTES = 32;
+
+    /**
+     * The estimated memory used by the tiles of a column, which is only used to size the cache. Colors are only blended
+     * for the blocks which use them (i.e. grass, foliage and water), which are usually found in the two sections
+     * around the surface. Each of the three vanilla color resolvers needs a tile for every layer of those sections and
+     * their neighbor blocks, and a tile with the default neighbor radius uses 1.6 KB of memory.
+     */
+    private static final long ESTIMATED_COLUMN_BYTES = 3L * (2 * 16 + 4) * (20 * 20 * Integer.BYTES + TILE_OVERHEAD_BYTES);
+
+    /**
+     * The radius in chunks around the player whose columns are rebuilt most often, because that's where blocks are
+     * placed and broken.
+     */
+    private static final int REBUILD_RADIUS = 2;
+
+    /**
+     * The number of rows of columns at the edge of the render distance which the cache can hold in addition to the
+     * columns around the player. A row is loaded every time the player moves into another chunk.
+     */
+    private static final int LOADED_ROWS = 4;
+
+    private static final long MIN_MEMORY_USAGE = 4L * 1024 * 1024;
+
+    /**
+     * The largest fraction of the maximum heap size which the cache may use.
+     */
+    private static final int MAX_HEAP_FRACTION = 32;
+
+    /**
+     * The maximum number of columns for which the version of their last invalidation is remembered. When this is
+     * exceeded, all of them are forgotten at once, and tiles computed from data copied before that are rejected.
+     */
+    private static final int MAX_INVALIDATED_COLUMNS = 4096;
+
+    private final int blendRadius;
+    private final long maxMemoryUsage;
+
+    private final Long2ReferenceLinkedOpenHashMap<Column> columns = new Long2ReferenceLinkedOpenHashMap<>();
+    private long memoryUsage;
+
+    // Incremented whenever a chunk is invalidated. Each column remembers the version at which it was last invalidated,
+    // and tiles computed from biome data which was copied before that could be stale, so they are not inserted.
+    private volatile int version;
+
+    private final Long2IntOpenHashMap invalidatedColumns = new Long2IntOpenHashMap();
+
+    // Tiles computed from biome data which was copied before this version are always rejected, as the columns which
+    // were invalidated before it have been forgotten
+    private int minimumVersion;
+
+    /**
+     * @param maxMemoryUsage The memory in bytes which the tiles may use before the least recently used columns are
+     *                       evicted
+     */
+    public BiomeColorTileCache(int blendRadius, long maxMemoryUsage) {
+        this.blendRadius = blendRadius;
+        this.maxMemoryUsage = maxMemoryUsage;
+    }
+
+    /**
+     * Returns the memory which the cache should be allowed to use for the given render distance. This is enough for
+     * the columns around the player and a few rows of columns at the edge of the render distance, but no more than a
+     * small fraction of the heap.
+     */
+    public static long getMaxMemoryUsage(int renderDistance) {
+        long rebuiltColumns = (REBUILD_RADIUS * 2 + 1) * (REBUILD_RADIUS * 2 + 1);
+        long loadedColumns = (renderDistance * 2L + 1) * LOADED_ROWS;
+        long memoryUsage = (rebuiltColumns + loadedColumns) * ESTIMATED_COLUMN_BYTES;
+
+        return Math.max(MIN_MEMORY_USAGE, Math.min(memoryUsage, Runtime.getRuntime().maxMemory() / MAX_HEAP_FRACTION));
+    }
+
+    public int getBlendRadius() {
+        return this.blendRadius;
+    }
+
+    /**
+     * @return The current version of the cache, which must be captured at the same time as the biome data is copied
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the blended colors of the given layer in a section, or null if they are not cached. The returned array
+     * must not be modified.
+     */
+    public synchronized int @Nullable [] getTile(ColorResolver resolver, int sectionX, int sectionZ, int blockY) {
+        var column = this.columns.getAndMoveToLast(ChunkPos.asLong(sectionX, sectionZ));
+
+        if (column == null) {
+            return null;
+        }
+
+        var tiles = column.tiles.get(resolver);
+
+        if (tiles == null) {
+            return null;
+        }
+
+        return tiles.get(blockY);
+    }
+
+    /**
+     * Inserts the blended colors of the given layer in a section into the cache. The array must not be modified
+     * after it has been inserted.
+     *
+     * @param version The version of the cache at the time the biome data of the tile was copied
+     */
+    public synchronized void putTile(ColorResolver resolver, int sectionX, int sectionZ, int blockY, int[] colors,
+                                     int version) {
+        var key = ChunkPos.asLong(sectionX, sectionZ);
+
+        if (version < this.minimumVersion || version < this.invalidatedColumns.get(key)) {
+            return;
+        }
+
+        var column = this.columns.getAndMoveToLast(key);
+
+        if (column == null) {
+            column = new Column();
+            this.columns.putAndMoveToLast(key, column);
+        }
+
+        var tiles = column.tiles.computeIfAbsent(resolver, (ColorResolver r) -> new Int2ReferenceOpenHashMap<>());
+
+        var previous = tiles.put(blockY, colors);
+        long memoryUsage = getMemoryUsage(colors) - (previous == null ? 0 : getMemoryUsage(previous));
+        column.memoryUsage += memoryUsage;
+        this.memoryUsage += memoryUsage;
+
+        while (this.memoryUsage > this.maxMemoryUsage && this.columns.size() > 1) {
+            this.memoryUsage -= this.columns.removeFirst().memoryUsage;
+        }
+    }
+
+    /**
+     * Removes all tiles which depend on the biomes of the given chunk. Must be called whenever the biome data of the
+     * chunk changes, before any sections around it are copied again.
+     */
+    public synchronized void invalidateChunk(int chunkX, int chunkZ) {
+        int version = this.version + 1;
+
+        if (this.invalidatedColumns.size() >= MAX_INVALIDATED_COLUMNS) {
+            this.invalidatedColumns.clear();
+            this.minimumVersion = version;
+        }
+
+        // the blended colors of a section depend on the biomes of the directly adjacent chunks
+        for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+            for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                var key = ChunkPos.asLong(x, z);
+                var column = this.columns.remove(key);
+
+                if (column != null) {
+                    this.memoryUsage -= column.memoryUsage;
+                }
+
+                this.invalidatedColumns.put(key, version);
+            }
+        }
+
+        this.version = version;
+    }
+
+    /**
+     * @return The memory used by the tiles in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return this.memoryUsage;
+    }
+
+    private static long getMemoryUsage(int[] colors) {
+        return (long) colors.length * Integer.BYTES + TILE_OVERHEAD_BYTES;
+    }
+
+    private static class Column {
+        private final Reference2ReferenceOpenHashMap<ColorResolver, Int2ReferenceOpenHashMap<int[]>> tiles =
+                new Reference2ReferenceOpenHashMap<>();
+        private long memoryUsage;
+    }
+}
@@ -21,6 +21,7 @@ public class LevelBiomeSlice {
     private final Holder<Biome>[] biomes = new Holder[SIZE * SIZE * SIZE];
     private final boolean[] uniform = new boolean[SIZE * SIZE * SIZE];
     private final BiasMap bias = new BiasMap();
+    private boolean biasCalculated;
 
     private long biomeZoomSeed;
 
@@ -35,7 +36,9 @@ public class LevelBiomeSlice {
 
         this.copyBiomeData(level, context);
 
-        this.calculateBias();
+        // The bias is only needed for cells with non-uniform neighbors, and most colors will be taken from the shared
+        // color tiles, so it's calculated when the first such cell is accessed
+        this.biasCalculated = false;
         this.calculateUniform();
     }
 
@@ -163,6 +166,11 @@ public class LevelBiomeSlice {
     }
 
     private Holder<Biome> getBiomeUsingVoronoi(int blockX, int blockY, int blockZ) {
+        if (!this.biasCalculated) {
+            this.calculateBias();
+            this.biasCalculated = true;
+        }
+
         int x = blockX - 2;
         int y = blockY - 2;
         int z = blockZ - 2;
@@ -8,9 +8,12 @@ import net.minecraft.client.renderer.BiomeColors;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.ColorResolver;
 import net.minecraft.world.level.biome.Biome;
+import org.jetbrains.annotations.Nullable;
 
 public class LevelColorCache {
     private static final int NEIGHBOR_BLOCK_RADIUS = 2;
+    private static final int TILE_SIZE = 16 + (NEIGHBOR_BLOCK_RADIUS * 2);
+
     private final LevelBiomeSlice biomeData;
 
     private final Reference2ReferenceOpenHashMap<ColorResolver, Slice[]> slices;
@@ -18,8 +21,13 @@ public class LevelColorCache {
 
     private final int blendRadius;
 
+    private final ColorBuffer colorBuffer;
     private final ColorBuffer tempColorBuffer;
 
+    private @Nullable BiomeColorTileCache tileCache;
+    private int tileVersion;
+    private int sectionX, sectionZ;
+
     private int minBlockX, minBlockY, minBlockZ;
     private int maxBlockX, maxBlockY, maxBlockZ;
 
@@ -35,17 +43,34 @@ public class LevelColorCache {
         this.slices = new Reference2ReferenceOpenHashMap<>();
         this.populateStamp = 1;
 
+        this.colorBuffer = new ColorBuffer(this.sizeXZ, this.sizeXZ);
         this.tempColorBuffer = new ColorBuffer(this.sizeXZ, this.sizeXZ);
     }
 
     public void update(ChunkRenderContext context) {
-        this.minBlockX = (context.getOrigin().minBlockX() - NEIGHBOR_BLOCK_RADIUS) - this.blendRadius;
+        // The colors are only blended for the blocks which can be accessed by the meshing task, the blend radius
+        // is only needed as a border while the colors are blurred
+        this.minBlockX = (context.getOrigin().minBlockX() - NEIGHBOR_BLOCK_RADIUS);
         this.minBlockY = (context.getOrigin().minBlockY() - NEIGHBOR_BLOCK_RADIUS);
-        this.minBlockZ = (context.getOrigin().minBlockZ() - NEIGHBOR_BLOCK_RADIUS) - this.blendRadius;
+        this.minBlockZ = (context.getOrigin().minBlockZ() - NEIGHBOR_BLOCK_RADIUS);
 
-        this.maxBlockX = (context.getOrigin().maxBlockX() + NEIGHBOR_BLOCK_RADIUS) + this.blendRadius;
+        this.maxBlockX = (context.getOrigin().maxBlockX() + NEIGHBOR_BLOCK_RADIUS);
         this.maxBlockY = (context.getOrigin().maxBlockY() + NEIGHBOR_BLOCK_RADIUS);
-        this.maxBlockZ = (context.getOrigin().maxBlockZ() + NEIGHBOR_BLOCK_RADIUS) + this.blendRadius;
+        this.maxBlockZ = (context.getOrigin().maxBlockZ() + NEIGHBOR_BLOCK_RADIUS);
+
+        this.sectionX = context.getOrigin().getX();
+        this.sectionZ = context.getOrigin().getZ();
+
+        var tileCache = context.getColorTiles();
+
+        // The cache belongs to the renderer, which might still be using an old blend radius if it hasn't been
+        // reloaded yet
+        if (tileCache.getBlendRadius() == this.blendRadius) {
+            this.tileCache = tileCache;
+            this.tileVersion = context.getColorTileVersion();
+        } else {
+            this.tileCache = null;
+        }
 
         this.populateStamp++;
     }
@@ -70,56 +95,92 @@ public class LevelColorCache {
         var slice = this.slices.get(resolver)[relBlockY];
 
         if (slice.lastPopulateStamp < this.populateStamp) {
-            this.updateColorBuffers(relBlockY, resolver, slice);
+            this.populateSlice(relBlockY, resolver, slice);
         }
 
-        var buffer = slice.getBuffer();
-
-        return buffer.get(relBlockX, relBlockZ);
+        return slice.colors[ColorBuffer.getIndex(relBlockX, relBlockZ, TILE_SIZE)];
     }
 
     private void initializeSlices(ColorResolver resolver) {
         var slice = new Slice[this.sizeY];
 
         for (int blockY = 0; blockY < this.sizeY; blockY++) {
-            slice[blockY] = new Slice(this.sizeXZ);
+            slice[blockY] = new Slice();
         }
 
         this.slices.put(resolver, slice);
     }
 
-    private void updateColorBuffers(int relY, ColorResolver resolver, Slice slice) {
+    private void populateSlice(int relY, ColorResolver resolver, Slice slice) {
         int blockY = this.minBlockY + relY;
 
-        for (int blockZ = this.minBlockZ; blockZ <= this.maxBlockZ; blockZ++) {
-            for (int blockX = this.minBlockX; blockX <= this.maxBlockX; blockX++) {
+        var tileCache = this.tileCache;
+
+        if (tileCache != null) {
+            var colors = tileCache.getTile(resolver, this.sectionX, this.sectionZ, blockY);
+
+            if (colors == null) {
+                // The tile is shared once it's inserted into the cache, so it can't be re-used by this slice
+                colors = new int[TILE_SIZE * TILE_SIZE];
+
+                this.updateColorBuffers(blockY, resolver, colors);
+                tileCache.putTile(resolver, this.sectionX, this.sectionZ, blockY, colors, this.tileVersion);
+            }
+
+            slice.colors = colors;
+            slice.owned = false;
+        } else {
+            if (!slice.owned) {
+                slice.colors = new int[TILE_SIZE * TILE_SIZE];
+                slice.owned = true;
+            }
+
+            this.updateColorBuffers(blockY, resolver, slice.colors);
+        }
+
+        slice.lastPopulateStamp = this.populateStamp;
+    }
+
+    private void updateColorBuffers(int blockY, ColorResolver resolver, int[] colors) {
+        int minBlockX = this.minBlockX - this.blendRadius;
+        int minBlockZ = this.minBlockZ - this.blendRadius;
+
+        int maxBlockX = this.maxBlockX + this.blendRadius;
+        int maxBlockZ = this.maxBlockZ + this.blendRadius;
+
+        for (int blockZ = minBlockZ; blockZ <= maxBlockZ; blockZ++) {
+            for (int blockX = minBlockX; blockX <= maxBlockX; blockX++) {
                 Biome biome = this.biomeData.getBiome(blockX, blockY, blockZ).value();
 
-                int relBlockX = blockX - this.minBlockX;
-                int relBlockZ = blockZ - this.minBlockZ;
+                int relBlockX = blockX - minBlockX;
+                int relBlockZ = blockZ - minBlockZ;
 
-                slice.buffer.set(relBlockX, relBlockZ, resolver.getColor(biome, blockX, blockZ));
+                this.colorBuffer.set(relBlockX, relBlockZ, resolver.getColor(biome, blockX, blockZ));
             }
         }
 
         if (this.blendRadius > 0) {
-            BoxBlur.blur(slice.buffer, this.tempColorBuffer, this.blendRadius);
+            BoxBlur.blur(this.colorBuffer, this.tempColorBuffer, this.blendRadius);
         }
 
-        slice.lastPopulateStamp = this.populateStamp;
+        // Copy the blurred colors without the border
+        for (int relBlockZ = 0; relBlockZ < TILE_SIZE; relBlockZ++) {
+            for (int relBlockX = 0; relBlockX < TILE_SIZE; relBlockX++) {
+                colors[ColorBuffer.getIndex(relBlockX, relBlockZ, TILE_SIZE)] =
+                        this.colorBuffer.get(relBlockX + this.blendRadius, relBlockZ + this.blendRadius);
+            }
+        }
     }
 
     private static class Slice {
-        private final ColorBuffer buffer;
+        private int[] colors;
+        private boolean owned;
         private long lastPopulateStamp;
 
-        private Slice(int size) {
-            this.buffer = new ColorBuffer(size, size);
+        private Slice() {
+            this.colors = null;
+            this.owned = false;
             this.lastPopulateStamp = 0;
         }
-
-        public ColorBuffer getBuffer() {
-            return this.buffer;
-        }
     }
 }
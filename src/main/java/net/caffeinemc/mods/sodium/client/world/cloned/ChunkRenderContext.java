@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.world.cloned;
 
+import net.caffeinemc.mods.sodium.client.world.biome.BiomeColorTileCache;
 import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 
@@ -8,10 +9,17 @@ public class ChunkRenderContext {
     private final ClonedChunkSection[] sections;
     private final BoundingBox volume;
 
-    public ChunkRenderContext(SectionPos origin, ClonedChunkSection[] sections, BoundingBox volume) {
+    private final BiomeColorTileCache colorTiles;
+    private final int colorTileVersion;
+
+    public ChunkRenderContext(SectionPos origin, ClonedChunkSection[] sections, BoundingBox volume,
+                              BiomeColorTileCache colorTiles) {
         this.origin = origin;
         this.sections = sections;
         this.volume = volume;
+
+        this.colorTiles = colorTiles;
+        this.colorTileVersion = colorTiles.getVersion();
     }
 
     public ClonedChunkSection[] getSections() {
@@ -25,4 +33,15 @@ public class ChunkRenderContext {
     public BoundingBox getVolume() {
         return this.volume;
     }
+
+    public BiomeColorTileCache getColorTiles() {
+        return this.colorTiles;
+    }
+
+    /**
+     * @return The version of the color tile cache at the time the sections of this context were copied
+     */
+    public int getColorTileVersion() {
+        return this.colorTileVersion;
+    }
 }
@@ -51,6 +51,10 @@ public abstract class LevelRendererMixin implements LevelRendererExtension {
     @Unique
     private int frame;
 
+    // Re-used between frames so that the cached pose entries of the stack are kept warm
+    @Unique
+    private PoseStack blockEntityPoseStack = new PoseStack();
+
     @Override
     public SodiumWorldRenderer sodium$getWorldRenderer() {
         return this.renderer;
@@ -193,7 +197,21 @@ public abstract class LevelRendererMixin implements LevelRendererExtension {
 
     @Inject(method = "renderLevel", at = @At(value = "FIELD", target = "Lnet/minecraft/client/renderer/LevelRenderer;globalBlockEntities:Ljava/util/Set;", shift = At.Shift.BEFORE, ordinal = 0))
     private void onRenderBlockEntities(float tickDelta, long limitTime, boolean renderBlockOutline, Camera camera, GameRenderer gameRenderer, LightTexture lightmapTextureManager, Matrix4f modelMatrix, Matrix4f projectionMatrix, CallbackInfo ci) {
-        this.renderer.renderBlockEntities(new PoseStack(), this.renderBuffers, this.destructionProgress, camera, this.level.tickRateManager().isFrozen() ? 1.0F : tickDelta);
+        this.renderer.renderBlockEntities(this.getBlockEntityPoseStack(), this.renderBuffers, this.destructionProgress, camera, this.level.tickRateManager().isFrozen() ? 1.0F : tickDelta);
+    }
+
+    @Unique
+    private PoseStack getBlockEntityPoseStack() {
+        var poseStack = this.blockEntityPoseStack;
+
+        // a renderer which didn't pop all of its poses leaves the stack in an unknown state
+        if (!poseStack.clear()) {
+            this.blockEntityPoseStack = poseStack = new PoseStack();
+        }
+
+        poseStack.setIdentity();
+
+        return poseStack;
     }
 
     /**
@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.mixin.core.world.map;
 
+import net.caffeinemc.mods.sodium.client.render.SodiumWorldRenderer;
 import net.caffeinemc.mods.sodium.client.render.chunk.map.ChunkStatus;
 import net.caffeinemc.mods.sodium.client.render.chunk.map.ChunkTrackerHolder;
 import net.minecraft.client.multiplayer.ClientChunkCache;
@@ -13,6 +14,7 @@ import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -37,6 +39,8 @@ public class ClientChunkCacheMixin {
     private void onChunkUnloaded(ChunkPos pos, CallbackInfo ci) {
         ChunkTrackerHolder.get(this.level)
                 .onChunkStatusRemoved(pos.x, pos.z, ChunkStatus.FLAG_HAS_BLOCK_DATA);
+
+        sodium$onBiomesChanged(pos.x, pos.z);
     }
 
     @Inject(
@@ -50,5 +54,22 @@ public class ClientChunkCacheMixin {
     private void onChunkLoaded(int chunkX, int chunkZ, FriendlyByteBuf buf, CompoundTag nbt, Consumer<ClientboundLevelChunkPacketData.BlockEntityTagOutput> consumer, CallbackInfoReturnable<@Nullable LevelChunk> cir) {
         ChunkTrackerHolder.get(this.level)
                 .onChunkStatusAdded(chunkX, chunkZ, ChunkStatus.FLAG_HAS_BLOCK_DATA);
+
+        // The chunk might already have been loaded, in which case the server re-sent it with new data
+        sodium$onBiomesChanged(chunkX, chunkZ);
+    }
+
+    @Inject(method = "replaceBiomes", at = @At("RETURN"))
+    private void onBiomesReplaced(int chunkX, int chunkZ, FriendlyByteBuf buf, CallbackInfo ci) {
+        sodium$onBiomesChanged(chunkX, chunkZ);
+    }
+
+    @Unique
+    private static void sodium$onBiomesChanged(int chunkX, int chunkZ) {
+        var renderer = SodiumWorldRenderer.instanceNullable();
+
+        if (renderer != null) {
+            renderer.onChunkBiomesChanged(chunkX, chunkZ);
+        }
     }
 }
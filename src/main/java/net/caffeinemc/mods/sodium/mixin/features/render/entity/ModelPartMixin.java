@@ -3,6 +3,7 @@ package net.caffeinemc.mods.sodium.mixin.features.render.entity;
 import net.caffeinemc.mods.sodium.client.model.ModelCuboidAccessor;
 import net.caffeinemc.mods.sodium.client.render.immediate.model.EntityRenderer;
 import net.caffeinemc.mods.sodium.client.render.immediate.model.ModelCuboid;
+import net.caffeinemc.mods.sodium.client.render.immediate.model.ModelInstanceRenderer;
 import net.caffeinemc.mods.sodium.client.render.immediate.model.ModelPartData;
 import net.caffeinemc.mods.sodium.client.render.vertex.VertexConsumerUtils;
 import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
@@ -58,7 +59,7 @@ public class ModelPartMixin implements ModelPartData {
     private Map<String, ModelPart> children;
 
     @Unique
-    private ModelPart[] sodium$children;
+    private ModelPartData[] sodium$children;
 
     @Unique
     private ModelCuboid[] sodium$cuboids;
@@ -74,7 +75,9 @@ public class ModelPartMixin implements ModelPartData {
 
         this.sodium$cuboids = copies;
         this.sodium$children = children.values()
-                .toArray(ModelPart[]::new);
+                .stream()
+                .map(ModelPartData::from)
+                .toArray(ModelPartData[]::new);
 
         // Try to catch errors caused by mods touching the collections after we've copied everything.
         this.cubes = Collections.unmodifiableList(this.cubes);
@@ -83,6 +86,11 @@ public class ModelPartMixin implements ModelPartData {
 
     @Inject(method = "render(Lcom/mojang/blaze3d/vertex/PoseStack;Lcom/mojang/blaze3d/vertex/VertexConsumer;IIFFFF)V", at = @At("HEAD"), cancellable = true)
     private void onRender(PoseStack matrices, VertexConsumer vertices, int light, int overlay, float red, float green, float blue, float alpha, CallbackInfo ci) {
+        if (this.visible && ModelInstanceRenderer.tryRecord(matrices, vertices, (ModelPart) (Object) this, light, overlay, ColorABGR.pack(red, green, blue, alpha))) {
+            ci.cancel();
+            return;
+        }
+
         VertexBufferWriter writer = VertexConsumerUtils.convertOrLog(vertices);
 
         if (writer == null) {
@@ -100,16 +108,38 @@ public class ModelPartMixin implements ModelPartData {
      */
     @Overwrite
     public void translateAndRotate(PoseStack matrixStack) {
+        this.applyTransform(matrixStack.last());
+    }
+
+    @Override
+    public void applyTransform(PoseStack.Pose pose) {
         if (this.x != 0.0F || this.y != 0.0F || this.z != 0.0F) {
-            matrixStack.translate(this.x * (1.0f / 16.0f), this.y * (1.0f / 16.0f), this.z * (1.0f / 16.0f));
+            pose.pose().translate(this.x * (1.0f / 16.0f), this.y * (1.0f / 16.0f), this.z * (1.0f / 16.0f));
         }
 
         if (this.xRot != 0.0F || this.yRot != 0.0F || this.zRot != 0.0F) {
-            MatrixHelper.rotateZYX(matrixStack.last(), this.zRot, this.yRot, this.xRot);
+            MatrixHelper.rotateZYX(pose, this.zRot, this.yRot, this.xRot);
         }
 
         if (this.xScale != 1.0F || this.yScale != 1.0F || this.zScale != 1.0F) {
-            matrixStack.scale(this.xScale, this.yScale, this.zScale);
+            scale(pose, this.xScale, this.yScale, this.zScale);
+        }
+    }
+
+    /**
+     * Scales the pose in the same way as {@link PoseStack#scale(float, float, float)}.
+     */
+    @Unique
+    private static void scale(PoseStack.Pose pose, float x, float y, float z) {
+        pose.pose().scale(x, y, z);
+
+        if (Math.abs(x) == Math.abs(y) && Math.abs(y) == Math.abs(z)) {
+            if (x < 0.0F || y < 0.0F || z < 0.0F) {
+                pose.normal().scale(Math.signum(x), Math.signum(y), Math.signum(z));
+            }
+        } else {
+            pose.normal().scale(1.0F / x, 1.0F / y, 1.0F / z);
+            pose.trustedNormals = false;
         }
     }
 
@@ -129,7 +159,7 @@ public class ModelPartMixin implements ModelPartData {
     }
 
     @Override
-    public ModelPart[] getChildren() {
+    public ModelPartData[] getChildren() {
         return this.sodium$children;
     }
 }
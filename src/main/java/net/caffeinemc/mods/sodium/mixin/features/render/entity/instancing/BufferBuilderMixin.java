@@ -0,0 +1,23 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.entity.instancing;
+
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import net.caffeinemc.mods.sodium.client.render.vertex.buffer.BufferBuilderRenderTypeExtension;
+import net.minecraft.client.renderer.RenderType;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+@Mixin(BufferBuilder.class)
+public class BufferBuilderMixin implements BufferBuilderRenderTypeExtension {
+    @Unique
+    private RenderType renderType;
+
+    @Override
+    public RenderType sodium$getRenderType() {
+        return this.renderType;
+    }
+
+    @Override
+    public void sodium$setRenderType(RenderType renderType) {
+        this.renderType = renderType;
+    }
+}
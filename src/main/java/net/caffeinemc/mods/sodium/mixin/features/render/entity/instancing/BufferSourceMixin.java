@@ -0,0 +1,39 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.entity.instancing;
+
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.caffeinemc.mods.sodium.client.render.immediate.model.ModelInstanceRenderer;
+import net.caffeinemc.mods.sodium.client.render.vertex.buffer.BufferBuilderRenderTypeExtension;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(MultiBufferSource.BufferSource.class)
+public abstract class BufferSourceMixin {
+    @Shadow
+    protected abstract BufferBuilder getBuilderRaw(RenderType renderType);
+
+    @Inject(method = "getBuffer", at = @At("RETURN"))
+    private void onGetBuffer(RenderType renderType, CallbackInfoReturnable<VertexConsumer> cir) {
+        ((BufferBuilderRenderTypeExtension) this.getBuilderRaw(renderType)).sodium$setRenderType(renderType);
+    }
+
+    @Inject(method = "endBatch(Lnet/minecraft/client/renderer/RenderType;)V", at = @At("HEAD"))
+    private void onEndBatch(RenderType renderType, CallbackInfo ci) {
+        // The instanced models are drawn before the vertices in the buffer, which is fine for the opaque render
+        // types that instancing is limited to.
+        ModelInstanceRenderer.flush(renderType);
+
+        var builder = (BufferBuilderRenderTypeExtension) this.getBuilderRaw(renderType);
+
+        // the shared buffer may already be collecting vertices for another render type
+        if (builder.sodium$getRenderType() == renderType) {
+            builder.sodium$setRenderType(null);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.entity.instancing;
+
+import net.minecraft.client.renderer.RenderStateShard;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(RenderStateShard.class)
+public interface RenderStateShardAccessor {
+    @Accessor
+    String getName();
+}
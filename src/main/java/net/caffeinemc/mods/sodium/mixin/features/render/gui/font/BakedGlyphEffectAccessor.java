@@ -0,0 +1,35 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.gui.font;
+
+import net.minecraft.client.gui.font.glyphs.BakedGlyph;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(BakedGlyph.Effect.class)
+public interface BakedGlyphEffectAccessor {
+    @Accessor("x0")
+    float getX0();
+
+    @Accessor("y0")
+    float getY0();
+
+    @Accessor("x1")
+    float getX1();
+
+    @Accessor("y1")
+    float getY1();
+
+    @Accessor("depth")
+    float getDepth();
+
+    @Accessor("r")
+    float getRed();
+
+    @Accessor("g")
+    float getGreen();
+
+    @Accessor("b")
+    float getBlue();
+
+    @Accessor("a")
+    float getAlpha();
+}
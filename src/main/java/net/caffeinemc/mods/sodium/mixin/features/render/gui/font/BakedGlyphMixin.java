@@ -1,9 +1,13 @@
 package net.caffeinemc.mods.sodium.mixin.features.render.gui.font;
 
 import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.caffeinemc.mods.sodium.client.render.immediate.text.TextMesh;
+import net.caffeinemc.mods.sodium.client.render.immediate.text.TextMeshCache;
 import net.caffeinemc.mods.sodium.client.render.vertex.VertexConsumerUtils;
 import net.caffeinemc.mods.sodium.api.vertex.format.common.GlyphVertex;
+import net.minecraft.client.gui.Font;
 import net.minecraft.client.gui.font.glyphs.BakedGlyph;
+import net.minecraft.client.renderer.RenderType;
 import net.caffeinemc.mods.sodium.api.util.ColorABGR;
 import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
 import org.joml.Matrix4f;
@@ -14,7 +18,7 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 @Mixin(BakedGlyph.class)
-public class BakedGlyphMixin {
+public abstract class BakedGlyphMixin {
     @Shadow
     @Final
     private float left;
@@ -47,12 +51,24 @@ public class BakedGlyphMixin {
     @Final
     private float u1;
 
+    @Shadow
+    public abstract RenderType renderType(Font.DisplayMode displayMode);
+
     /**
      * @reason Use intrinsics
      * @author JellySquid
      */
     @Inject(method = "render", at = @At("HEAD"), cancellable = true)
     private void drawFast(boolean italic, float x, float y, Matrix4f matrix, VertexConsumer vertexConsumer, float red, float green, float blue, float alpha, int light, CallbackInfo ci) {
+        TextMesh.Builder recorder = TextMeshCache.getRecorder();
+
+        if (recorder != null) {
+            ci.cancel();
+
+            this.record(recorder, italic, x, y, ColorABGR.pack(red, green, blue, alpha));
+            return;
+        }
+
         var writer = VertexConsumerUtils.convertOrLog(vertexConsumer);
 
         if (writer == null) {
@@ -90,6 +106,52 @@ public class BakedGlyphMixin {
         }
     }
 
+    @Inject(method = "renderEffect", at = @At("HEAD"), cancellable = true)
+    private void recordEffect(BakedGlyph.Effect effect, Matrix4f matrix, VertexConsumer vertexConsumer, int light, CallbackInfo ci) {
+        TextMesh.Builder recorder = TextMeshCache.getRecorder();
+
+        if (recorder == null) {
+            return;
+        }
+
+        ci.cancel();
+
+        var data = (BakedGlyphEffectAccessor) effect;
+
+        float x0 = data.getX0();
+        float y0 = data.getY0();
+        float x1 = data.getX1();
+        float y1 = data.getY1();
+        float depth = data.getDepth();
+
+        int color = ColorABGR.pack(data.getRed(), data.getGreen(), data.getBlue(), data.getAlpha());
+
+        recorder.beginQuad(this.renderType(TextMeshCache.getRecorderDisplayMode()));
+        recorder.addVertex(x0, y0, depth, color, this.u0, this.v0);
+        recorder.addVertex(x1, y0, depth, color, this.u0, this.v1);
+        recorder.addVertex(x1, y1, depth, color, this.u1, this.v1);
+        recorder.addVertex(x0, y1, depth, color, this.u1, this.v0);
+    }
+
+    /**
+     * Adds the quad of this glyph to the text which is being recorded, using the same layout as {@link #drawFast}.
+     */
+    @Unique
+    private void record(TextMesh.Builder recorder, boolean italic, float x, float y, int color) {
+        float x1 = x + this.left;
+        float x2 = x + this.right;
+        float h1 = y + this.up;
+        float h2 = y + this.down;
+        float w1 = italic ? 1.0F - 0.25F * this.up : 0.0F;
+        float w2 = italic ? 1.0F - 0.25F * this.down : 0.0F;
+
+        recorder.beginQuad(this.renderType(TextMeshCache.getRecorderDisplayMode()));
+        recorder.addVertex(x1 + w1, h1, 0.0F, color, this.u0, this.v0);
+        recorder.addVertex(x1 + w2, h2, 0.0F, color, this.u0, this.v1);
+        recorder.addVertex(x2 + w2, h2, 0.0F, color, this.u1, this.v1);
+        recorder.addVertex(x2 + w1, h1, 0.0F, color, this.u1, this.v0);
+    }
+
     @Unique
     private static void write(long buffer,
                               Matrix4f matrix, float x, float y, float z, int color, float u, float v, int light) {
@@ -0,0 +1,77 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.gui.font;
+
+import net.caffeinemc.mods.sodium.client.render.immediate.text.TextMesh;
+import net.caffeinemc.mods.sodium.client.render.immediate.text.TextMeshCache;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.util.FormattedCharSequence;
+import org.joml.Matrix4f;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(Font.class)
+public abstract class FontMixin {
+    @Shadow
+    protected abstract float renderText(String text, float x, float y, int color, boolean shadow, Matrix4f matrix, MultiBufferSource bufferSource, Font.DisplayMode displayMode, int backgroundColor, int light);
+
+    @Shadow
+    protected abstract float renderText(FormattedCharSequence text, float x, float y, int color, boolean shadow, Matrix4f matrix, MultiBufferSource bufferSource, Font.DisplayMode displayMode, int backgroundColor, int light);
+
+    @Inject(method = "renderText(Ljava/lang/String;FFIZLorg/joml/Matrix4f;Lnet/minecraft/client/renderer/MultiBufferSource;Lnet/minecraft/client/gui/Font$DisplayMode;II)F", at = @At("HEAD"), cancellable = true)
+    private void renderStringCached(String text, float x, float y, int color, boolean shadow, Matrix4f matrix, MultiBufferSource bufferSource, Font.DisplayMode displayMode, int backgroundColor, int light, CallbackInfoReturnable<Float> cir) {
+        this.renderCached(text, x, y, color, shadow, matrix, bufferSource, displayMode, backgroundColor, light, cir);
+    }
+
+    @Inject(method = "renderText(Lnet/minecraft/util/FormattedCharSequence;FFIZLorg/joml/Matrix4f;Lnet/minecraft/client/renderer/MultiBufferSource;Lnet/minecraft/client/gui/Font$DisplayMode;II)F", at = @At("HEAD"), cancellable = true)
+    private void renderSequenceCached(FormattedCharSequence text, float x, float y, int color, boolean shadow, Matrix4f matrix, MultiBufferSource bufferSource, Font.DisplayMode displayMode, int backgroundColor, int light, CallbackInfoReturnable<Float> cir) {
+        this.renderCached(text, x, y, color, shadow, matrix, bufferSource, displayMode, backgroundColor, light, cir);
+    }
+
+    @Unique
+    private void renderCached(Object text, float x, float y, int color, boolean shadow, Matrix4f matrix, MultiBufferSource bufferSource, Font.DisplayMode displayMode, int backgroundColor, int light, CallbackInfoReturnable<Float> cir) {
+        if (!TextMeshCache.isEnabled()) {
+            return;
+        }
+
+        var cache = TextMeshCache.getInstance();
+        var entry = cache.lookup(new TextMeshCache.Key((Font) (Object) this, text, color, shadow, displayMode, backgroundColor));
+
+        if (entry == null || !entry.isCacheable()) {
+            return;
+        }
+
+        TextMesh mesh = entry.getMesh();
+
+        if (mesh == null) {
+            if (TextMeshCache.isObfuscated(text)) {
+                entry.markUncacheable();
+                return;
+            }
+
+            // lay out the text with the vanilla code, which adds its glyphs to the mesh instead of drawing them
+            TextMesh.Builder builder = TextMeshCache.beginRecording(x, y, displayMode);
+
+            try {
+                float endX;
+
+                if (text instanceof String string) {
+                    endX = this.renderText(string, x, y, color, shadow, matrix, bufferSource, displayMode, backgroundColor, light);
+                } else {
+                    endX = this.renderText((FormattedCharSequence) text, x, y, color, shadow, matrix, bufferSource, displayMode, backgroundColor, light);
+                }
+
+                mesh = builder.build(endX);
+            } finally {
+                TextMeshCache.endRecording();
+            }
+
+            cache.store(entry, mesh);
+        }
+
+        cir.setReturnValue(TextMeshCache.draw(mesh, x, y, matrix, bufferSource, light));
+    }
+}
@@ -0,0 +1,18 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.gui.font;
+
+import net.caffeinemc.mods.sodium.client.render.immediate.text.TextMeshCache;
+import net.minecraft.client.gui.font.FontSet;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(FontSet.class)
+public class FontSetMixin {
+    // The cached text meshes refer to the glyphs of the previous font textures, which are released by the reload
+    @Inject(method = "reload", at = @At("HEAD"))
+    private void onReload(CallbackInfo ci) {
+        TextMeshCache.getInstance()
+                .clear();
+    }
+}
@@ -1,6 +1,7 @@
 
 package net.caffeinemc.mods.sodium.mixin.features.render.immediate.buffer_builder.sorting;
 
+import net.caffeinemc.mods.sodium.client.util.sorting.VertexSorters;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3f;
 import org.lwjgl.system.MemoryUtil;
@@ -8,6 +9,9 @@ import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import com.mojang.blaze3d.vertex.BufferBuilder;
 import com.mojang.blaze3d.vertex.VertexFormat;
 import com.mojang.blaze3d.vertex.VertexSorting;
@@ -38,16 +42,42 @@ public abstract class BufferBuilderMixin {
     @Nullable
     private VertexSorting sorting;
 
+    /**
+     * Returned in place of the sorting points when the quad centers have been written into the sort buffers instead,
+     * which avoids allocating a vector for every quad. The real sorting points are only created if they are needed,
+     * which is only the case when the sort state is saved or an unknown vertex sorting is used.
+     */
+    @Unique
+    private static final Vector3f[] PENDING_SORTING_POINTS = new Vector3f[0];
+
+    @Unique
+    private VertexSorters.SortBuffers sortBuffers;
+
+    @Unique
+    private int sortingQuadCount;
+
     /**
      * @author JellySquid
-     * @reason Avoid slow memory accesses
+     * @reason Avoid slow memory accesses and per-quad allocations
      */
     @Overwrite
     private Vector3f[] makeQuadSortingPoints() {
-        int vertexStride = this.format.getVertexSize();
         int primitiveCount = this.vertices / 4;
 
-        Vector3f[] centers = new Vector3f[primitiveCount];
+        if (this.sortBuffers == null) {
+            this.sortBuffers = new VertexSorters.SortBuffers();
+        }
+
+        this.sortBuffers.ensureCapacity(primitiveCount);
+        this.writeQuadCenters(this.sortBuffers.getCenters(), primitiveCount);
+        this.sortingQuadCount = primitiveCount;
+
+        return PENDING_SORTING_POINTS;
+    }
+
+    @Unique
+    private void writeQuadCenters(float[] centers, int primitiveCount) {
+        int vertexStride = this.format.getVertexSize();
 
         for (int index = 0; index < primitiveCount; ++index) {
             long v1 = MemoryUtil.memAddress(this.buffer, this.renderedBufferPointer + (((index * 4) + 0) * vertexStride));
@@ -61,10 +91,34 @@ public abstract class BufferBuilderMixin {
             float y2 = MemoryUtil.memGetFloat(v2 + 4);
             float z2 = MemoryUtil.memGetFloat(v2 + 8);
 
-            centers[index] = new Vector3f((x1 + x2) * 0.5F, (y1 + y2) * 0.5F, (z1 + z2) * 0.5F);
+            int offset = index * 3;
+            centers[offset + 0] = (x1 + x2) * 0.5F;
+            centers[offset + 1] = (y1 + y2) * 0.5F;
+            centers[offset + 2] = (z1 + z2) * 0.5F;
+        }
+    }
+
+    @Unique
+    private void materializeSortingPoints() {
+        if (this.sortingPoints != PENDING_SORTING_POINTS) {
+            return;
+        }
+
+        float[] centers = this.sortBuffers.getCenters();
+        Vector3f[] points = new Vector3f[this.sortingQuadCount];
+
+        for (int index = 0; index < points.length; index++) {
+            int offset = index * 3;
+            points[index] = new Vector3f(centers[offset + 0], centers[offset + 1], centers[offset + 2]);
         }
 
-        return centers;
+        this.sortingPoints = points;
+    }
+
+    @Inject(method = "getSortState", at = @At("HEAD"))
+    private void beforeGetSortState(CallbackInfoReturnable<BufferBuilder.SortState> cir) {
+        // the sort state is kept by the caller, so it needs its own copy of the sorting points
+        this.materializeSortingPoints();
     }
 
     /**
@@ -73,9 +127,18 @@ public abstract class BufferBuilderMixin {
      */
     @Overwrite
     private void putSortedQuadIndices(VertexFormat.IndexType indexType) {
-        if (this.sorting != null) {
+        if (this.sorting == null) {
+            return;
+        }
+
+        if (this.sortingPoints == PENDING_SORTING_POINTS && this.sorting instanceof VertexSorters.AbstractVertexSorter sorter) {
+            int[] indices = sorter.sortQuadCenters(this.sortBuffers, this.sortingQuadCount);
+            this.writePrimitiveIndices(indexType, indices, this.sortingQuadCount);
+        } else {
+            this.materializeSortingPoints();
+
             int[] indices = this.sorting.sort(this.sortingPoints);
-            this.writePrimitiveIndices(indexType, indices);
+            this.writePrimitiveIndices(indexType, indices, indices.length);
         }
     }
 
@@ -83,13 +146,13 @@ public abstract class BufferBuilderMixin {
     private static final int[] VERTEX_ORDER = new int[] { 0, 1, 2, 2, 3, 0 };
 
     @Unique
-    private void writePrimitiveIndices(VertexFormat.IndexType indexType, int[] indices) {
+    private void writePrimitiveIndices(VertexFormat.IndexType indexType, int[] indices, int count) {
         long ptr = MemoryUtil.memAddress(this.buffer, this.nextElementByte);
 
         switch (indexType.bytes) {
             case 2 -> { // SHORT
-                for (int index : indices) {
-                    int start = index * 4;
+                for (int i = 0; i < count; i++) {
+                    int start = indices[i] * 4;
 
                     for (int offset : VERTEX_ORDER) {
                         MemoryUtil.memPutShort(ptr, (short) (start + offset));
@@ -98,8 +161,8 @@ public abstract class BufferBuilderMixin {
                 }
             }
             case 4 -> { // INT
-                for (int index : indices) {
-                    int start = index * 4;
+                for (int i = 0; i < count; i++) {
+                    int start = indices[i] * 4;
 
                     for (int offset : VERTEX_ORDER) {
                         MemoryUtil.memPutInt(ptr, (start + offset));
@@ -0,0 +1,26 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.particle;
+
+import net.caffeinemc.mods.sodium.client.render.immediate.ParticleBatch;
+import net.minecraft.client.particle.ParticleEngine;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ParticleEngine.class)
+public class ParticleEngineMixin {
+    @Inject(method = "render", at = @At("HEAD"))
+    private void beginParticleBatch(CallbackInfo ci) {
+        ParticleBatch.begin();
+    }
+
+    @Inject(method = "render", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/particle/ParticleRenderType;end(Lcom/mojang/blaze3d/vertex/Tesselator;)V"))
+    private void flushParticleBatch(CallbackInfo ci) {
+        ParticleBatch.flush();
+    }
+
+    @Inject(method = "render", at = @At("RETURN"))
+    private void endParticleBatch(CallbackInfo ci) {
+        ParticleBatch.end();
+    }
+}
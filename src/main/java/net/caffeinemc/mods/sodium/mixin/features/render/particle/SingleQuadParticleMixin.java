@@ -4,6 +4,7 @@ import net.caffeinemc.mods.sodium.api.vertex.format.common.ParticleVertex;
 import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import net.caffeinemc.mods.sodium.api.util.ColorABGR;
+import net.caffeinemc.mods.sodium.client.render.immediate.ParticleBatch;
 import net.minecraft.client.Camera;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.particle.Particle;
@@ -15,7 +16,6 @@ import org.lwjgl.system.MemoryStack;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
-import org.spongepowered.asm.mixin.Unique;
 
 @Mixin(SingleQuadParticle.class)
 public abstract class SingleQuadParticleMixin extends Particle {
@@ -50,16 +50,7 @@ public abstract class SingleQuadParticleMixin extends Particle {
         float y = (float) (Mth.lerp(tickDelta, this.yo, this.y) - vec3d.y());
         float z = (float) (Mth.lerp(tickDelta, this.zo, this.z) - vec3d.z());
 
-        Quaternionf quaternion;
-
-        if (this.roll == 0.0F) {
-            quaternion = camera.rotation();
-        } else {
-            float angle = Mth.lerp(tickDelta, this.oRoll, this.roll);
-
-            quaternion = new Quaternionf(camera.rotation());
-            quaternion.rotateZ(angle);
-        }
+        float angle = this.roll == 0.0F ? 0.0F : Mth.lerp(tickDelta, this.oRoll, this.roll);
 
         float size = this.getQuadSize(tickDelta);
         int light = this.getLightColor(tickDelta);
@@ -71,67 +62,28 @@ public abstract class SingleQuadParticleMixin extends Particle {
 
         int color = ColorABGR.pack(this.rCol , this.gCol, this.bCol, this.alpha);
 
-        var writer = VertexBufferWriter.of(vertexConsumer);
+        if (ParticleBatch.isBatching()) {
+            ParticleBatch.add(vertexConsumer, camera.rotation(), x, y, z, size, angle, minU, maxU, minV, maxV, color, light);
+            return;
+        }
 
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            long buffer = stack.nmalloc(4 * ParticleVertex.STRIDE);
-            long ptr = buffer;
+        Quaternionf quaternion;
 
-            writeVertex(ptr, quaternion,-1.0F, -1.0F, x, y, z, maxU, maxV, color, light, size);
-            ptr += ParticleVertex.STRIDE;
+        if (angle == 0.0F) {
+            quaternion = camera.rotation();
+        } else {
+            quaternion = new Quaternionf(camera.rotation());
+            quaternion.rotateZ(angle);
+        }
 
-            writeVertex(ptr, quaternion,-1.0F, 1.0F, x, y, z, maxU, minV, color, light, size);
-            ptr += ParticleVertex.STRIDE;
+        var writer = VertexBufferWriter.of(vertexConsumer);
 
-            writeVertex(ptr, quaternion,1.0F, 1.0F, x, y, z, minU, minV, color, light, size);
-            ptr += ParticleVertex.STRIDE;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            long buffer = stack.nmalloc(4 * ParticleVertex.STRIDE);
 
-            writeVertex(ptr, quaternion,1.0F, -1.0F, x, y, z, minU, maxV, color, light, size);
-            ptr += ParticleVertex.STRIDE;
+            ParticleBatch.writeQuad(buffer, quaternion, x, y, z, size, minU, maxU, minV, maxV, color, light);
 
             writer.push(stack, buffer, 4, ParticleVertex.FORMAT);
         }
-
-    }
-
-    @Unique
-    @SuppressWarnings("UnnecessaryLocalVariable")
-    private static void writeVertex(long buffer,
-                                    Quaternionf rotation,
-                                    float posX, float posY,
-                                    float originX, float originY, float originZ,
-                                    float u, float v, int color, int light, float size) {
-        // Quaternion q0 = new Quaternion(rotation);
-        float q0x = rotation.x();
-        float q0y = rotation.y();
-        float q0z = rotation.z();
-        float q0w = rotation.w();
-
-        // q0.hamiltonProduct(x, y, 0.0f, 0.0f)
-        float q1x = (q0w * posX) - (q0z * posY);
-        float q1y = (q0w * posY) + (q0z * posX);
-        float q1w = (q0x * posY) - (q0y * posX);
-        float q1z = -(q0x * posX) - (q0y * posY);
-
-        // Quaternion q2 = new Quaternion(rotation);
-        // q2.conjugate()
-        float q2x = -q0x;
-        float q2y = -q0y;
-        float q2z = -q0z;
-        float q2w = q0w;
-
-        // q2.hamiltonProduct(q1)
-        float q3x = q1z * q2x + q1x * q2w + q1y * q2z - q1w * q2y;
-        float q3y = q1z * q2y - q1x * q2z + q1y * q2w + q1w * q2x;
-        float q3z = q1z * q2z + q1x * q2y - q1y * q2x + q1w * q2w;
-
-        // Vector3f f = new Vector3f(q2.getX(), q2.getY(), q2.getZ())
-        // f.multiply(size)
-        // f.add(pos)
-        float fx = (q3x * size) + originX;
-        float fy = (q3y * size) + originY;
-        float fz = (q3z * size) + originZ;
-
-        ParticleVertex.put(buffer, fx, fy, fz, u, v, color, light);
     }
 }
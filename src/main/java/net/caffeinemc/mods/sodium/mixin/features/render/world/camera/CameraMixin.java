@@ -0,0 +1,30 @@
+package net.caffeinemc.mods.sodium.mixin.features.render.world.camera;
+
+import net.caffeinemc.mods.sodium.client.metrics.benchmark.CameraPath;
+import net.caffeinemc.mods.sodium.client.metrics.benchmark.TerrainBenchmark;
+import net.minecraft.client.Camera;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Camera.class)
+public abstract class CameraMixin {
+    @Shadow
+    protected abstract void setPosition(double x, double y, double z);
+
+    @Shadow
+    protected abstract void setRotation(float yRot, float xRot);
+
+    @Inject(method = "setup", at = @At("RETURN"))
+    private void onSetup(CallbackInfo ci) {
+        CameraPath.Frame frame = TerrainBenchmark.onCameraSetup((Camera) (Object) this);
+
+        // a camera path is being replayed, so the camera follows it instead of the player
+        if (frame != null) {
+            this.setRotation(frame.yaw(), frame.pitch());
+            this.setPosition(frame.x(), frame.y(), frame.z());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.caffeinemc.mods.sodium.mixin.features.textures.animations.upload;
+
+import net.caffeinemc.mods.sodium.client.render.texture.SpriteInterpolationBatch;
+import net.minecraft.client.renderer.texture.TextureAtlas;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(TextureAtlas.class)
+public class TextureAtlasMixin {
+    @Inject(method = "cycleAnimationFrames", at = @At("HEAD"))
+    private void beginInterpolationBatch(CallbackInfo ci) {
+        SpriteInterpolationBatch.begin();
+    }
+
+    @Inject(method = "cycleAnimationFrames", at = @At("RETURN"))
+    private void endInterpolationBatch(CallbackInfo ci) {
+        SpriteInterpolationBatch.end();
+    }
+}
@@ -0,0 +1,57 @@
+package net.caffeinemc.mods.sodium.api.math;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixHelperTest {
+    @Test
+    void rotationsMatchQuaternionRotation() {
+        var random = new Random(1337L);
+
+        for (int iteration = 0; iteration < 1000; iteration++) {
+            float angleX = random.nextFloat() * 6.0f - 3.0f;
+            float angleY = random.nextFloat() * 6.0f - 3.0f;
+            float angleZ = random.nextFloat() * 6.0f - 3.0f;
+
+            // rotations around a single axis take a different path than rotations around multiple axes
+            switch (iteration % 4) {
+                case 0 -> { angleY = 0.0f; angleZ = 0.0f; }
+                case 1 -> { angleX = 0.0f; angleZ = 0.0f; }
+                case 2 -> { angleX = 0.0f; angleY = 0.0f; }
+                default -> { }
+            }
+
+            var base = createPose(random);
+
+            var expected = copy(base);
+            var rotation = new Quaternionf().rotationZYX(angleZ, angleY, angleX);
+            expected.pose().rotate(rotation);
+            expected.normal().rotate(rotation);
+
+            var actual = copy(base);
+            MatrixHelper.rotateZYX(actual, angleZ, angleY, angleX);
+
+            assertTrue(expected.pose().equals(actual.pose(), 1.0e-5f), "Pose matrix differs in iteration " + iteration);
+            assertTrue(expected.normal().equals(actual.normal(), 1.0e-5f), "Normal matrix differs in iteration " + iteration);
+        }
+    }
+
+    private static PoseStack.Pose createPose(Random random) {
+        var poseStack = new PoseStack();
+        poseStack.translate(random.nextFloat(), random.nextFloat(), random.nextFloat());
+        poseStack.mulPose(new Quaternionf().rotationXYZ(random.nextFloat(), random.nextFloat(), random.nextFloat()));
+
+        return poseStack.last();
+    }
+
+    private static PoseStack.Pose copy(PoseStack.Pose pose) {
+        return new PoseStack.Pose(new Matrix4f(pose.pose()), new Matrix3f(pose.normal()));
+    }
+}
@@ -0,0 +1,198 @@
+package net.caffeinemc.mods.sodium.client.gl.arena;
+
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.FallbackStagingBuffer;
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.StagingBuffer;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessRenderDevice;
+import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlBufferArenaTest {
+    private static final int STRIDE = 4;
+
+    private HeadlessRenderDevice device;
+    private CommandList commandList;
+    private StagingBuffer stagingBuffer;
+
+    @BeforeEach
+    void setUp() {
+        this.device = new HeadlessRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+        this.stagingBuffer = new MappedStagingBuffer(this.commandList, 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.stagingBuffer.delete(this.commandList);
+        this.device.makeInactive();
+    }
+
+    @Test
+    void uploadsAreCopiedIntoDisjointSegments() {
+        var arena = new GlBufferArena(this.commandList, 64, STRIDE, this.stagingBuffer);
+
+        var a = createUpload(8, 1);
+        var b = createUpload(16, 2);
+
+        assertFalse(arena.upload(this.commandList, Stream.of(a, b)), "Arena should not have been resized");
+
+        assertSegmentsDisjoint(List.of(a.getResult(), b.getResult()));
+        assertEquals(24 * STRIDE, arena.getDeviceUsedMemory());
+
+        this.assertContents(arena, a.getResult(), 1);
+        this.assertContents(arena, b.getResult(), 2);
+
+        freeUploads(a, b);
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void resizePreservesExistingContents() {
+        var arena = new GlBufferArena(this.commandList, 32, STRIDE, this.stagingBuffer);
+
+        var a = createUpload(24, 1);
+        assertFalse(arena.upload(this.commandList, Stream.of(a)));
+
+        var b = createUpload(24, 2);
+        assertTrue(arena.upload(this.commandList, Stream.of(b)), "Arena should have been resized");
+
+        assertTrue(arena.getDeviceAllocatedMemory() >= 48 * STRIDE);
+        assertSegmentsDisjoint(List.of(a.getResult(), b.getResult()));
+
+        this.assertContents(arena, a.getResult(), 1);
+        this.assertContents(arena, b.getResult(), 2);
+
+        freeUploads(a, b);
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void resizeCompactsFreeSpace() {
+        var arena = new GlBufferArena(this.commandList, 32, STRIDE, this.stagingBuffer);
+
+        var a = createUpload(8, 1);
+        var b = createUpload(8, 2);
+        var c = createUpload(8, 3);
+        arena.upload(this.commandList, Stream.of(a, b, c));
+
+        arena.free(b.getResult());
+
+        // the free space in the middle is too small for the upload, which forces a compaction
+        var d = createUpload(16, 4);
+        assertTrue(arena.upload(this.commandList, Stream.of(d)));
+
+        assertSegmentsDisjoint(List.of(a.getResult(), c.getResult(), d.getResult()));
+
+        this.assertContents(arena, a.getResult(), 1);
+        this.assertContents(arena, c.getResult(), 3);
+        this.assertContents(arena, d.getResult(), 4);
+
+        freeUploads(a, b, c, d);
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void freedSegmentsAreMergedAndReused() {
+        var arena = new GlBufferArena(this.commandList, 32, STRIDE, this.stagingBuffer);
+
+        var a = createUpload(8, 1);
+        var b = createUpload(8, 2);
+        var c = createUpload(16, 3);
+        arena.upload(this.commandList, Stream.of(a, b, c));
+
+        arena.free(a.getResult());
+        arena.free(b.getResult());
+
+        assertThrows(IllegalStateException.class, () -> arena.free(a.getResult()));
+
+        // both freed segments must have been merged, or this upload would not fit without a resize
+        var d = createUpload(16, 4);
+        assertFalse(arena.upload(this.commandList, Stream.of(d)));
+        assertEquals(32 * STRIDE, arena.getDeviceUsedMemory());
+
+        this.assertContents(arena, c.getResult(), 3);
+        this.assertContents(arena, d.getResult(), 4);
+
+        arena.free(c.getResult());
+        arena.free(d.getResult());
+        assertTrue(arena.isEmpty());
+
+        freeUploads(a, b, c, d);
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void rangeUploadsOverwriteSegment() {
+        var arena = new GlBufferArena(this.commandList, 32, STRIDE, new FallbackStagingBuffer(this.commandList));
+
+        var a = createUpload(8, 1);
+        arena.upload(this.commandList, Stream.of(a));
+
+        ByteBuffer data = ByteBuffer.allocateDirect(2 * STRIDE);
+        data.putInt(0, 9).putInt(STRIDE, 9);
+
+        arena.uploadRange(this.commandList, a.getResult(), 3, data);
+        arena.flushUploads(this.commandList);
+
+        ByteBuffer contents = this.device.getContents(arena.getBufferObject());
+        int base = a.getResult().getOffset() * STRIDE;
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i == 3 || i == 4 ? 9 : 1, contents.getInt(base + (i * STRIDE)), "Element " + i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> arena.uploadRange(this.commandList, a.getResult(), 7, data));
+
+        freeUploads(a);
+        arena.delete(this.commandList);
+    }
+
+    private void assertContents(GlBufferArena arena, GlBufferSegment segment, int value) {
+        ByteBuffer contents = this.device.getContents(arena.getBufferObject());
+
+        for (int i = segment.getOffset(); i < segment.getEnd(); i++) {
+            assertEquals(value, contents.getInt(i * STRIDE), "Element " + i);
+        }
+    }
+
+    private static void assertSegmentsDisjoint(List<GlBufferSegment> segments) {
+        for (int i = 0; i < segments.size(); i++) {
+            for (int j = i + 1; j < segments.size(); j++) {
+                var a = segments.get(i);
+                var b = segments.get(j);
+
+                assertTrue(a.getEnd() <= b.getOffset() || b.getEnd() <= a.getOffset(),
+                        "Segments [%s, %s) and [%s, %s) overlap".formatted(a.getOffset(), a.getEnd(), b.getOffset(), b.getEnd()));
+            }
+        }
+    }
+
+    private static PendingUpload createUpload(int elements, int value) {
+        NativeBuffer buffer = new NativeBuffer(elements * STRIDE);
+        ByteBuffer data = buffer.getDirectBuffer();
+
+        for (int i = 0; i < elements; i++) {
+            data.putInt(i * STRIDE, value);
+        }
+
+        return new PendingUpload(buffer);
+    }
+
+    private static void freeUploads(PendingUpload... uploads) {
+        for (PendingUpload upload : uploads) {
+            upload.getDataBuffer()
+                    .free();
+        }
+    }
+}
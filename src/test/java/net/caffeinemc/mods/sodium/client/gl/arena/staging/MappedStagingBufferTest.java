@@ -0,0 +1,166 @@
+package net.caffeinemc.mods.sodium.client.gl.arena.staging;
+
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferUsage;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlMutableBuffer;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessRenderDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedStagingBufferTest {
+    private static final int CAPACITY = 64;
+
+    private HeadlessRenderDevice device;
+    private CommandList commandList;
+
+    private GlMutableBuffer target;
+
+    @BeforeEach
+    void setUp() {
+        this.device = new HeadlessRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+
+        this.target = this.commandList.createMutableBuffer();
+        this.commandList.allocateStorage(this.target, 256, GlBufferUsage.STATIC_DRAW);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.commandList.deleteBuffer(this.target);
+        this.device.makeInactive();
+    }
+
+    @Test
+    void isSupportedOnlyWithBufferStorage() {
+        assertTrue(MappedStagingBuffer.isSupported(this.device));
+        assertFalse(MappedStagingBuffer.isSupported(new HeadlessRenderDevice(false)));
+    }
+
+    @Test
+    void copiesArriveAfterFlush() {
+        var staging = new MappedStagingBuffer(this.commandList, CAPACITY);
+
+        staging.enqueueCopy(this.commandList, createData(16, 1), this.target, 0);
+        staging.enqueueCopy(this.commandList, createData(16, 2), this.target, 16);
+        staging.enqueueCopy(this.commandList, createData(8, 3), this.target, 100);
+        staging.flush(this.commandList);
+
+        this.assertContents(0, 16, 1);
+        this.assertContents(16, 16, 2);
+        this.assertContents(100, 8, 3);
+
+        assertEquals(CAPACITY - 40, staging.getRemainingCapacity());
+        assertEquals(1, this.device.getPendingFenceCount(), "Each flush should be fenced once");
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void memoryIsOnlyReclaimedOnceFenceCompletes() {
+        var staging = new MappedStagingBuffer(this.commandList, CAPACITY);
+
+        staging.enqueueCopy(this.commandList, createData(48, 1), this.target, 0);
+        staging.flush(this.commandList);
+
+        // the device may still be reading from the staging buffer
+        staging.flip();
+        assertEquals(CAPACITY - 48, staging.getRemainingCapacity());
+
+        this.device.signalFences();
+
+        staging.flip();
+        assertEquals(CAPACITY, staging.getRemainingCapacity());
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void copiesWrapAroundEndOfBuffer() {
+        var staging = new MappedStagingBuffer(this.commandList, CAPACITY);
+
+        staging.enqueueCopy(this.commandList, createData(48, 1), this.target, 0);
+        staging.flush(this.commandList);
+
+        this.device.signalFences();
+        staging.flip();
+
+        // only 16 bytes are left at the end of the buffer, so this copy has to be split
+        staging.enqueueCopy(this.commandList, createSequence(32), this.target, 128);
+        staging.flush(this.commandList);
+
+        ByteBuffer contents = this.device.getContents(this.target);
+
+        for (int i = 0; i < 32; i++) {
+            assertEquals((byte) i, contents.get(128 + i), "Byte " + i);
+        }
+
+        assertEquals(CAPACITY - 32, staging.getRemainingCapacity());
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void fallsBackWhenFull() {
+        var staging = new MappedStagingBuffer(this.commandList, CAPACITY);
+
+        staging.enqueueCopy(this.commandList, createData(48, 1), this.target, 0);
+        staging.enqueueCopy(this.commandList, createData(32, 2), this.target, 64);
+        staging.flush(this.commandList);
+
+        this.assertContents(0, 48, 1);
+        this.assertContents(64, 32, 2);
+
+        // the second copy did not use any of the mapped memory
+        assertEquals(CAPACITY - 48, staging.getRemainingCapacity());
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void fallbackCopiesImmediately() {
+        var staging = new FallbackStagingBuffer(this.commandList);
+
+        staging.enqueueCopy(this.commandList, createData(32, 5), this.target, 8);
+        this.assertContents(8, 32, 5);
+
+        staging.flush(this.commandList);
+        staging.delete(this.commandList);
+
+        assertEquals(1, this.device.getBufferCount(), "Only the target buffer should remain");
+    }
+
+    private void assertContents(int offset, int length, int value) {
+        ByteBuffer contents = this.device.getContents(this.target);
+
+        for (int i = offset; i < offset + length; i++) {
+            assertEquals((byte) value, contents.get(i), "Byte " + i);
+        }
+    }
+
+    private static ByteBuffer createData(int length, int value) {
+        ByteBuffer data = ByteBuffer.allocateDirect(length);
+
+        for (int i = 0; i < length; i++) {
+            data.put(i, (byte) value);
+        }
+
+        return data;
+    }
+
+    private static ByteBuffer createSequence(int length) {
+        ByteBuffer data = ByteBuffer.allocateDirect(length);
+
+        for (int i = 0; i < length; i++) {
+            data.put(i, (byte) i);
+        }
+
+        return data;
+    }
+}
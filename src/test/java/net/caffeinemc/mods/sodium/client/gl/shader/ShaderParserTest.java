@@ -0,0 +1,54 @@
+package net.caffeinemc.mods.sodium.client.gl.shader;
+
+import net.minecraft.resources.ResourceLocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShaderParserTest {
+    @Test
+    void sourcesAreOnlyParsedOnce() {
+        String source = "#version 330 core\nvoid main() {\n}\n";
+
+        List<String> first = ShaderParser.parseShader(source);
+        List<String> second = ShaderParser.parseShader(new String(source.toCharArray()));
+
+        // sources are keyed by their contents, not by their identity
+        assertSame(first, second);
+        assertEquals(List.of("#version 330 core", "void main() {", "}"), first);
+        assertThrows(UnsupportedOperationException.class, () -> first.add("// modified"));
+    }
+
+    @Test
+    void definesAreInsertedAfterVersion() {
+        var builder = ShaderConstants.builder();
+        builder.add("USE_FOG");
+
+        String processed = ShaderParser.parseShader("#version 330 core\nvoid main() {}", builder.build());
+
+        assertEquals("#version 330 core\n#define USE_FOG\nvoid main() {}", processed);
+
+        // the memoized lines are not modified by inserting the defines
+        assertEquals(List.of("#version 330 core", "void main() {}"), ShaderParser.parseShader("#version 330 core\nvoid main() {}"));
+    }
+
+    @Test
+    void importsAreResolvedOnce() {
+        var name = new ResourceLocation("sodium", "blocks/block_layer_opaque.vsh");
+        String source = ShaderLoader.getShaderSource(name);
+
+        assertSame(source, ShaderLoader.getShaderSource(name));
+
+        List<String> lines = ShaderParser.parseShader(source);
+        assertTrue(lines.stream().noneMatch(line -> line.startsWith("#import")), "Imports were not resolved");
+
+        // the imported source is parsed into the same lines which are included in the importing source
+        List<String> fog = ShaderParser.parseShader(ShaderLoader.getShaderSource(new ResourceLocation("sodium", "include/fog.glsl")));
+        assertEquals(fog, lines.subList(2, 2 + fog.size()));
+
+        assertEquals(ShaderLoader.getProcessedSource(name, ShaderConstants.builder().build()),
+                String.join("\n", lines));
+    }
+}
@@ -0,0 +1,97 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileProgramBinaryCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void storedBinariesAreLoaded() {
+        var cache = new FileProgramBinaryCache(this.directory);
+        var binary = new ProgramBinary(0x1234, new byte[] { 1, 2, 3, 4, 5 });
+
+        assertNull(cache.load("key"));
+
+        cache.store("key", binary);
+
+        var loaded = cache.load("key");
+        assertNotNull(loaded);
+        assertEquals(binary.format(), loaded.format());
+        assertArrayEquals(binary.data(), loaded.data());
+
+        cache.invalidate("key");
+        assertNull(cache.load("key"));
+    }
+
+    @Test
+    void filesWithUnknownLayoutAreIgnored() throws IOException {
+        var cache = new FileProgramBinaryCache(this.directory);
+        Files.write(this.directory.resolve("key.bin"), new byte[] { 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0 });
+
+        assertNull(cache.load("key"));
+
+        // a truncated file is ignored as well
+        Files.write(this.directory.resolve("key.bin"), new byte[] { 0x53, 0x50 });
+
+        assertNull(cache.load("key"));
+    }
+
+    @Test
+    void pruneDeletesOldAndTemporaryFiles() throws IOException {
+        var cache = new FileProgramBinaryCache(this.directory, 16, Duration.ofDays(30));
+
+        cache.store("recent", new ProgramBinary(1, new byte[] { 1 }));
+        cache.store("old", new ProgramBinary(1, new byte[] { 2 }));
+        cache.store("reused", new ProgramBinary(1, new byte[] { 3 }));
+        Files.write(this.directory.resolve("interrupted.bin.tmp"), new byte[] { 4 });
+
+        setLastUsed("old", Duration.ofDays(60));
+        setLastUsed("reused", Duration.ofDays(60));
+
+        // loading a binary marks it as used
+        assertNotNull(cache.load("reused"));
+
+        cache.prune();
+
+        assertTrue(Files.exists(this.directory.resolve("recent.bin")));
+        assertTrue(Files.exists(this.directory.resolve("reused.bin")));
+        assertFalse(Files.exists(this.directory.resolve("old.bin")));
+        assertFalse(Files.exists(this.directory.resolve("interrupted.bin.tmp")));
+    }
+
+    @Test
+    void pruneKeepsMostRecentlyUsedFiles() throws IOException {
+        var cache = new FileProgramBinaryCache(this.directory, 4, Duration.ofDays(30));
+
+        for (int i = 0; i < 10; i++) {
+            cache.store("key" + i, new ProgramBinary(1, new byte[] { (byte) i }));
+            setLastUsed("key" + i, Duration.ofMinutes(10 - i));
+        }
+
+        cache.prune();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i >= 6, cache.load("key" + i) != null, "Wrong binary kept: key" + i);
+        }
+    }
+
+    @Test
+    void pruneIgnoresMissingDirectory() {
+        new FileProgramBinaryCache(this.directory.resolve("missing")).prune();
+    }
+
+    private void setLastUsed(String key, Duration age) throws IOException {
+        Files.setLastModifiedTime(this.directory.resolve(key + ".bin"), FileTime.from(Instant.now().minus(age)));
+    }
+}
@@ -0,0 +1,78 @@
+package net.caffeinemc.mods.sodium.client.gl.shader.binary;
+
+import net.caffeinemc.mods.sodium.client.gl.shader.ShaderType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramBinaryKeyTest {
+    private static final String DRIVER = "Vendor\nRenderer\n4.6.0";
+
+    @Test
+    void keyIsDeterministicAndSafeAsFileName() {
+        String first = createKey(DRIVER, "void main() {}", "a_Position", 0);
+        String second = createKey(DRIVER, "void main() {}", "a_Position", 0);
+
+        assertEquals(first, second);
+        assertTrue(first.matches("[0-9a-f]{64}"), "Key is not a hexadecimal SHA-256 hash: " + first);
+    }
+
+    @Test
+    void keyChangesWithEveryInput() {
+        String key = createKey(DRIVER, "void main() {}", "a_Position", 0);
+
+        assertNotEquals(key, createKey("Vendor\nRenderer\n4.6.1", "void main() {}", "a_Position", 0));
+        assertNotEquals(key, createKey(DRIVER, "void main() { }", "a_Position", 0));
+        assertNotEquals(key, createKey(DRIVER, "void main() {}", "a_Color", 0));
+        assertNotEquals(key, createKey(DRIVER, "void main() {}", "a_Position", 1));
+
+        String fragment = new ProgramBinaryKey(DRIVER)
+                .addShader(ShaderType.FRAGMENT, "void main() {}")
+                .addBinding("attribute", "a_Position", 0)
+                .build();
+        assertNotEquals(key, fragment);
+    }
+
+    @Test
+    void keyDependsOnShaderOrder() {
+        String vertexFirst = new ProgramBinaryKey(DRIVER)
+                .addShader(ShaderType.VERTEX, "a")
+                .addShader(ShaderType.FRAGMENT, "b")
+                .build();
+        String fragmentFirst = new ProgramBinaryKey(DRIVER)
+                .addShader(ShaderType.FRAGMENT, "b")
+                .addShader(ShaderType.VERTEX, "a")
+                .build();
+
+        assertNotEquals(vertexFirst, fragmentFirst);
+    }
+
+    @Test
+    void boundariesBetweenValuesAreUnambiguous() {
+        // the same characters split differently between the sources must not produce the same key
+        String first = new ProgramBinaryKey(DRIVER)
+                .addShader(ShaderType.VERTEX, "ab")
+                .addShader(ShaderType.VERTEX, "c")
+                .build();
+        String second = new ProgramBinaryKey(DRIVER)
+                .addShader(ShaderType.VERTEX, "a")
+                .addShader(ShaderType.VERTEX, "bc")
+                .build();
+
+        assertNotEquals(first, second);
+
+        String driverSplit = new ProgramBinaryKey(DRIVER + "shader")
+                .build();
+        String driverOnly = new ProgramBinaryKey(DRIVER)
+                .build();
+
+        assertNotEquals(driverSplit, driverOnly);
+    }
+
+    private static String createKey(String driver, String source, String attribute, int index) {
+        return new ProgramBinaryKey(driver)
+                .addShader(ShaderType.VERTEX, source)
+                .addBinding("attribute", attribute, index)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package net.caffeinemc.mods.sodium.client.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that nothing is recorded while metrics are disabled, that flight recorder events span the timed stages, and
+ * measures the overhead which the instrumentation adds to every stage.
+ */
+class PipelineMetricsTest {
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        PipelineMetrics.setEnabled(false);
+        PipelineMetrics.reset();
+    }
+
+    @Test
+    void nothingIsRecordedWhileDisabled() {
+        PipelineMetrics.setEnabled(false);
+
+        assertNull(PipelineMetrics.begin());
+        PipelineMetrics.end(PipelineStage.MESH, null);
+
+        PipelineMetrics.record(PipelineStage.MESH, 1000L);
+        PipelineMetrics.increment(PipelineCounter.ARENA_RESIZES, 1);
+
+        assertEquals(0, PipelineMetrics.getTimings(PipelineStage.MESH).count());
+        assertEquals(0, PipelineMetrics.getCount(PipelineCounter.ARENA_RESIZES));
+    }
+
+    @Test
+    void stagesAreRecordedWhileEnabled() {
+        PipelineMetrics.setEnabled(true);
+
+        PipelineTimer timer = PipelineMetrics.begin();
+        assertNotNull(timer);
+        PipelineMetrics.end(PipelineStage.MESH, timer);
+
+        PipelineMetrics.record(PipelineStage.UPLOAD, 1000L);
+        PipelineMetrics.increment(PipelineCounter.ARENA_UPLOAD_BYTES, 4096);
+
+        assertEquals(1, PipelineMetrics.getTimings(PipelineStage.MESH).count());
+        assertEquals(1000L, PipelineMetrics.getTimings(PipelineStage.UPLOAD).totalNanos());
+        assertEquals(4096, PipelineMetrics.getCount(PipelineCounter.ARENA_UPLOAD_BYTES));
+
+        // a stage which finishes after metrics were disabled is not recorded
+        timer = PipelineMetrics.begin();
+        PipelineMetrics.setEnabled(false);
+        PipelineMetrics.end(PipelineStage.MESH, timer);
+
+        assertEquals(1, PipelineMetrics.getTimings(PipelineStage.MESH).count());
+    }
+
+    @Test
+    void flightRecorderEventsSpanStages() throws IOException, InterruptedException {
+        PipelineMetrics.setEnabled(true);
+
+        Path file = this.directory.resolve("metrics.jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable(PipelineStageEvent.class);
+            recording.start();
+
+            PipelineTimer timer = PipelineMetrics.begin();
+            Thread.sleep(5);
+            PipelineMetrics.end(PipelineStage.SORT, timer);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("sodium.PipelineStage"))
+                .toList();
+
+        assertEquals(1, events.size());
+        assertEquals(PipelineStage.SORT.getName(), events.get(0).getString("stage"));
+        assertTrue(events.get(0).getDuration().toMillis() >= 5, "Event does not span the stage");
+    }
+
+    @Benchmark
+    void benchmarkOverhead() {
+        int iterations = 10_000_000;
+
+        PipelineMetrics.setEnabled(false);
+        long disabledTime = BenchmarkReport.measure(5, 10, () -> runStages(iterations));
+
+        PipelineMetrics.setEnabled(true);
+        long enabledTime = BenchmarkReport.measure(5, 10, () -> runStages(iterations / 10));
+
+        new BenchmarkReport("pipeline_metrics")
+                .put("disabled_ns_per_stage", (double) disabledTime / iterations)
+                .put("enabled_ns_per_stage", (double) enabledTime / (iterations / 10))
+                .write();
+    }
+
+    private static void runStages(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            PipelineTimer timer = PipelineMetrics.begin();
+            PipelineMetrics.end(PipelineStage.MESH, timer);
+            PipelineMetrics.increment(PipelineCounter.ARENA_UPLOAD_BYTES, i);
+        }
+    }
+}
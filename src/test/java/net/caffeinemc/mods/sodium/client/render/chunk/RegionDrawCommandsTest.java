@@ -0,0 +1,196 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessRenderDevice;
+import net.caffeinemc.mods.sodium.client.gl.device.MultiDrawBatch;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlPrimitiveType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.TessellationBinding;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionRenderDataUnsafe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.Pointer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionDrawCommandsTest {
+    private HeadlessRenderDevice device;
+    private CommandList commandList;
+
+    private RegionDrawCommands commands;
+    private long pHeap;
+
+    @BeforeEach
+    void setUp() {
+        this.device = new HeadlessRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+        this.commands = new RegionDrawCommands(64);
+        this.pHeap = SectionRenderDataUnsafe.allocateHeap(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SectionRenderDataUnsafe.freeHeap(this.pHeap);
+        this.commands.delete();
+        this.device.makeInactive();
+    }
+
+    @Test
+    void nonIndexedSectionUsesSharedIndexBuffer() {
+        long pMeshData = this.createSection(0, 0, 100, new int[] { 6, 0, 12, 0, 0, 0, 0 });
+
+        this.commands.addSection(pMeshData, ModelQuadFacing.ALL);
+
+        // all facings are written, but only the masked ones are kept
+        MultiDrawBatch batch = this.commands.getBatch();
+        assertEquals(ModelQuadFacing.COUNT, batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(0L, getElementPointer(batch, i));
+        }
+
+        assertEquals(1, this.commands.getRunCount());
+        assertEquals(GlIndexType.UNSIGNED_INT, this.commands.getRunIndexType(0));
+    }
+
+    @Test
+    void maskSkipsFacings() {
+        int mask = (1 << ModelQuadFacing.POS_X.ordinal()) | (1 << ModelQuadFacing.NEG_Z.ordinal());
+        long pMeshData = this.createSection(0, 0, 100, new int[] { 6, 12, 18, 24, 30, 36, 42 });
+
+        this.commands.addSection(pMeshData, mask);
+
+        MultiDrawBatch batch = this.commands.getBatch();
+        assertEquals(2, batch.size());
+
+        assertEquals(6, getElementCount(batch, 0));
+        assertEquals(36, getElementCount(batch, 1));
+        assertEquals(100 + ModelQuadFacing.NEG_Z.ordinal(), getBaseVertex(batch, 1));
+    }
+
+    @Test
+    void indexedSectionsAdvanceElementPointer() {
+        int[] counts = { 6, 0, 12, 0, 0, 0, 0 };
+        int mask = (1 << ModelQuadFacing.POS_X.ordinal()) | (1 << ModelQuadFacing.POS_Z.ordinal());
+
+        int intBase = SectionRenderDataUnsafe.BASE_ELEMENT_MSB | 10;
+        int shortBase = SectionRenderDataUnsafe.BASE_ELEMENT_MSB | SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES | 20;
+
+        this.commands.addSection(this.createSection(0, intBase, 0, counts), mask);
+        this.commands.addSection(this.createSection(1, shortBase, 0, counts), mask);
+
+        MultiDrawBatch batch = this.commands.getBatch();
+        assertEquals(4, batch.size());
+
+        // 32-bit indices, starting at element 10 of the index buffer
+        assertEquals(10L * 4, getElementPointer(batch, 0));
+        assertEquals((10L * 4) + (6 * 4), getElementPointer(batch, 1));
+
+        // 16-bit indices, where the base element is still given in 32-bit elements
+        assertEquals(20L * 4, getElementPointer(batch, 2));
+        assertEquals((20L * 4) + (6 * 2), getElementPointer(batch, 3));
+    }
+
+    @Test
+    void runsFollowIndexTypeChanges() {
+        int[] counts = { 6, 0, 0, 0, 0, 0, 0 };
+        int mask = 1 << ModelQuadFacing.POS_X.ordinal();
+
+        int intBase = SectionRenderDataUnsafe.BASE_ELEMENT_MSB;
+        int shortBase = SectionRenderDataUnsafe.BASE_ELEMENT_MSB | SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES;
+
+        this.commands.addSection(this.createSection(0, intBase, 0, counts), mask);
+        this.commands.addSection(this.createSection(1, intBase | 2, 4, counts), mask);
+        this.commands.addSection(this.createSection(2, shortBase | 4, 8, counts), mask);
+        this.commands.addSection(this.createSection(3, intBase | 6, 12, counts), mask);
+
+        assertEquals(3, this.commands.getRunCount());
+
+        assertEquals(GlIndexType.UNSIGNED_INT, this.commands.getRunIndexType(0));
+        assertEquals(2, this.commands.getRunEnd(0));
+
+        assertEquals(GlIndexType.UNSIGNED_SHORT, this.commands.getRunIndexType(1));
+        assertEquals(3, this.commands.getRunEnd(1));
+
+        assertEquals(GlIndexType.UNSIGNED_INT, this.commands.getRunIndexType(2));
+        assertEquals(4, this.commands.getRunEnd(2));
+    }
+
+    @Test
+    void submitKeepsCommandOrder() {
+        int[] counts = { 6, 0, 0, 0, 0, 0, 0 };
+        int mask = 1 << ModelQuadFacing.POS_X.ordinal();
+
+        int intBase = SectionRenderDataUnsafe.BASE_ELEMENT_MSB;
+        int shortBase = SectionRenderDataUnsafe.BASE_ELEMENT_MSB | SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES;
+
+        this.commands.addSection(this.createSection(0, intBase, 0, counts), mask);
+        this.commands.addSection(this.createSection(1, shortBase | 2, 4, counts), mask);
+        this.commands.addSection(this.createSection(2, intBase | 4, 8, counts), mask);
+
+        GlTessellation tessellation = this.commandList.createTessellation(GlPrimitiveType.TRIANGLES, new TessellationBinding[0]);
+        this.commands.submit(this.commandList, tessellation);
+
+        var drawCalls = this.device.getDrawCalls();
+        assertEquals(3, drawCalls.size());
+
+        int[] expectedBaseVertices = { 0, 4, 8 };
+        GlIndexType[] expectedIndexTypes = { GlIndexType.UNSIGNED_INT, GlIndexType.UNSIGNED_SHORT, GlIndexType.UNSIGNED_INT };
+
+        for (int i = 0; i < drawCalls.size(); i++) {
+            var call = assertInstanceOf(HeadlessRenderDevice.MultiDrawElementsBaseVertex.class, drawCalls.get(i));
+
+            assertSame(tessellation, call.tessellation());
+            assertEquals(expectedIndexTypes[i], call.indexType());
+            assertArrayEquals(new int[] { expectedBaseVertices[i] }, call.baseVertices());
+        }
+
+        this.commandList.deleteTessellation(tessellation);
+    }
+
+    @Test
+    void clearResetsRuns() {
+        long pMeshData = this.createSection(0, 0, 0, new int[] { 6, 0, 0, 0, 0, 0, 0 });
+
+        this.commands.addSection(pMeshData, 1);
+        this.commands.clear();
+
+        assertTrue(this.commands.isEmpty());
+        assertEquals(0, this.commands.getRunCount());
+    }
+
+    /**
+     * Writes the render data of a section, where the vertices of each facing start right after the previous facing.
+     */
+    private long createSection(int index, int baseElement, int baseVertex, int[] elementCounts) {
+        long pMeshData = SectionRenderDataUnsafe.heapPointer(this.pHeap, index);
+
+        SectionRenderDataUnsafe.setBaseElement(pMeshData, baseElement);
+        SectionRenderDataUnsafe.setSliceMask(pMeshData, ModelQuadFacing.ALL);
+
+        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+            SectionRenderDataUnsafe.setVertexOffset(pMeshData, facing, baseVertex + facing);
+            SectionRenderDataUnsafe.setElementCount(pMeshData, facing, elementCounts[facing]);
+        }
+
+        return pMeshData;
+    }
+
+    private static long getElementPointer(MultiDrawBatch batch, int index) {
+        return MemoryUtil.memGetAddress(batch.pElementPointer + ((long) index * Pointer.POINTER_SIZE));
+    }
+
+    private static int getElementCount(MultiDrawBatch batch, int index) {
+        return MemoryUtil.memGetInt(batch.pElementCount + ((long) index * Integer.BYTES));
+    }
+
+    private static int getBaseVertex(MultiDrawBatch batch, int index) {
+        return MemoryUtil.memGetInt(batch.pBaseVertex + ((long) index * Integer.BYTES));
+    }
+}
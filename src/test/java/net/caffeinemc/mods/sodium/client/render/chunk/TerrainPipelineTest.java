@@ -0,0 +1,411 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ReferenceMaps;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessRenderDevice;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
+import net.caffeinemc.mods.sodium.client.render.chunk.lists.ChunkRenderList;
+import net.caffeinemc.mods.sodium.client.render.chunk.lists.SortedRenderLists;
+import net.caffeinemc.mods.sodium.client.render.chunk.lists.VisibleChunkCollector;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.GraphDirection;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.SectionVisibilityGrid;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegionManager;
+import net.caffeinemc.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
+import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import net.caffeinemc.mods.sodium.client.render.chunk.terrain.material.DefaultMaterials;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
+import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import net.minecraft.client.renderer.chunk.VisibilitySet;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import org.joml.Vector3d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams synthetic terrain along a straight camera path through the parts of the terrain pipeline which don't need a
+ * level or an OpenGL context: the occlusion culler and the render lists, the mesh buffers of the chunk builder, the
+ * uploads of the region manager to a {@link HeadlessRenderDevice}, and the draw commands of the chunk renderer.
+ *
+ * Every frame does the same work as the section manager: sections entering the render distance are added, sections
+ * leaving it are removed, the visible sections are collected, a bounded number of pending sections are built and
+ * uploaded, and the draw commands of the solid pass are generated for every visible region.
+ */
+class TerrainPipelineTest {
+    private static final int RENDER_DISTANCE = 12;
+    private static final int FRAMES = 600;
+
+    // The terrain fills the lower half of the level, and the camera moves just above it
+    private static final int LEVEL_HEIGHT_SECTIONS = 8;
+    private static final int TERRAIN_HEIGHT_SECTIONS = 4;
+
+    private static final int QUADS_PER_SECTION = 1024;
+
+    private static final LevelHeightAccessor LEVEL = new LevelHeightAccessor() {
+        @Override
+        public int getHeight() {
+            return LEVEL_HEIGHT_SECTIONS * 16;
+        }
+
+        @Override
+        public int getMinBuildHeight() {
+            return 0;
+        }
+    };
+
+    @Benchmark
+    void benchmarkCameraPath() {
+        // the first run warms up all stages, so that they are compiled before they are measured
+        new Pipeline().run(FRAMES / 4);
+
+        var pipeline = new Pipeline();
+        pipeline.run(FRAMES);
+
+        assertTrue(pipeline.builtSections > 0, "No sections were built");
+        assertTrue(pipeline.drawCommands > 0, "No draw commands were generated");
+
+        new BenchmarkReport("terrain_pipeline")
+                .put("frames", FRAMES)
+                .put("render_distance", RENDER_DISTANCE)
+                .put("sections_built", pipeline.builtSections)
+                .put("draw_commands", pipeline.drawCommands)
+                .put("frame_p50_ns", percentile(pipeline.frameTimes, 0.50))
+                .put("frame_p99_ns", percentile(pipeline.frameTimes, 0.99))
+                .put("stream_ns_per_frame", (double) pipeline.streamTime / FRAMES)
+                .put("cull_ns_per_frame", (double) pipeline.cullTime / FRAMES)
+                .put("build_ns_per_frame", (double) pipeline.buildTime / FRAMES)
+                .put("upload_ns_per_frame", (double) pipeline.uploadTime / FRAMES)
+                .put("commands_ns_per_frame", (double) pipeline.commandTime / FRAMES)
+                .write();
+    }
+
+    private static long percentile(LongArrayList values, double quantile) {
+        long[] sorted = values.toLongArray();
+        Arrays.sort(sorted);
+
+        return sorted[Math.max((int) Math.ceil(sorted.length * quantile) - 1, 0)];
+    }
+
+    private static class Pipeline {
+        private final HeadlessRenderDevice device = new HeadlessRenderDevice();
+        private final CommandList commandList;
+
+        private final RenderRegionManager regions;
+        private final Long2ReferenceOpenHashMap<RenderSection> sectionByPosition = new Long2ReferenceOpenHashMap<>();
+
+        private final OcclusionCuller occlusionCuller;
+        private final SectionVisibilityGrid visibilityGrid;
+        private final SimplifiedMeshThresholds simplifiedMeshThresholds = new SimplifiedMeshThresholds(0.0f);
+
+        private final ChunkBuildBuffers buffers = new ChunkBuildBuffers(ChunkMeshFormats.COMPACT);
+        private final ChunkVertexEncoder.Vertex[] vertices = ChunkVertexEncoder.Vertex.uninitializedQuad();
+        private final RegionDrawCommands commands = new RegionDrawCommands();
+
+        private final Random random = new Random(1234L);
+
+        private final LongArrayList frameTimes = new LongArrayList();
+        private long streamTime, cullTime, buildTime, uploadTime, commandTime;
+
+        private int builtSections;
+        private long drawCommands;
+
+        private int centerX = Integer.MIN_VALUE, centerZ = Integer.MIN_VALUE;
+
+        Pipeline() {
+            this.device.makeActive();
+            this.commandList = this.device.createCommandList();
+
+            this.regions = new RenderRegionManager(this.device, this.commandList, false);
+            this.occlusionCuller = new OcclusionCuller(Long2ReferenceMaps.unmodifiable(this.sectionByPosition), LEVEL);
+            this.visibilityGrid = new SectionVisibilityGrid(RENDER_DISTANCE + 1, LEVEL.getMinSection(), LEVEL.getMaxSection());
+        }
+
+        void run(int frames) {
+            try {
+                for (int frame = 0; frame < frames; frame++) {
+                    // move half a block per frame, which crosses into a new column of sections every 32 frames
+                    var camera = new Vector3d(frame * 0.5, (TERRAIN_HEIGHT_SECTIONS * 16) + 2.0, 8.0);
+
+                    long start = System.nanoTime();
+                    this.frame(camera, frame);
+                    this.frameTimes.add(System.nanoTime() - start);
+                }
+            } finally {
+                this.delete();
+            }
+        }
+
+        private void frame(Vector3d camera, int frame) {
+            long start = System.nanoTime();
+            this.streamSections(SectionPos.blockToSectionCoord(camera.x), SectionPos.blockToSectionCoord(camera.z));
+            long streamed = System.nanoTime();
+
+            var viewport = new Viewport((minX, minY, minZ, maxX, maxY, maxZ) -> maxX > 0.0f, camera);
+            this.visibilityGrid.reset(viewport.getChunkCoord().getX(), viewport.getChunkCoord().getZ());
+
+            var visitor = new VisibleChunkCollector(frame, this.visibilityGrid, viewport.getTransform(), this.simplifiedMeshThresholds);
+            this.occlusionCuller.findVisible(visitor, viewport, RENDER_DISTANCE * 16.0f, true, frame);
+
+            SortedRenderLists renderLists = visitor.createRenderLists();
+            long culled = System.nanoTime();
+
+            var results = this.buildSections(visitor.getRebuildLists(), frame);
+            long built = System.nanoTime();
+
+            this.uploadResults(results);
+            long uploaded = System.nanoTime();
+
+            this.generateDrawCommands(renderLists, viewport);
+            long drawn = System.nanoTime();
+
+            this.streamTime += streamed - start;
+            this.cullTime += culled - streamed;
+            this.buildTime += built - culled;
+            this.uploadTime += uploaded - built;
+            this.commandTime += drawn - uploaded;
+        }
+
+        /**
+         * Adds the sections which entered the render distance and removes those which left it, in the same way as the
+         * section manager does when chunks are loaded and unloaded.
+         */
+        private void streamSections(int centerX, int centerZ) {
+            if (centerX == this.centerX && centerZ == this.centerZ) {
+                return;
+            }
+
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+
+            var removed = new ArrayList<RenderSection>();
+
+            for (var section : this.sectionByPosition.values()) {
+                if (!isInRange(section.getChunkX() - centerX, section.getChunkZ() - centerZ)) {
+                    removed.add(section);
+                }
+            }
+
+            for (var section : removed) {
+                this.removeSection(section);
+            }
+
+            for (int x = -RENDER_DISTANCE; x <= RENDER_DISTANCE; x++) {
+                for (int z = -RENDER_DISTANCE; z <= RENDER_DISTANCE; z++) {
+                    if (!isInRange(x, z)) {
+                        continue;
+                    }
+
+                    for (int y = LEVEL.getMinSection(); y < LEVEL.getMaxSection(); y++) {
+                        this.addSection(centerX + x, y, centerZ + z);
+                    }
+                }
+            }
+
+            this.regions.update();
+        }
+
+        private static boolean isInRange(int x, int z) {
+            return Math.abs(x) <= RENDER_DISTANCE && Math.abs(z) <= RENDER_DISTANCE;
+        }
+
+        private void addSection(int x, int y, int z) {
+            long key = SectionPos.asLong(x, y, z);
+
+            if (this.sectionByPosition.containsKey(key)) {
+                return;
+            }
+
+            var region = this.regions.createForChunk(x, y, z);
+
+            var section = new RenderSection(region, x, y, z);
+            region.addSection(section);
+
+            this.sectionByPosition.put(key, section);
+
+            if (y >= TERRAIN_HEIGHT_SECTIONS) {
+                section.setInfo(BuiltSectionInfo.EMPTY);
+            } else {
+                section.setPendingUpdate(ChunkUpdateType.INITIAL_BUILD);
+            }
+
+            for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+                var adj = this.sectionByPosition.get(SectionPos.asLong(x + GraphDirection.x(direction),
+                        y + GraphDirection.y(direction), z + GraphDirection.z(direction)));
+
+                if (adj != null) {
+                    adj.setAdjacentNode(GraphDirection.opposite(direction), section);
+                    section.setAdjacentNode(direction, adj);
+                }
+            }
+        }
+
+        private void removeSection(RenderSection section) {
+            this.sectionByPosition.remove(SectionPos.asLong(section.getChunkX(), section.getChunkY(), section.getChunkZ()));
+            section.getRegion().removeSection(section);
+
+            for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+                var adj = section.getAdjacent(direction);
+
+                if (adj != null) {
+                    adj.setAdjacentNode(GraphDirection.opposite(direction), null);
+                    section.setAdjacentNode(direction, null);
+                }
+            }
+
+            section.setInfo(null);
+            section.delete();
+        }
+
+        /**
+         * Builds the sections which the culler queued for an initial build, with synthetic quads written to the same
+         * mesh buffers as those used by the chunk builder.
+         */
+        private List<BuilderTaskOutput> buildSections(Map<ChunkUpdateType, ? extends Iterable<RenderSection>> rebuildLists, int frame) {
+            var results = new ArrayList<BuilderTaskOutput>();
+
+            for (var section : rebuildLists.get(ChunkUpdateType.INITIAL_BUILD)) {
+                results.add(this.buildSection(section, frame));
+            }
+
+            return results;
+        }
+
+        private ChunkBuildOutput buildSection(RenderSection section, int frame) {
+            var info = new BuiltSectionInfo.Builder();
+            this.buffers.init(info, section.getSectionIndex());
+
+            var material = DefaultMaterials.SOLID;
+            var builder = this.buffers.get(material);
+
+            for (int i = 0; i < QUADS_PER_SECTION; i++) {
+                var facing = ModelQuadFacing.VALUES[this.random.nextInt(ModelQuadFacing.DIRECTIONS)];
+                this.createQuad(this.random.nextInt(16), this.random.nextInt(16), this.random.nextInt(16));
+
+                builder.getVertexBuffer(facing)
+                        .push(this.vertices, material);
+            }
+
+            info.addRenderPass(DefaultTerrainRenderPasses.SOLID);
+            info.setOcclusionData(this.createOcclusionData(section));
+
+            Map<TerrainRenderPass, BuiltSectionMeshParts> meshes = Map.of(DefaultTerrainRenderPasses.SOLID,
+                    this.buffers.createMesh(DefaultTerrainRenderPasses.SOLID, false));
+
+            return new ChunkBuildOutput(section, frame, null, info.build(), meshes);
+        }
+
+        private void createQuad(int x, int y, int z) {
+            for (int i = 0; i < 4; i++) {
+                var vertex = this.vertices[i];
+                vertex.x = x + ((i == 1 || i == 2) ? 1.0f : 0.0f);
+                vertex.y = y;
+                vertex.z = z + ((i >= 2) ? 1.0f : 0.0f);
+                vertex.color = 0xFFFFFFFF;
+                vertex.u = this.random.nextFloat();
+                vertex.v = this.random.nextFloat();
+                vertex.light = 0x00F000F0;
+            }
+        }
+
+        /**
+         * The top layer of the terrain is open to the sky, while the sections underground only connect some of their
+         * faces, like caves do.
+         */
+        private VisibilitySet createOcclusionData(RenderSection section) {
+            var data = new VisibilitySet();
+
+            if (section.getChunkY() == TERRAIN_HEIGHT_SECTIONS - 1) {
+                data.add(EnumSet.allOf(Direction.class));
+            } else {
+                var faces = EnumSet.noneOf(Direction.class);
+
+                for (var direction : Direction.values()) {
+                    if (this.random.nextInt(3) == 0) {
+                        faces.add(direction);
+                    }
+                }
+
+                data.add(faces);
+            }
+
+            return data;
+        }
+
+        /**
+         * Uploads the build results and updates the sections, in the same way as the section manager.
+         */
+        private void uploadResults(List<BuilderTaskOutput> results) {
+            if (results.isEmpty()) {
+                return;
+            }
+
+            this.regions.uploadResults(this.commandList, results);
+
+            for (var result : results) {
+                if (result instanceof ChunkBuildOutput output) {
+                    result.render.setInfo(output.info);
+                    result.render.setPendingUpdate(null);
+                }
+
+                result.render.setLastUploadFrame(result.submitTime);
+                result.destroy();
+
+                this.builtSections++;
+            }
+        }
+
+        private void generateDrawCommands(SortedRenderLists renderLists, Viewport viewport) {
+            var pass = DefaultTerrainRenderPasses.SOLID;
+            var iterator = renderLists.iterator(pass.isTranslucent());
+
+            while (iterator.hasNext()) {
+                ChunkRenderList renderList = iterator.next();
+
+                var region = renderList.getRegion();
+                var storage = region.getStorage(pass);
+
+                if (storage == null) {
+                    continue;
+                }
+
+                DefaultChunkRenderer.fillCommandBuffer(this.commands, region, storage, renderList,
+                        viewport.getTransform(), pass, true);
+
+                this.drawCommands += this.commands.getBatch().size();
+            }
+        }
+
+        private void delete() {
+            for (var section : new ArrayList<>(this.sectionByPosition.values())) {
+                this.removeSection(section);
+            }
+
+            this.regions.update();
+            this.regions.delete(this.commandList);
+
+            this.commands.delete();
+            this.buffers.destroy();
+
+            this.device.makeInactive();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting;
+
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+
+/**
+ * Creates the quads of synthetic translucent geometry for the tests of the sorting code in other packages.
+ */
+public class TestQuads {
+    /**
+     * Creates the six faces of each box, ordered by their facing like the geometry collector orders them.
+     *
+     * @param boxes The boxes, each given as {@code { minX, minY, minZ, maxX, maxY, maxZ }}
+     */
+    public static TQuad[] fromBoxes(float[][] boxes) {
+        var quads = new TQuad[boxes.length * ModelQuadFacing.DIRECTIONS];
+
+        for (int direction = 0; direction < ModelQuadFacing.DIRECTIONS; direction++) {
+            var facing = ModelQuadFacing.VALUES[direction];
+            int axis = facing.getAxis();
+
+            for (int i = 0; i < boxes.length; i++) {
+                var box = boxes[i];
+                var extents = new float[] { box[3], box[4], box[5], box[0], box[1], box[2] };
+
+                // collapse the extents onto the face's plane
+                if (facing.getSign() > 0) {
+                    extents[axis + 3] = extents[axis];
+                } else {
+                    extents[axis] = extents[axis + 3];
+                }
+
+                quads[direction * boxes.length + i] = TQuad.fromAligned(facing, extents, null);
+            }
+        }
+
+        return quads;
+    }
+}
@@ -0,0 +1,350 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.bsp_tree;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TestQuads;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import net.minecraft.core.SectionPos;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the sort order of the flattened tree with a recursive traversal of the node objects, which is how the
+ * tree was sorted before it was flattened.
+ */
+class FlatBSPTreeTest {
+    private static final SectionPos SECTION = SectionPos.of(0, 0, 0);
+
+    @Test
+    void flatTreeMatchesRecursiveTraversal() {
+        var random = new Random(1L);
+        var boxes = createBoxes(random);
+        var result = BSPNode.buildBSP(TestQuads.fromBoxes(boxes), SECTION, null, false);
+
+        assertSortsMatch(random, result.getRootNode(), boxes.length);
+    }
+
+    @Test
+    void flatTreeMatchesRecursiveTraversalOfReusedNodes() {
+        var random = new Random(2L);
+        var boxes = createBoxes(random);
+
+        var first = BSPNode.buildBSP(TestQuads.fromBoxes(boxes), SECTION, null, true);
+        assertTrue(first.isReusable());
+
+        // removing a box shifts the indexes of the quads in the nodes that are reused
+        var edited = removeBox(boxes, 3);
+        var second = BSPNode.buildBSP(TestQuads.fromBoxes(edited), SECTION, first.getRootNode(), true);
+        assertTrue(second.isReusable());
+        assertTrue(countRemappingNodes(second.getRootNode()) > 0, "No nodes were reused");
+
+        assertSortsMatch(random, second.getRootNode(), edited.length);
+
+        // the index maps are only needed until the tree is flattened
+        assertEquals(0, countRemappingNodes(second.getRootNode()));
+    }
+
+    @Test
+    void treeWithoutReuseDataIsNotReusable() {
+        var boxes = createBoxes(new Random(3L));
+        var result = BSPNode.buildBSP(TestQuads.fromBoxes(boxes), SECTION, null, false);
+
+        assertFalse(result.isReusable());
+    }
+
+    @Benchmark
+    void benchmarkSortAndRetainedHeap() {
+        var random = new Random(4L);
+        var boxes = createBoxes(random);
+        var quadCount = boxes.length * ModelQuadFacing.DIRECTIONS;
+
+        var first = BSPNode.buildBSP(TestQuads.fromBoxes(boxes), SECTION, null, true);
+        var second = BSPNode.buildBSP(TestQuads.fromBoxes(removeBox(boxes, 3)), SECTION, first.getRootNode(), true);
+        var root = second.getRootNode();
+
+        var cameras = new Vector3f[1000];
+        for (int i = 0; i < cameras.length; i++) {
+            cameras[i] = randomCamera(random);
+        }
+
+        var buffer = new NativeBuffer(TranslucentData.quadCountToIndexBytes(quadCount));
+
+        try {
+            // the recursive traversal needs the index maps, which are cleared by flattening
+            long recursiveTime = BenchmarkReport.measure(5, 10, () -> {
+                for (var camera : cameras) {
+                    writeRecursive(root, buffer.getDirectBuffer().asIntBuffer(), camera, new ReferenceArrayList<>());
+                }
+            });
+
+            var tree = FlatBSPTree.flatten(root);
+            long flatTime = BenchmarkReport.measure(5, 10, () -> {
+                for (var camera : cameras) {
+                    tree.writeSortedQuads(buffer, camera);
+                }
+            });
+
+            // sections that have been rebuilt keep both trees, others only keep the flat tree
+            var sections = 256;
+            long objectTreeBytes = retainedBytes(() -> buildTrees(boxes, sections));
+            long flatTreeBytes = retainedBytes(() -> {
+                var trees = new ObjectArrayList<FlatBSPTree>();
+                for (var node : buildTrees(boxes, sections)) {
+                    trees.add(FlatBSPTree.flatten(node));
+                }
+                return trees;
+            });
+
+            new BenchmarkReport("bsp_sort")
+                    .put("quads", quadCount)
+                    .put("recursive_ns_per_sort", (double) recursiveTime / cameras.length)
+                    .put("flat_ns_per_sort", (double) flatTime / cameras.length)
+                    .put("object_tree_bytes_per_section", objectTreeBytes / sections)
+                    .put("flat_tree_bytes_per_section", flatTreeBytes / sections)
+                    .write();
+        } finally {
+            buffer.free();
+        }
+    }
+
+    private static void assertSortsMatch(Random random, BSPNode root, int boxCount) {
+        var quadCount = boxCount * ModelQuadFacing.DIRECTIONS;
+        var expectedBuffer = new NativeBuffer(TranslucentData.quadCountToIndexBytes(quadCount));
+        var actualBuffer = new NativeBuffer(TranslucentData.quadCountToIndexBytes(quadCount));
+
+        try {
+            var cameras = new Vector3f[200];
+            for (int i = 0; i < cameras.length; i++) {
+                cameras[i] = randomCamera(random);
+            }
+
+            // the recursive traversal needs the index maps of the reused nodes, which flattening clears
+            var expected = new int[cameras.length][];
+            for (int i = 0; i < cameras.length; i++) {
+                var indexBuffer = expectedBuffer.getDirectBuffer().asIntBuffer();
+                writeRecursive(root, indexBuffer, cameras[i], new ReferenceArrayList<>());
+                assertEquals(quadCount * TranslucentData.INDICES_PER_QUAD, indexBuffer.position());
+                expected[i] = toArray(expectedBuffer);
+            }
+
+            var tree = FlatBSPTree.flatten(root);
+
+            for (int i = 0; i < cameras.length; i++) {
+                tree.writeSortedQuads(actualBuffer, cameras[i]);
+                assertArrayEquals(expected[i], toArray(actualBuffer), "Sort order differs for camera " + cameras[i]);
+            }
+        } finally {
+            expectedBuffer.free();
+            actualBuffer.free();
+        }
+    }
+
+    /**
+     * Fills the section with two by two columns of flat boxes stacked along the z axis. The root node partitions them
+     * along the x axis, and its children along the y axis, which leaves the columns' z facing quads as nodes that are
+     * large enough to be prepared for reuse.
+     */
+    private static float[][] createBoxes(Random random) {
+        var boxes = new ObjectArrayList<float[]>();
+
+        for (int x = 0; x < 2; x++) {
+            for (int y = 0; y < 2; y++) {
+                for (int z = 0; z < 32; z++) {
+                    if (random.nextInt(8) == 0) {
+                        continue;
+                    }
+
+                    boxes.add(new float[] {
+                            x * 8 + 0.5f, y * 8 + 0.5f, z * 0.5f + 0.0625f,
+                            x * 8 + 7.5f, y * 8 + 7.5f, z * 0.5f + 0.4375f
+                    });
+                }
+            }
+        }
+
+        return boxes.toArray(new float[0][]);
+    }
+
+    private static float[][] removeBox(float[][] boxes, int index) {
+        var edited = new ObjectArrayList<>(boxes);
+        edited.remove(index);
+        return edited.toArray(new float[0][]);
+    }
+
+    private static List<BSPNode> buildTrees(float[][] boxes, int count) {
+        var roots = new ObjectArrayList<BSPNode>();
+        for (int i = 0; i < count; i++) {
+            roots.add(BSPNode.buildBSP(TestQuads.fromBoxes(boxes), SECTION, null, true).getRootNode());
+        }
+        return roots;
+    }
+
+    /**
+     * Places the camera on the planes of the boxes in some of the axes, as the traversal treats these specially.
+     */
+    private static Vector3f randomCamera(Random random) {
+        var camera = new Vector3f();
+        for (int axis = 0; axis < 3; axis++) {
+            float coordinate;
+            if (random.nextBoolean()) {
+                coordinate = random.nextInt(32 * 16) / 16.0f - 8.0f;
+            } else {
+                coordinate = random.nextFloat() * 32.0f - 8.0f;
+            }
+            camera.setComponent(axis, coordinate);
+        }
+        return camera;
+    }
+
+    private static long retainedBytes(Supplier<Object> allocator) {
+        long before = usedHeapAfterGc();
+        var retained = allocator.get();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static int[] toArray(NativeBuffer buffer) {
+        var indexBuffer = buffer.getDirectBuffer().asIntBuffer();
+        var array = new int[indexBuffer.remaining()];
+        indexBuffer.get(array);
+        return array;
+    }
+
+    private static int countRemappingNodes(BSPNode node) {
+        if (node instanceof InnerPartitionBSPNode inner) {
+            int count = inner.indexMap != null || inner.fixedIndexOffset != BSPSortState.NO_FIXED_OFFSET ? 1 : 0;
+            if (inner instanceof InnerBinaryPartitionBSPNode binary) {
+                count += countRemappingNodes(binary.inside) + countRemappingNodes(binary.outside);
+            } else if (inner instanceof InnerMultiPartitionBSPNode multi) {
+                for (var partition : multi.partitions) {
+                    count += countRemappingNodes(partition);
+                }
+            } else if (inner instanceof InnerFixedDoubleBSPNode fixedDouble) {
+                count += countRemappingNodes(fixedDouble.first) + countRemappingNodes(fixedDouble.second);
+            }
+            return count;
+        }
+        return 0;
+    }
+
+    /**
+     * The recursive traversal of the node objects, with the index remapping of reused nodes applied as they're
+     * entered.
+     */
+    private static void writeRecursive(BSPNode node, IntBuffer indexBuffer, Vector3fc cameraPos,
+            ReferenceArrayList<InnerPartitionBSPNode> remapping) {
+        if (node == null) {
+            return;
+        }
+
+        if (node instanceof LeafSingleBSPNode leaf) {
+            writeIndex(indexBuffer, leaf.quad, remapping);
+        } else if (node instanceof LeafDoubleBSPNode leaf) {
+            writeIndex(indexBuffer, leaf.quadA, remapping);
+            writeIndex(indexBuffer, leaf.quadB, remapping);
+        } else if (node instanceof LeafMultiBSPNode leaf) {
+            writeIndexes(indexBuffer, leaf.quads, remapping);
+        } else if (node instanceof InnerPartitionBSPNode inner) {
+            var remaps = inner.indexMap != null || inner.fixedIndexOffset != BSPSortState.NO_FIXED_OFFSET;
+            if (remaps) {
+                remapping.push(inner);
+            }
+
+            if (inner instanceof InnerBinaryPartitionBSPNode binary) {
+                writeBinary(binary, indexBuffer, cameraPos, remapping);
+            } else if (inner instanceof InnerMultiPartitionBSPNode multi) {
+                writeMulti(multi, indexBuffer, cameraPos, remapping);
+            } else if (inner instanceof InnerFixedDoubleBSPNode fixedDouble) {
+                writeRecursive(fixedDouble.first, indexBuffer, cameraPos, remapping);
+                writeRecursive(fixedDouble.second, indexBuffer, cameraPos, remapping);
+            } else {
+                fail("Unknown node type " + node.getClass());
+            }
+
+            if (remaps) {
+                remapping.pop();
+            }
+        } else {
+            fail("Unknown node type " + node.getClass());
+        }
+    }
+
+    private static void writeBinary(InnerBinaryPartitionBSPNode node, IntBuffer indexBuffer, Vector3fc cameraPos,
+            ReferenceArrayList<InnerPartitionBSPNode> remapping) {
+        var cameraInside = ModelQuadFacing.ALIGNED_NORMALS[node.axis].dot(cameraPos) < node.planeDistance;
+
+        writeRecursive(cameraInside ? node.outside : node.inside, indexBuffer, cameraPos, remapping);
+        writeIndexes(indexBuffer, node.onPlaneQuads, remapping);
+        writeRecursive(cameraInside ? node.inside : node.outside, indexBuffer, cameraPos, remapping);
+    }
+
+    private static void writeMulti(InnerMultiPartitionBSPNode node, IntBuffer indexBuffer, Vector3fc cameraPos,
+            ReferenceArrayList<InnerPartitionBSPNode> remapping) {
+        var cameraDistance = ModelQuadFacing.ALIGNED_NORMALS[node.axis].dot(cameraPos);
+        var planeDistances = node.planeDistances;
+
+        // forward sweep: collect quads until the camera is in the partition
+        for (int i = 0; i < planeDistances.length; i++) {
+            if (cameraDistance <= planeDistances[i]) {
+                var isOnPlane = cameraDistance == planeDistances[i];
+                if (isOnPlane) {
+                    writeRecursive(node.partitions[i], indexBuffer, cameraPos, remapping);
+                }
+
+                // backwards sweep: collect all partitions backwards until the camera is reached
+                for (int j = planeDistances.length; j > i; j--) {
+                    writeRecursive(node.partitions[j], indexBuffer, cameraPos, remapping);
+                    writeIndexes(indexBuffer, node.onPlaneQuads[j - 1], remapping);
+                }
+
+                if (!isOnPlane) {
+                    writeRecursive(node.partitions[i], indexBuffer, cameraPos, remapping);
+                }
+                return;
+            }
+
+            writeRecursive(node.partitions[i], indexBuffer, cameraPos, remapping);
+            writeIndexes(indexBuffer, node.onPlaneQuads[i], remapping);
+        }
+
+        writeRecursive(node.partitions[planeDistances.length], indexBuffer, cameraPos, remapping);
+    }
+
+    private static void writeIndexes(IntBuffer indexBuffer, int[] quadIndexes,
+            ReferenceArrayList<InnerPartitionBSPNode> remapping) {
+        if (quadIndexes != null) {
+            BSPSortState.decompressOrRead(quadIndexes, index -> writeIndex(indexBuffer, index, remapping));
+        }
+    }
+
+    private static void writeIndex(IntBuffer indexBuffer, int index,
+            ReferenceArrayList<InnerPartitionBSPNode> remapping) {
+        for (int i = remapping.size() - 1; i >= 0; i--) {
+            var node = remapping.get(i);
+            index = node.indexMap != null ? node.indexMap[index] : index + node.fixedIndexOffset;
+        }
+        TranslucentData.writeQuadVertexIndexes(indexBuffer, index);
+    }
+}
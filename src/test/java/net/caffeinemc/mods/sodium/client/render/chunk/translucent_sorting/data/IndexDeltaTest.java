@@ -0,0 +1,172 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
+
+import net.minecraft.core.SectionPos;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexDeltaTest {
+    private final DynamicData data = new TestDynamicData(SectionPos.of(0, 0, 0), null, new Vector3d());
+
+    @Test
+    void readQuadOrderReadsWrittenOrder() {
+        var expected = new int[] { 3, 0, 2, 1 };
+        var order = new int[expected.length];
+        IndexDelta.readQuadOrder(writeIndexes(expected), order, 0);
+
+        assertArrayEquals(expected, order);
+    }
+
+    @Test
+    void readQuadOrderStartsAtQuad() {
+        var order = new int[] { 7, 7, 7, 7 };
+        IndexDelta.readQuadOrder(writeIndexes(3, 0, 2, 1), order, 2);
+
+        assertArrayEquals(new int[] { 7, 7, 2, 1 }, order);
+    }
+
+    @Test
+    void emptyOrderHasNoRanges() {
+        var delta = this.compare(new int[0], new int[0]);
+
+        assertEquals(0, delta.getRangeCount());
+        assertTrue(delta.canApplyTo(this.data));
+    }
+
+    @Test
+    void identicalOrderHasNoRanges() {
+        var delta = this.compare(sequence(100), sequence(100));
+
+        assertEquals(0, delta.getRangeCount());
+        assertTrue(delta.canApplyTo(this.data));
+    }
+
+    @Test
+    void singleQuadOrder() {
+        var delta = this.compare(new int[] { 0 }, new int[] { 0 });
+
+        assertEquals(0, delta.getRangeCount());
+        assertTrue(delta.canApplyTo(this.data));
+    }
+
+    @Test
+    void reversedOrderIsUploadedInFull() {
+        var reversed = new int[100];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = reversed.length - 1 - i;
+        }
+
+        var order = sequence(100);
+        var delta = IndexDelta.compare(this.data, IndexDelta.NO_VERSION + 1, IndexDelta.NO_VERSION + 2, order,
+                writeIndexes(reversed));
+
+        assertEquals(0, delta.getRangeCount());
+        assertFalse(delta.canApplyTo(this.data));
+
+        // the order is fully updated even though the comparison stopped early
+        assertArrayEquals(reversed, order);
+    }
+
+    @Test
+    void nearbyChangesAreCoalesced() {
+        var newOrder = sequence(100);
+        swap(newOrder, 10, 11);
+        swap(newOrder, 20, 21);
+
+        var delta = this.compare(sequence(100), newOrder);
+
+        assertEquals(1, delta.getRangeCount());
+        assertEquals(10, delta.getRangeStartQuad(0));
+        assertEquals(22, delta.getRangeEndQuad(0));
+    }
+
+    @Test
+    void distantChangesAreSeparateRanges() {
+        var newOrder = sequence(100);
+        swap(newOrder, 10, 11);
+        swap(newOrder, 80, 81);
+
+        var delta = this.compare(sequence(100), newOrder);
+
+        assertEquals(2, delta.getRangeCount());
+        assertEquals(10, delta.getRangeStartQuad(0));
+        assertEquals(12, delta.getRangeEndQuad(0));
+        assertEquals(80, delta.getRangeStartQuad(1));
+        assertEquals(82, delta.getRangeEndQuad(1));
+    }
+
+    @Test
+    void tooManyRangesAreUploadedInFull() {
+        var newOrder = sequence(1000);
+        for (int i = 0; i < 20; i++) {
+            swap(newOrder, i * 40, i * 40 + 1);
+        }
+
+        var delta = this.compare(sequence(1000), newOrder);
+
+        assertEquals(0, delta.getRangeCount());
+        assertFalse(delta.canApplyTo(this.data));
+    }
+
+    @Test
+    void deltaOnlyAppliesToUploadedBase() {
+        var first = this.data.recordSortOrder(writeIndexes(sequence(100)), 100);
+        assertFalse(first.canApplyTo(this.data));
+
+        var newOrder = sequence(100);
+        swap(newOrder, 50, 51);
+        var second = this.data.recordSortOrder(writeIndexes(newOrder), 100);
+
+        // the first sort hasn't been uploaded yet
+        assertFalse(second.canApplyTo(this.data));
+
+        first.markUploaded();
+        assertTrue(second.canApplyTo(this.data));
+        assertFalse(second.canApplyTo(new TestDynamicData(SectionPos.of(0, 0, 0), null, new Vector3d())));
+
+        second.markUploaded();
+        var third = this.data.recordSortOrder(writeIndexes(sequence(100)), 100);
+        assertEquals(1, third.getRangeCount());
+        assertTrue(third.canApplyTo(this.data));
+    }
+
+    /**
+     * Compares the orders as consecutive sorts whose base is currently uploaded, and checks that the previous order
+     * is updated to the new one.
+     */
+    private IndexDelta compare(int[] prevOrder, int[] newOrder) {
+        int baseVersion = IndexDelta.NO_VERSION + 1;
+        this.data.setUploadedSortVersion(baseVersion);
+
+        var order = prevOrder.clone();
+        var delta = IndexDelta.compare(this.data, baseVersion, baseVersion + 1, order, writeIndexes(newOrder));
+        assertArrayEquals(newOrder, order);
+
+        return delta;
+    }
+
+    private static IntBuffer writeIndexes(int... order) {
+        var indexBuffer = IntBuffer.allocate(order.length * TranslucentData.INDICES_PER_QUAD);
+        for (int quad : order) {
+            TranslucentData.writeQuadVertexIndexes(indexBuffer, quad);
+        }
+        return indexBuffer;
+    }
+
+    private static int[] sequence(int length) {
+        var order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    private static void swap(int[] order, int a, int b) {
+        int temp = order[a];
+        order[a] = order[b];
+        order[b] = temp;
+    }
+}
@@ -0,0 +1,21 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
+
+import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger.GeometryPlanes;
+import net.minecraft.core.SectionPos;
+import org.joml.Vector3dc;
+
+/**
+ * Dynamic data which only carries the face planes of a section, for testing how sections are triggered without
+ * building any geometry. It can't be sorted.
+ */
+public class TestDynamicData extends DynamicData {
+    public TestDynamicData(SectionPos sectionPos, GeometryPlanes geometryPlanes, Vector3dc initialCameraPos) {
+        super(sectionPos, new VertexRange(0, 4), 1, geometryPlanes, initialCameraPos);
+    }
+
+    @Override
+    public Sorter getSorter() {
+        throw new UnsupportedOperationException("Test data can't be sorted");
+    }
+}
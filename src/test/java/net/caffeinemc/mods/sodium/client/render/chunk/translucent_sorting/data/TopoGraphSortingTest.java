@@ -0,0 +1,192 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
+
+import it.unimi.dsi.fastutil.floats.FloatAVLTreeSet;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TQuad;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TestQuads;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares topo sorts that use the cached visibility graph with topo sorts that search the implicit graph, using
+ * sections filled with randomly placed boxes.
+ */
+class TopoGraphSortingTest {
+    private static final int MAX_EDGES = 1 << 14;
+
+    @Test
+    void cachedGraphSortMatchesImplicitSort() {
+        var random = new Random(1L);
+        var quads = createQuads(random, 40);
+        var graph = TopoGraphSorting.VisibilityGraph.build(quads, MAX_EDGES);
+        assertNotNull(graph);
+
+        for (var distancesByNormal : ObjectArrayList.of(null, getDistancesByNormal(quads))) {
+            for (int i = 0; i < 200; i++) {
+                var camera = randomCamera(random);
+                assertSortsMatch(quads, graph, distancesByNormal, camera);
+            }
+        }
+    }
+
+    @Test
+    void slicedBuildMatchesFullBuild() {
+        var random = new Random(2L);
+        var quads = createQuads(random, 40);
+        var distancesByNormal = getDistancesByNormal(quads);
+
+        // a budget of zero builds the edges of a single quad per step
+        var builder = new TopoGraphSorting.VisibilityGraph.Builder(quads, MAX_EDGES);
+        int steps = 0;
+        while (!builder.advance(0)) {
+            assertNull(builder.getGraph());
+            steps++;
+        }
+        assertEquals(quads.length - 1, steps);
+
+        var sliced = builder.getGraph();
+        var full = TopoGraphSorting.VisibilityGraph.build(quads, MAX_EDGES);
+        assertNotNull(sliced);
+
+        for (int i = 0; i < 100; i++) {
+            var camera = randomCamera(random);
+
+            var expected = new IntArrayList();
+            var expectedResult = TopoGraphSorting.topoGraphSort(expected::add, quads, full, distancesByNormal, camera);
+            var actual = new IntArrayList();
+            var actualResult = TopoGraphSorting.topoGraphSort(actual::add, quads, sliced, distancesByNormal, camera);
+
+            assertEquals(expectedResult, actualResult);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void denseGraphIsNotCached() {
+        var quads = createQuads(new Random(3L), 40);
+
+        var builder = new TopoGraphSorting.VisibilityGraph.Builder(quads, 10);
+        assertTrue(builder.advance(Long.MAX_VALUE));
+        assertNull(builder.getGraph());
+    }
+
+    @Benchmark
+    void benchmarkCachedGraph() {
+        var random = new Random(4L);
+        var quads = createQuads(random, 160);
+        var distancesByNormal = getDistancesByNormal(quads);
+
+        var cameras = new Vector3f[100];
+        for (int i = 0; i < cameras.length; i++) {
+            cameras[i] = randomCamera(random);
+        }
+
+        var output = new IntArrayList(quads.length);
+        var graph = TopoGraphSorting.VisibilityGraph.build(quads, Integer.MAX_VALUE);
+
+        long buildTime = BenchmarkReport.measure(5, 10, () -> TopoGraphSorting.VisibilityGraph.build(quads, Integer.MAX_VALUE));
+        long implicitTime = BenchmarkReport.measure(2, 5, () -> {
+            for (var camera : cameras) {
+                output.clear();
+                TopoGraphSorting.topoGraphSort(output::add, quads, distancesByNormal, camera);
+            }
+        });
+        long cachedTime = BenchmarkReport.measure(5, 10, () -> {
+            for (var camera : cameras) {
+                output.clear();
+                TopoGraphSorting.topoGraphSort(output::add, quads, graph, distancesByNormal, camera);
+            }
+        });
+
+        // the number of sorts it takes to finish building the graph with the build budget of a sort
+        var builder = new TopoGraphSorting.VisibilityGraph.Builder(quads, Integer.MAX_VALUE);
+        int slices = 1;
+        while (!builder.advance(250_000)) {
+            slices++;
+        }
+
+        new BenchmarkReport("topo_sort")
+                .put("quads", quads.length)
+                .put("graph_build_ns", buildTime)
+                .put("graph_build_slices", slices)
+                .put("implicit_ns_per_sort", (double) implicitTime / cameras.length)
+                .put("cached_ns_per_sort", (double) cachedTime / cameras.length)
+                .write();
+    }
+
+    private static void assertSortsMatch(TQuad[] quads, TopoGraphSorting.VisibilityGraph graph,
+                                         Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal,
+                                         Vector3fc camera) {
+        var expected = new IntArrayList();
+        var expectedResult = TopoGraphSorting.topoGraphSort(expected::add, quads, distancesByNormal, camera);
+        var actual = new IntArrayList();
+        var actualResult = TopoGraphSorting.topoGraphSort(actual::add, quads, graph, distancesByNormal, camera);
+
+        assertEquals(expectedResult, actualResult, "Topo sort result differs for camera " + camera);
+
+        // the order is only complete if the sort succeeded
+        if (expectedResult) {
+            assertEquals(quads.length, actual.size());
+            assertEquals(expected, actual, "Topo sort order differs for camera " + camera);
+        }
+    }
+
+    /**
+     * Places boxes into distinct cells of a grid that fills the section, so that they don't intersect.
+     */
+    private static TQuad[] createQuads(Random random, int boxCount) {
+        var cells = new IntOpenHashSet();
+        var boxes = new float[boxCount][];
+
+        for (int i = 0; i < boxCount; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(8 * 8 * 8);
+            } while (!cells.add(cell));
+
+            float x = (cell & 7) * 2;
+            float y = ((cell >> 3) & 7) * 2;
+            float z = (cell >> 6) * 2;
+            boxes[i] = new float[] { x + 0.25f, y + 0.25f, z + 0.25f, x + 1.75f, y + 1.75f, z + 1.75f };
+        }
+
+        return TestQuads.fromBoxes(boxes);
+    }
+
+    /**
+     * Collects the face plane distances of the quads by their normal, which the sorts use to find separator planes.
+     */
+    private static Object2ReferenceOpenHashMap<Vector3fc, float[]> getDistancesByNormal(TQuad[] quads) {
+        var distancesByNormal = new Object2ReferenceOpenHashMap<Vector3fc, float[]>();
+
+        for (int direction = 0; direction < ModelQuadFacing.DIRECTIONS; direction++) {
+            var distances = new FloatAVLTreeSet();
+            for (var quad : quads) {
+                if (quad.getFacing().ordinal() == direction) {
+                    distances.add(quad.getDotProduct());
+                }
+            }
+            distancesByNormal.put(ModelQuadFacing.ALIGNED_NORMALS[direction], distances.toFloatArray());
+        }
+
+        return distancesByNormal;
+    }
+
+    private static Vector3f randomCamera(Random random) {
+        return new Vector3f(
+                random.nextFloat() * 32.0f - 8.0f,
+                random.nextFloat() * 32.0f - 8.0f,
+                random.nextFloat() * 32.0f - 8.0f);
+    }
+}
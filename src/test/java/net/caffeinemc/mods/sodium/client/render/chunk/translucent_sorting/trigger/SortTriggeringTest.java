@@ -0,0 +1,272 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TestDynamicData;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import net.minecraft.core.SectionPos;
+import org.joml.Vector3d;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the sections triggered in the background with those triggered synchronously, using synthetic sections
+ * which are full of glass panes. The background task is run by a manual executor, so that the order in which
+ * movements and section updates happen relative to it is deterministic.
+ */
+class SortTriggeringTest {
+    private static final Vector3f[] UNALIGNED_NORMALS = {
+            new Vector3f(1.0f, 0.0f, 1.0f).normalize(),
+            new Vector3f(-1.0f, 1.0f, 0.0f).normalize(),
+            new Vector3f(0.0f, 1.0f, -1.0f).normalize()
+    };
+
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+    @Test
+    void backgroundTriggeringMatchesSynchronous() {
+        var sync = new SortTriggering(Runnable::run);
+        var async = new SortTriggering(this.tasks::add);
+
+        integrateWorld(sync, 1L, 200, new Vector3d());
+        integrateWorld(async, 1L, 200, new Vector3d());
+
+        var random = new Random(2L);
+        var camera = new Vector3d(40.0, 40.0, 40.0);
+
+        for (int i = 0; i < 100; i++) {
+            var movement = moveCamera(random, camera);
+
+            var expected = triggerSync(sync, movement);
+
+            async.beginTriggerSections(movement);
+            var actual = this.finishAsync(async);
+
+            assertEquals(expected, actual, "Triggered sections differ for movement " + i);
+        }
+    }
+
+    @Test
+    void queuedMovementsAreEachProcessed() {
+        var sync = new SortTriggering(Runnable::run);
+        var async = new SortTriggering(this.tasks::add);
+
+        integrateWorld(sync, 3L, 100, new Vector3d());
+        integrateWorld(async, 3L, 100, new Vector3d());
+
+        // the camera moves back and forth while the first movement is processed, so a single movement from the
+        // first start to the last end would not cross any planes
+        var start = new Vector3d(20.0, 30.0, 20.0);
+        var far = new Vector3d(60.0, 30.0, 60.0);
+        var first = new CameraMovement(new Vector3d(10.0, 30.0, 10.0), start);
+        var forth = new CameraMovement(start, far);
+        var back = new CameraMovement(far, start);
+
+        var expected = new LongOpenHashSet();
+        expected.addAll(triggerSync(sync, first));
+        expected.addAll(triggerSync(sync, forth));
+        expected.addAll(triggerSync(sync, back));
+
+        async.beginTriggerSections(first);
+        async.beginTriggerSections(forth);
+        async.beginTriggerSections(back);
+
+        // the first movement is processed on its own, and the queued movements by the following task
+        assertEquals(1, this.tasks.size());
+        var actual = this.finishAsync(async);
+        actual.addAll(this.finishAsync(async));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void updatesAreDeferredWhileTriggering() {
+        var sync = new SortTriggering(Runnable::run);
+        var async = new SortTriggering(this.tasks::add);
+
+        var camera = new Vector3d(8.0, 8.0, 8.0);
+        var syncSections = integrateWorld(sync, 4L, 50, camera);
+        var asyncSections = integrateWorld(async, 4L, 50, camera);
+
+        var first = new CameraMovement(new Vector3d(camera), new Vector3d(40.0, 20.0, 40.0));
+        var second = new CameraMovement(new Vector3d(40.0, 20.0, 40.0), new Vector3d(0.0, 0.0, 0.0));
+
+        // the synchronous path processes the movement before the sections are updated
+        var expectedFirst = triggerSync(sync, first);
+        sync.removeSection(syncSections.get(0), syncSections.get(0).sectionPos.asLong());
+        var replacement = createSection(new Random(5L), syncSections.get(1).sectionPos, camera);
+        var expectedCatchup = new LongOpenHashSet();
+        sync.integrateTranslucentData(syncSections.get(1), replacement, first.end(), collectInto(expectedCatchup));
+        var expectedSecond = triggerSync(sync, second);
+
+        // the background path receives the same updates while the movement is being processed
+        async.beginTriggerSections(first);
+        async.removeSection(asyncSections.get(0), asyncSections.get(0).sectionPos.asLong());
+        var actualCatchup = new LongOpenHashSet();
+        async.integrateTranslucentData(asyncSections.get(1), createSection(new Random(5L), asyncSections.get(1).sectionPos, camera),
+                first.end(), collectInto(actualCatchup));
+
+        // nothing may be applied before the background task has completed
+        assertTrue(actualCatchup.isEmpty());
+
+        var actualFirst = this.finishAsync(async);
+        async.beginTriggerSections(second);
+        var actualSecond = this.finishAsync(async);
+
+        assertEquals(expectedFirst, actualFirst);
+        assertEquals(expectedCatchup, actualCatchup);
+        assertEquals(expectedSecond, actualSecond);
+        assertFalse(actualSecond.contains(asyncSections.get(0).sectionPos.asLong()), "Removed section was triggered");
+    }
+
+    @Test
+    void integratedSectionsCatchUpWithMovement() {
+        var triggering = new SortTriggering(Runnable::run);
+        var pos = SectionPos.of(0, 0, 0);
+
+        // a single pane at x = 8 in the section, which faces towards positive x
+        var crossed = new GeometryPlanes();
+        crossed.addAlignedPlane(pos, ModelQuadFacing.POS_X.ordinal(), 8.0f);
+        crossed.prepareIntegration();
+
+        var triggered = new LongOpenHashSet();
+
+        // the camera crossed the pane between the section being built and integrated
+        triggering.integrateTranslucentData(null, new TestDynamicData(pos, crossed, new Vector3d(2.0, 8.0, 8.0)),
+                new Vector3d(12.0, 8.0, 8.0), collectInto(triggered));
+        assertEquals(LongSet.of(pos.asLong()), triggered);
+
+        var other = SectionPos.of(1, 0, 0);
+        var notCrossed = new GeometryPlanes();
+        notCrossed.addAlignedPlane(other, ModelQuadFacing.POS_X.ordinal(), 8.0f);
+        notCrossed.prepareIntegration();
+
+        triggered.clear();
+        triggering.integrateTranslucentData(null, new TestDynamicData(other, notCrossed, new Vector3d(2.0, 8.0, 8.0)),
+                new Vector3d(12.0, 8.0, 8.0), collectInto(triggered));
+        assertTrue(triggered.isEmpty());
+    }
+
+    @Benchmark
+    void benchmarkGlassWorld() {
+        var triggering = new SortTriggering(Runnable::run);
+        var sections = integrateWorld(triggering, 7L, 4096, new Vector3d());
+
+        var random = new Random(8L);
+        var camera = new Vector3d(128.0, 64.0, 128.0);
+        var movements = new CameraMovement[1000];
+
+        for (int i = 0; i < movements.length; i++) {
+            movements[i] = moveCamera(random, camera);
+        }
+
+        long[] triggered = new long[1];
+        BiConsumer<Long, Boolean> callback = (pos, direct) -> triggered[0]++;
+
+        long movementTime = BenchmarkReport.measure(5, 10, () -> {
+            for (var movement : movements) {
+                triggering.triggerSections(callback, movement);
+            }
+        });
+
+        // replacing sections exercises the lookup of a section's normal lists
+        var replacements = new TestDynamicData[sections.size()];
+        long updateTime = BenchmarkReport.measure(0, 1, () -> {
+            for (int i = 0; i < sections.size(); i++) {
+                var old = sections.get(i);
+                replacements[i] = createSection(random, old.sectionPos, camera);
+                triggering.integrateTranslucentData(old, replacements[i], camera, callback);
+            }
+        });
+
+        new BenchmarkReport("sort_triggering")
+                .put("sections", sections.size())
+                .put("ns_per_movement", (double) movementTime / movements.length)
+                .put("ns_per_section_update", (double) updateTime / sections.size())
+                .put("triggered_sections", triggered[0])
+                .write();
+    }
+
+    private LongOpenHashSet finishAsync(SortTriggering triggering) {
+        var triggered = new LongOpenHashSet();
+
+        // the results are not available before the background task has run
+        assertEquals(0, triggering.finishTriggerSections(collectInto(triggered)));
+
+        while (!this.tasks.isEmpty()) {
+            this.tasks.poll().run();
+        }
+
+        triggering.finishTriggerSections(collectInto(triggered));
+
+        return triggered;
+    }
+
+    private static LongOpenHashSet triggerSync(SortTriggering triggering, CameraMovement movement) {
+        var triggered = new LongOpenHashSet();
+        triggering.triggerSections(collectInto(triggered), movement);
+
+        return triggered;
+    }
+
+    private static BiConsumer<Long, Boolean> collectInto(LongSet set) {
+        return (pos, direct) -> set.add(pos.longValue());
+    }
+
+    private static CameraMovement moveCamera(Random random, Vector3d camera) {
+        var start = new Vector3d(camera);
+        camera.add(random.nextGaussian() * 4.0, random.nextGaussian() * 2.0, random.nextGaussian() * 4.0);
+
+        return new CameraMovement(start, new Vector3d(camera));
+    }
+
+    private static List<TestDynamicData> integrateWorld(SortTriggering triggering, long seed, int count, Vector3d camera) {
+        var random = new Random(seed);
+        var sections = new ObjectArrayList<TestDynamicData>();
+        int size = (int) Math.ceil(Math.cbrt(count));
+
+        for (int i = 0; i < count; i++) {
+            var pos = SectionPos.of(i % size, (i / size) % size, i / (size * size));
+            var section = createSection(random, pos, camera);
+
+            triggering.integrateTranslucentData(null, section, camera, (p, direct) -> { });
+            sections.add(section);
+        }
+
+        return sections;
+    }
+
+    /**
+     * Creates a section with glass panes along every axis, and occasionally some diagonal panes.
+     */
+    private static TestDynamicData createSection(Random random, SectionPos pos, Vector3d camera) {
+        var planes = new GeometryPlanes();
+
+        for (int pane = 0, count = 1 + random.nextInt(16); pane < count; pane++) {
+            int axis = random.nextInt(3);
+            float distance = random.nextInt(16) + (random.nextBoolean() ? 0.5625f : 0.4375f);
+
+            planes.addDoubleSidedPlane(pos, axis, distance);
+        }
+
+        if (random.nextInt(4) == 0) {
+            var normal = UNALIGNED_NORMALS[random.nextInt(UNALIGNED_NORMALS.length)];
+            planes.addUnalignedPlane(pos, normal, random.nextFloat() * 16.0f);
+        }
+
+        planes.prepareIntegration();
+
+        return new TestDynamicData(pos, planes, new Vector3d(camera));
+    }
+}
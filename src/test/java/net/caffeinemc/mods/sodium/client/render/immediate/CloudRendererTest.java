@@ -0,0 +1,232 @@
+package net.caffeinemc.mods.sodium.client.render.immediate;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.ColorVertex;
+import net.caffeinemc.mods.sodium.client.render.immediate.CloudRenderer.CloudGeometryParameters;
+import net.caffeinemc.mods.sodium.client.render.immediate.CloudRenderer.CloudTextureData;
+import net.caffeinemc.mods.sodium.client.render.immediate.CloudRenderer.CloudTileKey;
+import net.caffeinemc.mods.sodium.client.render.immediate.CloudRenderer.CloudTileMesh;
+import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import net.minecraft.client.CloudStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that merging the tiles produces the same geometry as building all the clouds at once, in the same order of
+ * distance to the origin. This does not require a GL context, as the geometry is built in native memory.
+ */
+class CloudRendererTest {
+    private static final int RADIUS = 40;
+
+    private CloudTextureData textureData;
+    private final List<NativeBuffer> buffers = new ObjectArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        var random = new Random(42L);
+        int[] texels = new int[64 * 64];
+
+        for (int i = 0; i < texels.length; i++) {
+            // transparent cells, and opaque cells of two colors, so that faces are also generated between cells
+            texels[i] = switch (random.nextInt(3)) {
+                case 0 -> 0x00000000;
+                case 1 -> 0xFFFFFFFF;
+                default -> 0xFFE0E0E0;
+            };
+        }
+
+        this.textureData = new CloudTextureData(64, 64, (x, z) -> texels[(x * 64) + z]);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (var buffer : this.buffers) {
+            buffer.free();
+        }
+
+        this.buffers.clear();
+    }
+
+    @Test
+    void mergedTilesMatchMonolithicRebuild() {
+        for (CloudStatus renderMode : new CloudStatus[] { CloudStatus.FANCY, CloudStatus.FAST }) {
+            for (int orientation : new int[] { -1, 0, 1 }) {
+                var parameters = new CloudGeometryParameters(5, -7, RADIUS, orientation, renderMode);
+
+                this.assertMatchesMonolithic(parameters, this.mergeTiles(parameters, new HashMap<>()));
+            }
+        }
+    }
+
+    @Test
+    void reusedTilesMatchMonolithicRebuild() {
+        Map<CloudTileKey, CloudTileMesh> cache = new HashMap<>();
+        int[][] origins = { { 0, 0 }, { 1, 0 }, { 1, 1 }, { 2, 1 }, { 2, 2 }, { 3, 2 }, { 20, -3 }, { 37, 15 }, { 36, 15 } };
+
+        int totalTiles = 0;
+
+        for (int[] origin : origins) {
+            var parameters = new CloudGeometryParameters(origin[0], origin[1], RADIUS, 1, CloudStatus.FANCY);
+            totalTiles += getTileKeys(parameters).size();
+
+            this.assertMatchesMonolithic(parameters, this.mergeTiles(parameters, cache));
+        }
+
+        // most tiles must have been re-used as the origin moved, which is the point of splitting the clouds into tiles
+        assertTrue(cache.size() < totalTiles / 2, "Expected most tiles to be re-used, but built " + cache.size() + " of " + totalTiles);
+    }
+
+    private CloudRenderer.CloudMesh mergeTiles(CloudGeometryParameters parameters, Map<CloudTileKey, CloudTileMesh> cache) {
+        List<CloudTileMesh> meshes = new ObjectArrayList<>();
+
+        for (var key : getTileKeys(parameters)) {
+            meshes.add(cache.computeIfAbsent(key, k -> {
+                var mesh = CloudRenderer.buildTileGeometry(k, this.textureData);
+                this.buffers.add(mesh.buffer());
+
+                return mesh;
+            }));
+        }
+
+        var merged = CloudRenderer.mergeTileGeometry(parameters, meshes);
+        this.buffers.add(merged.buffer());
+
+        return merged;
+    }
+
+    private static List<CloudTileKey> getTileKeys(CloudGeometryParameters parameters) {
+        List<CloudTileKey> keys = new ObjectArrayList<>();
+
+        int minTileX = Math.floorDiv(parameters.originX() - parameters.radius(), CloudRenderer.TILE_SIZE);
+        int minTileZ = Math.floorDiv(parameters.originZ() - parameters.radius(), CloudRenderer.TILE_SIZE);
+        int maxTileX = Math.floorDiv(parameters.originX() + parameters.radius(), CloudRenderer.TILE_SIZE);
+        int maxTileZ = Math.floorDiv(parameters.originZ() + parameters.radius(), CloudRenderer.TILE_SIZE);
+
+        for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+            for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                keys.add(CloudTileKey.create(tileX, tileZ, parameters));
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Builds the clouds within the radius around the origin at once, in order of their distance to the origin, and
+     * compares them to the merged geometry. The merged geometry also contains the cells past the edge of the radius
+     * which are covered by the outermost tiles, and these are ignored.
+     */
+    private void assertMatchesMonolithic(CloudGeometryParameters parameters, CloudRenderer.CloudMesh merged) {
+        var expected = this.buildMonolithic(parameters);
+        var found = new ObjectOpenHashSet<IntArrayList>();
+
+        int lastDistance = -1;
+
+        for (var quad : readQuads(merged.buffer(), merged.vertexCount())) {
+            int distance = expected.getOrDefault(quad, -1);
+
+            if (distance < 0) {
+                assertTrue(isOutsideRadius(quad, parameters.radius()), "Merged geometry contains an unexpected quad " + quad);
+                continue;
+            }
+
+            assertTrue(distance >= lastDistance, "Quad at distance " + distance + " follows a quad at distance " + lastDistance);
+            assertTrue(found.add(quad), "Quad was emitted twice " + quad);
+
+            lastDistance = distance;
+        }
+
+        assertEquals(expected.size(), found.size(), "Merged geometry is missing quads");
+    }
+
+    private Object2IntOpenHashMap<IntArrayList> buildMonolithic(CloudGeometryParameters parameters) {
+        int radius = parameters.radius();
+        var key = new CloudTileKey(0, 0, parameters.originX(), parameters.originZ(), parameters.orientation(), parameters.renderMode());
+
+        var buffer = new NativeBuffer((2 * radius + 1) * (2 * radius + 1) * 2 * 6 * 4 * ColorVertex.STRIDE);
+        this.buffers.add(buffer);
+
+        var quads = new Object2IntOpenHashMap<IntArrayList>();
+        long start = MemoryUtil.memAddress(buffer.getDirectBuffer());
+
+        for (int distance = 0; distance <= 2 * radius; distance++) {
+            long ptr = start;
+
+            for (int x = -radius; x <= radius; x++) {
+                int z = distance - Math.abs(x);
+
+                if (z < 0 || z > radius) {
+                    continue;
+                }
+
+                ptr = CloudRenderer.addCellGeometry(ptr, key, this.textureData, parameters.originX() + x,
+                        parameters.originZ() - z, parameters.originX(), parameters.originZ());
+
+                if (z != 0) {
+                    ptr = CloudRenderer.addCellGeometry(ptr, key, this.textureData, parameters.originX() + x,
+                            parameters.originZ() + z, parameters.originX(), parameters.originZ());
+                }
+            }
+
+            int vertexCount = (int) ((ptr - start) / ColorVertex.STRIDE);
+
+            for (var quad : readQuads(start, vertexCount)) {
+                assertFalse(quads.containsKey(quad), "Monolithic geometry contains a duplicate quad " + quad);
+                quads.put(quad, distance);
+            }
+        }
+
+        return quads;
+    }
+
+    private static List<IntArrayList> readQuads(NativeBuffer buffer, int vertexCount) {
+        return readQuads(MemoryUtil.memAddress(buffer.getDirectBuffer()), vertexCount);
+    }
+
+    private static List<IntArrayList> readQuads(long ptr, int vertexCount) {
+        assertEquals(0, vertexCount % 4);
+
+        List<IntArrayList> quads = new ObjectArrayList<>();
+
+        for (int quad = 0; quad < vertexCount / 4; quad++) {
+            var data = new IntArrayList(16);
+
+            for (int i = 0; i < 16; i++) {
+                data.add(MemoryUtil.memGetInt(ptr));
+                ptr += 4;
+            }
+
+            quads.add(data);
+        }
+
+        return quads;
+    }
+
+    private static boolean isOutsideRadius(IntArrayList quad, int radius) {
+        boolean beyondMinX = true, beyondMaxX = true, beyondMinZ = true, beyondMaxZ = true;
+
+        for (int vertex = 0; vertex < 4; vertex++) {
+            float x = Float.intBitsToFloat(quad.getInt((vertex * 4) + 0));
+            float z = Float.intBitsToFloat(quad.getInt((vertex * 4) + 2));
+
+            beyondMinX &= x <= -radius * 12;
+            beyondMaxX &= x >= (radius + 1) * 12;
+            beyondMinZ &= z <= -radius * 12;
+            beyondMaxZ &= z >= (radius + 1) * 12;
+        }
+
+        return beyondMinX || beyondMaxX || beyondMinZ || beyondMaxZ;
+    }
+}
@@ -0,0 +1,234 @@
+package net.caffeinemc.mods.sodium.client.render.immediate;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.ParticleVertex;
+import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the quads written by the particle batch with those written one particle at a time by an independent
+ * reference, and measures the emit throughput of both with synthetic particles. Neither needs a game instance, since the batch is written to a vertex
+ * buffer writer in native memory.
+ */
+class ParticleBatchTest {
+    private static final int PARTICLE_COUNT = 50_000;
+
+    // Only the half-space in front of the camera is visible, which is roughly half of the synthetic particles
+    private static final Viewport VIEWPORT = new Viewport((minX, minY, minZ, maxX, maxY, maxZ) -> minZ < 0.0f,
+            new Vector3d());
+
+    private Quaternionf cameraRotation;
+    private Particle[] particles;
+
+    @BeforeEach
+    void setUp() {
+        var random = new Random(512L);
+
+        this.cameraRotation = new Quaternionf().rotationYXZ(0.4f, -0.2f, 0.0f);
+        this.particles = new Particle[PARTICLE_COUNT];
+
+        for (int i = 0; i < PARTICLE_COUNT; i++) {
+            float minU = random.nextFloat() * 0.9f, minV = random.nextFloat() * 0.9f;
+
+            this.particles[i] = new Particle(
+                    random.nextFloat() * 64.0f - 32.0f, random.nextFloat() * 64.0f - 32.0f, random.nextFloat() * 64.0f - 32.0f,
+                    0.05f + random.nextFloat() * 0.2f,
+                    // most particles don't roll, but smoke and spell particles do
+                    random.nextInt(4) == 0 ? random.nextFloat() * 6.0f : 0.0f,
+                    minU, minU + 0.1f, minV, minV + 0.1f,
+                    random.nextInt(), random.nextInt(0x00F000F0));
+        }
+    }
+
+    @Test
+    void batchMatchesImmediateQuads() {
+        var batch = new ParticleBatch();
+
+        // more than one push worth of quads, with a partial push at the end
+        for (int i = 0; i < 1000; i++) {
+            this.particles[i].append(batch);
+        }
+
+        var expected = new CapturingWriter();
+
+        for (int i = 0; i < 1000; i++) {
+            this.particles[i].writeImmediate(expected, this.cameraRotation);
+        }
+
+        var actual = new CapturingWriter();
+        assertEquals(1000, batch.write(actual, this.cameraRotation, null));
+
+        assertVerticesMatch(expected, actual);
+        assertTrue(actual.pushCount < expected.pushCount);
+    }
+
+    @Test
+    void culledParticlesAreNotWritten() {
+        var batch = new ParticleBatch();
+        var expected = new CapturingWriter();
+
+        for (int i = 0; i < 1000; i++) {
+            var particle = this.particles[i];
+            particle.append(batch);
+
+            // a particle is kept if any corner of its bounding square can be in front of the camera
+            if (particle.z - (particle.size * (float) Math.sqrt(2.0)) < 0.0f) {
+                particle.writeImmediate(expected, this.cameraRotation);
+            }
+        }
+
+        var actual = new CapturingWriter();
+        int written = batch.write(actual, this.cameraRotation, VIEWPORT);
+
+        assertTrue(written < 1000, "No particles were culled");
+        assertEquals(expected.bytes.size() / (4 * ParticleVertex.STRIDE), written);
+        assertVerticesMatch(expected, actual);
+
+        batch.clear();
+        assertEquals(0, batch.getCount());
+    }
+
+    @Benchmark
+    void benchmarkEmitThroughput() {
+        var batch = new ParticleBatch();
+        var writer = new DiscardingWriter();
+
+        long immediateTime = BenchmarkReport.measure(10, 20, () -> this.emitImmediate(writer));
+        long batchedTime = BenchmarkReport.measure(10, 20, () -> this.emitBatched(batch, writer, null));
+        long culledTime = BenchmarkReport.measure(10, 20, () -> this.emitBatched(batch, writer, VIEWPORT));
+
+        new BenchmarkReport("particle_emission")
+                .put("particles", PARTICLE_COUNT)
+                .put("immediate_ns_per_particle", (double) immediateTime / PARTICLE_COUNT)
+                .put("batched_ns_per_particle", (double) batchedTime / PARTICLE_COUNT)
+                .put("culled_ns_per_particle", (double) culledTime / PARTICLE_COUNT)
+                .put("vertices_written", writer.vertexCount)
+                .write();
+    }
+
+    private void emitImmediate(VertexBufferWriter writer) {
+        for (Particle particle : this.particles) {
+            particle.writeImmediate(writer, this.cameraRotation);
+        }
+    }
+
+    private void emitBatched(ParticleBatch batch, VertexBufferWriter writer, Viewport viewport) {
+        for (Particle particle : this.particles) {
+            particle.append(batch);
+        }
+
+        batch.write(writer, this.cameraRotation, viewport);
+        batch.clear();
+    }
+
+    private record Particle(float x, float y, float z, float size, float roll,
+                            float minU, float maxU, float minV, float maxV, int color, int light) {
+        void append(ParticleBatch batch) {
+            batch.append(this.x, this.y, this.z, this.size, this.roll, this.minU, this.maxU, this.minV, this.maxV, this.color, this.light);
+        }
+
+        /**
+         * Writes the particle one quad at a time like the particle renderer did before particles were batched, with
+         * the corners rotated by the quaternion in the same way as the vanilla particle renderer.
+         */
+        void writeImmediate(VertexBufferWriter writer, Quaternionf cameraRotation) {
+            Quaternionf rotation = cameraRotation;
+
+            if (this.roll != 0.0f) {
+                rotation = new Quaternionf(cameraRotation).rotateZ(this.roll);
+            }
+
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                long buffer = stack.nmalloc(4 * ParticleVertex.STRIDE);
+                long ptr = buffer;
+
+                this.writeVertex(ptr, rotation, -1.0f, -1.0f, this.maxU, this.maxV);
+                ptr += ParticleVertex.STRIDE;
+
+                this.writeVertex(ptr, rotation, -1.0f, 1.0f, this.maxU, this.minV);
+                ptr += ParticleVertex.STRIDE;
+
+                this.writeVertex(ptr, rotation, 1.0f, 1.0f, this.minU, this.minV);
+                ptr += ParticleVertex.STRIDE;
+
+                this.writeVertex(ptr, rotation, 1.0f, -1.0f, this.minU, this.maxV);
+
+                writer.push(stack, buffer, 4, ParticleVertex.FORMAT);
+            }
+        }
+
+        private void writeVertex(long ptr, Quaternionf rotation, float cornerX, float cornerY, float u, float v) {
+            var corner = rotation.transform(new Vector3f(cornerX, cornerY, 0.0f))
+                    .mul(this.size)
+                    .add(this.x, this.y, this.z);
+
+            ParticleVertex.put(ptr, corner.x, corner.y, corner.z, u, v, this.color, this.light);
+        }
+    }
+
+    /**
+     * Compares the vertices, allowing for rounding errors in the positions since the reference rotates the corners
+     * with a different sequence of operations.
+     */
+    private static void assertVerticesMatch(CapturingWriter expected, CapturingWriter actual) {
+        byte[] expectedBytes = expected.bytes.toByteArray();
+        byte[] actualBytes = actual.bytes.toByteArray();
+        assertEquals(expectedBytes.length, actualBytes.length);
+
+        var expectedBuffer = ByteBuffer.wrap(expectedBytes).order(ByteOrder.nativeOrder());
+        var actualBuffer = ByteBuffer.wrap(actualBytes).order(ByteOrder.nativeOrder());
+
+        for (int vertex = 0; vertex < expectedBytes.length; vertex += ParticleVertex.STRIDE) {
+            for (int i = 0; i < 3; i++) {
+                float expectedPosition = expectedBuffer.getFloat(vertex + (i * 4));
+                float actualPosition = actualBuffer.getFloat(vertex + (i * 4));
+                assertEquals(expectedPosition, actualPosition, 1.0e-5f * Math.max(1.0f, Math.abs(expectedPosition)),
+                        "Position differs in vertex " + (vertex / ParticleVertex.STRIDE));
+            }
+
+            for (int i = 12; i < ParticleVertex.STRIDE; i++) {
+                assertEquals(expectedBytes[vertex + i], actualBytes[vertex + i],
+                        "Attributes differ in vertex " + (vertex / ParticleVertex.STRIDE));
+            }
+        }
+    }
+
+    private static class CapturingWriter implements VertexBufferWriter {
+        private final ByteArrayList bytes = new ByteArrayList();
+        private int pushCount;
+
+        @Override
+        public void push(MemoryStack stack, long ptr, int count, VertexFormatDescription format) {
+            for (int i = 0; i < count * format.stride(); i++) {
+                this.bytes.add(MemoryUtil.memGetByte(ptr + i));
+            }
+
+            this.pushCount++;
+        }
+    }
+
+    private static class DiscardingWriter implements VertexBufferWriter {
+        private long vertexCount;
+
+        @Override
+        public void push(MemoryStack stack, long ptr, int count, VertexFormatDescription format) {
+            this.vertexCount += count;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.ModelVertex;
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import net.minecraft.core.Direction;
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the vertices written by the entity renderer with those of the previous implementation, which transformed
+ * and pushed every cuboid on its own, and measures the throughput and allocations of both.
+ */
+class EntityRendererTest {
+    private static final long LEGACY_BUFFER = MemoryUtil.nmemAlignedAlloc(64, 6 * 4 * ModelVertex.STRIDE);
+
+    @AfterAll
+    static void tearDown() {
+        MemoryUtil.nmemAlignedFree(LEGACY_BUFFER);
+    }
+
+    @Test
+    void outputMatchesLegacyRenderer() {
+        var random = new Random(1234L);
+
+        for (int iteration = 0; iteration < 500; iteration++) {
+            var pose = createPose(random);
+            var cuboids = createCuboids(random, 1 + random.nextInt(24));
+
+            int light = random.nextInt(), overlay = random.nextInt(), color = random.nextInt();
+
+            var expected = new CapturingWriter();
+            renderLegacy(pose, expected, cuboids, light, overlay, color);
+
+            var actual = new CapturingWriter();
+            EntityRenderer.renderCuboids(pose, actual, cuboids, light, overlay, color);
+
+            assertArrayEquals(expected.bytes.toByteArray(), actual.bytes.toByteArray(), "Vertex data differs in iteration " + iteration);
+
+            // the vertices of a part should be pushed in as few batches as the batch size allows
+            assertTrue(actual.pushCount <= expected.pushCount);
+        }
+    }
+
+    @Test
+    void partTreeMatchesPoseStackTraversal() {
+        var random = new Random(99L);
+
+        for (int iteration = 0; iteration < 50; iteration++) {
+            var pose = createPose(random);
+            var root = createTree(random, 12);
+
+            var expected = new CapturingWriter();
+            renderTreeLegacy(createPoseStack(pose), expected, root);
+
+            var actual = new CapturingWriter();
+            EntityRenderer.render(pose, actual, root, 0, 0, -1);
+
+            assertVerticesMatch(expected, actual, "Vertex data differs in iteration " + iteration);
+        }
+    }
+
+    @Test
+    void partTransformIsAppliedThroughTranslateAndRotate() {
+        var random = new Random(5L);
+        var pose = createPose(random);
+
+        var part = new TestModelPart(1.0f, 2.0f, 3.0f, 0.5f, 2) {
+            @Override
+            public void translateAndRotate(PoseStack poseStack) {
+                super.translateAndRotate(poseStack);
+
+                // a transform added by another mod
+                poseStack.translate(0.0f, 1.5f, 0.0f);
+            }
+        };
+
+        var poseStack = createPoseStack(pose);
+        translateAndRotateLegacy(poseStack, part);
+        poseStack.translate(0.0f, 1.5f, 0.0f);
+
+        var expected = new CapturingWriter();
+        renderLegacy(poseStack.last(), expected, part.getCuboids(), 0, 0, -1);
+
+        var actual = new CapturingWriter();
+        EntityRenderer.render(pose, actual, part, 0, 0, -1);
+
+        assertVerticesMatch(expected, actual, "Vertex data differs");
+    }
+
+    @Test
+    void renderingPartTreeDoesNotAllocate() {
+        var allocationCounter = getAllocationCounter();
+
+        var random = new Random(7L);
+        var pose = createPose(random);
+        // deeper than the initial size of the pose stack, so that it has to grow once while warming up
+        var root = createTree(random, 12);
+
+        var writer = new DiscardingWriter();
+        int iterations = 10_000;
+
+        long allocated = measureAllocatedBytes(allocationCounter, iterations,
+                () -> EntityRenderer.render(pose, writer, root, 0, 0, -1));
+
+        // the counter is only updated per allocation buffer, so allow for an occasional unrelated allocation
+        assertTrue(allocated < iterations, "Rendering a part tree allocated " + allocated + " bytes in " + iterations + " renders");
+    }
+
+    @Benchmark
+    void benchmarkPartTree() {
+        var allocationCounter = getAllocationCounter();
+
+        var random = new Random(7L);
+        var pose = createPose(random);
+        var root = createTree(random, 12);
+
+        var writer = new DiscardingWriter();
+        int iterations = 10_000;
+
+        long legacyAllocated = measureAllocatedBytes(allocationCounter, iterations,
+                () -> renderTreeLegacy(createPoseStack(pose), writer, root));
+        long allocated = measureAllocatedBytes(allocationCounter, iterations,
+                () -> EntityRenderer.render(pose, writer, root, 0, 0, -1));
+
+        long legacyTime = BenchmarkReport.measure(5, 10, () -> {
+            for (int i = 0; i < iterations; i++) {
+                renderTreeLegacy(createPoseStack(pose), writer, root);
+            }
+        });
+
+        long time = BenchmarkReport.measure(5, 10, () -> {
+            for (int i = 0; i < iterations; i++) {
+                EntityRenderer.render(pose, writer, root, 0, 0, -1);
+            }
+        });
+
+        new BenchmarkReport("part_tree")
+                .put("legacy_bytes_per_render", (double) legacyAllocated / iterations)
+                .put("bytes_per_render", (double) allocated / iterations)
+                .put("legacy_ns_per_render", (double) legacyTime / iterations)
+                .put("ns_per_render", (double) time / iterations)
+                .write();
+    }
+
+    @Benchmark
+    void benchmarkEmission() {
+        var random = new Random(42L);
+        var pose = createPose(random);
+        var cuboids = createCuboids(random, 16);
+
+        var writer = new DiscardingWriter();
+        int iterations = 100_000;
+
+        long legacyTime = BenchmarkReport.measure(5, 10, () -> {
+            for (int i = 0; i < iterations; i++) {
+                renderLegacy(pose, writer, cuboids, 0, 0, -1);
+            }
+        });
+
+        long batchedTime = BenchmarkReport.measure(5, 10, () -> {
+            for (int i = 0; i < iterations; i++) {
+                EntityRenderer.renderCuboids(pose, writer, cuboids, 0, 0, -1);
+            }
+        });
+
+        new BenchmarkReport("cuboid_emission")
+                .put("legacy_ns_per_cuboid", (double) legacyTime / (iterations * cuboids.length))
+                .put("batched_ns_per_cuboid", (double) batchedTime / (iterations * cuboids.length))
+                .write();
+    }
+
+    private static PoseStack.Pose createPose(Random random) {
+        var poseStack = new PoseStack();
+        poseStack.translate(random.nextFloat() * 32.0f - 16.0f, random.nextFloat() * 32.0f - 16.0f, random.nextFloat() * 32.0f - 16.0f);
+        poseStack.mulPose(new Quaternionf().rotationXYZ(random.nextFloat() * 6.0f, random.nextFloat() * 6.0f, random.nextFloat() * 6.0f));
+
+        switch (random.nextInt(3)) {
+            case 0 -> poseStack.scale(1.5f, 1.5f, 1.5f);
+            case 1 -> poseStack.scale(-1.0f, 0.5f, 2.0f);
+            default -> { }
+        }
+
+        return poseStack.last();
+    }
+
+    private static ModelCuboid[] createCuboids(Random random, int count) {
+        var cuboids = new ModelCuboid[count];
+
+        for (int i = 0; i < count; i++) {
+            Set<Direction> directions = EnumSet.noneOf(Direction.class);
+
+            for (var direction : Direction.values()) {
+                if (random.nextInt(4) != 0) {
+                    directions.add(direction);
+                }
+            }
+
+            cuboids[i] = new ModelCuboid(random.nextInt(64), random.nextInt(64),
+                    random.nextFloat() * 16.0f - 8.0f, random.nextFloat() * 16.0f - 8.0f, random.nextFloat() * 16.0f - 8.0f,
+                    1 + random.nextInt(8), 1 + random.nextInt(8), 1 + random.nextInt(8),
+                    random.nextFloat() * 0.5f, random.nextFloat() * 0.5f, random.nextFloat() * 0.5f,
+                    random.nextBoolean(), 64.0f, 64.0f, directions);
+        }
+
+        return cuboids;
+    }
+
+    private static PoseStack createPoseStack(PoseStack.Pose base) {
+        var poseStack = new PoseStack();
+        poseStack.last().pose().set(base.pose());
+        poseStack.last().normal().set(base.normal());
+        poseStack.last().trustedNormals = base.trustedNormals;
+
+        return poseStack;
+    }
+
+    private static TestModelPart createTree(Random random, int depth) {
+        TestModelPart child = null;
+
+        for (int level = depth; level > 0; level--) {
+            var sibling = new TestModelPart(random.nextFloat(), random.nextFloat(), random.nextFloat(), 0.0f, 1);
+            sibling.hidden = random.nextBoolean();
+
+            switch (random.nextInt(3)) {
+                case 0 -> sibling.xScale = sibling.yScale = sibling.zScale = -1.25f;
+                case 1 -> {
+                    sibling.xScale = 0.5f;
+                    sibling.zScale = 1.5f;
+                }
+                default -> { }
+            }
+
+            var children = child != null ? new ModelPartData[] { child, sibling } : new ModelPartData[] { sibling };
+            child = new TestModelPart(random.nextFloat() * 4.0f, random.nextFloat() * 4.0f, random.nextFloat() * 4.0f,
+                    random.nextFloat() * 2.0f, 1 + random.nextInt(3), children);
+
+            if (random.nextBoolean()) {
+                child.yRot = random.nextFloat() * 2.0f;
+                child.zRot = random.nextFloat() * 2.0f;
+            }
+        }
+
+        return child;
+    }
+
+    /**
+     * Walks the part tree with a {@link PoseStack}, in the same way as the vanilla model part renderer.
+     */
+    private static void renderTreeLegacy(PoseStack poseStack, VertexBufferWriter writer, TestModelPart part) {
+        if (!part.isVisible()) {
+            return;
+        }
+
+        poseStack.pushPose();
+        translateAndRotateLegacy(poseStack, part);
+
+        if (!part.isHidden()) {
+            renderLegacy(poseStack.last(), writer, part.getCuboids(), 0, 0, -1);
+        }
+
+        for (ModelPartData child : part.getChildren()) {
+            renderTreeLegacy(poseStack, writer, (TestModelPart) child);
+        }
+
+        poseStack.popPose();
+    }
+
+    /**
+     * Applies the transform of the part in the same way as the vanilla implementation of
+     * {@link net.minecraft.client.model.geom.ModelPart#translateAndRotate(PoseStack)}, except that the translation
+     * isn't given in sixteenths of a block.
+     */
+    private static void translateAndRotateLegacy(PoseStack poseStack, TestModelPart part) {
+        poseStack.translate(part.x, part.y, part.z);
+
+        if (part.xRot != 0.0f || part.yRot != 0.0f || part.zRot != 0.0f) {
+            poseStack.mulPose(new Quaternionf().rotationZYX(part.zRot, part.yRot, part.xRot));
+        }
+
+        if (part.xScale != 1.0f || part.yScale != 1.0f || part.zScale != 1.0f) {
+            poseStack.scale(part.xScale, part.yScale, part.zScale);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationCounter() {
+        var threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "Thread allocation counters are not available");
+
+        var allocationCounter = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocationCounter.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        allocationCounter.setThreadAllocatedMemoryEnabled(true);
+
+        return allocationCounter;
+    }
+
+    /**
+     * Returns the number of bytes allocated by running the body the given number of times, after running it twice as
+     * often to warm up.
+     */
+    private static long measureAllocatedBytes(com.sun.management.ThreadMXBean allocationCounter, int iterations, Runnable body) {
+        for (int i = 0; i < iterations * 2; i++) {
+            body.run();
+        }
+
+        long start = allocationCounter.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < iterations; i++) {
+            body.run();
+        }
+
+        return allocationCounter.getCurrentThreadAllocatedBytes() - start;
+    }
+
+    /**
+     * Compares the vertices, allowing for rounding errors in the positions and normals since the rotations of the
+     * vanilla renderer go through a quaternion.
+     */
+    private static void assertVerticesMatch(CapturingWriter expected, CapturingWriter actual, String message) {
+        byte[] expectedBytes = expected.bytes.toByteArray();
+        byte[] actualBytes = actual.bytes.toByteArray();
+        assertEquals(expectedBytes.length, actualBytes.length, message);
+
+        var expectedBuffer = ByteBuffer.wrap(expectedBytes).order(ByteOrder.nativeOrder());
+        var actualBuffer = ByteBuffer.wrap(actualBytes).order(ByteOrder.nativeOrder());
+
+        for (int vertex = 0; vertex < expectedBytes.length; vertex += ModelVertex.STRIDE) {
+            for (int i = 0; i < 3; i++) {
+                float expectedPosition = expectedBuffer.getFloat(vertex + (i * 4));
+                float actualPosition = actualBuffer.getFloat(vertex + (i * 4));
+                assertEquals(expectedPosition, actualPosition, 1.0e-4f * Math.max(1.0f, Math.abs(expectedPosition)), message);
+            }
+
+            for (int i = 12; i < 32; i++) {
+                assertEquals(expectedBytes[vertex + i], actualBytes[vertex + i], message);
+            }
+
+            for (int i = 32; i < 35; i++) {
+                assertEquals(expectedBytes[vertex + i], actualBytes[vertex + i], 1, message);
+            }
+        }
+    }
+
+    /**
+     * The previous implementation, which emitted the faces of each cuboid from the transformed corners and pushed them
+     * to the writer separately.
+     */
+    private static void renderLegacy(PoseStack.Pose pose, VertexBufferWriter writer, ModelCuboid[] cuboids, int light, int overlay, int color) {
+        int[] normals = new int[6];
+        normals[ModelCuboid.FACE_NEG_Y] = MatrixHelper.transformNormal(pose.normal(), pose.trustedNormals, Direction.DOWN);
+        normals[ModelCuboid.FACE_POS_Y] = MatrixHelper.transformNormal(pose.normal(), pose.trustedNormals, Direction.UP);
+        normals[ModelCuboid.FACE_NEG_Z] = MatrixHelper.transformNormal(pose.normal(), pose.trustedNormals, Direction.NORTH);
+        normals[ModelCuboid.FACE_POS_Z] = MatrixHelper.transformNormal(pose.normal(), pose.trustedNormals, Direction.SOUTH);
+        normals[ModelCuboid.FACE_POS_X] = MatrixHelper.transformNormal(pose.normal(), pose.trustedNormals, Direction.WEST);
+        normals[ModelCuboid.FACE_NEG_X] = MatrixHelper.transformNormal(pose.normal(), pose.trustedNormals, Direction.EAST);
+
+        int[] mirroredNormals = normals.clone();
+        mirroredNormals[ModelCuboid.FACE_POS_X] = normals[ModelCuboid.FACE_NEG_X];
+        mirroredNormals[ModelCuboid.FACE_NEG_X] = normals[ModelCuboid.FACE_POS_X];
+
+        for (ModelCuboid cuboid : cuboids) {
+            float[][] corners = {
+                    transform(pose, cuboid.x1, cuboid.y1, cuboid.z1),
+                    transform(pose, cuboid.x2, cuboid.y1, cuboid.z1),
+                    transform(pose, cuboid.x2, cuboid.y2, cuboid.z1),
+                    transform(pose, cuboid.x1, cuboid.y2, cuboid.z1),
+                    transform(pose, cuboid.x1, cuboid.y1, cuboid.z2),
+                    transform(pose, cuboid.x2, cuboid.y1, cuboid.z2),
+                    transform(pose, cuboid.x2, cuboid.y2, cuboid.z2),
+                    transform(pose, cuboid.x1, cuboid.y2, cuboid.z2)
+            };
+
+            int[][] faceCorners = {
+                    { 5, 4, 0, 1 },
+                    { 2, 3, 7, 6 },
+                    { 1, 0, 3, 2 },
+                    { 4, 5, 6, 7 },
+                    { 5, 1, 2, 6 },
+                    { 0, 4, 7, 3 }
+            };
+
+            float[][] faceTexCoords = {
+                    texCoords(cuboid.u1, cuboid.v0, cuboid.u2, cuboid.v1),
+                    texCoords(cuboid.u2, cuboid.v1, cuboid.u3, cuboid.v0),
+                    texCoords(cuboid.u1, cuboid.v1, cuboid.u2, cuboid.v2),
+                    texCoords(cuboid.u4, cuboid.v1, cuboid.u5, cuboid.v2),
+                    texCoords(cuboid.u2, cuboid.v1, cuboid.u4, cuboid.v2),
+                    texCoords(cuboid.u0, cuboid.v1, cuboid.u1, cuboid.v2)
+            };
+
+            int[] faceNormals = cuboid.mirror ? mirroredNormals : normals;
+
+            long ptr = LEGACY_BUFFER;
+            int vertexCount = 0;
+
+            for (int face = 0; face < 6; face++) {
+                if (!cuboid.shouldDrawFace(face)) {
+                    continue;
+                }
+
+                for (int vertex = 0; vertex < 4; vertex++) {
+                    int index = cuboid.mirror ? 3 - vertex : vertex;
+                    float[] corner = corners[faceCorners[face][index]];
+
+                    ModelVertex.write(ptr, corner[0], corner[1], corner[2], color,
+                            faceTexCoords[face][index * 2], faceTexCoords[face][(index * 2) + 1],
+                            overlay, light, faceNormals[face]);
+
+                    ptr += ModelVertex.STRIDE;
+                    vertexCount++;
+                }
+            }
+
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                writer.push(stack, LEGACY_BUFFER, vertexCount, ModelVertex.FORMAT);
+            }
+        }
+    }
+
+    private static float[] transform(PoseStack.Pose pose, float x, float y, float z) {
+        return new float[] {
+                MatrixHelper.transformPositionX(pose.pose(), x, y, z),
+                MatrixHelper.transformPositionY(pose.pose(), x, y, z),
+                MatrixHelper.transformPositionZ(pose.pose(), x, y, z)
+        };
+    }
+
+    private static float[] texCoords(float u1, float v1, float u2, float v2) {
+        return new float[] { u2, v1, u1, v1, u1, v2, u2, v2 };
+    }
+
+    private static class CapturingWriter implements VertexBufferWriter {
+        private final ByteArrayList bytes = new ByteArrayList();
+        private int pushCount;
+
+        @Override
+        public void push(MemoryStack stack, long ptr, int count, VertexFormatDescription format) {
+            for (int i = 0; i < count * format.stride(); i++) {
+                this.bytes.add(MemoryUtil.memGetByte(ptr + i));
+            }
+
+            this.pushCount++;
+        }
+    }
+
+    private static class DiscardingWriter implements VertexBufferWriter {
+        private long vertexCount;
+
+        @Override
+        public void push(MemoryStack stack, long ptr, int count, VertexFormatDescription format) {
+            this.vertexCount += count;
+        }
+    }
+}
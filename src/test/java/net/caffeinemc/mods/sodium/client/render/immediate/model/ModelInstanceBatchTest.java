@@ -0,0 +1,188 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import net.caffeinemc.mods.sodium.api.util.ColorABGR;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessRenderDevice;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelInstanceBatchTest {
+    private static final int HEADER_FLOATS = 8;
+    private static final int PART_FLOATS = 28;
+
+    private HeadlessRenderDevice device;
+    private CommandList commandList;
+
+    private TestModelPart root, body, hiddenArm, hand, invisibleLeg, foot;
+
+    @BeforeEach
+    void setUp() {
+        this.device = new HeadlessRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+
+        // root -> body, hidden arm -> hand, invisible leg -> foot
+        this.hand = new TestModelPart(0.0f, -1.0f, 0.0f, 0.3f, 1);
+        this.hiddenArm = new TestModelPart(2.0f, 0.0f, 0.0f, -0.5f, 1, this.hand);
+        this.body = new TestModelPart(0.0f, 4.0f, 0.0f, 0.2f, 2);
+        this.foot = new TestModelPart(0.0f, -2.0f, 1.0f, 0.0f, 1);
+        this.invisibleLeg = new TestModelPart(-1.0f, -3.0f, 0.0f, 0.1f, 1, this.foot);
+        this.root = new TestModelPart(1.0f, 2.0f, 3.0f, 0.7f, 0, this.body, this.hiddenArm, this.invisibleLeg);
+
+        this.hiddenArm.hidden = true;
+        this.invisibleLeg.visible = false;
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.device.makeInactive();
+    }
+
+    @Test
+    void meshNumbersPartsInTreeOrder() {
+        var mesh = ModelInstanceMesh.create(this.commandList, this.root);
+
+        // every cuboid has six faces, each of which is drawn as two triangles
+        assertEquals(6, mesh.getPartCount());
+        assertEquals(6 * 36, mesh.getVertexCount());
+
+        var tessellation = (HeadlessRenderDevice.HeadlessTessellation) mesh.getTessellation();
+        var buffer = this.device.getContents(tessellation.getBindings()[0].buffer())
+                .order(ByteOrder.nativeOrder());
+        assertEquals(mesh.getVertexCount() * 24, buffer.remaining());
+
+        // the root has no cuboids, and is followed by the body (2 cuboids), arm, hand, leg and foot (1 cuboid each)
+        int[] expectedParts = { 1, 1, 2, 3, 4, 5 };
+
+        for (int cuboid = 0; cuboid < expectedParts.length; cuboid++) {
+            for (int vertex = 0; vertex < 36; vertex++) {
+                int partAndNormal = buffer.getInt((((cuboid * 36) + vertex) * 24) + 20);
+                assertEquals(expectedParts[cuboid], partAndNormal & 0xFFFF, "Wrong part index in cuboid " + cuboid);
+            }
+        }
+
+        mesh.delete(this.commandList);
+        assertEquals(0, this.device.getBufferCount());
+    }
+
+    @Test
+    void instancesArePackedWithPartPoses() {
+        var mesh = ModelInstanceMesh.create(this.commandList, this.root);
+        var batch = new ModelInstanceBatch(mesh);
+
+        assertEquals(2 + (6 * 7), batch.getInstanceTexels());
+
+        var poseStack = new PoseStack();
+        poseStack.translate(5.0f, 6.0f, 7.0f);
+        poseStack.scale(1.0f, -1.0f, 1.0f);
+
+        int light = (240 << 16) | 64, overlay = (10 << 16) | 3, color = ColorABGR.pack(255, 128, 0, 64);
+
+        batch.add(new ModelPoseStack(), poseStack.last(), this.root, light, overlay, color);
+
+        float[] data = batch.getData();
+
+        assertArrayEquals(new float[] { 64, 240, 3, 10, 1.0f, 128 / 255.0f, 0.0f, 64 / 255.0f },
+                Arrays.copyOf(data, HEADER_FLOATS));
+
+        var rootPose = transform(poseStack.last(), this.root);
+        var bodyPose = transform(rootPose, this.body);
+        var armPose = transform(rootPose, this.hiddenArm);
+        var handPose = transform(armPose, this.hand);
+
+        assertPose(data, 0, 0, rootPose);
+        assertPose(data, 0, 1, bodyPose);
+        // a hidden part doesn't draw its own cuboids, but its children are still drawn relative to it
+        assertZeroPose(data, 0, 2);
+        assertPose(data, 0, 3, handPose);
+        // an invisible part hides its whole subtree
+        assertZeroPose(data, 0, 4);
+        assertZeroPose(data, 0, 5);
+
+        mesh.delete(this.commandList);
+    }
+
+    @Test
+    void batchGrowsAndIsReusedAfterClear() {
+        var mesh = ModelInstanceMesh.create(this.commandList, this.root);
+        var batch = new ModelInstanceBatch(mesh);
+        var poses = new ModelPoseStack();
+
+        List<PoseStack.Pose> bases = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            var poseStack = new PoseStack();
+            poseStack.translate(i, 0.0f, -i);
+            bases.add(poseStack.last());
+
+            batch.add(poses, poseStack.last(), this.root, i, 0, -1);
+        }
+
+        assertEquals(100, batch.getInstanceCount());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, batch.getData()[i * batch.getInstanceTexels() * 4]);
+            assertPose(batch.getData(), i * batch.getInstanceTexels() * 4, 1,
+                    transform(transform(bases.get(i), this.root), this.body));
+        }
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+
+        batch.add(poses, new PoseStack().last(), this.root, 42, 0, -1);
+
+        assertEquals(1, batch.getInstanceCount());
+        assertEquals(42, batch.getData()[0]);
+
+        mesh.delete(this.commandList);
+    }
+
+    private static PoseStack.Pose transform(PoseStack.Pose parent, ModelPartData part) {
+        var pose = new PoseStack.Pose(new Matrix4f(parent.pose()), new Matrix3f(parent.normal()));
+        part.applyTransform(pose);
+
+        return pose;
+    }
+
+    private static void assertPose(float[] data, int instanceOffset, int part, PoseStack.Pose expected) {
+        int offset = instanceOffset + HEADER_FLOATS + (part * PART_FLOATS);
+
+        float[] matrix = new float[16];
+        expected.pose().get(matrix);
+
+        for (int i = 0; i < 16; i++) {
+            assertEquals(matrix[i], data[offset + i], 1.0e-5f, "Pose matrix of part " + part + " differs at " + i);
+        }
+
+        Matrix3f normal = expected.normal();
+        float[] columns = {
+                normal.m00, normal.m01, normal.m02, 0.0f,
+                normal.m10, normal.m11, normal.m12, 0.0f,
+                normal.m20, normal.m21, normal.m22, 0.0f
+        };
+
+        for (int i = 0; i < columns.length; i++) {
+            assertEquals(columns[i], data[offset + 16 + i], 1.0e-5f, "Normal matrix of part " + part + " differs at " + i);
+        }
+    }
+
+    private static void assertZeroPose(float[] data, int instanceOffset, int part) {
+        int offset = instanceOffset + HEADER_FLOATS + (part * PART_FLOATS);
+
+        for (int i = 0; i < PART_FLOATS; i++) {
+            assertEquals(0.0f, data[offset + i], "Pose of part " + part + " should be zero");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessRenderDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelInstanceCacheTest {
+    private static final String SOLID = "solid", CUTOUT = "cutout";
+
+    private HeadlessRenderDevice device;
+    private CommandList commandList;
+
+    private ModelInstanceCache<String> cache;
+    private final ModelPoseStack poses = new ModelPoseStack();
+
+    @BeforeEach
+    void setUp() {
+        this.device = new HeadlessRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+        this.cache = new ModelInstanceCache<>(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.device.makeInactive();
+    }
+
+    @Test
+    void instancesAreCollectedPerModelAndKey() {
+        var a = createPart();
+        var b = createPart();
+
+        this.record(a, SOLID);
+        this.record(a, SOLID);
+        this.record(b, SOLID);
+        this.record(a, CUTOUT);
+
+        assertEquals(2, this.cache.getModelCount());
+        assertEquals(3, this.cache.getPendingBatchCount());
+
+        var solid = this.cache.getPendingBatches(SOLID);
+        assertEquals(2, solid.size());
+        assertEquals(2, solid.get(0).getInstanceCount());
+        assertEquals(1, solid.get(1).getInstanceCount());
+
+        this.cache.clearPendingBatches(this.commandList, SOLID);
+
+        assertTrue(this.cache.getPendingBatches(SOLID).isEmpty());
+        assertEquals(1, this.cache.getPendingBatchCount());
+
+        // the batch is registered again once a new instance is recorded after it was drawn
+        this.record(b, SOLID);
+        assertEquals(1, this.cache.getPendingBatches(SOLID).size());
+    }
+
+    @Test
+    void modelsAreEvictedOnInsertWhileBatchesArePending() {
+        var parts = new TestModelPart[10];
+
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = createPart();
+            this.record(parts[i], SOLID);
+
+            // the cache must not grow past its limit, even though nothing has been drawn yet
+            assertTrue(this.cache.getModelCount() <= 4);
+        }
+
+        // the meshes of the evicted models are still used by the pending batch, so they must not be deleted yet
+        assertEquals(6, this.cache.getEvictedModelCount());
+        assertEquals(10, this.device.getBufferCount());
+
+        for (var batch : this.cache.getPendingBatches(SOLID)) {
+            assertNotNull(batch.getMesh().getTessellation(), "Mesh of a pending batch was deleted");
+        }
+
+        this.cache.clearPendingBatches(this.commandList, SOLID);
+
+        assertEquals(0, this.cache.getEvictedModelCount());
+        assertEquals(4, this.device.getBufferCount());
+    }
+
+    @Test
+    void evictedModelsWaitForAllTheirBatches() {
+        var first = createPart();
+        this.record(first, SOLID);
+        this.record(first, CUTOUT);
+
+        for (int i = 0; i < 4; i++) {
+            this.record(createPart(), SOLID);
+        }
+
+        assertEquals(1, this.cache.getEvictedModelCount());
+
+        this.cache.clearPendingBatches(this.commandList, SOLID);
+        assertEquals(1, this.cache.getEvictedModelCount(), "Mesh was deleted while a cutout batch still used it");
+
+        this.cache.clearPendingBatches(this.commandList, CUTOUT);
+        assertEquals(0, this.cache.getEvictedModelCount());
+        assertEquals(4, this.device.getBufferCount());
+    }
+
+    @Test
+    void modelsWithoutPendingInstancesAreDeletedImmediately() {
+        for (int i = 0; i < 4; i++) {
+            this.record(createPart(), SOLID);
+        }
+
+        this.cache.clearPendingBatches(this.commandList, SOLID);
+
+        // recently used models are kept, and the least recently used one is evicted
+        var reused = createPart();
+        this.record(reused, SOLID);
+
+        assertEquals(4, this.cache.getModelCount());
+        assertEquals(0, this.cache.getEvictedModelCount());
+        assertEquals(4, this.device.getBufferCount());
+        assertNotNull(this.cache.getModel(reused));
+    }
+
+    private void record(ModelPartData part, String key) {
+        var model = this.cache.getModel(part);
+
+        if (model == null) {
+            model = this.cache.createModel(this.commandList, part);
+        }
+
+        this.cache.getBatch(model, key)
+                .add(this.poses, new PoseStack().last(), part, 0, 0, -1);
+    }
+
+    private static TestModelPart createPart() {
+        return new TestModelPart(0.0f, 0.0f, 0.0f, 0.0f, 1);
+    }
+}
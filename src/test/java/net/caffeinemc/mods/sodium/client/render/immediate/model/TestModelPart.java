@@ -0,0 +1,85 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
+import net.minecraft.core.Direction;
+
+import java.util.EnumSet;
+
+/**
+ * A model part which can be created without a game instance, since the parts of the game can only be created from
+ * baked model definitions.
+ */
+class TestModelPart implements ModelPartData {
+    private final ModelCuboid[] cuboids;
+    private final ModelPartData[] children;
+
+    final float x, y, z;
+    final float xRot;
+
+    float yRot, zRot;
+    float xScale = 1.0f, yScale = 1.0f, zScale = 1.0f;
+
+    boolean visible = true;
+    boolean hidden;
+
+    TestModelPart(float x, float y, float z, float xRot, int cuboidCount, ModelPartData... children) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.xRot = xRot;
+
+        this.cuboids = new ModelCuboid[cuboidCount];
+
+        for (int i = 0; i < cuboidCount; i++) {
+            this.cuboids[i] = new ModelCuboid(0, 0, -1.0f, -1.0f, -1.0f, 2 + i, 2, 2, 0.0f, 0.0f, 0.0f,
+                    false, 64.0f, 64.0f, EnumSet.allOf(Direction.class));
+        }
+
+        this.children = children;
+    }
+
+    @Override
+    public ModelCuboid[] getCuboids() {
+        return this.cuboids;
+    }
+
+    @Override
+    public ModelPartData[] getChildren() {
+        return this.children;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return this.visible;
+    }
+
+    @Override
+    public boolean isHidden() {
+        return this.hidden;
+    }
+
+    @Override
+    public void translateAndRotate(PoseStack poseStack) {
+        this.applyTransform(poseStack.last());
+    }
+
+    /**
+     * Applies the transform in the same way as the model part mixin, except that the translation isn't given in
+     * sixteenths of a block.
+     */
+    @Override
+    public void applyTransform(PoseStack.Pose pose) {
+        pose.pose().translate(this.x, this.y, this.z);
+        MatrixHelper.rotateZYX(pose, this.zRot, this.yRot, this.xRot);
+
+        pose.pose().scale(this.xScale, this.yScale, this.zScale);
+
+        if (Math.abs(this.xScale) != Math.abs(this.yScale) || Math.abs(this.yScale) != Math.abs(this.zScale)) {
+            pose.normal().scale(1.0f / this.xScale, 1.0f / this.yScale, 1.0f / this.zScale);
+            pose.trustedNormals = false;
+        } else if (this.xScale < 0.0f || this.yScale < 0.0f || this.zScale < 0.0f) {
+            pose.normal().scale(Math.signum(this.xScale), Math.signum(this.yScale), Math.signum(this.zScale));
+        }
+    }
+}
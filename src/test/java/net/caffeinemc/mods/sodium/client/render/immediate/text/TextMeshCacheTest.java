@@ -0,0 +1,288 @@
+package net.caffeinemc.mods.sodium.client.render.immediate.text;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import net.caffeinemc.mods.sodium.api.math.MatrixHelper;
+import net.caffeinemc.mods.sodium.api.vertex.buffer.VertexBufferWriter;
+import net.caffeinemc.mods.sodium.api.vertex.format.VertexFormatDescription;
+import net.caffeinemc.mods.sodium.api.vertex.format.common.GlyphVertex;
+import net.minecraft.client.gui.Font;
+import net.minecraft.util.FormattedCharSequence;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the layout and the caching behavior of text meshes. The meshes are built directly with a builder instead of
+ * laying out text with a font, so that no game instance is needed.
+ */
+class TextMeshCacheTest {
+    @Test
+    void textIsCachedOnSecondSighting() {
+        var cache = new TextMeshCache(Long.MAX_VALUE, 1024);
+        var key = key("Hello");
+
+        assertNull(cache.lookup(key));
+        assertEquals(0, cache.getEntryCount(), "Text which was drawn once should not create an entry");
+
+        var entry = cache.lookup(key);
+        assertNotNull(entry);
+        assertNull(entry.getMesh());
+
+        var mesh = buildMesh(new Random(1L), 5, 0.0f, 0.0f);
+        cache.store(entry, mesh);
+
+        assertSame(mesh, cache.lookup(key).getMesh());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    void repeatedTextIsServedFromCache() {
+        var cache = new TextMeshCache(Long.MAX_VALUE, 1024);
+        var random = new Random(2L);
+
+        int staticCount = 40, oneOffCount = 30, frames = 100;
+        int lookups = 0, hits = 0, staticHits = 0;
+
+        for (int frame = 0; frame < frames; frame++) {
+            for (int i = 0; i < staticCount + oneOffCount; i++) {
+                // the static text is drawn every frame, like a scoreboard, while the other text changes every frame,
+                // like the values on the debug screen
+                boolean isStatic = i < staticCount;
+                var key = key(isStatic ? "Static line " + i : "Frame " + frame + " value " + i);
+
+                var entry = cache.lookup(key);
+                lookups++;
+
+                if (entry == null) {
+                    continue;
+                }
+
+                if (entry.getMesh() == null) {
+                    cache.store(entry, buildMesh(random, 8, 0.0f, 0.0f));
+                    continue;
+                }
+
+                hits++;
+
+                if (isStatic) {
+                    staticHits++;
+                }
+            }
+        }
+
+        // all of the static text is served from the cache after two frames, which is 56% of the lookups
+        double hitRate = (double) hits / lookups;
+        assertTrue(hitRate > 0.55, "Hit rate of " + hitRate + " over " + lookups + " lookups");
+
+        // static text is a miss on the frame it is first drawn, and the frame it is cached on, and at most one more
+        // frame if its hash was replaced by other text in between
+        assertTrue(staticHits >= staticCount * (frames - 3), "Static text was only served from the cache " + staticHits + " times");
+        assertEquals(staticHits, hits, "Text drawn only once should never be a hit");
+
+        // the one-off text must not have created entries, which leaves some room for hash collisions
+        assertTrue(cache.getEntryCount() <= staticCount + 4, "Cache contains " + cache.getEntryCount() + " entries");
+    }
+
+    @Test
+    void entryCountIsBounded() {
+        var cache = new TextMeshCache(Long.MAX_VALUE, 16);
+        var random = new Random(3L);
+
+        for (int i = 0; i < 100; i++) {
+            var key = key("Line " + i);
+
+            cache.lookup(key);
+            cache.store(cache.lookup(key), buildMesh(random, 1, 0.0f, 0.0f));
+
+            assertTrue(cache.getEntryCount() <= 16);
+        }
+
+        assertEquals(16, cache.getEntryCount());
+
+        // the least recently used entries are evicted first
+        assertNotNull(cache.lookup(key("Line 99")).getMesh());
+        assertNotNull(cache.lookup(key("Line 84")).getMesh());
+    }
+
+    @Test
+    void memoryUsageIsBounded() {
+        var cache = new TextMeshCache(16 * 1024, 1024);
+        var random = new Random(4L);
+
+        for (int i = 0; i < 100; i++) {
+            var key = key("Paragraph " + i);
+
+            cache.lookup(key);
+            cache.store(cache.lookup(key), buildMesh(random, 20, 0.0f, 0.0f));
+
+            assertTrue(cache.getMemoryUsage() <= 16 * 1024);
+        }
+
+        assertTrue(cache.getEntryCount() > 1);
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getMemoryUsage());
+
+        // the text seen before clearing the cache must be seen twice again
+        assertNull(cache.lookup(key("Paragraph 99")));
+    }
+
+    @Test
+    void formattedSequencesAccountForRetainedText() {
+        var stringCache = new TextMeshCache(Long.MAX_VALUE, 1024);
+        var sequenceCache = new TextMeshCache(Long.MAX_VALUE, 1024);
+
+        String text = "a".repeat(100);
+        FormattedCharSequence sequence = sink -> {
+            for (int i = 0; i < text.length(); i++) {
+                if (!sink.accept(i, null, text.charAt(i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        };
+
+        var stringKey = key(text);
+        stringCache.lookup(stringKey);
+        stringCache.lookup(stringKey);
+
+        var sequenceKey = key(sequence);
+        sequenceCache.lookup(sequenceKey);
+        sequenceCache.lookup(sequenceKey);
+
+        // the sequence keeps the components it was created from alive, which take more memory than the string
+        assertTrue(sequenceCache.getMemoryUsage() > stringCache.getMemoryUsage() + (text.length() * 8L));
+    }
+
+    @Test
+    void cachedQuadsMatchDirectLayout() {
+        var random = new Random(5L);
+
+        var matrix = new Matrix4f()
+                .translate(3.0f, -2.0f, 0.5f)
+                .rotateZ(0.3f)
+                .scale(0.025f, -0.025f, 0.025f);
+
+        float originX = 12.5f, originY = 7.25f;
+        int light = 0x00F000A0;
+
+        // more quads than are pushed at once, so that the mesh is written in two parts
+        var quads = createQuads(random, 300, originX, originY);
+        var mesh = buildMesh(quads, originX, originY);
+
+        assertEquals(300, mesh.getQuadCount());
+        assertEquals(300 * 6.0f, mesh.getAdvance(), 1.0e-3f);
+
+        // drawn at the position it was laid out at, the mesh must produce the same vertices as drawing the glyphs
+        this.assertLayout(mesh, quads, originX, originY, 0.0f, 0.0f, matrix, light);
+
+        // drawn at another position, all vertices must be moved by the same offset
+        this.assertLayout(mesh, quads, -40.0f, 3.0f, -40.0f - originX, 3.0f - originY, matrix, light);
+    }
+
+    private void assertLayout(TextMesh mesh, float[][] quads, float x, float y, float offsetX, float offsetY,
+                              Matrix4f matrix, int light) {
+        var writer = new CapturingWriter();
+        TextMeshCache.write(writer, mesh, 0, mesh.getQuadCount(), x, y, matrix, light);
+
+        assertEquals(2, writer.pushCount);
+
+        ByteBuffer actual = ByteBuffer.wrap(writer.bytes.toByteArray())
+                .order(ByteOrder.nativeOrder());
+        assertEquals(quads.length * 4 * GlyphVertex.STRIDE, actual.remaining());
+
+        for (int vertex = 0; vertex < quads.length * 4; vertex++) {
+            float[] expected = quads[vertex / 4];
+            int attributes = (vertex % 4) * 6;
+            int offset = vertex * GlyphVertex.STRIDE;
+
+            float posX = expected[attributes + 0] + offsetX;
+            float posY = expected[attributes + 1] + offsetY;
+            float posZ = expected[attributes + 2];
+
+            assertEquals(MatrixHelper.transformPositionX(matrix, posX, posY, posZ), actual.getFloat(offset + 0), 1.0e-4f);
+            assertEquals(MatrixHelper.transformPositionY(matrix, posX, posY, posZ), actual.getFloat(offset + 4), 1.0e-4f);
+            assertEquals(MatrixHelper.transformPositionZ(matrix, posX, posY, posZ), actual.getFloat(offset + 8), 1.0e-4f);
+            assertEquals(Float.floatToRawIntBits(expected[attributes + 3]), actual.getInt(offset + 12));
+            assertEquals(expected[attributes + 4], actual.getFloat(offset + 16));
+            assertEquals(expected[attributes + 5], actual.getFloat(offset + 20));
+            assertEquals(light, actual.getInt(offset + 24));
+        }
+    }
+
+    /**
+     * Creates the quads of a line of glyphs in the same way as they are laid out by a baked glyph, where each vertex
+     * is stored as (x, y, z, color, u, v) with the color stored as the bits of a float.
+     */
+    private static float[][] createQuads(Random random, int count, float originX, float originY) {
+        float[][] quads = new float[count][];
+
+        for (int i = 0; i < count; i++) {
+            float x1 = originX + (i * 6.0f), x2 = x1 + 5.0f;
+            float y1 = originY, y2 = originY + 8.0f;
+            float w1 = random.nextBoolean() ? 1.0f - 0.25f * y1 : 0.0f;
+            float w2 = w1 != 0.0f ? 1.0f - 0.25f * y2 : 0.0f;
+
+            // the exponent is never all ones, so that the bits of the color are never a NaN
+            float color = Float.intBitsToFloat(random.nextInt() & 0x7F7FFFFF);
+            float u0 = random.nextFloat(), u1 = u0 + 0.01f, v0 = random.nextFloat(), v1 = v0 + 0.01f;
+
+            quads[i] = new float[] {
+                    x1 + w1, y1, 0.0f, color, u0, v0,
+                    x1 + w2, y2, 0.0f, color, u0, v1,
+                    x2 + w2, y2, 0.0f, color, u1, v1,
+                    x2 + w1, y1, 0.0f, color, u1, v0
+            };
+        }
+
+        return quads;
+    }
+
+    private static TextMesh buildMesh(Random random, int quadCount, float originX, float originY) {
+        return buildMesh(createQuads(random, quadCount, originX, originY), originX, originY);
+    }
+
+    private static TextMesh buildMesh(float[][] quads, float originX, float originY) {
+        var builder = new TextMesh.Builder(originX, originY);
+
+        for (float[] quad : quads) {
+            // the render types are only needed to draw the mesh with a buffer source
+            builder.beginQuad(null);
+
+            for (int vertex = 0; vertex < 4; vertex++) {
+                int offset = vertex * 6;
+                builder.addVertex(quad[offset + 0], quad[offset + 1], quad[offset + 2],
+                        Float.floatToRawIntBits(quad[offset + 3]), quad[offset + 4], quad[offset + 5]);
+            }
+        }
+
+        return builder.build(originX + (quads.length * 6.0f));
+    }
+
+    private static TextMeshCache.Key key(Object text) {
+        return new TextMeshCache.Key(null, text, 0xFFFFFFFF, false, Font.DisplayMode.NORMAL, 0);
+    }
+
+    private static class CapturingWriter implements VertexBufferWriter {
+        private final ByteArrayList bytes = new ByteArrayList();
+        private int pushCount;
+
+        @Override
+        public void push(MemoryStack stack, long ptr, int count, VertexFormatDescription format) {
+            for (int i = 0; i < count * format.stride(); i++) {
+                this.bytes.add(MemoryUtil.memGetByte(ptr + i));
+            }
+
+            this.pushCount++;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package net.caffeinemc.mods.sodium.client.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a benchmark. Benchmarks are excluded from the unit tests and only run by the {@code benchmark} task, since
+ * their results depend on the machine running them. They report their results with a {@link BenchmarkReport}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@Test
+public @interface Benchmark {
+}
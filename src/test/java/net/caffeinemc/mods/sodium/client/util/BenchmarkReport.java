@@ -0,0 +1,69 @@
+package net.caffeinemc.mods.sodium.client.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the results of a benchmark, and writes them as JSON into the directory given by the
+ * {@code sodium.benchmark.output} system property, so that the results of different runs can be compared.
+ */
+public class BenchmarkReport {
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .create();
+
+    private final String name;
+    private final Map<String, Object> results = new LinkedHashMap<>();
+
+    public BenchmarkReport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the body for a number of rounds so that it is compiled, and then measures it for a number of rounds.
+     *
+     * @return The median duration of the measured rounds, in nanoseconds
+     */
+    public static long measure(int warmupRounds, int rounds, Runnable body) {
+        for (int i = 0; i < warmupRounds; i++) {
+            body.run();
+        }
+
+        long[] times = new long[rounds];
+
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            body.run();
+            times[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(times);
+
+        return times[rounds / 2];
+    }
+
+    public BenchmarkReport put(String key, Object value) {
+        this.results.put(key, value);
+
+        return this;
+    }
+
+    public void write() {
+        Path directory = Path.of(System.getProperty("sodium.benchmark.output", "build/reports/benchmarks"));
+
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(this.name + ".json"), GSON.toJson(this.results));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write benchmark report " + this.name, e);
+        }
+    }
+}
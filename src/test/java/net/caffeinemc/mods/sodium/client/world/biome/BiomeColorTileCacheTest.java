@@ -0,0 +1,257 @@
+package net.caffeinemc.mods.sodium.client.world.biome;
+
+import net.caffeinemc.mods.sodium.client.util.Benchmark;
+import net.caffeinemc.mods.sodium.client.util.BenchmarkReport;
+import net.minecraft.world.level.ColorResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BiomeColorTileCacheTest {
+    private static final ColorResolver RESOLVER = (biome, x, z) -> 0;
+    private static final ColorResolver[] RESOLVERS = {
+            RESOLVER,
+            (biome, x, z) -> 1,
+            (biome, x, z) -> 2
+    };
+
+    // the size of a tile with the default neighbor radius, plus the overhead
+    private static final int TILE_LENGTH = 20 * 20;
+    private static final long TILE_BYTES = TILE_LENGTH * Integer.BYTES + 32;
+
+    // the sections around the surface which contain colored blocks
+    private static final int SURFACE_SECTION_Y = 4;
+    private static final int SURFACE_SECTIONS = 2;
+
+    private BiomeColorTileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        this.cache = new BiomeColorTileCache(2, BiomeColorTileCache.getMaxMemoryUsage(12));
+    }
+
+    @Test
+    void tilesAreReturnedUntilTheirColumnIsInvalidated() {
+        int[] colors = new int[16];
+        this.cache.putTile(RESOLVER, 0, 0, 64, colors, this.cache.getVersion());
+
+        assertSame(colors, this.cache.getTile(RESOLVER, 0, 0, 64));
+
+        // only the directly adjacent chunks affect the blended colors
+        this.cache.invalidateChunk(2, 0);
+        assertSame(colors, this.cache.getTile(RESOLVER, 0, 0, 64));
+
+        this.cache.invalidateChunk(1, 1);
+        assertNull(this.cache.getTile(RESOLVER, 0, 0, 64));
+    }
+
+    @Test
+    void staleTilesAreOnlyRejectedInInvalidatedColumns() {
+        int version = this.cache.getVersion();
+
+        // the biome data of one chunk changes while the tiles are being computed
+        this.cache.invalidateChunk(10, 10);
+
+        this.cache.putTile(RESOLVER, 0, 0, 64, new int[16], version);
+        this.cache.putTile(RESOLVER, 10, 11, 64, new int[16], version);
+
+        assertNotNull(this.cache.getTile(RESOLVER, 0, 0, 64));
+        assertNull(this.cache.getTile(RESOLVER, 10, 11, 64));
+
+        // tiles computed from data copied after the invalidation are accepted again
+        this.cache.putTile(RESOLVER, 10, 11, 64, new int[16], this.cache.getVersion());
+        assertNotNull(this.cache.getTile(RESOLVER, 10, 11, 64));
+    }
+
+    @Test
+    void forgottenInvalidationsRejectOlderTiles() {
+        int version = this.cache.getVersion();
+
+        // invalidate enough distinct chunks that the remembered columns are cleared at least once
+        for (int x = 0; x < 1024; x++) {
+            this.cache.invalidateChunk(x * 3, 100);
+        }
+
+        this.cache.putTile(RESOLVER, 0, 100, 64, new int[16], version);
+        assertNull(this.cache.getTile(RESOLVER, 0, 100, 64));
+
+        this.cache.putTile(RESOLVER, 0, 100, 64, new int[16], this.cache.getVersion());
+        assertNotNull(this.cache.getTile(RESOLVER, 0, 100, 64));
+    }
+
+    @Test
+    void memoryUsageScalesWithRenderDistance() {
+        long maxHeapUsage = Runtime.getRuntime().maxMemory() / 32;
+
+        assertTrue(BiomeColorTileCache.getMaxMemoryUsage(2) <= BiomeColorTileCache.getMaxMemoryUsage(12));
+        assertTrue(BiomeColorTileCache.getMaxMemoryUsage(12) <= BiomeColorTileCache.getMaxMemoryUsage(32));
+        assertTrue(BiomeColorTileCache.getMaxMemoryUsage(32) <= Math.max(maxHeapUsage, 4L * 1024 * 1024));
+    }
+
+    @Test
+    void leastRecentlyUsedColumnsAreEvictedByMemoryUsage() {
+        var cache = new BiomeColorTileCache(2, TILE_BYTES * 4);
+
+        for (int x = 0; x < 4; x++) {
+            cache.putTile(RESOLVER, x, 0, 64, new int[TILE_LENGTH], cache.getVersion());
+        }
+        assertEquals(TILE_BYTES * 4, cache.getMemoryUsage());
+
+        // the first column is used again, so the second is evicted first
+        assertNotNull(cache.getTile(RESOLVER, 0, 0, 64));
+        cache.putTile(RESOLVER, 4, 0, 64, new int[TILE_LENGTH], cache.getVersion());
+
+        assertEquals(TILE_BYTES * 4, cache.getMemoryUsage());
+        assertNotNull(cache.getTile(RESOLVER, 0, 0, 64));
+        assertNull(cache.getTile(RESOLVER, 1, 0, 64));
+        assertNotNull(cache.getTile(RESOLVER, 4, 0, 64));
+    }
+
+    @Test
+    void invalidatedColumnsReleaseTheirMemory() {
+        this.cache.putTile(RESOLVER, 0, 0, 64, new int[TILE_LENGTH], this.cache.getVersion());
+        this.cache.putTile(RESOLVER, 0, 0, 65, new int[TILE_LENGTH], this.cache.getVersion());
+        assertEquals(TILE_BYTES * 2, this.cache.getMemoryUsage());
+
+        this.cache.invalidateChunk(0, 0);
+        assertEquals(0, this.cache.getMemoryUsage());
+    }
+
+    @Test
+    void rebuildsAroundThePlayerHit() {
+        var stats = simulate(this.cache, 12, 50, false, new Random(1L));
+
+        // only the first rebuild of each section around the player misses
+        assertTrue(stats.rebuildHitRate() > 0.8, "Rebuild hit rate was " + stats.rebuildHitRate());
+    }
+
+    @Test
+    void sharedLayersHitWhileLoading() {
+        var stats = simulate(this.cache, 12, 4, true, new Random(2L));
+
+        // the lower section of each column misses, and the upper section hits the four layers it shares with it
+        assertEquals(4.0 / 20.0 / 2.0, stats.loadHitRate(), 1e-9);
+    }
+
+    @Benchmark
+    void benchmarkHitRate() {
+        var report = new BenchmarkReport("biome_color_tile_cache");
+
+        for (int renderDistance : new int[] { 8, 12, 32 }) {
+            long maxMemoryUsage = BiomeColorTileCache.getMaxMemoryUsage(renderDistance);
+            var prefix = "render_distance_" + renderDistance;
+            report.put(prefix + "_max_memory_bytes", maxMemoryUsage);
+
+            for (boolean walking : new boolean[] { false, true }) {
+                var scenario = prefix + (walking ? "_walking" : "_stationary");
+                var sized = simulate(new BiomeColorTileCache(2, maxMemoryUsage), renderDistance, 64, walking,
+                        new Random(3L));
+
+                // the previous fixed limit of 8192 tiles
+                var fixed = simulate(new BiomeColorTileCache(2, 8192 * TILE_BYTES), renderDistance, 64, walking,
+                        new Random(3L));
+
+                report.put(scenario + "_load_hit_rate", sized.loadHitRate())
+                        .put(scenario + "_rebuild_hit_rate", sized.rebuildHitRate())
+                        .put(scenario + "_fixed_load_hit_rate", fixed.loadHitRate())
+                        .put(scenario + "_fixed_rebuild_hit_rate", fixed.rebuildHitRate());
+            }
+        }
+
+        report.write();
+    }
+
+    /**
+     * Simulates the chunk builds of a player who is building around them, and who might be walking along the x axis.
+     * Each step rebuilds some of the sections around the player, and if they're walking, loads the row of columns which
+     * enters the render distance first.
+     */
+    private static HitStats simulate(BiomeColorTileCache cache, int renderDistance, int steps, boolean walking,
+                                     Random random) {
+        var stats = new HitStats();
+
+        // the initial load isn't counted
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                buildColumn(cache, x, z, new HitStats());
+            }
+        }
+
+        int playerX = 0;
+
+        for (int step = 0; step < steps; step++) {
+            if (walking) {
+                playerX++;
+
+                for (int z = -renderDistance; z <= renderDistance; z++) {
+                    buildColumn(cache, playerX + renderDistance, z, stats);
+                }
+            }
+
+            for (int i = 0; i < 8; i++) {
+                int x = playerX + random.nextInt(5) - 2;
+                int z = random.nextInt(5) - 2;
+                int y = SURFACE_SECTION_Y + random.nextInt(SURFACE_SECTIONS);
+                stats.rebuild(buildSection(cache, x, y, z));
+            }
+        }
+
+        return stats;
+    }
+
+    private static void buildColumn(BiomeColorTileCache cache, int x, int z, HitStats stats) {
+        for (int y = SURFACE_SECTION_Y; y < SURFACE_SECTION_Y + SURFACE_SECTIONS; y++) {
+            stats.load(buildSection(cache, x, y, z));
+        }
+    }
+
+    /**
+     * Looks up the tiles of a section like a chunk build does, and computes the missing ones.
+     *
+     * @return The number of tiles which were found in the cache
+     */
+    private static int buildSection(BiomeColorTileCache cache, int x, int y, int z) {
+        int version = cache.getVersion();
+        int hits = 0;
+
+        for (var resolver : RESOLVERS) {
+            for (int blockY = y * 16 - 2; blockY < y * 16 + 18; blockY++) {
+                if (cache.getTile(resolver, x, z, blockY) != null) {
+                    hits++;
+                } else {
+                    cache.putTile(resolver, x, z, blockY, new int[TILE_LENGTH], version);
+                }
+            }
+        }
+
+        return hits;
+    }
+
+    private static class HitStats {
+        private static final int TILES_PER_SECTION = RESOLVERS.length * 20;
+
+        private long loadHits, loadTiles;
+        private long rebuildHits, rebuildTiles;
+
+        void load(int hits) {
+            this.loadHits += hits;
+            this.loadTiles += TILES_PER_SECTION;
+        }
+
+        void rebuild(int hits) {
+            this.rebuildHits += hits;
+            this.rebuildTiles += TILES_PER_SECTION;
+        }
+
+        double loadHitRate() {
+            return (double) this.loadHits / this.loadTiles;
+        }
+
+        double rebuildHitRate() {
+            return (double) this.rebuildHits / this.rebuildTiles;
+        }
+    }
+}